@@ -0,0 +1,62 @@
+package main.java.tracker;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Неблокирующий вариант {@link TaskManager}: каждый метод сразу возвращает
+ * CompletableFuture, который завершается результатом операции либо её
+ * исключением. Порядок записей одного эпика сохраняется; записи разных
+ * эпиков и чтения друг друга не ждут. Чтобы прочитать свою запись, нужно
+ * дождаться её future.
+ * <p>
+ * Ленивого потока streamAllTasks здесь нет: его обход всё равно шёл бы
+ * в потоке вызывающего.
+ */
+public interface AsyncTaskManager {
+
+    /**
+     * Завершается той же задачей, которой к этому моменту выдан ID.
+     */
+    <T extends Task> CompletableFuture<T> addNewTask(T task);
+
+    /**
+     * Одновременные чтения одного ID, начатые после последней завершённой
+     * записи, выполняются одним обращением к хранилищу.
+     */
+    CompletableFuture<Task> getTaskById(int id);
+
+    CompletableFuture<List<Task>> getAllTasks();
+
+    CompletableFuture<TaskPage> getTasksPage(int afterId, int limit);
+
+    CompletableFuture<Void> updateTask(Task task);
+
+    CompletableFuture<Void> deleteTaskOnId(int id);
+
+    CompletableFuture<Void> applyBatch(TaskBatch batch);
+
+    CompletableFuture<List<Task>> getHistory();
+
+    CompletableFuture<List<Task>> getPrioritizedTasks();
+
+    CompletableFuture<List<Task>> search(String query, int limit);
+
+    CompletableFuture<TaskSnapshot> snapshot();
+
+    CompletableFuture<List<Subtask>> getSubtasksByEpic(int id);
+
+    CompletableFuture<List<Task>> getTasksByStatus(Status status);
+
+    CompletableFuture<List<Task>> getTasksByStatus(TaskType type, Status status);
+
+    CompletableFuture<Integer> countByStatus(Status status);
+
+    CompletableFuture<Integer> countByStatus(TaskType type, Status status);
+
+    CompletableFuture<Integer> countByType(TaskType type);
+
+    CompletableFuture<List<Subtask>> getSubtasksByEpic(int epicId, Status status);
+
+    CompletableFuture<Integer> countSubtasksByEpic(int epicId, Status status);
+}
@@ -1,23 +1,380 @@
 package main.java.tracker;
 
+import main.java.tracker.util.IntHashMap;
+import main.java.tracker.util.OrderedIntMap;
+import main.java.tracker.util.TimeWindow;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 
 public class Epic extends Task {
+    private static final int STATUS_COUNT = Status.values().length;
 
-    private List<Subtask> subtasks = new ArrayList<>();
+    /**
+     * Подзадачи по ID в порядке добавления: добавление, удаление и проверка
+     * принадлежности — за O(1), а одна подзадача не попадает в эпик дважды.
+     * Создаётся при первой подзадаче: эпики без подзадач и копии эпиков
+     * обходятся без таблиц.
+     */
+    private OrderedIntMap<Subtask> subtasks;
+    private List<Subtask> subtaskValues;
+    private List<Subtask> subtasksView;
+    /**
+     * Количество подзадач в каждом статусе (индекс — Status.ordinal()).
+     * Поддерживается инкрементально, поэтому статус эпика считается за O(1).
+     */
+    private final int[] statusCounts = new int[STATUS_COUNT];
+    /**
+     * Подзадачи по учтённому статусу; меняются вместе со счётчиками,
+     * так что выборка подзадач эпика в одном статусе не обходит остальные.
+     * Таблица статуса создаётся при первой подзадаче в нём.
+     */
+    private IntHashMap<Subtask>[] subtasksByStatus;
+    /**
+     * Окно подзадач со временем начала; null, пока таких подзадач нет.
+     */
+    private TimeWindow window;
+    /**
+     * Конец окна эпика без подзадач, например копии.
+     */
+    private LocalDateTime endTime;
+    /**
+     * Замороженная копия текущего состояния; сбрасывается при любом изменении
+     * эпика, так что замороженные подзадачи одного эпика делят одного родителя.
+     */
+    private volatile Epic frozenView;
 
     public Epic(String title, String description, Status status) {
         super(title, description, status);
     }
 
+    /**
+     * Копия хранит статус и окно времени эпика на момент копирования, но не список подзадач.
+     */
+    @Override
+    public Epic copy() {
+        Epic copy = new Epic(getTitle(), getDescription(), getStatus());
+        copy.setId(getId());
+        copyTimeTo(copy);
+        copy.endTime = getEndTime();
+        return copy;
+    }
+
+    /**
+     * Одна замороженная копия на состояние эпика: пока эпик не меняется,
+     * повторные вызовы возвращают её же.
+     */
+    @Override
+    Epic frozenCopy() {
+        Epic frozen = frozenView;
+        if (frozen == null || frozen.getId() != getId()) {
+            frozen = copy();
+            frozen.freeze();
+            frozenView = frozen;
+        }
+        return frozen;
+    }
+
+    /**
+     * Любое изменение эпика проходит через эту проверку, поэтому здесь же
+     * сбрасывается закэшированная замороженная копия.
+     */
+    @Override
+    void checkMutable() {
+        super.checkMutable();
+        frozenView = null;
+    }
+
+    /**
+     * Задаёт конец окна эпика без подзадач, если он не равен началу плюс
+     * длительность: между подзадачами бывают перерывы.
+     */
+    public void setEndTime(LocalDateTime endTime) {
+        checkMutable();
+        this.endTime = endTime;
+    }
+
+    /**
+     * Самое раннее начало подзадач; у эпика без подзадач — установленное начало.
+     */
+    @Override
+    public LocalDateTime getStartTime() {
+        if (isEmpty()) {
+            return super.getStartTime();
+        }
+        return window != null ? window.getStartTime() : null;
+    }
+
+    /**
+     * Сумма длительностей подзадач со временем начала; у эпика без подзадач — установленная.
+     */
+    @Override
+    public Duration getDuration() {
+        if (isEmpty()) {
+            return super.getDuration();
+        }
+        return window != null ? window.getDuration() : null;
+    }
+
+    /**
+     * Самый поздний конец подзадач, а не начало плюс сумма длительностей.
+     */
+    @Override
+    public LocalDateTime getEndTime() {
+        if (isEmpty()) {
+            return endTime != null ? endTime : super.getEndTime();
+        }
+        return window != null ? window.getEndTime() : null;
+    }
+
+    /**
+     * Подзадачи эпика в порядке добавления: представление только для чтения
+     * без копирования, которое отражает дальнейшие изменения эпика.
+     */
     public List<Subtask> getSubtasks() {
-        return subtasks;
+        if (subtasksView == null) {
+            subtasksView = new SubtasksView();
+        }
+        return subtasksView;
+    }
+
+    public boolean containsSubtask(int id) {
+        return subtasks != null && subtasks.containsKey(id);
     }
 
+    /**
+     * Добавляет подзадачу в конец списка. Повторное добавление того же
+     * экземпляра ничего не меняет, другой экземпляр с тем же ID заменяет
+     * прежний на его месте.
+     */
     public void addSubtask(Subtask subtask) {
-        this.subtasks.add(subtask);
+        checkMutable();
+        Subtask previous = subtasks().put(subtask.getId(), subtask);
+        if (previous == subtask) {
+            return;
+        }
+        if (previous != null) {
+            uncount(previous);
+        }
+        count(subtask);
+    }
+
+    public boolean removeSubtask(Subtask subtask) {
+        checkMutable();
+        Subtask removed = subtasks != null ? subtasks.remove(subtask.getId()) : null;
+        if (removed == null) {
+            return false;
+        }
+        uncount(removed);
+        return true;
+    }
+
+    /**
+     * Заменяет хранимый экземпляр подзадачи новым с тем же ID.
+     */
+    public void replaceSubtask(Subtask previous, Subtask subtask) {
+        checkMutable();
+        if (previous.getId() != subtask.getId()) {
+            removeSubtask(previous);
+        }
+        addSubtask(subtask);
+    }
+
+    /**
+     * Переносит в счётчики и окно эпика изменение статуса или времени
+     * подзадачи, сделанное после её учёта.
+     */
+    public void refreshSubtaskStatus(Subtask subtask) {
+        checkMutable();
+        if (subtask.getCountedStatus() != subtask.getStatus()
+                || !Objects.equals(subtask.getCountedStartTime(), subtask.getStartTime())
+                || !Objects.equals(subtask.getCountedDuration(), subtask.getDuration())) {
+            uncount(subtask);
+            count(subtask);
+        }
+    }
+
+    /**
+     * Переносит подзадачи из заменяемого экземпляра эпика с тем же ID,
+     * перенаправляя их ссылку на родителя на этот экземпляр.
+     */
+    public void takeSubtasksFrom(Epic previous) {
+        checkMutable();
+        if (previous == this || previous.isEmpty()) {
+            return;
+        }
+        for (Subtask subtask : previous.subtaskValues) {
+            subtask.setParentEpic(this);
+            Subtask replaced = subtasks().put(subtask.getId(), subtask);
+            if (replaced != null) {
+                uncount(replaced);
+            }
+            addCounted(subtask);
+        }
+        previous.clearSubtasks();
     }
-}
 
+    public void clearSubtasks() {
+        checkMutable();
+        if (subtasks == null) {
+            return;
+        }
+        subtasks.clear();
+        window = null;
+        for (int i = 0; i < STATUS_COUNT; i++) {
+            statusCounts[i] = 0;
+            if (subtasksByStatus[i] != null) {
+                subtasksByStatus[i].clear();
+            }
+        }
+    }
+
+    public int getSubtaskCount(Status status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    /**
+     * Подзадачи эпика в данном статусе, за время, пропорциональное их числу.
+     * Порядок не определён.
+     */
+    public List<Subtask> getSubtasks(Status status) {
+        IntHashMap<Subtask> inStatus = subtasksByStatus != null ? subtasksByStatus[status.ordinal()] : null;
+        return inStatus != null ? new ArrayList<>(inStatus.values()) : new ArrayList<>();
+    }
+
+    /**
+     * Статус по счётчикам подзадач; у эпика без подзадач — установленный статус.
+     */
+    @Override
+    public Status getStatus() {
+        int total = subtasks != null ? subtasks.size() : 0;
+        if (total == 0) {
+            return super.getStatus();
+        }
+        if (statusCounts[Status.NEW.ordinal()] == total) {
+            return Status.NEW;
+        }
+        if (statusCounts[Status.DONE.ordinal()] == total) {
+            return Status.DONE;
+        }
+        return Status.IN_PROGRESS;
+    }
 
+    /**
+     * Статус, вычисленный полным обходом подзадач. Нужен для проверки счётчиков.
+     */
+    public Status computeStatusByScan() {
+        if (isEmpty()) {
+            return super.getStatus();
+        }
+        boolean allNew = true;
+        boolean allDone = true;
+        for (Subtask subtask : subtaskValues) {
+            Status status = subtask.getStatus();
+            if (status != Status.NEW) {
+                allNew = false;
+            }
+            if (status != Status.DONE) {
+                allDone = false;
+            }
+        }
+        if (allNew) {
+            return Status.NEW;
+        } else if (allDone) {
+            return Status.DONE;
+        }
+        return Status.IN_PROGRESS;
+    }
+
+    private void count(Subtask subtask) {
+        subtask.setCountedStatus(subtask.getStatus());
+        subtask.setCountedTime(subtask.getStartTime(), subtask.getDuration());
+        addCounted(subtask);
+    }
+
+    /**
+     * Учитывает подзадачу под уже запомненными в ней статусом и временем.
+     */
+    private void addCounted(Subtask subtask) {
+        int counted = subtask.getCountedStatus().ordinal();
+        statusCounts[counted]++;
+        if (subtasksByStatus == null) {
+            subtasksByStatus = newStatusMaps();
+        }
+        if (subtasksByStatus[counted] == null) {
+            subtasksByStatus[counted] = new IntHashMap<>(1);
+        }
+        subtasksByStatus[counted].put(subtask.getId(), subtask);
+        LocalDateTime start = subtask.getCountedStartTime();
+        if (start != null) {
+            if (window == null) {
+                window = new TimeWindow();
+            }
+            window.add(start, subtask.getCountedDuration());
+        }
+    }
+
+    private void uncount(Subtask subtask) {
+        int counted = subtask.getCountedStatus().ordinal();
+        statusCounts[counted]--;
+        subtasksByStatus[counted].remove(subtask.getId());
+        LocalDateTime start = subtask.getCountedStartTime();
+        if (start != null && window != null) {
+            window.remove(start, subtask.getCountedDuration());
+            if (window.isEmpty()) {
+                window = null;
+            }
+        }
+    }
+
+    private boolean isEmpty() {
+        return subtasks == null || subtasks.isEmpty();
+    }
+
+    private OrderedIntMap<Subtask> subtasks() {
+        if (subtasks == null) {
+            subtasks = new OrderedIntMap<>();
+            subtaskValues = subtasks.values();
+        }
+        return subtasks;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static IntHashMap<Subtask>[] newStatusMaps() {
+        return new IntHashMap[STATUS_COUNT];
+    }
+
+    /**
+     * Живое представление подзадач, которое не требует таблицы у эпика без них.
+     */
+    private final class SubtasksView extends AbstractList<Subtask> {
+        @Override
+        public Subtask get(int index) {
+            if (subtaskValues == null) {
+                throw new IndexOutOfBoundsException("Индекс вне списка! - " + index);
+            }
+            return subtaskValues.get(index);
+        }
+
+        @Override
+        public int size() {
+            return subtasks != null ? subtasks.size() : 0;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return subtaskValues != null && subtaskValues.contains(o);
+        }
+
+        @Override
+        public Iterator<Subtask> iterator() {
+            return subtaskValues != null ? subtaskValues.iterator() : Collections.emptyIterator();
+        }
+    }
+}
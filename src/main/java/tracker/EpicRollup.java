@@ -0,0 +1,86 @@
+package main.java.tracker;
+
+import java.util.Arrays;
+
+/**
+ * Сводка по эпику вместе со всеми вложенными эпиками: число подзадач в
+ * каждом статусе, доля выполненных и общий статус.
+ */
+public final class EpicRollup {
+    private static final Status[] STATUSES = Status.values();
+
+    private final int epicId;
+    private final int[] counts;
+    private final int total;
+
+    /**
+     * @param counts число подзадач по Status.ordinal(); массив не копируется
+     */
+    public EpicRollup(int epicId, int[] counts) {
+        if (counts.length != STATUSES.length) {
+            throw new IllegalArgumentException("Нужен счётчик на каждый статус! - " + counts.length);
+        }
+        this.epicId = epicId;
+        this.counts = counts;
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        this.total = total;
+    }
+
+    public int getEpicId() {
+        return epicId;
+    }
+
+    public int getCount(Status status) {
+        return counts[status.ordinal()];
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Доля выполненных подзадач в процентах; у эпиков без подзадач — 0.
+     */
+    public double getPercentDone() {
+        return total == 0 ? 0 : counts[Status.DONE.ordinal()] * 100.0 / total;
+    }
+
+    /**
+     * Статус по тем же правилам, что у эпика, но по всему поддереву;
+     * без подзадач — NEW.
+     */
+    public Status getStatus() {
+        if (counts[Status.NEW.ordinal()] == total) {
+            return Status.NEW;
+        }
+        if (counts[Status.DONE.ordinal()] == total) {
+            return Status.DONE;
+        }
+        return Status.IN_PROGRESS;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EpicRollup)) return false;
+        EpicRollup rollup = (EpicRollup) o;
+        return epicId == rollup.epicId && Arrays.equals(counts, rollup.counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * epicId + Arrays.hashCode(counts);
+    }
+
+    @Override
+    public String toString() {
+        return "EpicRollup{" +
+                "epicId=" + epicId +
+                ", counts=" + Arrays.toString(counts) +
+                ", percentDone=" + getPercentDone() +
+                '}';
+    }
+}
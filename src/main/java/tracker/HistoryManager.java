@@ -6,6 +6,20 @@ public interface HistoryManager {
 
     void add(Task task);
 
+    void remove(int id);
+
     List<Task> getHistory();
 
+    /**
+     * Есть ли задача с таким ID в истории. Реализации с индексом отвечают за O(1).
+     */
+    default boolean contains(int id) {
+        for (Task task : getHistory()) {
+            if (task.getId() == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
 }
\ No newline at end of file
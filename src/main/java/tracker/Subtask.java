@@ -1,9 +1,20 @@
 package main.java.tracker;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Objects;
 
 public class Subtask extends Task {
-    private final Epic parentEpic;
+    private Epic parentEpic;
+    /**
+     * Статус, под которым подзадача учтена в счётчиках эпика.
+     */
+    private Status countedStatus;
+    /**
+     * Время, под которым подзадача учтена в окне эпика.
+     */
+    private LocalDateTime countedStartTime;
+    private Duration countedDuration;
 
     public Subtask(String title, String description, Status status, Epic parentEpic) {
         super(title, description, status);
@@ -14,6 +25,53 @@ public class Subtask extends Task {
         return parentEpic;
     }
 
+    void setParentEpic(Epic parentEpic) {
+        this.parentEpic = parentEpic;
+    }
+
+    @Override
+    public Subtask copy() {
+        Subtask copy = new Subtask(getTitle(), getDescription(), getStatus(), parentEpic);
+        copy.setId(getId());
+        copyTimeTo(copy);
+        return copy;
+    }
+
+    /**
+     * Родитель замороженной копии — замороженная копия эпика, общая для всех
+     * его подзадач, пока эпик не меняется.
+     */
+    @Override
+    Subtask frozenCopy() {
+        Subtask copy = new Subtask(getTitle(), getDescription(), getStatus(),
+                parentEpic != null ? parentEpic.frozenCopy() : null);
+        copy.setId(getId());
+        copyTimeTo(copy);
+        copy.freeze();
+        return copy;
+    }
+
+    Status getCountedStatus() {
+        return countedStatus;
+    }
+
+    void setCountedStatus(Status countedStatus) {
+        this.countedStatus = countedStatus;
+    }
+
+    LocalDateTime getCountedStartTime() {
+        return countedStartTime;
+    }
+
+    Duration getCountedDuration() {
+        return countedDuration;
+    }
+
+    void setCountedTime(LocalDateTime startTime, Duration duration) {
+        this.countedStartTime = startTime;
+        this.countedDuration = duration;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
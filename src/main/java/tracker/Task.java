@@ -1,5 +1,7 @@
 package main.java.tracker;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Objects;
 
 public class Task {
@@ -8,6 +10,15 @@ public class Task {
     private String description;
     private int id;
     private Status status;
+    /**
+     * Начало и длительность работы; задача без начала не запланирована.
+     */
+    private LocalDateTime startTime;
+    private Duration duration;
+    /**
+     * Копия из снимка менеджера: изменять её нельзя.
+     */
+    private boolean frozen;
 
     public Task(String title, String description, Status status) {
         this.id = 0;
@@ -41,9 +52,81 @@ public class Task {
     }
 
     public void setStatus(Status status) {
+        checkMutable();
         this.status = status;
     }
 
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        checkMutable();
+        this.startTime = startTime;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Duration duration) {
+        checkMutable();
+        if (duration != null && duration.isNegative()) {
+            throw new IllegalArgumentException("Длительность не может быть отрицательной! - " + duration);
+        }
+        this.duration = duration;
+    }
+
+    /**
+     * Конец работы: начало плюс длительность (без длительности — само начало);
+     * null, если начало не задано.
+     */
+    public LocalDateTime getEndTime() {
+        return endOf(startTime, duration);
+    }
+
+    static LocalDateTime endOf(LocalDateTime startTime, Duration duration) {
+        if (startTime == null) {
+            return null;
+        }
+        return duration != null ? startTime.plus(duration) : startTime;
+    }
+
+    /**
+     * Копия задачи того же типа с текущими значениями полей.
+     */
+    public Task copy() {
+        Task copy = new Task(title, description, status);
+        copy.id = id;
+        copyTimeTo(copy);
+        return copy;
+    }
+
+    void copyTimeTo(Task copy) {
+        copy.startTime = getStartTime();
+        copy.duration = getDuration();
+    }
+
+    /**
+     * Неизменяемая копия для снимка: setStatus и изменения подзадач эпика
+     * бросают UnsupportedOperationException.
+     */
+    Task frozenCopy() {
+        Task copy = copy();
+        copy.freeze();
+        return copy;
+    }
+
+    void freeze() {
+        frozen = true;
+    }
+
+    void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Задача из снимка не изменяется! - " + id);
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -63,7 +146,9 @@ public class Task {
                 "id=" + id +
                 ", title='" + title + '\'' +
                 ", description='" + description + '\'' +
-                ", status=" + status +
+                ", status=" + getStatus() +
+                ", startTime=" + getStartTime() +
+                ", duration=" + getDuration() +
                 '}';
     }
 }
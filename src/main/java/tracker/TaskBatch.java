@@ -0,0 +1,94 @@
+package main.java.tracker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Набор изменений для {@link TaskManager#applyBatch(TaskBatch)}.
+ * Операции применяются в порядке добавления; задачи с ID 0 получают ID
+ * при применении пакета.
+ */
+public class TaskBatch {
+
+    public enum Kind {
+        ADD,
+        UPDATE,
+        DELETE
+    }
+
+    public static final class Operation {
+        private final Kind kind;
+        private final Task task;
+        private final int id;
+
+        private Operation(Kind kind, Task task, int id) {
+            this.kind = kind;
+            this.task = task;
+            this.id = id;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Задача для ADD и UPDATE, null для DELETE.
+         */
+        public Task getTask() {
+            return task;
+        }
+
+        public int getId() {
+            return task != null ? task.getId() : id;
+        }
+
+        @Override
+        public String toString() {
+            return kind + "(" + getId() + ")";
+        }
+    }
+
+    private final List<Operation> operations = new ArrayList<>();
+
+    public TaskBatch add(Task task) {
+        operations.add(new Operation(Kind.ADD, requireTask(task), 0));
+        return this;
+    }
+
+    public TaskBatch update(Task task) {
+        operations.add(new Operation(Kind.UPDATE, requireTask(task), 0));
+        return this;
+    }
+
+    public TaskBatch delete(int id) {
+        operations.add(new Operation(Kind.DELETE, null, id));
+        return this;
+    }
+
+    public List<Operation> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    public int size() {
+        return operations.size();
+    }
+
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    private static Task requireTask(Task task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Задача в пакете не может быть null");
+        }
+        return task;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskBatch{" +
+                "operations=" + operations +
+                '}';
+    }
+}
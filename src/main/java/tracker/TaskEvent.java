@@ -0,0 +1,114 @@
+package main.java.tracker;
+
+/**
+ * Изменение доски, о котором менеджер сообщает подписчикам.
+ * Номер события растёт на единицу с каждым событием менеджера, так что
+ * подписчик, у которого события отбрасывались, видит пропуск и может
+ * перечитать доску через {@link TaskManager#snapshot()}.
+ * Задачи в событиях — замороженные копии на момент изменения.
+ */
+public abstract class TaskEvent {
+    private final long sequence;
+    private final int taskId;
+
+    private TaskEvent(long sequence, int taskId) {
+        this.sequence = sequence;
+        this.taskId = taskId;
+    }
+
+    public static TaskCreated created(long sequence, Task task) {
+        return new TaskCreated(sequence, task.frozenCopy());
+    }
+
+    public static TaskUpdated updated(long sequence, Task task) {
+        return new TaskUpdated(sequence, task.frozenCopy());
+    }
+
+    public static TaskDeleted deleted(long sequence, Task task) {
+        return new TaskDeleted(sequence, task.getId(), TaskType.of(task));
+    }
+
+    public static EpicStatusChanged epicStatusChanged(long sequence, Epic epic, Status previousStatus) {
+        return new EpicStatusChanged(sequence, epic.getId(), previousStatus, epic.getStatus());
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public int getTaskId() {
+        return taskId;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+                "sequence=" + sequence +
+                ", taskId=" + taskId +
+                '}';
+    }
+
+    public static final class TaskCreated extends TaskEvent {
+        private final Task task;
+
+        private TaskCreated(long sequence, Task task) {
+            super(sequence, task.getId());
+            this.task = task;
+        }
+
+        public Task getTask() {
+            return task;
+        }
+    }
+
+    public static final class TaskUpdated extends TaskEvent {
+        private final Task task;
+
+        private TaskUpdated(long sequence, Task task) {
+            super(sequence, task.getId());
+            this.task = task;
+        }
+
+        public Task getTask() {
+            return task;
+        }
+    }
+
+    /**
+     * Удаление задачи. У удаляемого эпика каждая подзадача получает своё событие.
+     */
+    public static final class TaskDeleted extends TaskEvent {
+        private final TaskType type;
+
+        private TaskDeleted(long sequence, int taskId, TaskType type) {
+            super(sequence, taskId);
+            this.type = type;
+        }
+
+        public TaskType getType() {
+            return type;
+        }
+    }
+
+    /**
+     * Статус эпика, выведенный из подзадач, сменился.
+     */
+    public static final class EpicStatusChanged extends TaskEvent {
+        private final Status previousStatus;
+        private final Status status;
+
+        private EpicStatusChanged(long sequence, int epicId, Status previousStatus, Status status) {
+            super(sequence, epicId);
+            this.previousStatus = previousStatus;
+            this.status = status;
+        }
+
+        public Status getPreviousStatus() {
+            return previousStatus;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package main.java.tracker;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface TaskManager {
 
@@ -8,13 +9,91 @@ public interface TaskManager {
 
     Task getTaskById(int id);
 
+    /**
+     * Задача по ID без записи в историю просмотров — для служебных чтений,
+     * например декоратора перед записью. По умолчанию берётся из snapshot(),
+     * то есть это замороженная копия; менеджеры с собственным индексом
+     * отдают задачу из него.
+     */
+    default Task peekTask(int id) {
+        return snapshot().getTaskById(id);
+    }
+
     List<Task> getAllTasks();
 
+    /**
+     * Ленивый поток всех задач поверх хранилища менеджера, без копирования.
+     * Порядок не определён; поток можно сделать параллельным.
+     */
+    Stream<Task> streamAllTasks();
+
+    /**
+     * Не более limit задач с ID больше afterId в порядке возрастания ID.
+     */
+    TaskPage getTasksPage(int afterId, int limit);
+
     void updateTask(Task task);
 
     void deleteTaskOnId(int id);
 
+    /**
+     * Применяет пакет изменений целиком либо, если какой-то ID занят,
+     * не меняет ничего и бросает IllegalArgumentException. Новые ID выделяются
+     * одним диапазоном, статус каждого затронутого эпика пересчитывается один раз.
+     */
+    void applyBatch(TaskBatch batch);
+
     List<Task> getHistory();
 
+    /**
+     * Задачи и подзадачи с заданным временем начала в порядке начала; задачи
+     * без времени и эпики в список не входят. Интервалы задач не пересекаются:
+     * addNewTask, updateTask и applyBatch отвергают пересечение
+     * {@link TaskOverlapException}.
+     */
+    List<Task> getPrioritizedTasks();
+
+    /**
+     * Полнотекстовый поиск по заголовкам и описаниям: до limit задач, где
+     * нашлось каждое слово запроса целиком или как начало слова, от наиболее
+     * подходящих. Регистр и "ё"/"е" не различаются. Поиск идёт по
+     * инвертированному индексу, который менеджер обновляет при addNewTask,
+     * updateTask и deleteTaskOnId.
+     */
+    List<Task> search(String query, int limit);
+
+    /**
+     * Неизменяемый версионированный снимок доски. Снимок не копирует задачи:
+     * менеджер поддерживает его структурно разделяемым деревом, поэтому после
+     * первого вызова снимок стоит O(1), а читатели обходят его без блокировок,
+     * пока писатели продолжают работу. Пакет applyBatch виден целиком или никак.
+     */
+    TaskSnapshot snapshot();
+
+    /**
+     * Подзадачи эпика в порядке добавления. Список только для чтения; менеджер
+     * может вернуть представление без копирования, которое меняется вместе с ним.
+     */
     List<Subtask> getSubtasksByEpic(int id);
+
+    /**
+     * Задачи всех типов в данном статусе. Выборки по статусу идут по вторичным
+     * индексам: время пропорционально размеру ответа, подсчёты стоят O(1).
+     */
+    List<Task> getTasksByStatus(Status status);
+
+    List<Task> getTasksByStatus(TaskType type, Status status);
+
+    int countByStatus(Status status);
+
+    int countByStatus(TaskType type, Status status);
+
+    int countByType(TaskType type);
+
+    /**
+     * Подзадачи эпика в данном статусе; для неизвестного эпика — пустой список.
+     */
+    List<Subtask> getSubtasksByEpic(int epicId, Status status);
+
+    int countSubtasksByEpic(int epicId, Status status);
 }
@@ -0,0 +1,12 @@
+package main.java.tracker;
+
+/**
+ * Интервал задачи пересекается по времени с интервалом другой задачи менеджера.
+ */
+public class TaskOverlapException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    public TaskOverlapException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,45 @@
+package main.java.tracker;
+
+import java.util.List;
+
+/**
+ * Страница задач, упорядоченных по ID. Следующая страница запрашивается
+ * с курсором {@link #getNextCursor()}.
+ */
+public class TaskPage {
+    /**
+     * Курсор первой страницы: ID задач положительные.
+     */
+    public static final int FIRST = 0;
+
+    private final List<Task> tasks;
+    private final int nextCursor;
+    private final boolean hasMore;
+
+    public TaskPage(List<Task> tasks, int nextCursor, boolean hasMore) {
+        this.tasks = tasks;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public int getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskPage{" +
+                "tasks=" + tasks +
+                ", nextCursor=" + nextCursor +
+                ", hasMore=" + hasMore +
+                '}';
+    }
+}
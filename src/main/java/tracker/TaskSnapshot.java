@@ -0,0 +1,186 @@
+package main.java.tracker;
+
+import main.java.tracker.util.PersistentIntMap;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Неизменяемое состояние доски на момент версии {@link #getVersion()}.
+ * Задачи снимка — замороженные копии: менять их нельзя, а менеджер после
+ * снимка их уже не трогает, поэтому снимок читается из любых потоков без
+ * блокировок и копирования. Изменения дают новый снимок через {@link #with}
+ * и {@link #without}, разделяющий с прежним всё, кроме изменённого пути.
+ * <p>
+ * Родитель подзадачи снимка — копия эпика на момент публикации подзадачи;
+ * актуальный в этой версии статус эпика даёт getTaskById по его ID.
+ */
+public final class TaskSnapshot implements Iterable<Task> {
+    public static final TaskSnapshot EMPTY =
+            new TaskSnapshot(0, PersistentIntMap.empty(), PersistentIntMap.empty());
+
+    private final long version;
+    private final PersistentIntMap<Task> tasks;
+    private final PersistentIntMap<PersistentIntMap<Subtask>> subtasksByEpic;
+
+    private TaskSnapshot(long version, PersistentIntMap<Task> tasks,
+                         PersistentIntMap<PersistentIntMap<Subtask>> subtasksByEpic) {
+        this.version = version;
+        this.tasks = tasks;
+        this.subtasksByEpic = subtasksByEpic;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return tasks.size();
+    }
+
+    public Task getTaskById(int id) {
+        return tasks.get(id);
+    }
+
+    /**
+     * Копия списка задач снимка; для обхода без копии — iterator или streamAllTasks.
+     */
+    public List<Task> getAllTasks() {
+        List<Task> allTasks = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            allTasks.add(task);
+        }
+        return allTasks;
+    }
+
+    public Stream<Task> streamAllTasks() {
+        return tasks.stream();
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return tasks.iterator();
+    }
+
+    public List<Subtask> getSubtasksByEpic(int epicId) {
+        PersistentIntMap<Subtask> subtasks = subtasksByEpic.get(epicId);
+        List<Subtask> result = new ArrayList<>(subtasks != null ? subtasks.size() : 0);
+        if (subtasks != null && tasks.get(epicId) instanceof Epic) {
+            for (Subtask subtask : subtasks) {
+                result.add(subtask);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Снимок следующей версии, где задача с данным ID заменена замороженной
+     * копией task, либо удалена, если task равна null.
+     */
+    public TaskSnapshot with(int id, Task task) {
+        if (task == null) {
+            return without(id);
+        }
+        Task previous = tasks.get(id);
+        if (previous != null && isSame(previous, task)) {
+            return this;
+        }
+        if (!(task instanceof Subtask)) {
+            return new TaskSnapshot(version + 1, tasks.put(id, task.frozenCopy()), detach(previous, subtasksByEpic));
+        }
+        Subtask copy = freeze((Subtask) task);
+        int epicId = parentId(copy);
+        PersistentIntMap<PersistentIntMap<Subtask>> children = subtasksByEpic;
+        if (previous instanceof Subtask && parentId((Subtask) previous) != epicId) {
+            children = detach(previous, children);
+        }
+        if (epicId != 0) {
+            PersistentIntMap<Subtask> siblings = children.get(epicId);
+            siblings = siblings != null ? siblings : PersistentIntMap.empty();
+            children = children.put(epicId, siblings.put(id, copy));
+        }
+        return new TaskSnapshot(version + 1, tasks.put(id, copy), children);
+    }
+
+    /**
+     * Снимок следующей версии без задачи с данным ID; подзадачи удаляемого
+     * эпика удаляются отдельно, как и в менеджере.
+     */
+    public TaskSnapshot without(int id) {
+        Task previous = tasks.get(id);
+        if (previous == null) {
+            return this;
+        }
+        PersistentIntMap<PersistentIntMap<Subtask>> children = detach(previous, subtasksByEpic);
+        if (previous instanceof Epic) {
+            children = children.remove(id);
+        }
+        return new TaskSnapshot(version + 1, tasks.remove(id), children);
+    }
+
+    /**
+     * Пустой снимок следующей версии.
+     */
+    public TaskSnapshot cleared() {
+        return new TaskSnapshot(version + 1, PersistentIntMap.empty(), PersistentIntMap.empty());
+    }
+
+    private static PersistentIntMap<PersistentIntMap<Subtask>> detach(
+            Task previous, PersistentIntMap<PersistentIntMap<Subtask>> children) {
+        if (!(previous instanceof Subtask) || parentId((Subtask) previous) == 0) {
+            return children;
+        }
+        int epicId = parentId((Subtask) previous);
+        PersistentIntMap<Subtask> siblings = children.get(epicId).remove(previous.getId());
+        return siblings.isEmpty() ? children.remove(epicId) : children.put(epicId, siblings);
+    }
+
+    private static int parentId(Subtask subtask) {
+        Epic parent = subtask.getParentEpic();
+        return parent != null ? parent.getId() : 0;
+    }
+
+    /**
+     * Опубликованная копия уже совпадает с задачей: повторная публикация
+     * без изменений не создаёт новую версию.
+     */
+    private static boolean isSame(Task published, Task task) {
+        return published.getClass() == task.getClass()
+                && published.getStatus() == task.getStatus()
+                && Objects.equals(published.getTitle(), task.getTitle())
+                && Objects.equals(published.getDescription(), task.getDescription())
+                && Objects.equals(published.getStartTime(), task.getStartTime())
+                && Objects.equals(published.getDuration(), task.getDuration())
+                && Objects.equals(published.getEndTime(), task.getEndTime())
+                && (!(task instanceof Subtask) || parentId((Subtask) published) == parentId((Subtask) task));
+    }
+
+    /**
+     * Копия подзадачи, родитель которой — опубликованная копия эпика, если она есть.
+     */
+    private Subtask freeze(Subtask subtask) {
+        Epic parent = subtask.getParentEpic();
+        Epic frozenParent = null;
+        if (parent != null) {
+            Task published = tasks.get(parent.getId());
+            frozenParent = published instanceof Epic ? (Epic) published : parent.frozenCopy();
+        }
+        Subtask copy = new Subtask(subtask.getTitle(), subtask.getDescription(), subtask.getStatus(), frozenParent);
+        copy.setId(subtask.getId());
+        copy.setStartTime(subtask.getStartTime());
+        copy.setDuration(subtask.getDuration());
+        copy.freeze();
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskSnapshot{" +
+                "version=" + version +
+                ", size=" + tasks.size() +
+                '}';
+    }
+}
@@ -0,0 +1,45 @@
+package main.java.tracker;
+
+import java.time.Instant;
+
+/**
+ * Просмотр задачи getTaskById: ID и момент просмотра.
+ */
+public final class TaskView {
+    private final int taskId;
+    private final Instant viewedAt;
+
+    public TaskView(int taskId, Instant viewedAt) {
+        this.taskId = taskId;
+        this.viewedAt = viewedAt;
+    }
+
+    public int getTaskId() {
+        return taskId;
+    }
+
+    public Instant getViewedAt() {
+        return viewedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TaskView)) return false;
+        TaskView view = (TaskView) o;
+        return taskId == view.taskId && viewedAt.equals(view.viewedAt);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * taskId + viewedAt.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "TaskView{" +
+                "taskId=" + taskId +
+                ", viewedAt=" + viewedAt +
+                '}';
+    }
+}
@@ -0,0 +1,44 @@
+package main.java.tracker;
+
+/**
+ * Число просмотров задачи за окно времени. Счёт может быть оценкой —
+ * тогда он не меньше истинного.
+ */
+public final class ViewCount {
+    private final int taskId;
+    private final long views;
+
+    public ViewCount(int taskId, long views) {
+        this.taskId = taskId;
+        this.views = views;
+    }
+
+    public int getTaskId() {
+        return taskId;
+    }
+
+    public long getViews() {
+        return views;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ViewCount)) return false;
+        ViewCount count = (ViewCount) o;
+        return taskId == count.taskId && views == count.views;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * taskId + Long.hashCode(views);
+    }
+
+    @Override
+    public String toString() {
+        return "ViewCount{" +
+                "taskId=" + taskId +
+                ", views=" + views +
+                '}';
+    }
+}
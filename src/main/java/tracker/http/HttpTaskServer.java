@@ -0,0 +1,544 @@
+package main.java.tracker.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import main.java.tracker.Epic;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskManager;
+import main.java.tracker.TaskOverlapException;
+import main.java.tracker.TaskSnapshot;
+import main.java.tracker.TaskType;
+import main.java.tracker.util.Managers;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * HTTP/JSON-доступ к менеджеру задач на com.sun.net.httpserver.
+ * <pre>
+ * GET    /tasks | /epics | /subtasks [?status=NEW]  список задач типа
+ * GET    /tasks/{id} (и так же для эпиков и подзадач)  задача; просмотр пишется в историю
+ * POST   /tasks | /epics | /subtasks                создание без id (201) либо изменение по id (200)
+ * DELETE /tasks/{id} (и так же для эпиков и подзадач)  удаление
+ * GET    /epics/{id}/subtasks                       подзадачи эпика
+ * GET    /history                                   история просмотров
+ * GET    /prioritized                               задачи со временем в порядке начала
+ * </pre>
+ * Время начала задаётся полем startTime в ISO-формате ("2026-10-18T10:00"),
+ * длительность — полем duration в минутах; незаданные поля в ответе опускаются.
+ * Каждый запрос обрабатывается в своём виртуальном потоке, если JDK их
+ * поддерживает, иначе — в потоке из кэширующего пула. Вызовы менеджера идут
+ * под одной блокировкой сервера: менеджеры в памяти не потокобезопасны.
+ * Списки читаются из {@link TaskSnapshot}, взятого под блокировкой, а
+ * пишутся в ответ уже без неё и по мере обхода, без сборки всего ответа
+ * в памяти, так что долгий клиент не задерживает остальные запросы.
+ * <p>
+ * Ошибки возвращаются объектом {"error": "..."}: 400 — неверный запрос,
+ * 404 — нет такой задачи или пути, 405 — неподдерживаемый метод,
+ * 406 — задача пересекается по времени с другой.
+ */
+public class HttpTaskServer {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int MAX_BODY_BYTES = 1024 * 1024;
+    private static final int RESPONSE_BUFFER_SIZE = 8 * 1024;
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    static {
+        // Заголовки и тело ответа уходят отдельными записями; с алгоритмом Нейгла
+        // вторая ждёт отложенного ACK клиента, и каждый запрос стоит ~40 мс.
+        // Свойство читается при первом создании HttpServer, явное значение не трогаем.
+        if (System.getProperty(NODELAY_PROPERTY) == null) {
+            System.setProperty(NODELAY_PROPERTY, "true");
+        }
+    }
+
+    private final TaskManager taskManager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @param port порт сервера; 0 — любой свободный, см. {@link #getPort()}
+     */
+    public HttpTaskServer(TaskManager taskManager, int port) throws IOException {
+        this.taskManager = taskManager;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        HttpTaskServer server = new HttpTaskServer(Managers.getDefault(), port);
+        server.start();
+        System.out.println("Сервер задач запущен на порту " + server.getPort());
+    }
+
+    /**
+     * Запускает сервер. Первый снимок доски строится здесь, дальше снимок
+     * для каждого чтения стоит O(1).
+     */
+    public void start() {
+        lock.lock();
+        try {
+            taskManager.snapshot();
+        } finally {
+            lock.unlock();
+        }
+        server.start();
+    }
+
+    /**
+     * Останавливает сервер, давая начатым запросам до delaySeconds секунд.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Исполнитель «поток на запрос»: виртуальные потоки на JDK 21+,
+     * на более старых JDK — кэширующий пул потоков-демонов.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "http-task-server-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            try {
+                route(exchange);
+            } catch (NotFoundException e) {
+                sendError(exchange, 404, e.getMessage());
+            } catch (MethodNotAllowedException e) {
+                sendError(exchange, 405, e.getMessage());
+            } catch (TaskOverlapException e) {
+                sendError(exchange, 406, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                sendError(exchange, 500, String.valueOf(e.getMessage()));
+            }
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        URI uri = exchange.getRequestURI();
+        String[] path = uri.getPath().replaceAll("^/+|/+$", "").split("/+");
+        String method = exchange.getRequestMethod();
+        if (path.length == 1 && path[0].equals("history")) {
+            requireMethod(exchange, "GET");
+            sendHistory(exchange);
+            return;
+        }
+        if (path.length == 1 && path[0].equals("prioritized")) {
+            requireMethod(exchange, "GET");
+            sendPrioritized(exchange);
+            return;
+        }
+        TaskType type = collectionType(path[0]);
+        if (path.length == 1) {
+            if (method.equals("GET")) {
+                sendList(exchange, type, statusParameter(uri.getRawQuery()));
+            } else {
+                requireMethod(exchange, "POST");
+                save(exchange, type);
+            }
+        } else if (path.length == 2) {
+            int id = parseId(path[1]);
+            if (method.equals("GET")) {
+                sendTask(exchange, type, id);
+            } else {
+                requireMethod(exchange, "DELETE");
+                delete(exchange, type, id);
+            }
+        } else if (path.length == 3 && type == TaskType.EPIC && path[2].equals("subtasks")) {
+            requireMethod(exchange, "GET");
+            sendSubtasks(exchange, parseId(path[1]));
+        } else {
+            throw new NotFoundException("Путь не найден! - " + uri.getPath());
+        }
+    }
+
+    private void sendList(HttpExchange exchange, TaskType type, Status status) throws IOException {
+        TaskSnapshot snapshot = snapshot();
+        sendJson(exchange, 200, json -> {
+            json.beginArray();
+            for (Task task : snapshot) {
+                if (TaskType.of(task) == type && (status == null || task.getStatus() == status)) {
+                    writeTask(json, task, snapshot);
+                }
+            }
+            json.endArray();
+        });
+    }
+
+    private void sendTask(HttpExchange exchange, TaskType type, int id) throws IOException {
+        TaskSnapshot snapshot;
+        lock.lock();
+        try {
+            snapshot = taskManager.snapshot();
+            requireTask(snapshot, type, id);
+            taskManager.getTaskById(id);
+        } finally {
+            lock.unlock();
+        }
+        Task task = snapshot.getTaskById(id);
+        sendJson(exchange, 200, json -> writeTask(json, task, snapshot));
+    }
+
+    private void sendSubtasks(HttpExchange exchange, int epicId) throws IOException {
+        TaskSnapshot snapshot = snapshot();
+        requireTask(snapshot, TaskType.EPIC, epicId);
+        List<Subtask> subtasks = snapshot.getSubtasksByEpic(epicId);
+        sendJson(exchange, 200, json -> {
+            json.beginArray();
+            for (Subtask subtask : subtasks) {
+                writeTask(json, subtask, null);
+            }
+            json.endArray();
+        });
+    }
+
+    /**
+     * Задачи истории копируются под блокировкой: в менеджере они изменяемые.
+     */
+    private void sendHistory(HttpExchange exchange) throws IOException {
+        List<Task> history;
+        lock.lock();
+        try {
+            List<Task> viewed = taskManager.getHistory();
+            history = new ArrayList<>(viewed.size());
+            for (Task task : viewed) {
+                history.add(task.copy());
+            }
+        } finally {
+            lock.unlock();
+        }
+        sendJson(exchange, 200, json -> {
+            json.beginArray();
+            for (Task task : history) {
+                writeTask(json, task, null);
+            }
+            json.endArray();
+        });
+    }
+
+    /**
+     * Задачи копируются под блокировкой, как и в истории.
+     */
+    private void sendPrioritized(HttpExchange exchange) throws IOException {
+        List<Task> prioritized;
+        lock.lock();
+        try {
+            List<Task> scheduled = taskManager.getPrioritizedTasks();
+            prioritized = new ArrayList<>(scheduled.size());
+            for (Task task : scheduled) {
+                prioritized.add(task.copy());
+            }
+        } finally {
+            lock.unlock();
+        }
+        sendJson(exchange, 200, json -> {
+            json.beginArray();
+            for (Task task : prioritized) {
+                writeTask(json, task, null);
+            }
+            json.endArray();
+        });
+    }
+
+    /**
+     * Задача без id создаётся, с id — заменяет задачу того же типа.
+     * Эпик подзадачи берётся через getTaskById и поэтому попадает в историю.
+     */
+    private void save(HttpExchange exchange, TaskType type) throws IOException {
+        Map<String, Object> body = JsonReader.parseObject(readBody(exchange));
+        String title = stringField(body, "title", true);
+        String description = stringField(body, "description", false);
+        String statusName = stringField(body, "status", false);
+        Status status = statusName != null ? parseStatus(statusName) : Status.NEW;
+        int id = intField(body, "id");
+        int epicId = type == TaskType.SUBTASK ? intField(body, "epicId") : 0;
+        LocalDateTime startTime = startTimeField(body);
+        Duration duration = durationField(body);
+        if (type == TaskType.SUBTASK && epicId == 0) {
+            throw new IllegalArgumentException("Не указан эпик подзадачи! - epicId");
+        }
+        boolean created = id == 0;
+        TaskSnapshot snapshot;
+        lock.lock();
+        try {
+            if (!created) {
+                requireTask(taskManager.snapshot(), type, id);
+            }
+            Task task;
+            if (type == TaskType.SUBTASK) {
+                requireTask(taskManager.snapshot(), TaskType.EPIC, epicId);
+                task = new Subtask(title, description, status, (Epic) taskManager.getTaskById(epicId));
+            } else if (type == TaskType.EPIC) {
+                task = new Epic(title, description, status);
+            } else {
+                task = new Task(title, description, status);
+            }
+            task.setStartTime(startTime);
+            task.setDuration(duration);
+            if (created) {
+                taskManager.addNewTask(task);
+                id = task.getId();
+            } else {
+                task.setId(id);
+                taskManager.updateTask(task);
+            }
+            snapshot = taskManager.snapshot();
+        } finally {
+            lock.unlock();
+        }
+        Task saved = snapshot.getTaskById(id);
+        sendJson(exchange, created ? 201 : 200, json -> writeTask(json, saved, snapshot));
+    }
+
+    private void delete(HttpExchange exchange, TaskType type, int id) throws IOException {
+        lock.lock();
+        try {
+            requireTask(taskManager.snapshot(), type, id);
+            taskManager.deleteTaskOnId(id);
+        } finally {
+            lock.unlock();
+        }
+        sendJson(exchange, 200, json -> json.beginObject().name("id").value(id).endObject());
+    }
+
+    private TaskSnapshot snapshot() {
+        lock.lock();
+        try {
+            return taskManager.snapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void requireTask(TaskSnapshot snapshot, TaskType type, int id) {
+        Task task = snapshot.getTaskById(id);
+        if (task == null || TaskType.of(task) != type) {
+            throw new NotFoundException("Задача не найдена! - " + id);
+        }
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!exchange.getRequestMethod().equals(method)) {
+            throw new MethodNotAllowedException(exchange.getRequestMethod());
+        }
+    }
+
+    private static TaskType collectionType(String collection) {
+        switch (collection) {
+            case "tasks":
+                return TaskType.TASK;
+            case "epics":
+                return TaskType.EPIC;
+            case "subtasks":
+                return TaskType.SUBTASK;
+            default:
+                throw new NotFoundException("Путь не найден! - /" + collection);
+        }
+    }
+
+    private static int parseId(String value) {
+        try {
+            int id = Integer.parseInt(value);
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException ignored) {
+            // ниже та же ошибка, что и для неположительного ID
+        }
+        throw new IllegalArgumentException("Неверный ID задачи! - " + value);
+    }
+
+    private static Status parseStatus(String value) {
+        try {
+            return Status.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестный статус! - " + value);
+        }
+    }
+
+    private static Status statusParameter(String query) {
+        if (query == null) {
+            return null;
+        }
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith("status=")) {
+                return parseStatus(parameter.substring("status=".length()));
+            }
+        }
+        return null;
+    }
+
+    private static String stringField(Map<String, Object> body, String name, boolean required) {
+        Object value = body.get(name);
+        if (value == null && !required) {
+            return null;
+        }
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Поле должно быть строкой! - " + name);
+        }
+        return (String) value;
+    }
+
+    private static int intField(Map<String, Object> body, String name) {
+        Object value = body.get(name);
+        if (value == null) {
+            return 0;
+        }
+        if (!(value instanceof Long) || (Long) value <= 0 || (Long) value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Поле должно быть положительным целым! - " + name);
+        }
+        return (int) (long) (Long) value;
+    }
+
+    private static LocalDateTime startTimeField(Map<String, Object> body) {
+        String value = stringField(body, "startTime", false);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Неверное время начала! - " + value);
+        }
+    }
+
+    private static Duration durationField(Map<String, Object> body) {
+        Object value = body.get("duration");
+        if (value == null) {
+            return null;
+        }
+        if (!(value instanceof Long) || (Long) value < 0) {
+            throw new IllegalArgumentException("Поле должно быть неотрицательным целым! - duration");
+        }
+        return Duration.ofMinutes((Long) value);
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Тело запроса больше " + MAX_BODY_BYTES + " байт!");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Эпик пишется с ID подзадач из снимка, если он передан.
+     */
+    private static void writeTask(JsonWriter json, Task task, TaskSnapshot snapshot) throws IOException {
+        TaskType type = TaskType.of(task);
+        json.beginObject()
+                .name("id").value(task.getId())
+                .name("type").value(type.name())
+                .name("title").value(task.getTitle())
+                .name("description").value(task.getDescription())
+                .name("status").value(task.getStatus().name());
+        if (task.getStartTime() != null) {
+            json.name("startTime").value(task.getStartTime().toString());
+        }
+        if (task.getDuration() != null) {
+            json.name("duration").value(task.getDuration().toMinutes());
+        }
+        if (type == TaskType.SUBTASK) {
+            Epic parent = ((Subtask) task).getParentEpic();
+            json.name("epicId").value(parent != null ? parent.getId() : 0);
+        } else if (type == TaskType.EPIC && snapshot != null) {
+            json.name("subtaskIds").beginArray();
+            for (Subtask subtask : snapshot.getSubtasksByEpic(task.getId())) {
+                json.value(subtask.getId());
+            }
+            json.endArray();
+        }
+        json.endObject();
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            return;
+        }
+        sendJson(exchange, status, json -> json.beginObject().name("error").value(message).endObject());
+    }
+
+    /**
+     * Ответ уходит кусками (chunked) по мере записи: длина заранее не считается.
+     */
+    private static void sendJson(HttpExchange exchange, int status, JsonBody body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), RESPONSE_BUFFER_SIZE);
+        JsonWriter json = new JsonWriter(writer);
+        body.write(json);
+        json.flush();
+        writer.close();
+    }
+
+    private interface JsonBody {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    private static class NotFoundException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        NotFoundException(String message) {
+            super(message);
+        }
+    }
+
+    private static class MethodNotAllowedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        MethodNotAllowedException(String method) {
+            super("Метод не поддерживается! - " + method);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package main.java.tracker.http;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разбор тела запроса в JSON. Тела запросов — одиночные задачи, поэтому
+ * документ разбирается целиком: объект в LinkedHashMap, массив в ArrayList,
+ * целые числа в Long, дробные в Double. Ошибка синтаксиса —
+ * IllegalArgumentException с позицией.
+ */
+final class JsonReader {
+    private static final int MAX_DEPTH = 32;
+
+    private final String json;
+    private int position;
+    private int depth;
+
+    private JsonReader(String json) {
+        this.json = json;
+    }
+
+    static Object parse(String json) {
+        JsonReader reader = new JsonReader(json);
+        Object value = reader.readValue();
+        reader.skipWhitespace();
+        if (reader.position != json.length()) {
+            throw reader.error("Лишние символы после JSON");
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> parseObject(String json) {
+        Object value = parse(json);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Ожидался JSON-объект! - " + json);
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        if (position == json.length()) {
+            throw error("Неожиданный конец JSON");
+        }
+        char c = json.charAt(position);
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                return readLiteral("true", Boolean.TRUE);
+            case 'f':
+                return readLiteral("false", Boolean.FALSE);
+            case 'n':
+                return readLiteral("null", null);
+            default:
+                if (c == '-' || c >= '0' && c <= '9') {
+                    return readNumber();
+                }
+                throw error("Неожиданный символ '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        enter();
+        Map<String, Object> object = new LinkedHashMap<>();
+        position++;
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            depth--;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Ожидалось имя поля");
+            }
+            String name = readString();
+            skipWhitespace();
+            expect(':');
+            object.put(name, readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect('}');
+                depth--;
+                return object;
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        enter();
+        List<Object> array = new ArrayList<>();
+        position++;
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            depth--;
+            return array;
+        }
+        while (true) {
+            array.add(readValue());
+            skipWhitespace();
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect(']');
+                depth--;
+                return array;
+            }
+        }
+    }
+
+    private String readString() {
+        position++;
+        StringBuilder builder = null;
+        int start = position;
+        while (position < json.length()) {
+            char c = json.charAt(position);
+            if (c == '"') {
+                String tail = json.substring(start, position++);
+                return builder == null ? tail : builder.append(tail).toString();
+            }
+            if (c < 0x20) {
+                throw error("Управляющий символ в строке");
+            }
+            if (c != '\\') {
+                position++;
+                continue;
+            }
+            if (builder == null) {
+                builder = new StringBuilder();
+            }
+            builder.append(json, start, position);
+            position++;
+            builder.append(readEscape());
+            start = position;
+        }
+        throw error("Незакрытая строка");
+    }
+
+    private char readEscape() {
+        char c = peek();
+        position++;
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                if (position + 4 > json.length()) {
+                    throw error("Обрезанная escape-последовательность");
+                }
+                try {
+                    char decoded = (char) Integer.parseInt(json.substring(position, position + 4), 16);
+                    position += 4;
+                    return decoded;
+                } catch (NumberFormatException e) {
+                    throw error("Неверная escape-последовательность");
+                }
+            default:
+                throw error("Неверная escape-последовательность \\" + c);
+        }
+    }
+
+    private Object readNumber() {
+        int start = position;
+        boolean fraction = false;
+        while (position < json.length()) {
+            char c = json.charAt(position);
+            if (c == '.' || c == 'e' || c == 'E') {
+                fraction = true;
+            } else if (!(c == '-' || c == '+' || c >= '0' && c <= '9')) {
+                break;
+            }
+            position++;
+        }
+        String number = json.substring(start, position);
+        try {
+            return fraction ? (Object) Double.parseDouble(number) : (Object) Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            throw error("Неверное число " + number);
+        }
+    }
+
+    private Object readLiteral(String literal, Object value) {
+        if (!json.startsWith(literal, position)) {
+            throw error("Неожиданный литерал");
+        }
+        position += literal.length();
+        return value;
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw error("Слишком глубокая вложенность JSON");
+        }
+    }
+
+    private void expect(char expected) {
+        if (peek() != expected) {
+            throw error("Ожидался '" + expected + "'");
+        }
+        position++;
+    }
+
+    private char peek() {
+        if (position == json.length()) {
+            throw error("Неожиданный конец JSON");
+        }
+        return json.charAt(position);
+    }
+
+    private void skipWhitespace() {
+        while (position < json.length()) {
+            char c = json.charAt(position);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + "! - позиция " + position);
+    }
+}
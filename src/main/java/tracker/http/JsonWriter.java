@@ -0,0 +1,144 @@
+package main.java.tracker.http;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Потоковая запись JSON: значения пишутся сразу в Writer, поэтому длинный
+ * список не собирается в памяти целиком. Запятые между элементами ставит
+ * сам писатель, вызывающий только открывает и закрывает объекты и массивы.
+ */
+final class JsonWriter {
+    private static final int MAX_DEPTH = 32;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+    /**
+     * На каждом уровне вложенности — был ли уже элемент, перед следующим нужна запятая.
+     */
+    private final boolean[] hasElements = new boolean[MAX_DEPTH];
+    private int depth;
+    private boolean afterName;
+
+    JsonWriter(Writer out) {
+        this.out = out;
+    }
+
+    JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    JsonWriter name(String name) throws IOException {
+        separate();
+        writeString(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+
+    JsonWriter value(String value) throws IOException {
+        separate();
+        if (value == null) {
+            out.write("null");
+        } else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    JsonWriter value(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    JsonWriter value(boolean value) throws IOException {
+        separate();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    private JsonWriter open(char bracket) throws IOException {
+        separate();
+        if (depth == MAX_DEPTH - 1) {
+            throw new IllegalStateException("Слишком глубокая вложенность JSON! - " + depth);
+        }
+        out.write(bracket);
+        hasElements[++depth] = false;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("Нет открытого объекта или массива! - " + bracket);
+        }
+        out.write(bracket);
+        depth--;
+        return this;
+    }
+
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (hasElements[depth]) {
+            out.write(',');
+        }
+        hasElements[depth] = true;
+    }
+
+    private void writeString(String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && c != 0x2028 && c != 0x2029) {
+                continue;
+            }
+            out.write(value, start, i - start);
+            start = i + 1;
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    out.write("\\u");
+                    out.write(HEX[c >> 12 & 0xF]);
+                    out.write(HEX[c >> 8 & 0xF]);
+                    out.write(HEX[c >> 4 & 0xF]);
+                    out.write(HEX[c & 0xF]);
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+}
@@ -0,0 +1,80 @@
+package main.java.tracker.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Побайтовое чтение канала через один буфер в куче: разборщик берёт байты
+ * по одному, а буфер перезаполняется из канала, когда кончается. Считает
+ * строки для сообщений об ошибках.
+ */
+final class ByteInput {
+    private final ReadableByteChannel channel;
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+    private int position;
+    private int limit;
+    private boolean end;
+    private long line = 1;
+    private long consumed;
+
+    ByteInput(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.bytes = new byte[bufferSize];
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Следующий байт (0..255) без продвижения либо -1 в конце канала.
+     */
+    int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return bytes[position] & 0xFF;
+    }
+
+    int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        byte b = bytes[position++];
+        if (b == '\n') {
+            line++;
+        }
+        return b & 0xFF;
+    }
+
+    long getLine() {
+        return line;
+    }
+
+    /**
+     * Сколько байт прочитано из канала.
+     */
+    long getConsumed() {
+        return consumed;
+    }
+
+    private boolean fill() throws IOException {
+        if (end) {
+            return false;
+        }
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        if (read < 0) {
+            end = true;
+            position = 0;
+            limit = 0;
+            return false;
+        }
+        consumed += read;
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
@@ -0,0 +1,159 @@
+package main.java.tracker.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDateTime;
+
+/**
+ * Буферизованная запись в канал. Строки кодируются в UTF-8 посимвольно прямо
+ * в буфер, числа и время пишутся цифрами — без промежуточных строк и массивов.
+ */
+final class ByteOutput {
+    private static final int MAX_CHAR_BYTES = 4;
+
+    private final WritableByteChannel channel;
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+    private int position;
+    private long written;
+
+    ByteOutput(WritableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.bytes = new byte[bufferSize];
+        this.buffer = ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * Сколько байт передано в канал, включая ещё не сброшенные.
+     */
+    long getWritten() {
+        return written + position;
+    }
+
+    void write(int b) throws IOException {
+        if (position == bytes.length) {
+            flush();
+        }
+        bytes[position++] = (byte) b;
+    }
+
+    void writeAscii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            write(text.charAt(i));
+        }
+    }
+
+    void writeLong(long value) throws IOException {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                writeAscii(Long.toString(value));
+                return;
+            }
+            write('-');
+            value = -value;
+        }
+        writeDigits(value, digits(value));
+    }
+
+    /**
+     * Символы с индекса from до to в UTF-8; непарный суррогат заменяется на '?'.
+     */
+    void writeUtf8(CharSequence text, int from, int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                write(c);
+                continue;
+            }
+            if (position + MAX_CHAR_BYTES > bytes.length) {
+                flush();
+            }
+            if (c < 0x800) {
+                bytes[position++] = (byte) (0xC0 | c >> 6);
+                bytes[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                int codePoint = Character.isHighSurrogate(c) && i + 1 < to
+                        && Character.isLowSurrogate(text.charAt(i + 1))
+                        ? Character.toCodePoint(c, text.charAt(++i)) : '?';
+                if (codePoint == '?') {
+                    bytes[position++] = '?';
+                    continue;
+                }
+                bytes[position++] = (byte) (0xF0 | codePoint >> 18);
+                bytes[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                bytes[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                bytes[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else {
+                bytes[position++] = (byte) (0xE0 | c >> 12);
+                bytes[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytes[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    /**
+     * Время в формате ISO-8601, как его печатает LocalDateTime.toString, но
+     * всегда с секундами; дробная часть — без хвостовых нулей.
+     */
+    void writeDateTime(LocalDateTime time) throws IOException {
+        int year = time.getYear();
+        if (year < 0 || year > 9999) {
+            writeAscii(time.toString());
+            return;
+        }
+        writeDigits(year, 4);
+        write('-');
+        writeDigits(time.getMonthValue(), 2);
+        write('-');
+        writeDigits(time.getDayOfMonth(), 2);
+        write('T');
+        writeDigits(time.getHour(), 2);
+        write(':');
+        writeDigits(time.getMinute(), 2);
+        write(':');
+        writeDigits(time.getSecond(), 2);
+        int nano = time.getNano();
+        if (nano != 0) {
+            int length = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                length--;
+            }
+            write('.');
+            writeDigits(nano, length);
+        }
+    }
+
+    void flush() throws IOException {
+        buffer.clear().limit(position);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        written += position;
+        position = 0;
+    }
+
+    /**
+     * Неотрицательное число ровно в count цифр, с ведущими нулями.
+     */
+    private void writeDigits(long value, int count) throws IOException {
+        if (position + count > bytes.length) {
+            flush();
+        }
+        for (int i = position + count - 1; i >= position; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        position += count;
+    }
+
+    private static int digits(long value) {
+        int count = 1;
+        while (value >= 10) {
+            value /= 10;
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,204 @@
+package main.java.tracker.io;
+
+import main.java.tracker.Epic;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskManager;
+import main.java.tracker.TaskType;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая выгрузка задач в {@link TaskFormat}. Задачи берутся из
+ * streamAllTasks без копирования доски и пишутся через буфер прямо в канал.
+ * Порядок задач — порядок менеджера, так что подзадача может оказаться
+ * раньше своего эпика: {@link TaskImporter} это допускает. У эпика время
+ * не выгружается — менеджер вычисляет его по подзадачам.
+ */
+public final class TaskExporter {
+    static final String CSV_HEADER = "id,type,title,status,description,epicId,startTime,duration";
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private TaskExporter() {
+    }
+
+    /**
+     * Выгружает доску в файл, заменяя его; возвращает число задач.
+     */
+    public static long export(TaskManager manager, Path path, TaskFormat format) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return export(manager, channel, format);
+        }
+    }
+
+    /**
+     * Выгружает доску в канал, не закрывая его; возвращает число задач.
+     */
+    public static long export(TaskManager manager, WritableByteChannel channel, TaskFormat format)
+            throws IOException {
+        try (Stream<Task> tasks = manager.streamAllTasks()) {
+            return export(tasks.iterator(), channel, format);
+        }
+    }
+
+    public static long export(Iterator<? extends Task> tasks, WritableByteChannel channel, TaskFormat format)
+            throws IOException {
+        ByteOutput out = new ByteOutput(channel, BUFFER_SIZE);
+        long count = 0;
+        if (format == TaskFormat.CSV) {
+            out.writeAscii(CSV_HEADER);
+            out.write('\n');
+        }
+        while (tasks.hasNext()) {
+            Task task = tasks.next();
+            if (format == TaskFormat.CSV) {
+                writeCsv(out, task);
+            } else {
+                writeJson(out, task);
+            }
+            count++;
+        }
+        out.flush();
+        return count;
+    }
+
+    private static void writeCsv(ByteOutput out, Task task) throws IOException {
+        TaskType type = TaskType.of(task);
+        out.writeLong(task.getId());
+        out.write(',');
+        out.writeAscii(type.name());
+        out.write(',');
+        writeCsvText(out, task.getTitle());
+        out.write(',');
+        out.writeAscii(task.getStatus().name());
+        out.write(',');
+        writeCsvText(out, task.getDescription());
+        out.write(',');
+        int epicId = epicId(task);
+        if (epicId != 0) {
+            out.writeLong(epicId);
+        }
+        out.write(',');
+        if (type != TaskType.EPIC && task.getStartTime() != null) {
+            out.writeDateTime(task.getStartTime());
+        }
+        out.write(',');
+        if (type != TaskType.EPIC && task.getDuration() != null) {
+            out.writeLong(task.getDuration().toMinutes());
+        }
+        out.write('\n');
+    }
+
+    private static void writeCsvText(ByteOutput out, String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        // Пустое поле CSV означает отсутствие значения, пустая строка — это "".
+        boolean quote = text.isEmpty();
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.writeUtf8(text, 0, text.length());
+            return;
+        }
+        out.write('"');
+        int from = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                out.writeUtf8(text, from, i + 1);
+                from = i;
+            }
+        }
+        out.writeUtf8(text, from, text.length());
+        out.write('"');
+    }
+
+    private static void writeJson(ByteOutput out, Task task) throws IOException {
+        TaskType type = TaskType.of(task);
+        out.writeAscii("{\"id\":");
+        out.writeLong(task.getId());
+        out.writeAscii(",\"type\":\"");
+        out.writeAscii(type.name());
+        out.writeAscii("\",\"title\":");
+        writeJsonText(out, task.getTitle());
+        if (task.getDescription() != null) {
+            out.writeAscii(",\"description\":");
+            writeJsonText(out, task.getDescription());
+        }
+        out.writeAscii(",\"status\":\"");
+        out.writeAscii(task.getStatus().name());
+        out.write('"');
+        int epicId = epicId(task);
+        if (epicId != 0) {
+            out.writeAscii(",\"epicId\":");
+            out.writeLong(epicId);
+        }
+        if (type != TaskType.EPIC && task.getStartTime() != null) {
+            out.writeAscii(",\"startTime\":\"");
+            out.writeDateTime(task.getStartTime());
+            out.write('"');
+        }
+        if (type != TaskType.EPIC && task.getDuration() != null) {
+            out.writeAscii(",\"duration\":");
+            out.writeLong(task.getDuration().toMinutes());
+        }
+        out.writeAscii("}\n");
+    }
+
+    private static void writeJsonText(ByteOutput out, String text) throws IOException {
+        if (text == null) {
+            out.writeAscii("null");
+            return;
+        }
+        out.write('"');
+        int from = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+            out.writeUtf8(text, from, i);
+            from = i + 1;
+            out.write('\\');
+            switch (c) {
+                case '"':
+                case '\\':
+                    out.write(c);
+                    break;
+                case '\n':
+                    out.write('n');
+                    break;
+                case '\r':
+                    out.write('r');
+                    break;
+                case '\t':
+                    out.write('t');
+                    break;
+                default:
+                    out.writeAscii("u00");
+                    out.write(HEX[c >> 4]);
+                    out.write(HEX[c & 0xF]);
+            }
+        }
+        out.writeUtf8(text, from, text.length());
+        out.write('"');
+    }
+
+    private static int epicId(Task task) {
+        if (task instanceof Subtask) {
+            Epic parent = ((Subtask) task).getParentEpic();
+            return parent != null ? parent.getId() : 0;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,35 @@
+package main.java.tracker.io;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Текстовые форматы выгрузки доски. Поля обоих одинаковы: id, type, title,
+ * status, description, epicId, startTime (ISO-8601), duration (минуты).
+ */
+public enum TaskFormat {
+    /**
+     * CSV по RFC 4180 в UTF-8 со строкой заголовка; поле с запятой, кавычкой
+     * или переводом строки берётся в кавычки. Пустое поле — отсутствие значения.
+     */
+    CSV,
+    /**
+     * Объект JSON на строку с теми же именами полей, что у HTTP API;
+     * отсутствующие значения не пишутся.
+     */
+    NDJSON;
+
+    /**
+     * Формат по расширению файла: .csv либо .ndjson/.jsonl.
+     */
+    public static TaskFormat of(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Неизвестное расширение файла выгрузки! - " + path);
+    }
+}
@@ -0,0 +1,682 @@
+package main.java.tracker.io;
+
+import main.java.tracker.Epic;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskBatch;
+import main.java.tracker.TaskManager;
+import main.java.tracker.TaskType;
+import main.java.tracker.util.IntHashMap;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Потоковая загрузка задач из {@link TaskFormat}. Разбор написан вручную
+ * поверх байтового буфера: поле копируется в один переиспользуемый массив,
+ * числа, типы, статусы и время разбираются прямо из байт, а объектами
+ * становятся только строки заголовка и описания и сами задачи.
+ * <p>
+ * Эпик подзадачи ищется по ID сначала среди уже прочитанных эпиков. Если
+ * подзадача идёт раньше эпика, она откладывается и связывается с ним после
+ * чтения всего файла; эпик, которого в файле нет, ищется среди эпиков
+ * менеджера. Загруженное уходит в менеджер одним {@link TaskBatch}: ID
+ * проверяются до изменений, статус каждого эпика пересчитывается один раз
+ * в конце, а не после каждой подзадачи, и ошибка в файле не оставляет на
+ * доске половину выгрузки.
+ */
+public final class TaskImporter {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int UNKNOWN = -1;
+    private static final int ID = 0;
+    private static final int TYPE = 1;
+    private static final int TITLE = 2;
+    private static final int STATUS = 3;
+    private static final int DESCRIPTION = 4;
+    private static final int EPIC_ID = 5;
+    private static final int START_TIME = 6;
+    private static final int DURATION = 7;
+    private static final byte[][] COLUMNS = ascii("id", "type", "title", "status", "description", "epicId",
+            "startTime", "duration");
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final byte[][] TYPE_NAMES = ascii(names(TYPES));
+    private static final Status[] STATUSES = Status.values();
+    private static final byte[][] STATUS_NAMES = ascii(names(STATUSES));
+
+    private final ByteInput in;
+    private final TaskManager target;
+    private byte[] scratch = new byte[256];
+    private int length;
+    private boolean quoted;
+    private long line;
+
+    private int id;
+    private boolean hasId;
+    private TaskType type;
+    private String title;
+    private String description;
+    private Status status;
+    private int epicId;
+    private LocalDateTime startTime;
+    private Duration duration;
+
+    private final TaskBatch batch = new TaskBatch();
+    private final IntHashMap<Epic> epics = new IntHashMap<>();
+    private final List<Subtask> orphans = new ArrayList<>();
+    private int[] orphanParents = new int[16];
+    private IntHashMap<Epic> targetEpics;
+
+    private TaskImporter(ReadableByteChannel channel, TaskManager target) {
+        this.in = new ByteInput(channel, BUFFER_SIZE);
+        this.target = target;
+    }
+
+    /**
+     * Загружает файл в менеджер, формат — по расширению; возвращает число задач.
+     */
+    public static int importInto(TaskManager manager, Path path) throws IOException {
+        return importInto(manager, path, TaskFormat.of(path));
+    }
+
+    public static int importInto(TaskManager manager, Path path, TaskFormat format) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return importInto(manager, channel, format);
+        }
+    }
+
+    /**
+     * Читает канал до конца, не закрывая его, и применяет прочитанное одним
+     * пакетом. При ошибке формата бросает IllegalArgumentException с номером
+     * строки, и доска не меняется.
+     */
+    public static int importInto(TaskManager manager, ReadableByteChannel channel, TaskFormat format)
+            throws IOException {
+        TaskBatch batch = read(channel, format, manager);
+        manager.applyBatch(batch);
+        return batch.size();
+    }
+
+    /**
+     * Разбирает канал в пакет добавлений, ничего не меняя. Эпики, которых нет
+     * в файле, ищутся в target; target может быть null.
+     */
+    public static TaskBatch read(ReadableByteChannel channel, TaskFormat format, TaskManager target)
+            throws IOException {
+        TaskImporter importer = new TaskImporter(channel, target);
+        if (format == TaskFormat.CSV) {
+            importer.readCsv();
+        } else {
+            importer.readNdjson();
+        }
+        importer.linkOrphans();
+        return importer.batch;
+    }
+
+    private void readCsv() throws IOException {
+        int[] columns = readCsvHeader();
+        while (true) {
+            line = in.getLine();
+            clearRecord();
+            int end = readCsvField();
+            if (end != ',' && length == 0) {
+                if (end < 0) {
+                    return;
+                }
+                continue;
+            }
+            int field = 0;
+            while (true) {
+                if (field < columns.length) {
+                    assign(columns[field], length > 0 || quoted);
+                } else if (length > 0) {
+                    throw error("Лишнее поле", text());
+                }
+                field++;
+                if (end != ',') {
+                    break;
+                }
+                end = readCsvField();
+            }
+            addRecord();
+            if (end < 0) {
+                return;
+            }
+        }
+    }
+
+    private int[] readCsvHeader() throws IOException {
+        line = in.getLine();
+        int[] columns = new int[COLUMNS.length];
+        int count = 0;
+        int end;
+        do {
+            end = readCsvField();
+            if (count == columns.length) {
+                columns = Arrays.copyOf(columns, count * 2);
+            }
+            columns[count++] = match(COLUMNS);
+        } while (end == ',');
+        columns = Arrays.copyOf(columns, count);
+        for (int required : new int[]{ID, TYPE}) {
+            if (Arrays.stream(columns).noneMatch(column -> column == required)) {
+                throw error("В заголовке CSV нет обязательного столбца", new String(COLUMNS[required],
+                        StandardCharsets.US_ASCII));
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Читает поле CSV в scratch и возвращает то, чем оно кончилось:
+     * ',', '\n' или -1 в конце канала.
+     */
+    private int readCsvField() throws IOException {
+        length = 0;
+        quoted = false;
+        int b = in.read();
+        if (b == '"') {
+            quoted = true;
+            while (true) {
+                b = in.read();
+                if (b < 0) {
+                    throw error("Незакрытая кавычка", text());
+                }
+                if (b == '"') {
+                    if (in.peek() != '"') {
+                        break;
+                    }
+                    in.read();
+                }
+                append(b);
+            }
+            b = in.read();
+            if (b == '\r') {
+                b = in.read();
+            }
+            if (b >= 0 && b != ',' && b != '\n') {
+                throw error("Символ после закрывающей кавычки", (char) b);
+            }
+            return b;
+        }
+        while (b >= 0 && b != ',' && b != '\n') {
+            append(b);
+            b = in.read();
+        }
+        if (b == '\n' && length > 0 && scratch[length - 1] == '\r') {
+            length--;
+        }
+        return b;
+    }
+
+    private void readNdjson() throws IOException {
+        while (true) {
+            int b = skipSpaces(true);
+            if (b < 0) {
+                return;
+            }
+            line = in.getLine();
+            if (in.read() != '{') {
+                throw error("Строка NDJSON должна быть объектом", (char) b);
+            }
+            clearRecord();
+            b = skipSpaces(false);
+            if (b == '}') {
+                in.read();
+            } else {
+                readJsonFields();
+            }
+            b = skipSpaces(false);
+            if (b >= 0 && b != '\n') {
+                throw error("После объекта в строке есть ещё символы", (char) b);
+            }
+            addRecord();
+        }
+    }
+
+    private void readJsonFields() throws IOException {
+        while (true) {
+            if (in.read() != '"') {
+                throw error("Ожидалось имя поля", text());
+            }
+            readJsonString();
+            int column = match(COLUMNS);
+            if (skipSpaces(false) != ':') {
+                throw error("Ожидалось двоеточие после имени поля", text());
+            }
+            in.read();
+            int b = skipSpaces(false);
+            if (column == UNKNOWN) {
+                skipJsonValue();
+            } else if (b == '"') {
+                in.read();
+                readJsonString();
+                quoted = true;
+                assign(column, true);
+            } else {
+                readJsonScalar();
+                if (length == 4 && scratch[0] == 'n' && scratch[1] == 'u' && scratch[2] == 'l' && scratch[3] == 'l') {
+                    assign(column, false);
+                } else {
+                    quoted = false;
+                    assign(column, true);
+                }
+            }
+            int next = skipSpaces(false);
+            in.read();
+            if (next == '}') {
+                return;
+            }
+            if (next != ',') {
+                throw error("Ожидалась запятая или конец объекта", next < 0 ? "конец файла" : (char) next);
+            }
+            skipSpaces(false);
+        }
+    }
+
+    /**
+     * Читает строку JSON после открывающей кавычки в scratch, раскрывая экранирование.
+     */
+    private void readJsonString() throws IOException {
+        length = 0;
+        while (true) {
+            int b = in.read();
+            if (b == '"') {
+                return;
+            }
+            if (b < 0x20) {
+                throw error("Незакрытая строка", text());
+            }
+            if (b != '\\') {
+                append(b);
+                continue;
+            }
+            b = in.read();
+            switch (b) {
+                case '"':
+                case '\\':
+                case '/':
+                    append(b);
+                    break;
+                case 'b':
+                    append('\b');
+                    break;
+                case 'f':
+                    append('\f');
+                    break;
+                case 'n':
+                    append('\n');
+                    break;
+                case 'r':
+                    append('\r');
+                    break;
+                case 't':
+                    append('\t');
+                    break;
+                case 'u':
+                    appendCodePoint(readUnicodeEscape());
+                    break;
+                default:
+                    throw error("Неизвестное экранирование", b < 0 ? "конец файла" : (char) b);
+            }
+        }
+    }
+
+    private int readUnicodeEscape() throws IOException {
+        char unit = readHex4();
+        if (Character.isHighSurrogate(unit) && in.peek() == '\\') {
+            in.read();
+            if (in.read() != 'u') {
+                throw error("Ожидалась вторая половина суррогатной пары", Integer.toHexString(unit));
+            }
+            char low = readHex4();
+            return Character.isLowSurrogate(low) ? Character.toCodePoint(unit, low) : '?';
+        }
+        return Character.isSurrogate(unit) ? '?' : unit;
+    }
+
+    private char readHex4() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(in.read(), 16);
+            if (digit < 0) {
+                throw error("Неверное экранирование \\u", text());
+            }
+            value = value << 4 | digit;
+        }
+        return (char) value;
+    }
+
+    /**
+     * Число или литерал JSON — в scratch как есть.
+     */
+    private void readJsonScalar() throws IOException {
+        length = 0;
+        int b = in.peek();
+        while (b >= 0 && b != ',' && b != '}' && b != ']' && b != ' ' && b != '\t' && b != '\r' && b != '\n') {
+            append(in.read());
+            b = in.peek();
+        }
+    }
+
+    private void skipJsonValue() throws IOException {
+        int b = in.peek();
+        if (b == '"') {
+            in.read();
+            readJsonString();
+            return;
+        }
+        if (b != '{' && b != '[') {
+            readJsonScalar();
+            return;
+        }
+        int depth = 0;
+        do {
+            b = in.read();
+            if (b < 0 || b == '\n') {
+                throw error("Незакрытый вложенный объект", "");
+            }
+            if (b == '"') {
+                readJsonString();
+            } else if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                depth--;
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Пропускает пробелы (и переводы строк, если newlines) и возвращает
+     * следующий байт, не читая его.
+     */
+    private int skipSpaces(boolean newlines) throws IOException {
+        int b = in.peek();
+        while (b == ' ' || b == '\t' || b == '\r' || newlines && b == '\n') {
+            in.read();
+            b = in.peek();
+        }
+        return b;
+    }
+
+    private void clearRecord() {
+        hasId = false;
+        type = null;
+        title = null;
+        description = null;
+        status = Status.NEW;
+        epicId = 0;
+        startTime = null;
+        duration = null;
+    }
+
+    /**
+     * Разбирает значение из scratch в поле записи; present = false — значения нет.
+     */
+    private void assign(int column, boolean present) {
+        switch (column) {
+            case ID:
+                if (present) {
+                    id = parseInt("id");
+                    hasId = true;
+                }
+                break;
+            case TYPE:
+                if (present) {
+                    int index = match(TYPE_NAMES);
+                    if (index == UNKNOWN) {
+                        throw error("Неизвестный тип задачи", text());
+                    }
+                    type = TYPES[index];
+                }
+                break;
+            case TITLE:
+                title = present ? text() : null;
+                break;
+            case DESCRIPTION:
+                description = present ? text() : null;
+                break;
+            case STATUS:
+                if (present) {
+                    int index = match(STATUS_NAMES);
+                    if (index == UNKNOWN) {
+                        throw error("Неизвестный статус", text());
+                    }
+                    status = STATUSES[index];
+                }
+                break;
+            case EPIC_ID:
+                epicId = present ? parseInt("epicId") : 0;
+                break;
+            case START_TIME:
+                startTime = present ? parseDateTime() : null;
+                break;
+            case DURATION:
+                duration = present ? Duration.ofMinutes(parseLong("duration")) : null;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void addRecord() {
+        if (!hasId) {
+            throw error("У задачи нет id", "");
+        }
+        if (type == null) {
+            throw error("У задачи нет type", id);
+        }
+        Task task;
+        boolean orphan = false;
+        switch (type) {
+            case EPIC:
+                Epic epic = new Epic(title, description, status);
+                epics.put(id, epic);
+                task = epic;
+                break;
+            case SUBTASK:
+                if (epicId == 0) {
+                    throw error("У подзадачи нет epicId", id);
+                }
+                Epic parent = epics.get(epicId);
+                task = new Subtask(title, description, status, parent);
+                if (parent == null) {
+                    if (orphans.size() == orphanParents.length) {
+                        orphanParents = Arrays.copyOf(orphanParents, orphanParents.length * 2);
+                    }
+                    orphanParents[orphans.size()] = epicId;
+                    orphans.add((Subtask) task);
+                    orphan = true;
+                }
+                break;
+            default:
+                task = new Task(title, description, status);
+        }
+        task.setId(id);
+        if (type != TaskType.EPIC) {
+            task.setStartTime(startTime);
+            task.setDuration(duration);
+        }
+        if (!orphan) {
+            batch.add(task);
+        }
+    }
+
+    /**
+     * Связывает подзадачи, прочитанные раньше своих эпиков.
+     */
+    private void linkOrphans() {
+        for (int i = 0; i < orphans.size(); i++) {
+            Subtask orphan = orphans.get(i);
+            int parentId = orphanParents[i];
+            Epic parent = epics.get(parentId);
+            if (parent == null) {
+                parent = targetEpics().get(parentId);
+            }
+            if (parent == null) {
+                throw new IllegalArgumentException("Эпик подзадачи " + orphan.getId() + " не найден! - " + parentId);
+            }
+            Subtask subtask = new Subtask(orphan.getTitle(), orphan.getDescription(), orphan.getStatus(), parent);
+            subtask.setId(orphan.getId());
+            subtask.setStartTime(orphan.getStartTime());
+            subtask.setDuration(orphan.getDuration());
+            batch.add(subtask);
+        }
+    }
+
+    private IntHashMap<Epic> targetEpics() {
+        if (targetEpics == null) {
+            targetEpics = new IntHashMap<>();
+            if (target != null) {
+                for (Status each : STATUSES) {
+                    for (Task task : target.getTasksByStatus(TaskType.EPIC, each)) {
+                        targetEpics.put(task.getId(), (Epic) task);
+                    }
+                }
+            }
+        }
+        return targetEpics;
+    }
+
+    private int parseInt(String field) {
+        long value = parseLong(field);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw error("Значение " + field + " вне диапазона", text());
+        }
+        return (int) value;
+    }
+
+    private long parseLong(String field) {
+        return parseLong(0, length, field);
+    }
+
+    private long parseLong(int from, int to, String field) {
+        boolean negative = from < to && scratch[from] == '-';
+        int i = negative ? from + 1 : from;
+        if (i == to || to - i > 18) {
+            throw error("Неверное значение " + field, text());
+        }
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = scratch[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw error("Неверное значение " + field, text());
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Разбирает yyyy-MM-ddTHH:mm[:ss[.fffffffff]] из байт; прочие записи ISO-8601
+     * отдаются LocalDateTime.parse.
+     */
+    private LocalDateTime parseDateTime() {
+        try {
+            if (length >= 16 && scratch[4] == '-' && scratch[7] == '-' && scratch[10] == 'T' && scratch[13] == ':') {
+                int second = 0;
+                int nano = 0;
+                int position = 16;
+                if (position < length && scratch[position] == ':' && length >= 19) {
+                    second = digits(17, 2);
+                    position = 19;
+                    if (position < length && scratch[position] == '.' && length > 20 && length <= 29) {
+                        nano = digits(20, length - 20);
+                        for (int i = length - 20; i < 9; i++) {
+                            nano *= 10;
+                        }
+                        position = length;
+                    }
+                }
+                if (position == length) {
+                    return LocalDateTime.of(digits(0, 4), digits(5, 2), digits(8, 2),
+                            digits(11, 2), digits(14, 2), second, nano);
+                }
+            }
+            return LocalDateTime.parse(text());
+        } catch (DateTimeException e) {
+            throw error("Неверное время начала", text());
+        }
+    }
+
+    private int digits(int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = scratch[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new DateTimeException("Не цифра");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private int match(byte[][] names) {
+        for (int i = 0; i < names.length; i++) {
+            byte[] name = names[i];
+            if (name.length == length && Arrays.equals(name, 0, length, scratch, 0, length)) {
+                return i;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private String text() {
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void append(int b) {
+        if (length == scratch.length) {
+            scratch = Arrays.copyOf(scratch, length * 2);
+        }
+        scratch[length++] = (byte) b;
+    }
+
+    private void appendCodePoint(int codePoint) {
+        if (codePoint < 0x80) {
+            append(codePoint);
+        } else if (codePoint < 0x800) {
+            append(0xC0 | codePoint >> 6);
+            append(0x80 | codePoint & 0x3F);
+        } else if (codePoint < 0x10000) {
+            append(0xE0 | codePoint >> 12);
+            append(0x80 | codePoint >> 6 & 0x3F);
+            append(0x80 | codePoint & 0x3F);
+        } else {
+            append(0xF0 | codePoint >> 18);
+            append(0x80 | codePoint >> 12 & 0x3F);
+            append(0x80 | codePoint >> 6 & 0x3F);
+            append(0x80 | codePoint & 0x3F);
+        }
+    }
+
+    private IllegalArgumentException error(String reason, Object value) {
+        return new IllegalArgumentException(reason + " в строке " + line + "! - " + value);
+    }
+
+    private static String[] names(Enum<?>[] values) {
+        String[] names = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            names[i] = values[i].name();
+        }
+        return names;
+    }
+
+    private static byte[][] ascii(String... names) {
+        byte[][] bytes = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            bytes[i] = names[i].getBytes(StandardCharsets.US_ASCII);
+        }
+        return bytes;
+    }
+}
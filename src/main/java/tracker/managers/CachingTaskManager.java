@@ -0,0 +1,374 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.Epic;
+import main.java.tracker.HistoryManager;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskBatch;
+import main.java.tracker.TaskManager;
+import main.java.tracker.TaskPage;
+import main.java.tracker.TaskSnapshot;
+import main.java.tracker.TaskType;
+import main.java.tracker.util.CacheStats;
+import main.java.tracker.util.IntCache;
+import main.java.tracker.util.IntIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Декоратор медленного менеджера (файл, удалённое хранилище), который
+ * держит в {@link IntCache} ограниченного размера задачи, прочитанные через
+ * getTaskById, и списки подзадач из getSubtasksByEpic. Остальные чтения идут
+ * в обёрнутый менеджер.
+ * <p>
+ * Запись сначала проходит в обёрнутый менеджер, затем сбрасывает из кэша
+ * затронутую задачу, а для подзадачи — ещё и её эпик со списком подзадач,
+ * прежний и новый. Если прежний эпик подзадачи из кэша не виден, он
+ * узнаётся через peekTask обёрнутого менеджера, которое не попадает в
+ * историю просмотров. Чтение, начатое до записи,
+ * свой результат в кэш не кладёт, поэтому устаревшее значение туда не попадёт.
+ * <p>
+ * Попадание в кэш не доходит до обёрнутого менеджера, поэтому историю
+ * просмотров ведёт сам декоратор. Потокобезопасен, если потокобезопасен
+ * обёрнутый менеджер.
+ */
+public class CachingTaskManager implements TaskManager {
+    private static final int NO_EPIC = Integer.MIN_VALUE;
+
+    private final TaskManager delegate;
+    private final HistoryManager historyManager;
+    private final IntCache<Task> tasks;
+    private final IntCache<List<Subtask>> subtaskLists;
+    /**
+     * Эпик каждой подзадачи из закэшированных списков.
+     */
+    private final IntIntHashMap listedIn = new IntIntHashMap(NO_EPIC);
+    /**
+     * Число записей; чтение, во время которого оно изменилось, не кэшируется.
+     */
+    private long writes;
+
+    public CachingTaskManager(TaskManager delegate, HistoryManager historyManager, int capacity,
+                              IntCache.Policy policy) {
+        this.delegate = delegate;
+        this.historyManager = historyManager;
+        this.tasks = new IntCache<>(capacity, policy);
+        this.subtaskLists = new IntCache<>(capacity, policy, this::unlist);
+    }
+
+    public TaskManager getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Попадания и промахи getTaskById.
+     */
+    public synchronized CacheStats getStats() {
+        return tasks.stats();
+    }
+
+    /**
+     * Попадания и промахи getSubtasksByEpic(int).
+     */
+    public synchronized CacheStats getSubtaskListStats() {
+        return subtaskLists.stats();
+    }
+
+    public synchronized void resetStats() {
+        tasks.resetStats();
+        subtaskLists.resetStats();
+    }
+
+    @Override
+    public void addNewTask(Task task) {
+        try {
+            delegate.addNewTask(task);
+        } finally {
+            synchronized (this) {
+                invalidate(task.getId(), null, task);
+            }
+        }
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        Task task;
+        long seen;
+        synchronized (this) {
+            task = tasks.get(id);
+            if (task != null) {
+                historyManager.add(task);
+                return task;
+            }
+            seen = writes;
+        }
+        task = delegate.getTaskById(id);
+        if (task != null) {
+            synchronized (this) {
+                if (writes == seen && !tasks.containsKey(id)) {
+                    tasks.put(id, task);
+                }
+                historyManager.add(task);
+            }
+        }
+        return task;
+    }
+
+    @Override
+    public Task peekTask(int id) {
+        synchronized (this) {
+            Task cached = tasks.peek(id);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return delegate.peekTask(id);
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return delegate.getAllTasks();
+    }
+
+    @Override
+    public Stream<Task> streamAllTasks() {
+        return delegate.streamAllTasks();
+    }
+
+    @Override
+    public TaskPage getTasksPage(int afterId, int limit) {
+        return delegate.getTasksPage(afterId, limit);
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        Task previous = previous(task.getId());
+        try {
+            delegate.updateTask(task);
+        } finally {
+            synchronized (this) {
+                invalidate(task.getId(), previous, task);
+            }
+        }
+    }
+
+    @Override
+    public void deleteTaskOnId(int id) {
+        Task previous = previous(id);
+        List<Subtask> subtasks = previous instanceof Epic ? subtasksOf(id) : Collections.emptyList();
+        boolean deleted = false;
+        try {
+            delegate.deleteTaskOnId(id);
+            deleted = true;
+        } finally {
+            synchronized (this) {
+                invalidate(id, previous, null);
+                if (deleted) {
+                    forget(id, subtasks);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void applyBatch(TaskBatch batch) {
+        List<TaskBatch.Operation> operations = batch.getOperations();
+        List<Task> previous = new ArrayList<>(operations.size());
+        List<List<Subtask>> subtasks = new ArrayList<>(operations.size());
+        for (TaskBatch.Operation operation : operations) {
+            Task before = operation.getKind() == TaskBatch.Kind.ADD ? null : previous(operation.getId());
+            previous.add(before);
+            subtasks.add(operation.getKind() == TaskBatch.Kind.DELETE && before instanceof Epic
+                    ? subtasksOf(operation.getId()) : Collections.emptyList());
+        }
+        boolean applied = false;
+        try {
+            delegate.applyBatch(batch);
+            applied = true;
+        } finally {
+            synchronized (this) {
+                for (int i = 0; i < operations.size(); i++) {
+                    TaskBatch.Operation operation = operations.get(i);
+                    int id = operation.getTask() != null ? operation.getTask().getId() : operation.getId();
+                    invalidate(id, previous.get(i), operation.getTask());
+                    if (applied && operation.getKind() == TaskBatch.Kind.DELETE) {
+                        forget(id, subtasks.get(i));
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return delegate.getPrioritizedTasks();
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        return delegate.search(query, limit);
+    }
+
+    @Override
+    public TaskSnapshot snapshot() {
+        return delegate.snapshot();
+    }
+
+    /**
+     * Неизменяемая копия списка подзадач, которую сбрасывает любая запись в
+     * этот эпик или его подзадачи.
+     */
+    @Override
+    public List<Subtask> getSubtasksByEpic(int id) {
+        List<Subtask> subtasks;
+        long seen;
+        synchronized (this) {
+            subtasks = subtaskLists.get(id);
+            seen = writes;
+        }
+        if (subtasks != null) {
+            return subtasks;
+        }
+        subtasks = List.copyOf(delegate.getSubtasksByEpic(id));
+        synchronized (this) {
+            if (writes == seen && !subtaskLists.containsKey(id)) {
+                subtaskLists.put(id, subtasks);
+                for (Subtask subtask : subtasks) {
+                    listedIn.put(subtask.getId(), id);
+                }
+            }
+        }
+        return subtasks;
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return delegate.getTasksByStatus(status);
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(TaskType type, Status status) {
+        return delegate.getTasksByStatus(type, status);
+    }
+
+    @Override
+    public int countByStatus(Status status) {
+        return delegate.countByStatus(status);
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        return delegate.countByStatus(type, status);
+    }
+
+    @Override
+    public int countByType(TaskType type) {
+        return delegate.countByType(type);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpic(int epicId, Status status) {
+        return delegate.getSubtasksByEpic(epicId, status);
+    }
+
+    @Override
+    public int countSubtasksByEpic(int epicId, Status status) {
+        return delegate.countSubtasksByEpic(epicId, status);
+    }
+
+    /**
+     * Задача с этим ID до записи: из кэша, а если её там нет — через peekTask
+     * обёрнутого менеджера, но только когда её эпик не виден по закэшированным
+     * спискам. Просмотром это чтение не считается.
+     */
+    private Task previous(int id) {
+        synchronized (this) {
+            Task cached = tasks.peek(id);
+            if (cached != null || listedIn.containsKey(id)) {
+                return cached;
+            }
+        }
+        return delegate.peekTask(id);
+    }
+
+    private List<Subtask> subtasksOf(int epicId) {
+        synchronized (this) {
+            List<Subtask> cached = subtaskLists.peek(epicId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return List.copyOf(delegate.getSubtasksByEpic(epicId));
+    }
+
+    /**
+     * Сбрасывает задачу, её список подзадач и эпики, к которым она относилась
+     * до и после записи.
+     */
+    private void invalidate(int id, Task previous, Task current) {
+        int listedEpic = listedIn.get(id);
+        tasks.remove(id);
+        dropList(id);
+        if (listedEpic != NO_EPIC) {
+            dropEpic(listedEpic);
+        }
+        dropParent(previous);
+        dropParent(current);
+        writes++;
+    }
+
+    /**
+     * Убирает удалённую задачу и подзадачи удалённого эпика из истории и кэша.
+     */
+    private void forget(int id, List<Subtask> subtasks) {
+        historyManager.remove(id);
+        for (Subtask subtask : subtasks) {
+            historyManager.remove(subtask.getId());
+            tasks.remove(subtask.getId());
+            listedIn.remove(subtask.getId());
+        }
+    }
+
+    private void dropParent(Task task) {
+        if (task instanceof Subtask && ((Subtask) task).getParentEpic() != null) {
+            dropEpic(((Subtask) task).getParentEpic().getId());
+        }
+    }
+
+    private void dropEpic(int epicId) {
+        tasks.remove(epicId);
+        dropList(epicId);
+    }
+
+    private void dropList(int epicId) {
+        List<Subtask> subtasks = subtaskLists.remove(epicId);
+        if (subtasks != null) {
+            unlist(epicId, subtasks);
+        }
+    }
+
+    private void unlist(int epicId, List<Subtask> subtasks) {
+        for (Subtask subtask : subtasks) {
+            if (listedIn.get(subtask.getId()) == epicId) {
+                listedIn.remove(subtask.getId());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CachingTaskManager{" +
+                "delegate=" + delegate +
+                ", tasks=" + tasks.stats() +
+                '}';
+    }
+}
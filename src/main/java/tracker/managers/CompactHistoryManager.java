@@ -0,0 +1,223 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.Epic;
+import main.java.tracker.HistoryManager;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.util.IntHashMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * История просмотров без выделения памяти при записи.
+ * Вместо копии задачи в заранее выделенные массивы пишется компактная запись:
+ * ID, тип, статус, ссылки на неизменяемые строки, время начала, длительность
+ * и конец эпика, родительский эпик.
+ * Объекты Task собираются заново при каждом getHistory(), поэтому изменения,
+ * которые вызывающий внёс в полученные задачи, в следующие чтения не попадают.
+ * <p>
+ * Буфер вдвое больше размера истории: новые записи добавляются в конец, старые
+ * при повторном просмотре или вытеснении помечаются пустыми, а при заполнении
+ * буфера живые записи сдвигаются в начало. Сдвиг происходит не чаще раза на
+ * maxSize добавлений, так что запись стоит O(1) в среднем.
+ */
+public class CompactHistoryManager implements HistoryManager {
+    private static final byte KIND_TASK = 0;
+    private static final byte KIND_EPIC = 1;
+    private static final byte KIND_SUBTASK = 2;
+    private static final Status[] STATUSES = Status.values();
+
+    private final int maxSize;
+    private final int[] ids;
+    private final byte[] kinds;
+    private final byte[] statuses;
+    private final String[] titles;
+    private final String[] descriptions;
+    private final LocalDateTime[] startTimes;
+    private final Duration[] durations;
+    /**
+     * Конец окна эпика на момент просмотра; у задач и подзадач не хранится.
+     */
+    private final LocalDateTime[] endTimes;
+    private final Epic[] parents;
+    private final boolean[] alive;
+    /**
+     * Заранее упакованные номера ячеек, чтобы индекс id -> ячейка не создавал Integer.
+     */
+    private final Integer[] slotRefs;
+    private final IntHashMap<Integer> slots;
+    private int start;
+    private int end;
+    private int size;
+
+    public CompactHistoryManager() {
+        this(InMemoryHistoryManager.DEFAULT_MAX_SIZE);
+    }
+
+    public CompactHistoryManager(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным! - " + maxSize);
+        }
+        this.maxSize = maxSize;
+        int capacity = maxSize * 2;
+        ids = new int[capacity];
+        kinds = new byte[capacity];
+        statuses = new byte[capacity];
+        titles = new String[capacity];
+        descriptions = new String[capacity];
+        startTimes = new LocalDateTime[capacity];
+        durations = new Duration[capacity];
+        endTimes = new LocalDateTime[capacity];
+        parents = new Epic[capacity];
+        alive = new boolean[capacity];
+        slotRefs = new Integer[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slotRefs[i] = i;
+        }
+        slots = new IntHashMap<>(maxSize + 1);
+    }
+
+    @Override
+    public void add(Task task) {
+        int id = task.getId();
+        Integer previous = slots.remove(id);
+        if (previous != null) {
+            clear(previous);
+        } else if (size == maxSize) {
+            evictOldest();
+        }
+        if (end == ids.length) {
+            compact();
+        }
+        write(end, task);
+        slots.put(id, slotRefs[end]);
+        end++;
+        size++;
+    }
+
+    @Override
+    public void remove(int id) {
+        Integer slot = slots.remove(id);
+        if (slot != null) {
+            clear(slot);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> history = new ArrayList<>(size);
+        for (int slot = start; slot < end; slot++) {
+            if (alive[slot]) {
+                history.add(view(slot));
+            }
+        }
+        return history;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return slots.containsKey(id);
+    }
+
+    private void write(int slot, Task task) {
+        ids[slot] = task.getId();
+        statuses[slot] = (byte) task.getStatus().ordinal();
+        titles[slot] = task.getTitle();
+        descriptions[slot] = task.getDescription();
+        startTimes[slot] = task.getStartTime();
+        durations[slot] = task.getDuration();
+        endTimes[slot] = null;
+        if (task instanceof Epic) {
+            kinds[slot] = KIND_EPIC;
+            endTimes[slot] = task.getEndTime();
+            parents[slot] = null;
+        } else if (task instanceof Subtask) {
+            kinds[slot] = KIND_SUBTASK;
+            parents[slot] = ((Subtask) task).getParentEpic();
+        } else {
+            kinds[slot] = KIND_TASK;
+            parents[slot] = null;
+        }
+        alive[slot] = true;
+    }
+
+    private Task view(int slot) {
+        Task view;
+        Status status = STATUSES[statuses[slot]];
+        if (kinds[slot] == KIND_EPIC) {
+            Epic epic = new Epic(titles[slot], descriptions[slot], status);
+            epic.setEndTime(endTimes[slot]);
+            view = epic;
+        } else if (kinds[slot] == KIND_SUBTASK) {
+            view = new Subtask(titles[slot], descriptions[slot], status, parents[slot]);
+        } else {
+            view = new Task(titles[slot], descriptions[slot], status);
+        }
+        view.setId(ids[slot]);
+        view.setStartTime(startTimes[slot]);
+        view.setDuration(durations[slot]);
+        return view;
+    }
+
+    private void evictOldest() {
+        while (!alive[start]) {
+            start++;
+        }
+        slots.remove(ids[start]);
+        clear(start);
+    }
+
+    private void clear(int slot) {
+        alive[slot] = false;
+        titles[slot] = null;
+        descriptions[slot] = null;
+        startTimes[slot] = null;
+        durations[slot] = null;
+        endTimes[slot] = null;
+        parents[slot] = null;
+        size--;
+        while (start < end && !alive[start]) {
+            start++;
+        }
+    }
+
+    private void compact() {
+        int target = 0;
+        for (int slot = start; slot < end; slot++) {
+            if (!alive[slot]) {
+                continue;
+            }
+            if (slot != target) {
+                move(slot, target);
+                slots.put(ids[target], slotRefs[target]);
+            }
+            target++;
+        }
+        start = 0;
+        end = target;
+    }
+
+    private void move(int from, int to) {
+        ids[to] = ids[from];
+        kinds[to] = kinds[from];
+        statuses[to] = statuses[from];
+        titles[to] = titles[from];
+        descriptions[to] = descriptions[from];
+        startTimes[to] = startTimes[from];
+        durations[to] = durations[from];
+        endTimes[to] = endTimes[from];
+        parents[to] = parents[from];
+        alive[to] = true;
+        alive[from] = false;
+        titles[from] = null;
+        descriptions[from] = null;
+        startTimes[from] = null;
+        durations[from] = null;
+        endTimes[from] = null;
+        parents[from] = null;
+    }
+}
@@ -0,0 +1,849 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.Epic;
+import main.java.tracker.HistoryManager;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskBatch;
+import main.java.tracker.TaskManager;
+import main.java.tracker.TaskPage;
+import main.java.tracker.TaskSnapshot;
+import main.java.tracker.TaskType;
+import main.java.tracker.util.Managers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Потокобезопасный менеджер задач.
+ * Чтение идёт без блокировок по ConcurrentHashMap, изменения подзадач эпика
+ * защищены блокировкой из пула (по ID эпика), глобального мьютекса нет.
+ * Проверка пересечения по времени и запись в индекс интервалов идут под его
+ * монитором; его берут после блокировок эпиков, но не наоборот. Полнотекстовый
+ * индекс защищён своим монитором, под которым других блокировок не берут.
+ * Просмотры копятся в полосах по потокам и сливаются в историю под её
+ * монитором при чтении истории и удалении задач.
+ */
+public class ConcurrentTaskManager implements TaskManager {
+    private static final int DEFAULT_LOCK_STRIPES = 64;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final int STATUS_COUNT = Status.values().length;
+
+    private final ConcurrentMap<Integer, Task> tasks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Epic> epics = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Subtask> subtasks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Task> index = new ConcurrentHashMap<>();
+    /**
+     * Вторичный индекс по (тип, статус): ячейка id -> задача на каждую пару
+     * и номер ячейки, в которой сейчас учтена задача с данным ID.
+     */
+    private final ConcurrentMap<Integer, Task>[] byStatus;
+    private final ConcurrentMap<Integer, Integer> statusSlots = new ConcurrentHashMap<>();
+    private final TimeIndex timeIndex = new TimeIndex();
+    private final SearchIndex searchIndex = new SearchIndex();
+    /**
+     * ID, которые применяемый пакет удаляет и тут же добавляет заново.
+     */
+    private final Set<Integer> reservedIds = ConcurrentHashMap.newKeySet();
+    private final SnapshotPublisher snapshots = new SnapshotPublisher(id -> index.get(id));
+    private final HistoryManager historyManager;
+    private final ViewBuffer views;
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final Lock[] epicLocks;
+    /**
+     * Эпики, затронутые применяемым пакетом; null вне applyBatch.
+     * Читается и пишется только под блокировками эпиков.
+     */
+    private Set<Epic> batchEpics;
+
+    public ConcurrentTaskManager() {
+        this(DEFAULT_LOCK_STRIPES);
+    }
+
+    public ConcurrentTaskManager(int lockStripes) {
+        this(lockStripes, Managers.getDefaultHistory());
+    }
+
+    public ConcurrentTaskManager(int lockStripes, HistoryManager historyManager) {
+        if (lockStripes <= 0) {
+            throw new IllegalArgumentException("Количество блокировок должно быть положительным! - " + lockStripes);
+        }
+        epicLocks = new Lock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            epicLocks[i] = new ReentrantLock();
+        }
+        this.historyManager = historyManager;
+        this.views = new ViewBuffer(historyManager);
+        byStatus = newStatusSlots();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ConcurrentMap<Integer, Task>[] newStatusSlots() {
+        ConcurrentMap<Integer, Task>[] slots = new ConcurrentMap[TYPES.length * STATUS_COUNT];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new ConcurrentHashMap<>();
+        }
+        return slots;
+    }
+
+    @Override
+    public void addNewTask(Task task) {
+        if (TimeIndex.isScheduled(task)) {
+            synchronized (timeIndex) {
+                timeIndex.checkOverlap(task);
+                claimId(task);
+                timeIndex.put(task);
+            }
+        } else {
+            claimId(task);
+        }
+        addTaskByType(task);
+    }
+
+    private void claimId(Task task) {
+        int id = task.getId();
+        if (id == 0) {
+            do {
+                id = nextId.getAndIncrement();
+            } while (!tryClaim(id, task));
+            task.setId(id);
+        } else if (!tryClaim(id, task)) {
+            throw new IllegalArgumentException("Задача с таким ID уже существует! -  " + id);
+        }
+    }
+
+    /**
+     * Занимает ID в index. ID, который применяемый пакет освобождает удалением,
+     * чтобы занять снова, не отдаётся: занятый по ошибке ID тут же освобождается.
+     */
+    private boolean tryClaim(int id, Task task) {
+        if (index.putIfAbsent(id, task) != null) {
+            return false;
+        }
+        if (!reservedIds.isEmpty() && reservedIds.contains(id)) {
+            index.compute(id, (key, current) -> current == task ? null : current);
+            return false;
+        }
+        return true;
+    }
+
+    private void addTaskByType(Task task) {
+        indexText(task);
+        if (task instanceof Epic) {
+            addEpic((Epic) task);
+        } else if (task instanceof Subtask) {
+            addSubtask((Subtask) task);
+        } else {
+            tasks.put(task.getId(), task);
+            reindex(task.getId());
+            snapshots.publish(task.getId());
+        }
+    }
+
+    /**
+     * Статус эпика читается из его счётчиков, поэтому в индекс он попадает
+     * только под блокировкой эпика.
+     */
+    private void addEpic(Epic epic) {
+        Lock lock = lockFor(epic);
+        lock.lock();
+        try {
+            epics.put(epic.getId(), epic);
+            reindex(epic.getId());
+            snapshots.publish(epic.getId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void addSubtask(Subtask subtask) {
+        Epic parentEpic = subtask.getParentEpic();
+        if (parentEpic == null) {
+            subtasks.put(subtask.getId(), subtask);
+            reindex(subtask.getId());
+            snapshots.publish(subtask.getId());
+            return;
+        }
+        Lock lock = lockFor(parentEpic);
+        lock.lock();
+        try {
+            subtasks.put(subtask.getId(), subtask);
+            reindex(subtask.getId());
+            parentEpic.addSubtask(subtask);
+            updateEpicStatus(parentEpic);
+            snapshots.publish(subtask.getId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isIdUnique(int id) {
+        return !index.containsKey(id);
+    }
+
+    public int generateUniqueId() {
+        int id;
+        do {
+            id = nextId.getAndIncrement();
+        } while (index.containsKey(id));
+        return id;
+    }
+
+    /**
+     * Просмотр пишется в полосу потока в {@link ViewBuffer}, а не сразу
+     * в историю, так что параллельные чтения не ждут общего монитора.
+     */
+    @Override
+    public Task getTaskById(int id) {
+        Task task = index.get(id);
+        if (task != null) {
+            views.record(task);
+        }
+        return task;
+    }
+
+    @Override
+    public Task peekTask(int id) {
+        return index.get(id);
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        List<Task> allTasks = new ArrayList<>(tasks.values());
+        allTasks.addAll(epics.values());
+        allTasks.addAll(subtasks.values());
+        return allTasks;
+    }
+
+    /**
+     * Поток слабо согласован, как и итераторы ConcurrentHashMap:
+     * блокировок не берёт и видит часть изменений, сделанных во время обхода.
+     */
+    @Override
+    public Stream<Task> streamAllTasks() {
+        return index.values().stream();
+    }
+
+    public Stream<Epic> streamEpics() {
+        return epics.values().stream();
+    }
+
+    public Stream<Subtask> streamSubtasks() {
+        return subtasks.values().stream();
+    }
+
+    /**
+     * Один проход по индексу с кучей на limit + 1 задач. Страницы слабо согласованы:
+     * задача, добавленная с ID меньше курсора, в следующие страницы не попадёт.
+     */
+    @Override
+    public TaskPage getTasksPage(int afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным! - " + limit);
+        }
+        int count = limit + 1;
+        PriorityQueue<Task> largest = new PriorityQueue<>(Math.min(count, 1024),
+                Comparator.comparingInt(Task::getId).reversed());
+        for (Task task : index.values()) {
+            if (task.getId() <= afterId) {
+                continue;
+            }
+            if (largest.size() < count) {
+                largest.add(task);
+            } else if (task.getId() < largest.peek().getId()) {
+                largest.poll();
+                largest.add(task);
+            }
+        }
+        List<Task> page = new ArrayList<>(largest);
+        page.sort(Comparator.comparingInt(Task::getId));
+        boolean hasMore = page.size() > limit;
+        if (hasMore) {
+            page.remove(limit);
+        }
+        int nextCursor = page.isEmpty() ? afterId : page.get(page.size() - 1).getId();
+        return new TaskPage(page, nextCursor, hasMore);
+    }
+
+    public void deleteAllTasks() {
+        for (Integer id : new ArrayList<>(index.keySet())) {
+            deleteTaskOnId(id);
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpic(int epicId) {
+        Epic epic = epics.get(epicId);
+        if (epic == null) {
+            return new ArrayList<>();
+        }
+        Lock lock = lockFor(epic);
+        lock.lock();
+        try {
+            return new ArrayList<>(epic.getSubtasks());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        synchronized (timeIndex) {
+            timeIndex.checkOverlap(task);
+            timeIndex.put(task);
+        }
+        indexText(task);
+        if (task instanceof Epic) {
+            updateEpic((Epic) task);
+        } else if (task instanceof Subtask) {
+            updateSubtask((Subtask) task);
+        } else {
+            index.put(task.getId(), task);
+            tasks.put(task.getId(), task);
+            reindex(task.getId());
+            snapshots.publish(task.getId());
+        }
+    }
+
+    private void updateEpic(Epic epic) {
+        Lock lock = lockFor(epic);
+        lock.lock();
+        try {
+            Task previous = index.put(epic.getId(), epic);
+            if (previous instanceof Epic) {
+                epic.takeSubtasksFrom((Epic) previous);
+            }
+            epics.put(epic.getId(), epic);
+            updateEpicStatus(epic);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Прежний родитель перечитывается под блокировкой эпика: если параллельное
+     * обновление успело перенести подзадачу в другой эпик, обновление уходит
+     * в перенос. Задача в index меняется сравнением с перечитанной, так что
+     * обновление без эпика, которое вклинилось между чтением и заменой,
+     * тоже отправляет на новый круг.
+     */
+    private void updateSubtask(Subtask subtask) {
+        Epic parentEpic = subtask.getParentEpic();
+        while (true) {
+            Task current = index.get(subtask.getId());
+            Epic previousEpic = parentOf(current);
+            if (previousEpic != null && previousEpic != parentEpic) {
+                if (moveSubtask(subtask, previousEpic)) {
+                    return;
+                }
+                continue;
+            }
+            if (parentEpic == null) {
+                if (!replaceIndexed(subtask.getId(), current, subtask)) {
+                    continue;
+                }
+                subtasks.put(subtask.getId(), subtask);
+                reindex(subtask.getId());
+                snapshots.publish(subtask.getId());
+                return;
+            }
+            Lock lock = lockFor(parentEpic);
+            lock.lock();
+            try {
+                Task previous = index.get(subtask.getId());
+                Epic lockedEpic = parentOf(previous);
+                if (lockedEpic != null && lockedEpic != parentEpic
+                        || !replaceIndexed(subtask.getId(), previous, subtask)) {
+                    continue;
+                }
+                subtasks.put(subtask.getId(), subtask);
+                reindex(subtask.getId());
+                if (previous == subtask) {
+                    parentEpic.refreshSubtaskStatus(subtask);
+                } else if (lockedEpic == parentEpic) {
+                    parentEpic.replaceSubtask((Subtask) previous, subtask);
+                } else {
+                    parentEpic.addSubtask(subtask);
+                }
+                updateEpicStatus(parentEpic);
+                snapshots.publish(subtask.getId());
+                return;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Перенос подзадачи между эпиками: блокировки берутся в порядке номеров,
+     * чтобы два встречных переноса не заблокировали друг друга. Возвращает
+     * false, если под блокировками подзадача уже не в previousEpic.
+     */
+    private boolean moveSubtask(Subtask subtask, Epic previousEpic) {
+        Epic parentEpic = subtask.getParentEpic();
+        int from = stripeOf(previousEpic);
+        int to = parentEpic != null ? stripeOf(parentEpic) : from;
+        Lock first = epicLocks[Math.min(from, to)];
+        Lock second = epicLocks[Math.max(from, to)];
+        first.lock();
+        second.lock();
+        try {
+            Task previous = index.get(subtask.getId());
+            if (parentOf(previous) != previousEpic || !replaceIndexed(subtask.getId(), previous, subtask)) {
+                return false;
+            }
+            subtasks.put(subtask.getId(), subtask);
+            reindex(subtask.getId());
+            previousEpic.removeSubtask((Subtask) previous);
+            updateEpicStatus(previousEpic);
+            if (parentEpic != null) {
+                parentEpic.addSubtask(subtask);
+                updateEpicStatus(parentEpic);
+            }
+            snapshots.publish(subtask.getId());
+            return true;
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
+    }
+
+    private static Epic parentOf(Task task) {
+        return task instanceof Subtask ? ((Subtask) task).getParentEpic() : null;
+    }
+
+    /**
+     * Заменяет задачу в index, если там всё ещё тот же экземпляр previous
+     * (null — ID свободен). replace(key, old, new) не годится: подзадачи
+     * с одним ID равны по equals.
+     */
+    private boolean replaceIndexed(int id, Task previous, Task task) {
+        boolean[] replaced = new boolean[1];
+        index.compute(id, (key, current) -> {
+            if (current != previous) {
+                return current;
+            }
+            replaced[0] = true;
+            return task;
+        });
+        return replaced[0];
+    }
+
+    /**
+     * Статус эпика с подзадачами выводится из его счётчиков; пустой эпик
+     * сбрасывается в NEW. Вызывается только под блокировкой эпика.
+     */
+    private void updateEpicStatus(Epic epic) {
+        if (batchEpics != null) {
+            batchEpics.add(epic);
+            return;
+        }
+        if (epic.getSubtasks().isEmpty()) {
+            epic.setStatus(Status.NEW);
+        }
+        reindex(epic.getId());
+        snapshots.publish(epic.getId());
+    }
+
+    /**
+     * Пакет держит все блокировки эпиков, поэтому изменения эпиков и подзадач
+     * из других потоков ждут его окончания. ID добавлений захватываются в index
+     * до первого изменения: если какой-то занят, захваченные освобождаются
+     * и пакет не применяется. Чтения без блокировок и изменения обычных задач
+     * могут видеть пакет применённым частично, снимок — только целиком.
+     */
+    @Override
+    public void applyBatch(TaskBatch batch) {
+        List<TaskBatch.Operation> operations = batch.getOperations();
+        for (Lock lock : epicLocks) {
+            lock.lock();
+        }
+        try {
+            synchronized (timeIndex) {
+                timeIndex.checkBatch(operations, this::getSubtasksByEpic);
+                applyBatchLocked(operations);
+            }
+        } finally {
+            for (int i = epicLocks.length - 1; i >= 0; i--) {
+                epicLocks[i].unlock();
+            }
+        }
+    }
+
+    private void applyBatchLocked(List<TaskBatch.Operation> operations) {
+        Set<Task> reused = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Task> claimed = claimBatchIds(operations, reused);
+        batchEpics = Collections.newSetFromMap(new IdentityHashMap<>());
+        snapshots.beginBatch();
+        try {
+            for (TaskBatch.Operation operation : operations) {
+                Task task = operation.getTask();
+                switch (operation.getKind()) {
+                    case ADD:
+                        if (reused.contains(task)) {
+                            // ID зарезервирован: чужой tryClaim мог лишь на миг занять его и сам отступит.
+                            index.put(task.getId(), task);
+                        }
+                        if (claimed.contains(task) || reused.contains(task)) {
+                            timeIndex.put(task);
+                            addTaskByType(task);
+                        } else {
+                            addNewTask(task);
+                        }
+                        break;
+                    case UPDATE:
+                        updateTask(operation.getTask());
+                        break;
+                    default:
+                        deleteTaskOnId(operation.getId());
+                }
+            }
+        } finally {
+            for (Task task : reused) {
+                reservedIds.remove(task.getId());
+            }
+            Set<Epic> affected = batchEpics;
+            batchEpics = null;
+            for (Epic epic : affected) {
+                updateEpicStatus(epic);
+            }
+            snapshots.endBatch();
+        }
+    }
+
+    /**
+     * Захватывает в index ID добавлений пакета; новые ID берутся одним диапазоном.
+     * ID, удалённый раньше в том же пакете, ещё занят удаляемой задачей, поэтому
+     * он резервируется в reservedIds, а добавление попадает в reused и занимает
+     * его при применении: другие потоки его не получат.
+     */
+    private Set<Task> claimBatchIds(List<TaskBatch.Operation> operations, Set<Task> reused) {
+        Map<Integer, Boolean> present = new HashMap<>();
+        Set<Task> claimed = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Task> withoutId = new ArrayList<>();
+        try {
+            for (TaskBatch.Operation operation : operations) {
+                int id = operation.getId();
+                if (operation.getKind() == TaskBatch.Kind.DELETE) {
+                    present.put(id, Boolean.FALSE);
+                    continue;
+                }
+                if (operation.getKind() == TaskBatch.Kind.ADD) {
+                    Task task = operation.getTask();
+                    if (id == 0) {
+                        withoutId.add(task);
+                        continue;
+                    }
+                    Boolean exists = present.get(id);
+                    if (exists != null ? exists : index.putIfAbsent(id, task) != null) {
+                        throw new IllegalArgumentException("Задача с таким ID уже существует! -  " + id);
+                    }
+                    if (exists == null) {
+                        claimed.add(task);
+                    } else {
+                        reservedIds.add(id);
+                        reused.add(task);
+                    }
+                }
+                present.put(id, Boolean.TRUE);
+            }
+            InMemoryTaskManager.requireDistinct(withoutId);
+            int next = nextId.getAndAdd(withoutId.size());
+            int end = next + withoutId.size();
+            for (Task task : withoutId) {
+                int id;
+                do {
+                    id = next < end ? next++ : nextId.getAndIncrement();
+                } while (present.containsKey(id) || index.putIfAbsent(id, task) != null);
+                task.setId(id);
+                claimed.add(task);
+            }
+        } catch (IllegalArgumentException e) {
+            for (Task task : claimed) {
+                index.remove(task.getId(), task);
+            }
+            for (Task task : reused) {
+                reservedIds.remove(task.getId());
+            }
+            throw e;
+        }
+        return claimed;
+    }
+
+    /**
+     * Приводит индекс статусов для ID к задаче, которая сейчас лежит в index.
+     * compute выполняется атомарно для ключа, а задача читается внутри него,
+     * поэтому из двух гонящихся обновлений последним учитывается более позднее.
+     */
+    private void reindex(int id) {
+        statusSlots.compute(id, (key, slot) -> {
+            Task current = index.get(key);
+            Integer actual = current != null ? slotOf(TaskType.of(current), current.getStatus()) : null;
+            if (slot != null && !slot.equals(actual)) {
+                byStatus[slot].remove(key);
+            }
+            if (actual != null) {
+                byStatus[actual].put(key, current);
+            }
+            return actual;
+        });
+    }
+
+    private static int slotOf(TaskType type, Status status) {
+        return type.ordinal() * STATUS_COUNT + status.ordinal();
+    }
+
+    public List<Epic> getAllEpics() {
+        return new ArrayList<>(epics.values());
+    }
+
+    public List<Subtask> getAllSubtasks() {
+        return new ArrayList<>(subtasks.values());
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        List<Task> result = new ArrayList<>();
+        for (TaskType type : TYPES) {
+            result.addAll(byStatus[slotOf(type, status)].values());
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(TaskType type, Status status) {
+        return new ArrayList<>(byStatus[slotOf(type, status)].values());
+    }
+
+    @Override
+    public int countByStatus(Status status) {
+        int count = 0;
+        for (TaskType type : TYPES) {
+            count += byStatus[slotOf(type, status)].size();
+        }
+        return count;
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        return byStatus[slotOf(type, status)].size();
+    }
+
+    @Override
+    public int countByType(TaskType type) {
+        switch (type) {
+            case EPIC:
+                return epics.size();
+            case SUBTASK:
+                return subtasks.size();
+            default:
+                return tasks.size();
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpic(int epicId, Status status) {
+        Epic epic = epics.get(epicId);
+        if (epic == null) {
+            return new ArrayList<>();
+        }
+        Lock lock = lockFor(epic);
+        lock.lock();
+        try {
+            return epic.getSubtasks(status);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int countSubtasksByEpic(int epicId, Status status) {
+        Epic epic = epics.get(epicId);
+        if (epic == null) {
+            return 0;
+        }
+        Lock lock = lockFor(epic);
+        lock.lock();
+        try {
+            return epic.getSubtaskCount(status);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteTaskOnId(int id) {
+        Task task = index.get(id);
+        if (task instanceof Epic) {
+            deleteEpic((Epic) task);
+        } else if (task instanceof Subtask) {
+            deleteSubtask((Subtask) task);
+        } else if (task != null && tasks.remove(id, task)) {
+            index.remove(id, task);
+            reindex(id);
+            snapshots.publish(id);
+            unindex(id);
+            removeFromHistory(id);
+        }
+    }
+
+    private void deleteSubtask(Subtask subtask) {
+        Epic parentEpic = subtask.getParentEpic();
+        if (parentEpic == null) {
+            if (subtasks.remove(subtask.getId(), subtask)) {
+                index.remove(subtask.getId(), subtask);
+                reindex(subtask.getId());
+                snapshots.publish(subtask.getId());
+                unindex(subtask.getId());
+                removeFromHistory(subtask.getId());
+            }
+            return;
+        }
+        Lock lock = lockFor(parentEpic);
+        lock.lock();
+        try {
+            if (subtasks.remove(subtask.getId(), subtask)) {
+                parentEpic.removeSubtask(subtask);
+                updateEpicStatus(parentEpic);
+                index.remove(subtask.getId(), subtask);
+                reindex(subtask.getId());
+                snapshots.publish(subtask.getId());
+                unindex(subtask.getId());
+                removeFromHistory(subtask.getId());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void deleteEpic(Epic epic) {
+        Lock lock = lockFor(epic);
+        lock.lock();
+        try {
+            if (!epics.remove(epic.getId(), epic)) {
+                return;
+            }
+            for (Subtask subtask : epic.getSubtasks()) {
+                if (subtasks.remove(subtask.getId(), subtask)) {
+                    index.remove(subtask.getId(), subtask);
+                    reindex(subtask.getId());
+                    snapshots.publish(subtask.getId());
+                    unindex(subtask.getId());
+                    removeFromHistory(subtask.getId());
+                }
+            }
+            epic.clearSubtasks();
+            index.remove(epic.getId(), epic);
+            reindex(epic.getId());
+            unindex(epic.getId());
+            snapshots.publish(epic.getId());
+            removeFromHistory(epic.getId());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        synchronized (historyManager) {
+            views.drain();
+            return historyManager.getHistory();
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        synchronized (timeIndex) {
+            return timeIndex.getPrioritized();
+        }
+    }
+
+    /**
+     * Задача, удалённая между поиском и выдачей, в выдачу не попадает.
+     */
+    @Override
+    public List<Task> search(String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер выдачи должен быть положительным! - " + limit);
+        }
+        List<SearchIndex.Hit> hits;
+        synchronized (searchIndex) {
+            hits = searchIndex.search(query, limit);
+        }
+        List<Task> found = new ArrayList<>(hits.size());
+        for (SearchIndex.Hit hit : hits) {
+            Task task = index.get(hit.getId());
+            if (task != null) {
+                found.add(task);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Снимок читается без блокировок. Первый вызов берёт все блокировки эпиков,
+     * чтобы собрать снимок по неподвижным эпикам и подзадачам; обычные задачи,
+     * изменённые во время сборки, публикуются сами и тоже в него попадают.
+     */
+    @Override
+    public TaskSnapshot snapshot() {
+        TaskSnapshot snapshot = snapshots.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        for (Lock lock : epicLocks) {
+            lock.lock();
+        }
+        try {
+            return snapshots.start(index.values());
+        } finally {
+            for (int i = epicLocks.length - 1; i >= 0; i--) {
+                epicLocks[i].unlock();
+            }
+        }
+    }
+
+    private void indexText(Task task) {
+        synchronized (searchIndex) {
+            searchIndex.put(task);
+        }
+    }
+
+    private void unindex(int id) {
+        synchronized (timeIndex) {
+            timeIndex.remove(id);
+        }
+        synchronized (searchIndex) {
+            searchIndex.remove(id);
+        }
+    }
+
+    private void removeFromHistory(int id) {
+        synchronized (historyManager) {
+            views.drain();
+            historyManager.remove(id);
+        }
+    }
+
+    private Lock lockFor(Epic epic) {
+        return epicLocks[stripeOf(epic)];
+    }
+
+    private int stripeOf(Epic epic) {
+        return Math.floorMod(epic.getId(), epicLocks.length);
+    }
+}
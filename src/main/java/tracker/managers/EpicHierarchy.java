@@ -0,0 +1,290 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.EpicRollup;
+import main.java.tracker.Status;
+import main.java.tracker.util.IntIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Лес вложенных эпиков с кэшированными сводками. У каждого узла два набора
+ * счётчиков по статусам: собственные подзадачи эпика и итог по всему
+ * поддереву. Изменение собственных счётчиков прибавляет разницу к итогам
+ * узла и всех его предков, перенос поддерева вычитает его итог из прежней
+ * цепочки предков и прибавляет к новой — то и другое стоит O(глубины), а
+ * не обхода поддерева. Сводка любого узла читается за O(1).
+ * <p>
+ * Вложение, после которого эпик оказался бы собственным предком, отклоняется
+ * проходом по цепочке предков нового родителя. Узлы лежат в параллельных
+ * массивах по номеру ячейки, дети узла — в двусвязном списке через
+ * соседей, так что на узел не создаётся объектов. Не потокобезопасен.
+ */
+public final class EpicHierarchy {
+    private static final Status[] STATUSES = Status.values();
+    private static final int STATUS_COUNT = STATUSES.length;
+    private static final int NONE = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final IntIntHashMap slots = new IntIntHashMap(NONE);
+    private int[] ids;
+    private int[] parents;
+    private int[] firstChildren;
+    private int[] nextSiblings;
+    private int[] previousSiblings;
+    private int[] own;
+    private int[] totals;
+    private int used;
+    /**
+     * Освобождённые ячейки, связанные через nextSiblings.
+     */
+    private int free = NONE;
+
+    public EpicHierarchy() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public EpicHierarchy(int expectedSize) {
+        allocate(Math.max(expectedSize, 1));
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    public boolean contains(int id) {
+        return slots.containsKey(id);
+    }
+
+    /**
+     * Добавляет эпик корнем без подзадач; возвращает false, если он уже есть.
+     */
+    public boolean add(int id) {
+        if (slots.containsKey(id)) {
+            return false;
+        }
+        int slot;
+        if (free != NONE) {
+            slot = free;
+            free = nextSiblings[slot];
+        } else {
+            if (used == ids.length) {
+                grow();
+            }
+            slot = used++;
+        }
+        ids[slot] = id;
+        parents[slot] = NONE;
+        firstChildren[slot] = NONE;
+        nextSiblings[slot] = NONE;
+        previousSiblings[slot] = NONE;
+        Arrays.fill(own, slot * STATUS_COUNT, (slot + 1) * STATUS_COUNT, 0);
+        Arrays.fill(totals, slot * STATUS_COUNT, (slot + 1) * STATUS_COUNT, 0);
+        slots.put(id, slot);
+        return true;
+    }
+
+    /**
+     * Удаляет эпик. Его итог вычитается из предков, а вложенные эпики
+     * становятся корнями со своими поддеревьями.
+     */
+    public boolean remove(int id) {
+        int slot = slots.remove(id);
+        if (slot == NONE) {
+            return false;
+        }
+        detach(slot);
+        for (int child = firstChildren[slot]; child != NONE; ) {
+            int next = nextSiblings[child];
+            parents[child] = NONE;
+            nextSiblings[child] = NONE;
+            previousSiblings[child] = NONE;
+            child = next;
+        }
+        firstChildren[slot] = NONE;
+        nextSiblings[slot] = free;
+        free = slot;
+        return true;
+    }
+
+    /**
+     * Вкладывает эпик id в эпик parentId либо, при parentId = 0, делает его корнем.
+     *
+     * @throws IllegalArgumentException если эпика нет в иерархии или вложение
+     *                                  замыкает цикл
+     */
+    public void setParent(int id, int parentId) {
+        int slot = slotOf(id);
+        int parent = parentId == 0 ? NONE : slotOf(parentId);
+        if (parents[slot] == parent) {
+            return;
+        }
+        for (int ancestor = parent; ancestor != NONE; ancestor = parents[ancestor]) {
+            if (ancestor == slot) {
+                throw new IllegalArgumentException("Вложение эпиков образует цикл! - " + id + " -> " + parentId);
+            }
+        }
+        detach(slot);
+        if (parent == NONE) {
+            return;
+        }
+        parents[slot] = parent;
+        int first = firstChildren[parent];
+        nextSiblings[slot] = first;
+        if (first != NONE) {
+            previousSiblings[first] = slot;
+        }
+        firstChildren[parent] = slot;
+        int base = slot * STATUS_COUNT;
+        for (int s = 0; s < STATUS_COUNT; s++) {
+            propagate(parent, s, totals[base + s]);
+        }
+    }
+
+    /**
+     * ID родительского эпика либо 0 у корня.
+     */
+    public int getParent(int id) {
+        int parent = parents[slotOf(id)];
+        return parent == NONE ? 0 : ids[parent];
+    }
+
+    /**
+     * ID вложенных эпиков, последний вложенный — первым.
+     */
+    public int[] getChildren(int id) {
+        int slot = slotOf(id);
+        int count = 0;
+        for (int child = firstChildren[slot]; child != NONE; child = nextSiblings[child]) {
+            count++;
+        }
+        int[] children = new int[count];
+        count = 0;
+        for (int child = firstChildren[slot]; child != NONE; child = nextSiblings[child]) {
+            children[count++] = ids[child];
+        }
+        return children;
+    }
+
+    /**
+     * Число предков эпика: 0 у корня.
+     */
+    public int getDepth(int id) {
+        int depth = 0;
+        for (int ancestor = parents[slotOf(id)]; ancestor != NONE; ancestor = parents[ancestor]) {
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * Задаёт число собственных подзадач эпика в статусе и переносит разницу
+     * в итоги эпика и его предков.
+     */
+    public void setCount(int id, Status status, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Число подзадач не может быть отрицательным! - " + count);
+        }
+        int slot = slotOf(id);
+        int index = slot * STATUS_COUNT + status.ordinal();
+        int delta = count - own[index];
+        if (delta != 0) {
+            own[index] = count;
+            propagate(slot, status.ordinal(), delta);
+        }
+    }
+
+    /**
+     * Меняет число собственных подзадач эпика в статусе на delta.
+     */
+    public void adjust(int id, Status status, int delta) {
+        int slot = slotOf(id);
+        setCount(id, status, own[slot * STATUS_COUNT + status.ordinal()] + delta);
+    }
+
+    public int getOwnCount(int id, Status status) {
+        return own[slotOf(id) * STATUS_COUNT + status.ordinal()];
+    }
+
+    /**
+     * Число подзадач в статусе у эпика и всех вложенных в него эпиков.
+     */
+    public int getCount(int id, Status status) {
+        return totals[slotOf(id) * STATUS_COUNT + status.ordinal()];
+    }
+
+    public EpicRollup getRollup(int id) {
+        int base = slotOf(id) * STATUS_COUNT;
+        return new EpicRollup(id, Arrays.copyOfRange(totals, base, base + STATUS_COUNT));
+    }
+
+    public void clear() {
+        slots.clear();
+        used = 0;
+        free = NONE;
+    }
+
+    /**
+     * Отцепляет узел от родителя, вычитая его итог из цепочки предков.
+     */
+    private void detach(int slot) {
+        int parent = parents[slot];
+        if (parent == NONE) {
+            return;
+        }
+        int base = slot * STATUS_COUNT;
+        for (int s = 0; s < STATUS_COUNT; s++) {
+            propagate(parent, s, -totals[base + s]);
+        }
+        int previous = previousSiblings[slot];
+        int next = nextSiblings[slot];
+        if (previous != NONE) {
+            nextSiblings[previous] = next;
+        } else {
+            firstChildren[parent] = next;
+        }
+        if (next != NONE) {
+            previousSiblings[next] = previous;
+        }
+        parents[slot] = NONE;
+        nextSiblings[slot] = NONE;
+        previousSiblings[slot] = NONE;
+    }
+
+    private void propagate(int slot, int status, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        for (int node = slot; node != NONE; node = parents[node]) {
+            totals[node * STATUS_COUNT + status] += delta;
+        }
+    }
+
+    private int slotOf(int id) {
+        int slot = slots.get(id);
+        if (slot == NONE) {
+            throw new IllegalArgumentException("Эпика нет в иерархии! - " + id);
+        }
+        return slot;
+    }
+
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        parents = new int[capacity];
+        firstChildren = new int[capacity];
+        nextSiblings = new int[capacity];
+        previousSiblings = new int[capacity];
+        own = new int[capacity * STATUS_COUNT];
+        totals = new int[capacity * STATUS_COUNT];
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        previousSiblings = Arrays.copyOf(previousSiblings, capacity);
+        own = Arrays.copyOf(own, capacity * STATUS_COUNT);
+        totals = Arrays.copyOf(totals, capacity * STATUS_COUNT);
+    }
+}
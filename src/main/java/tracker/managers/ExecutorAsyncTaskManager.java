@@ -0,0 +1,449 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.AsyncTaskManager;
+import main.java.tracker.Epic;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskBatch;
+import main.java.tracker.TaskManager;
+import main.java.tracker.TaskPage;
+import main.java.tracker.TaskSnapshot;
+import main.java.tracker.TaskType;
+import main.java.tracker.util.IntHashMap;
+import main.java.tracker.util.IntIntHashMap;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * {@link AsyncTaskManager} поверх любого потокобезопасного {@link TaskManager}:
+ * операции выполняются на исполнителе, по умолчанию — на виртуальных потоках
+ * (JDK 21+), на более старых JDK — в кэширующем пуле потоков-демонов.
+ * <p>
+ * Записи выстраиваются в очереди по эпикам: очередь эпика — цепочка future,
+ * где каждая запись стартует после завершения предыдущей. Подзадача пишется
+ * в очередь своего эпика, эпик и обычная задача — в очередь своего ID. Если
+ * запись переносит подзадачу в другой эпик, она ждёт обе очереди, так что
+ * записи одной задачи не обгоняют друг друга. Эпик без ID получает
+ * отрицательный ключ очереди, пока обёрнутый менеджер не выдаст ему ID:
+ * его подзадачи, поставленные до этого, ждут добавления эпика, а записи,
+ * пришедшие по настоящему ID, — их. Глобальной блокировки нет:
+ * монитор очередей держится, только пока к ним цепляется новая запись.
+ * <p>
+ * Одновременные getTaskById одного ID объединяются в одно чтение, если оно
+ * начато не раньше последней завершённой записи. Просмотр при этом попадает
+ * в историю один раз, а не по разу на вызов, — для истории это одно и то же.
+ * <p>
+ * Обёрнутый менеджер вызывается из нескольких потоков сразу, поэтому он
+ * должен быть потокобезопасен, как {@link ConcurrentTaskManager} или
+ * {@link ShardedTaskManager}; менеджер без синхронизации можно обернуть
+ * с однопоточным исполнителем.
+ */
+public class ExecutorAsyncTaskManager implements AsyncTaskManager, AutoCloseable {
+    private static final int NO_QUEUE = Integer.MIN_VALUE;
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final TaskManager delegate;
+    private final Executor executor;
+    private final ExecutorService ownExecutor;
+    private final ConcurrentHashMap<Integer, Lookup> lookups = new ConcurrentHashMap<>();
+    /**
+     * Число завершённых записей; к чтению, начатому раньше последней из них,
+     * новые вызовы не присоединяются.
+     */
+    private final AtomicLong writes = new AtomicLong();
+    /**
+     * Последняя запись каждой очереди; очередь удаляется, когда её последняя запись завершилась.
+     */
+    private final IntHashMap<CompletableFuture<Void>> queues = new IntHashMap<>();
+    /**
+     * Очередь, в которую последний раз писалась задача с данным ID.
+     */
+    private final IntIntHashMap routes = new IntIntHashMap(NO_QUEUE);
+    /**
+     * Отрицательные ключи очередей эпиков, добавление которых ещё не выдало им ID.
+     */
+    private final Map<Task, Integer> reservedQueues = new IdentityHashMap<>();
+    private int nextReservedQueue = -1;
+
+    private static final class Lookup {
+        private final long epoch;
+        private final CompletableFuture<Task> future = new CompletableFuture<>();
+
+        private Lookup(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    public ExecutorAsyncTaskManager(TaskManager delegate) {
+        this.delegate = delegate;
+        this.ownExecutor = newDefaultExecutor();
+        this.executor = ownExecutor;
+    }
+
+    /**
+     * Исполнителем управляет вызывающий: close() его не останавливает.
+     */
+    public ExecutorAsyncTaskManager(TaskManager delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.ownExecutor = null;
+    }
+
+    /**
+     * Исполнитель «поток на операцию»: виртуальные потоки на JDK 21+,
+     * на более старых JDK — кэширующий пул потоков-демонов.
+     */
+    static ExecutorService newDefaultExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "async-task-manager-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public TaskManager getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public <T extends Task> CompletableFuture<T> addNewTask(T task) {
+        int key;
+        synchronized (queues) {
+            if (task instanceof Epic && task.getId() == 0) {
+                key = reserveQueue(task);
+            } else if (task.getId() != 0 || task instanceof Subtask) {
+                key = queueOf(task);
+            } else {
+                // Обычной задаче без ID очередь не нужна: на неё не ссылаются подзадачи.
+                key = NO_QUEUE;
+            }
+        }
+        return write(new int[]{key}, () -> {
+            boolean added = false;
+            try {
+                delegate.addNewTask(task);
+                added = true;
+            } finally {
+                route(task, added);
+            }
+            return task;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Task> getTaskById(int id) {
+        long epoch = writes.get();
+        Lookup created = new Lookup(epoch);
+        Lookup lookup = lookups.compute(id, (key, current) ->
+                current != null && current.epoch >= epoch ? current : created);
+        if (lookup == created) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        created.future.complete(delegate.getTaskById(id));
+                    } catch (Throwable e) {
+                        created.future.completeExceptionally(e);
+                    } finally {
+                        lookups.remove(id, created);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                lookups.remove(id, created);
+                created.future.completeExceptionally(e);
+            }
+        }
+        // Копия: вызывающий, отменивший свой future, не отменит его остальным.
+        return lookup.future.copy();
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> getAllTasks() {
+        return read(delegate::getAllTasks);
+    }
+
+    @Override
+    public CompletableFuture<TaskPage> getTasksPage(int afterId, int limit) {
+        return read(() -> delegate.getTasksPage(afterId, limit));
+    }
+
+    @Override
+    public CompletableFuture<Void> updateTask(Task task) {
+        int[] keys;
+        synchronized (queues) {
+            keys = new int[]{routes.get(task.getId()), queueOf(task)};
+            routes.put(task.getId(), queueOf(task));
+        }
+        return write(keys, () -> {
+            delegate.updateTask(task);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteTaskOnId(int id) {
+        int key;
+        synchronized (queues) {
+            key = routes.remove(id);
+        }
+        return write(new int[]{key != NO_QUEUE ? key : id}, () -> {
+            delegate.deleteTaskOnId(id);
+            return null;
+        });
+    }
+
+    /**
+     * Пакет ждёт очереди всех своих задач и идёт одной записью.
+     */
+    @Override
+    public CompletableFuture<Void> applyBatch(TaskBatch batch) {
+        List<TaskBatch.Operation> operations = batch.getOperations();
+        int[] keys = new int[operations.size() * 2];
+        int count = 0;
+        synchronized (queues) {
+            for (TaskBatch.Operation operation : operations) {
+                Task task = operation.getTask();
+                if (operation.getKind() == TaskBatch.Kind.DELETE) {
+                    int key = routes.remove(operation.getId());
+                    keys[count++] = key != NO_QUEUE ? key : operation.getId();
+                } else if (task instanceof Epic && task.getId() == 0) {
+                    keys[count++] = reserveQueue(task);
+                } else if (task.getId() != 0 || task instanceof Subtask) {
+                    keys[count++] = routes.get(task.getId());
+                    keys[count++] = queueOf(task);
+                    if (task.getId() != 0) {
+                        routes.put(task.getId(), queueOf(task));
+                    }
+                }
+            }
+        }
+        return write(Arrays.copyOf(keys, count), () -> {
+            boolean applied = false;
+            try {
+                delegate.applyBatch(batch);
+                applied = true;
+            } finally {
+                for (TaskBatch.Operation operation : operations) {
+                    if (operation.getKind() == TaskBatch.Kind.ADD) {
+                        route(operation.getTask(), applied);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> getHistory() {
+        return read(delegate::getHistory);
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> getPrioritizedTasks() {
+        return read(delegate::getPrioritizedTasks);
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> search(String query, int limit) {
+        return read(() -> delegate.search(query, limit));
+    }
+
+    @Override
+    public CompletableFuture<TaskSnapshot> snapshot() {
+        return read(delegate::snapshot);
+    }
+
+    @Override
+    public CompletableFuture<List<Subtask>> getSubtasksByEpic(int id) {
+        return read(() -> delegate.getSubtasksByEpic(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> getTasksByStatus(Status status) {
+        return read(() -> delegate.getTasksByStatus(status));
+    }
+
+    @Override
+    public CompletableFuture<List<Task>> getTasksByStatus(TaskType type, Status status) {
+        return read(() -> delegate.getTasksByStatus(type, status));
+    }
+
+    @Override
+    public CompletableFuture<Integer> countByStatus(Status status) {
+        return read(() -> delegate.countByStatus(status));
+    }
+
+    @Override
+    public CompletableFuture<Integer> countByStatus(TaskType type, Status status) {
+        return read(() -> delegate.countByStatus(type, status));
+    }
+
+    @Override
+    public CompletableFuture<Integer> countByType(TaskType type) {
+        return read(() -> delegate.countByType(type));
+    }
+
+    @Override
+    public CompletableFuture<List<Subtask>> getSubtasksByEpic(int epicId, Status status) {
+        return read(() -> delegate.getSubtasksByEpic(epicId, status));
+    }
+
+    @Override
+    public CompletableFuture<Integer> countSubtasksByEpic(int epicId, Status status) {
+        return read(() -> delegate.countSubtasksByEpic(epicId, status));
+    }
+
+    /**
+     * Останавливает исполнитель по умолчанию; уже поставленные операции доделываются.
+     */
+    @Override
+    public void close() {
+        if (ownExecutor != null) {
+            ownExecutor.shutdown();
+        }
+    }
+
+    private <T> CompletableFuture<T> read(Supplier<T> operation) {
+        return CompletableFuture.supplyAsync(operation, executor);
+    }
+
+    /**
+     * Ставит запись в конец очередей keys (NO_QUEUE пропускается) и
+     * делает её новой последней записью каждой из них.
+     */
+    private <T> CompletableFuture<T> write(int[] keys, Supplier<T> operation) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture<Void> tail;
+        synchronized (queues) {
+            List<CompletableFuture<Void>> previous = new ArrayList<>(keys.length);
+            for (int key : keys) {
+                CompletableFuture<Void> last = key != NO_QUEUE ? queues.get(key) : null;
+                if (last != null && !previous.contains(last)) {
+                    previous.add(last);
+                }
+            }
+            CompletableFuture<Void> after = previous.isEmpty() ? DONE
+                    : previous.size() == 1 ? previous.get(0)
+                    : CompletableFuture.allOf(previous.toArray(new CompletableFuture<?>[0]));
+            tail = after.thenRunAsync(() -> run(operation, result), executor);
+            for (int key : keys) {
+                if (key != NO_QUEUE) {
+                    queues.put(key, tail);
+                }
+            }
+        }
+        tail.whenComplete((ignored, error) -> {
+            if (error != null) {
+                // Исполнитель отверг запись — например, после close().
+                result.completeExceptionally(error);
+            }
+            synchronized (queues) {
+                for (int key : keys) {
+                    if (key != NO_QUEUE && queues.get(key) == tail) {
+                        queues.remove(key);
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    private <T> void run(Supplier<T> operation, CompletableFuture<T> result) {
+        T value;
+        try {
+            value = operation.get();
+        } catch (Throwable e) {
+            writes.incrementAndGet();
+            result.completeExceptionally(e);
+            return;
+        }
+        writes.incrementAndGet();
+        result.complete(value);
+    }
+
+    /**
+     * Запоминает очередь добавленной задачи. Резерв эпика без ID снимается,
+     * даже если добавление не удалось; хвост резервной очереди становится
+     * хвостом очереди выданного ID, так что записи по ID не обгонят
+     * подзадачи, поставленные до его выдачи.
+     */
+    private void route(Task task, boolean added) {
+        synchronized (queues) {
+            Integer reserved = reservedQueues.remove(task);
+            if (reserved != null && task.getId() != 0) {
+                CompletableFuture<Void> tail = queues.get(reserved);
+                if (tail != null) {
+                    int id = task.getId();
+                    queues.put(id, tail);
+                    tail.whenComplete((ignored, error) -> {
+                        synchronized (queues) {
+                            if (queues.get(id) == tail) {
+                                queues.remove(id);
+                            }
+                        }
+                    });
+                }
+            }
+            if (added) {
+                routes.put(task.getId(), queueOf(task));
+            }
+        }
+    }
+
+    /**
+     * Выдаёт эпику без ID отрицательный ключ очереди. Вызывается под монитором очередей.
+     */
+    private int reserveQueue(Task epic) {
+        Integer reserved = reservedQueues.get(epic);
+        if (reserved != null) {
+            return reserved;
+        }
+        int key = nextReservedQueue;
+        nextReservedQueue = key == NO_QUEUE + 1 ? -1 : key - 1;
+        reservedQueues.put(epic, key);
+        return key;
+    }
+
+    /**
+     * Очередь задачи: эпик подзадачи или сама задача, а для эпика, ждущего
+     * ID, — его резервный ключ. Вызывается под монитором очередей.
+     */
+    private int queueOf(Task task) {
+        Task owner = task instanceof Subtask && ((Subtask) task).getParentEpic() != null
+                ? ((Subtask) task).getParentEpic() : task;
+        if (!reservedQueues.isEmpty()) {
+            Integer reserved = reservedQueues.get(owner);
+            if (reserved != null) {
+                return reserved;
+            }
+        }
+        return owner.getId();
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutorAsyncTaskManager{" +
+                "delegate=" + delegate +
+                '}';
+    }
+}
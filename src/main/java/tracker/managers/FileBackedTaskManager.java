@@ -0,0 +1,605 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.Epic;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskBatch;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Менеджер задач, сохраняющий изменения в журнал предзаписи (WAL).
+ * <p>
+ * Каждое addNewTask, updateTask и deleteTaskOnId дописывается в журнал
+ * двоичной записью [длина][CRC32][данные]. Записи копятся в буфере и
+ * сбрасываются на диск одной записью с fsync, когда накопилось fsyncBatch
+ * записей (групповая фиксация). Если задан fsyncIntervalMillis, фоновый поток
+ * раз в этот интервал сбрасывает всё накопленное, так что изменение попадает
+ * на диск не позже чем через интервал, даже если за ним не пришло других.
+ * При fsyncBatch = 1 каждое изменение сохраняется до возврата из метода.
+ * Буфер и журнал защищены монитором walLock, который applyBatch держит
+ * до конца пакета, поэтому фоновый сброс не пишет оборванный пакет.
+ * Пакет applyBatch пишется одной записью, вложенные операции которой
+ * идут как [длина][данные], поэтому после сбоя он либо проигрывается целиком,
+ * либо отбрасывается.
+ * <p>
+ * Когда журнал превышает порог, состояние целиком записывается в снимок,
+ * а журнал начинается заново, поэтому время запуска не зависит от длины истории
+ * изменений. При запуске читается снимок, затем проигрывается журнал; оборванная
+ * при сбое последняя запись отбрасывается. После переименования снимка
+ * синхронизируется и каталог, чтобы новое имя пережило сбой питания.
+ * Снимок и журнал первой версии
+ * формата (без времени задач) читаются, после чего сразу пишется снимок
+ * текущей версии.
+ */
+public class FileBackedTaskManager extends InMemoryTaskManager implements Closeable {
+    public static final String WAL_FILE = "tasks.wal";
+    public static final String SNAPSHOT_FILE = "tasks.snapshot";
+    public static final int DEFAULT_FSYNC_BATCH = 1;
+    public static final long DEFAULT_FSYNC_INTERVAL_MILLIS = 0;
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 64L * 1024 * 1024;
+
+    private static final int WAL_MAGIC = 0x4B574C31;
+    private static final int SNAPSHOT_MAGIC = 0x4B534E31;
+    private static final short FORMAT_VERSION = 2;
+    private static final short FIRST_FORMAT_VERSION = 1;
+    private static final int WAL_HEADER_SIZE = 4 + 2 + 8;
+    private static final int RECORD_HEADER_SIZE = 4 + 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte OP_ADD = 1;
+    private static final byte OP_UPDATE = 2;
+    private static final byte OP_DELETE = 3;
+    private static final byte OP_CLEAR = 4;
+    private static final byte OP_BATCH = 5;
+
+    private final Path directory;
+    private final Path walPath;
+    private final Path snapshotPath;
+    private final int fsyncBatch;
+    private final long fsyncIntervalNanos;
+    private final long compactionThreshold;
+    private final CRC32 crc = new CRC32();
+    private final Object walLock = new Object();
+    /**
+     * Фоновый сброс по интервалу; null, если интервал не задан или каждая
+     * запись и так сбрасывается сразу.
+     */
+    private final ScheduledExecutorService flusher;
+    private FileChannel wal;
+    /**
+     * Записи, ещё не подтверждённые fsync; буфер всегда в режиме записи.
+     * Первые pendingWritten байт уже переданы в журнал, но не сброшены.
+     */
+    private ByteBuffer pending = ByteBuffer.allocate(BUFFER_SIZE);
+    private int pendingWritten;
+    private int pendingRecords;
+    private long lastSyncNanos;
+    private long walSize;
+    private long generation;
+    /**
+     * Начало записи пакета в буфере; -1 вне applyBatch.
+     */
+    private int batchStart = -1;
+    private int batchRecords;
+    /**
+     * Версия формата журнала, записи которого сейчас проигрываются.
+     */
+    private short replayVersion = FORMAT_VERSION;
+    /**
+     * Ошибка фонового сброса; бросается из следующей записи или flush().
+     */
+    private IOException flushFailure;
+    private boolean closed;
+
+    public FileBackedTaskManager(Path directory) {
+        this(directory, DEFAULT_FSYNC_BATCH, DEFAULT_FSYNC_INTERVAL_MILLIS, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * @param fsyncBatch               сколько записей копить до сброса на диск
+     * @param fsyncIntervalMillis      максимальная задержка сброса, которую выдерживает фоновый
+     *                                 поток; 0 — только по количеству
+     * @param compactionThresholdBytes размер журнала, после которого пишется снимок; 0 — не сжимать
+     */
+    public FileBackedTaskManager(Path directory, int fsyncBatch, long fsyncIntervalMillis,
+                                 long compactionThresholdBytes) {
+        if (fsyncBatch <= 0) {
+            throw new IllegalArgumentException("Размер пакета fsync должен быть положительным! - " + fsyncBatch);
+        }
+        this.directory = directory;
+        this.walPath = directory.resolve(WAL_FILE);
+        this.snapshotPath = directory.resolve(SNAPSHOT_FILE);
+        this.fsyncBatch = fsyncBatch;
+        this.fsyncIntervalNanos = fsyncIntervalMillis * 1_000_000L;
+        this.compactionThreshold = compactionThresholdBytes;
+        try {
+            Files.createDirectories(directory);
+            openWal(loadSnapshot());
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось восстановить задачи из " + directory, e);
+        }
+        if (replayVersion != FORMAT_VERSION || compactionThreshold > 0 && walSize >= compactionThreshold) {
+            compact();
+        }
+        if (fsyncIntervalMillis > 0 && fsyncBatch > 1) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "wal-flusher-" + directory.getFileName());
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushInBackground, fsyncIntervalMillis, fsyncIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    @Override
+    public void addNewTask(Task task) {
+        super.addNewTask(task);
+        append(OP_ADD, task, 0);
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        super.updateTask(task);
+        append(OP_UPDATE, task, 0);
+    }
+
+    @Override
+    public void deleteTaskOnId(int id) {
+        if (findTask(id) == null) {
+            return;
+        }
+        super.deleteTaskOnId(id);
+        append(OP_DELETE, null, id);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        super.deleteAllTasks();
+        append(OP_CLEAR, null, 0);
+    }
+
+    @Override
+    public void applyBatch(TaskBatch batch) {
+        synchronized (walLock) {
+            applyBatchLogged(batch);
+        }
+    }
+
+    private void applyBatchLogged(TaskBatch batch) {
+        ensurePending(RECORD_HEADER_SIZE + 1 + 4);
+        batchStart = pending.position();
+        pending.putInt(0);
+        pending.putInt(0);
+        pending.put(OP_BATCH);
+        pending.putInt(0);
+        batchRecords = 0;
+        try {
+            super.applyBatch(batch);
+        } finally {
+            int start = batchStart;
+            batchStart = -1;
+            if (batchRecords == 0) {
+                pending.position(start);
+            } else {
+                int size = pending.position() - start - RECORD_HEADER_SIZE;
+                pending.putInt(start, size);
+                pending.putInt(start + RECORD_HEADER_SIZE + 1, batchRecords);
+                seal(start, size);
+            }
+        }
+    }
+
+    /**
+     * Принудительно сбрасывает накопленные записи на диск.
+     */
+    public void flush() {
+        synchronized (walLock) {
+            try {
+                rethrowFlushFailure();
+                flushPending();
+            } catch (IOException e) {
+                throw new ManagerSaveException("Не удалось записать журнал " + walPath, e);
+            }
+            if (compactionThreshold > 0 && walSize >= compactionThreshold) {
+                compact();
+            }
+        }
+    }
+
+    /**
+     * Записывает текущее состояние в снимок и начинает журнал заново.
+     */
+    public void compact() {
+        synchronized (walLock) {
+            try {
+                flushPending();
+                long nextGeneration = generation + 1;
+                Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+                writeSnapshot(temp, nextGeneration);
+                Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                syncDirectory();
+                generation = nextGeneration;
+                resetWal();
+            } catch (IOException e) {
+                throw new ManagerSaveException("Не удалось записать снимок " + snapshotPath, e);
+            }
+        }
+    }
+
+    public long getWalSize() {
+        synchronized (walLock) {
+            return walSize + pending.position() - pendingWritten;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        synchronized (walLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                flushPending();
+                wal.close();
+            } catch (IOException e) {
+                throw new ManagerSaveException("Не удалось закрыть журнал " + walPath, e);
+            }
+        }
+    }
+
+    /**
+     * Сбрасывает всё накопленное вне открытого пакета; ошибка запоминается
+     * и достаётся следующему вызову в потоке менеджера.
+     */
+    private void flushInBackground() {
+        synchronized (walLock) {
+            if (closed || batchStart >= 0 || flushFailure != null) {
+                return;
+            }
+            try {
+                flushPending();
+            } catch (IOException e) {
+                flushFailure = e;
+            }
+        }
+    }
+
+    private void rethrowFlushFailure() throws IOException {
+        if (flushFailure != null) {
+            IOException failure = flushFailure;
+            flushFailure = null;
+            throw failure;
+        }
+    }
+
+    /**
+     * Ставит запись об уже применённом изменении в буфер. Запись остаётся в
+     * буфере, даже если сброс не удался: она уйдёт на диск со следующим
+     * успешным flush() или close(), а ошибка достаётся вызывающему.
+     */
+    private void append(byte op, Task task, int deletedId) {
+        synchronized (walLock) {
+            appendLocked(op, task, deletedId);
+            if (flushFailure != null) {
+                flush();
+            }
+        }
+    }
+
+    private void appendLocked(byte op, Task task, int deletedId) {
+        byte[] title = null;
+        byte[] description = null;
+        int size = 1;
+        if (op == OP_ADD) {
+            size += 4;
+        }
+        if (task != null) {
+            title = TaskRecords.utf8(task.getTitle());
+            description = TaskRecords.utf8(task.getDescription());
+            size += TaskRecords.encodedSize(task, title, description);
+        }
+        if (op == OP_DELETE) {
+            size += 4;
+        }
+        boolean inBatch = batchStart >= 0;
+        ensurePending((inBatch ? 4 : RECORD_HEADER_SIZE) + size);
+        int start = pending.position();
+        pending.putInt(size);
+        if (!inBatch) {
+            pending.putInt(0);
+        }
+        pending.put(op);
+        if (op == OP_ADD) {
+            pending.putInt(getNextId());
+        }
+        if (task != null) {
+            TaskRecords.write(pending, task, title, description);
+        }
+        if (op == OP_DELETE) {
+            pending.putInt(deletedId);
+        }
+        if (inBatch) {
+            batchRecords++;
+        } else {
+            seal(start, size);
+        }
+    }
+
+    /**
+     * Дописывает CRC записи, начатой в буфере с позиции start, и при необходимости сбрасывает буфер.
+     */
+    private void seal(int start, int size) {
+        crc.reset();
+        crc.update(pending.array(), start + RECORD_HEADER_SIZE, size);
+        pending.putInt(start + 4, (int) crc.getValue());
+        pendingRecords++;
+        if (pendingRecords >= fsyncBatch
+                || fsyncIntervalNanos > 0 && System.nanoTime() - lastSyncNanos >= fsyncIntervalNanos) {
+            flush();
+        }
+    }
+
+    /**
+     * Синхронизирует каталог, чтобы переименование или создание файла в нём
+     * пережило сбой. На Windows каталог не открывается как канал, там шаг
+     * пропускается.
+     */
+    private void syncDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            if (!System.getProperty("os.name", "").startsWith("Windows")) {
+                throw e;
+            }
+        }
+    }
+
+    private void ensurePending(int bytes) {
+        if (pending.remaining() >= bytes) {
+            return;
+        }
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+        larger.put(pending.array(), 0, pending.position());
+        pending = larger;
+    }
+
+    private void flushPending() throws IOException {
+        if (pendingRecords == 0) {
+            return;
+        }
+        int end = pending.position();
+        while (pendingWritten < end) {
+            int written = wal.write(ByteBuffer.wrap(pending.array(), pendingWritten, end - pendingWritten), walSize);
+            walSize += written;
+            pendingWritten += written;
+        }
+        // Если fsync не удался, записанное не повторяется: следующий сброс снова вызовет force.
+        wal.force(false);
+        pending.clear();
+        pendingWritten = 0;
+        pendingRecords = 0;
+        lastSyncNanos = System.nanoTime();
+    }
+
+    private long loadSnapshot() throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshotPath));
+        if (buffer.remaining() < 4 + 2 + 8 + 4 + 4 || buffer.getInt() != SNAPSHOT_MAGIC) {
+            throw new ManagerSaveException("Неизвестный формат снимка " + snapshotPath);
+        }
+        short version = buffer.getShort();
+        if (!isKnownVersion(version)) {
+            throw new ManagerSaveException("Неизвестный формат снимка " + snapshotPath);
+        }
+        long snapshotGeneration = buffer.getLong();
+        int nextId = buffer.getInt();
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            super.addNewTask(TaskRecords.read(buffer, this::findEpic, version != FIRST_FORMAT_VERSION));
+        }
+        setNextId(nextId);
+        return snapshotGeneration;
+    }
+
+    private void writeSnapshot(Path path, long snapshotGeneration) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.putInt(SNAPSHOT_MAGIC);
+            buffer.putShort(FORMAT_VERSION);
+            buffer.putLong(snapshotGeneration);
+            buffer.putInt(getNextId());
+            buffer.putInt(getAllTasks().size());
+            // Эпики пишутся раньше подзадач, а подзадачи — в порядке списка эпика,
+            // чтобы при чтении ссылки на родителя разрешались сразу.
+            for (Task task : getAllTasks()) {
+                if (!(task instanceof Subtask)) {
+                    buffer = writeRecord(channel, buffer, task);
+                }
+            }
+            for (Epic epic : getAllEpics()) {
+                for (Subtask subtask : epic.getSubtasks()) {
+                    buffer = writeRecord(channel, buffer, subtask);
+                }
+            }
+            for (Subtask subtask : getAllSubtasks()) {
+                Epic parentEpic = subtask.getParentEpic();
+                if (parentEpic == null || findTask(parentEpic.getId()) != parentEpic) {
+                    buffer = writeRecord(channel, buffer, subtask);
+                }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    private ByteBuffer writeRecord(FileChannel channel, ByteBuffer buffer, Task task) throws IOException {
+        int size = TaskRecords.encodedSize(task);
+        if (buffer.remaining() < size) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+            if (buffer.capacity() < size) {
+                buffer = ByteBuffer.allocate(size);
+            }
+        }
+        TaskRecords.write(buffer, task);
+        return buffer;
+    }
+
+    /**
+     * Открывает канал журнала. Вызывается из конструктора; наследник может
+     * подменить канал, например чтобы проверить поведение при сбоях записи.
+     */
+    protected FileChannel openChannel(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private void openWal(long snapshotGeneration) throws IOException {
+        wal = openChannel(walPath);
+        generation = snapshotGeneration;
+        long size = wal.size();
+        if (size < WAL_HEADER_SIZE) {
+            resetWal();
+            syncDirectory();
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(WAL_HEADER_SIZE);
+        while (header.hasRemaining()) {
+            wal.read(header, header.position());
+        }
+        header.flip();
+        if (header.getInt() != WAL_MAGIC) {
+            throw new ManagerSaveException("Неизвестный формат журнала " + walPath);
+        }
+        short version = header.getShort();
+        if (!isKnownVersion(version)) {
+            throw new ManagerSaveException("Неизвестный формат журнала " + walPath);
+        }
+        long walGeneration = header.getLong();
+        if (walGeneration < snapshotGeneration) {
+            // Сбой пришёлся между записью снимка и очисткой журнала: всё уже в снимке.
+            resetWal();
+            return;
+        }
+        if (walGeneration > snapshotGeneration) {
+            throw new ManagerSaveException("Журнал " + walPath + " новее снимка, снимок потерян");
+        }
+        replayVersion = version;
+        walSize = replay(size);
+        if (walSize < size) {
+            wal.truncate(walSize);
+            wal.force(false);
+        }
+        lastSyncNanos = System.nanoTime();
+    }
+
+    private long replay(long size) throws IOException {
+        long position = WAL_HEADER_SIZE;
+        wal.position(position);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(wal), BUFFER_SIZE));
+        while (size - position >= RECORD_HEADER_SIZE) {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length <= 0 || length > size - position - RECORD_HEADER_SIZE) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            crc.reset();
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            apply(ByteBuffer.wrap(payload));
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    private void apply(ByteBuffer record) {
+        byte op = record.get();
+        switch (op) {
+            case OP_ADD:
+                int nextId = record.getInt();
+                super.addNewTask(TaskRecords.read(record, this::findEpic, replayVersion != FIRST_FORMAT_VERSION));
+                setNextId(nextId);
+                break;
+            case OP_UPDATE:
+                super.updateTask(TaskRecords.read(record, this::findEpic, replayVersion != FIRST_FORMAT_VERSION));
+                break;
+            case OP_DELETE:
+                super.deleteTaskOnId(record.getInt());
+                break;
+            case OP_CLEAR:
+                super.deleteAllTasks();
+                break;
+            case OP_BATCH:
+                int count = record.getInt();
+                for (int i = 0; i < count; i++) {
+                    int length = record.getInt();
+                    apply(record.slice().limit(length));
+                    record.position(record.position() + length);
+                }
+                break;
+            default:
+                throw new ManagerSaveException("Неизвестная операция в журнале " + walPath + " - " + op);
+        }
+    }
+
+    private void resetWal() throws IOException {
+        replayVersion = FORMAT_VERSION;
+        wal.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(WAL_HEADER_SIZE);
+        header.putInt(WAL_MAGIC);
+        header.putShort(FORMAT_VERSION);
+        header.putLong(generation);
+        header.flip();
+        long written = 0;
+        while (header.hasRemaining()) {
+            written += wal.write(header, written);
+        }
+        wal.force(false);
+        walSize = WAL_HEADER_SIZE;
+        lastSyncNanos = System.nanoTime();
+    }
+
+    private static boolean isKnownVersion(short version) {
+        return version >= FIRST_FORMAT_VERSION && version <= FORMAT_VERSION;
+    }
+
+    private Epic findEpic(int id) {
+        Task task = findTask(id);
+        return task instanceof Epic ? (Epic) task : null;
+    }
+}
@@ -2,26 +2,115 @@ package main.java.tracker.managers;
 
 import main.java.tracker.HistoryManager;
 import main.java.tracker.Task;
+import main.java.tracker.util.IntHashMap;
 
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * История просмотров на двусвязном списке с индексом id -> узел.
+ * Повторный просмотр переносит задачу в конец без дубликата, вытеснение самой
+ * старой записи и перенос стоят O(1) независимо от размера истории.
+ */
 public class InMemoryHistoryManager implements HistoryManager {
-    private static final int MAX_SIZE_HISTORY = 10;
-    private List<Task> history = new ArrayList<>();
+    public static final int DEFAULT_MAX_SIZE = 10;
+
+    private final int maxSize;
+    private final IntHashMap<Node> nodes = new IntHashMap<>();
+    private Node head;
+    private Node tail;
+
+    public InMemoryHistoryManager() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public InMemoryHistoryManager(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным! - " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
 
     @Override
     public void add(Task task) {
-        Task taskCopy = new Task(task.getTitle(), task.getDescription(), task.getStatus());
-        taskCopy.setId(task.getId());
-        if (history.size() >= MAX_SIZE_HISTORY) {
-            history.remove(0);
+        Task snapshot = task.copy();
+        Node node = nodes.get(task.getId());
+        if (node != null) {
+            node.task = snapshot;
+            if (node != tail) {
+                unlink(node);
+                linkLast(node);
+            }
+            return;
+        }
+        if (nodes.size() >= maxSize) {
+            nodes.remove(head.task.getId());
+            unlink(head);
+        }
+        node = new Node(snapshot);
+        nodes.put(task.getId(), node);
+        linkLast(node);
+    }
+
+    @Override
+    public void remove(int id) {
+        Node node = nodes.remove(id);
+        if (node != null) {
+            unlink(node);
         }
-        history.add(taskCopy);
     }
 
     @Override
     public List<Task> getHistory() {
+        List<Task> history = new ArrayList<>(nodes.size());
+        for (Node node = head; node != null; node = node.next) {
+            history.add(node.task);
+        }
         return history;
     }
+
+    @Override
+    public boolean contains(int id) {
+        return nodes.containsKey(id);
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    private void linkLast(Node node) {
+        node.prev = tail;
+        node.next = null;
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+    }
+
+    private void unlink(Node node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.prev = null;
+        node.next = null;
+    }
+
+    private static class Node {
+        private Task task;
+        private Node prev;
+        private Node next;
+
+        private Node(Task task) {
+            this.task = task;
+        }
+    }
 }
@@ -3,37 +3,105 @@ package main.java.tracker.managers;
 import main.java.tracker.Subtask;
 import main.java.tracker.Task;
 import main.java.tracker.Epic;
+import main.java.tracker.EpicRollup;
 import main.java.tracker.TaskManager;
 import main.java.tracker.HistoryManager;
 import main.java.tracker.Status;
+import main.java.tracker.TaskBatch;
+import main.java.tracker.TaskPage;
+import main.java.tracker.TaskSnapshot;
+import main.java.tracker.TaskType;
+import main.java.tracker.util.IntHashMap;
 import main.java.tracker.util.Managers;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class InMemoryTaskManager implements TaskManager {
+    /**
+     * Если диапазон ID до максимального не больше стольких размеров доски,
+     * страница собирается перебором ID подряд, иначе — одним проходом по таблице.
+     */
+    private static final int DENSE_PAGE_SCAN_FACTOR = 4;
+    private static final Status[] STATUSES = Status.values();
 
-    private final Map<Integer, Task> tasks = new HashMap<>();
-    private final Map<Integer, Epic> epics = new HashMap<>();
-    private final Map<Integer, Subtask> subtasks = new HashMap<>();
-    private final HistoryManager historyManager = Managers.getDefaultHistory();
+    /**
+     * Основной индекс id -> задача любого типа: поиск, удаление и проверка
+     * уникальности стоят одну пробу хеш-таблицы. Таблицы по типам ниже —
+     * производные представления для выборок getAllEpics/getAllSubtasks.
+     */
+    private final IntHashMap<Task> index = new IntHashMap<>();
+    private final IntHashMap<Task> tasks = new IntHashMap<>();
+    private final IntHashMap<Epic> epics = new IntHashMap<>();
+    private final IntHashMap<Subtask> subtasks = new IntHashMap<>();
+    private final StatusIndex statusIndex = new StatusIndex();
+    private final TimeIndex timeIndex = new TimeIndex();
+    private final SearchIndex searchIndex = new SearchIndex();
+    private final EpicHierarchy hierarchy = new EpicHierarchy();
+    private final SnapshotPublisher snapshots = new SnapshotPublisher(id -> index.get(id));
+    private final HistoryManager historyManager;
+    private final TaskEventPublisher events;
+    /**
+     * Изменения, которые не являются правками доски (подгрузка из файла),
+     * событий не порождают.
+     */
+    private boolean eventsMuted;
+    /**
+     * Эпики, сменившие статус в текущей операции, и их прежние статусы.
+     * События публикуются после того, как операция закончила изменять доску.
+     */
+    private final List<Epic> changedEpics = new ArrayList<>();
+    private final List<Status> changedEpicStatuses = new ArrayList<>();
     private int nextId = 1;
+    private int maxId;
+    private boolean statusConsistencyCheck;
+    /**
+     * Эпики, затронутые применяемым пакетом; null вне applyBatch.
+     */
+    private Set<Epic> batchEpics;
+    private Epic lastBatchEpic;
 
+    public InMemoryTaskManager() {
+        this(Managers.getDefaultHistory());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, new TaskEventPublisher());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager, TaskEventPublisher events) {
+        this.historyManager = historyManager;
+        this.events = events;
+    }
+
+    /**
+     * Запланированная задача, пересекающаяся по времени с уже добавленной,
+     * не добавляется: проверка стоит O(log n) по индексу интервалов.
+     */
     @Override
     public void addNewTask(Task task) {
         int id = task.getId();
-        if (id == 0) {
-            id = generateUniqueId();
-            task.setId(id);
-        } else if (!isIdUnique(id)) {
+        if (id != 0 && !isIdUnique(id)) {
             throw new IllegalArgumentException("Задача с таким ID уже существует! -  " + id);
         }
+        timeIndex.checkOverlap(task);
+        if (id == 0) {
+            task.setId(generateUniqueId());
+        }
         addTaskByType(task);
     }
 
     private void addTaskByType(Task task) {
+        index.put(task.getId(), task);
+        maxId = Math.max(maxId, task.getId());
         if (task instanceof Epic) {
             addEpic((Epic) task);
         } else if (task instanceof Subtask) {
@@ -41,10 +109,20 @@ public class InMemoryTaskManager implements TaskManager {
         } else {
             addSimpleTask(task);
         }
+        statusIndex.add(task);
+        timeIndex.put(task);
+        searchIndex.put(task);
+        snapshots.publish(task.getId());
+        if (!eventsMuted) {
+            events.taskCreated(task);
+        }
+        publishEpicStatusChanges();
     }
 
     private void addEpic(Epic epic) {
         epics.put(epic.getId(), epic);
+        hierarchy.add(epic.getId());
+        syncRollup(epic);
     }
 
     private void addSubtask(Subtask subtask) {
@@ -61,23 +139,57 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
     public boolean isIdUnique(int id) {
-        return !tasks.containsKey(id) && !epics.containsKey(id) && !subtasks.containsKey(id);
+        return !index.containsKey(id);
     }
 
     public int generateUniqueId() {
         return nextId++;
     }
 
+    /**
+     * Поиск без записи в историю просмотров.
+     */
+    Task findTask(int id) {
+        return index.get(id);
+    }
+
+    @Override
+    public Task peekTask(int id) {
+        return findTask(id);
+    }
+
+    boolean hasScheduledTasks() {
+        return !timeIndex.isEmpty();
+    }
+
+    int getNextId() {
+        return nextId;
+    }
+
+    void setNextId(int nextId) {
+        this.nextId = nextId;
+    }
+
+    /**
+     * Включает или выключает события изменений, возвращает прежнее значение.
+     */
+    boolean muteEvents(boolean muted) {
+        boolean previous = eventsMuted;
+        eventsMuted = muted;
+        return previous;
+    }
+
+    /**
+     * Издатель событий TaskCreated, TaskUpdated, TaskDeleted и EpicStatusChanged.
+     * Подписчик может синхронизироваться по событиям, а не перечитывать доску.
+     */
+    public TaskEventPublisher getEvents() {
+        return events;
+    }
+
     @Override
     public Task getTaskById(int id) {
-        Task task = null;
-        if (tasks.containsKey(id)) {
-            task = tasks.get(id);
-        } else if (subtasks.containsKey(id)) {
-            task = subtasks.get(id);
-        } else if (epics.containsKey(id)) {
-            task = epics.get(id);
-        }
+        Task task = index.get(id);
         if (task != null) {
             historyManager.add(task);
         }
@@ -92,65 +204,291 @@ public class InMemoryTaskManager implements TaskManager {
         return allTasks;
     }
 
+    @Override
+    public Stream<Task> streamAllTasks() {
+        return StreamSupport.stream(index.values().spliterator(), false);
+    }
+
+    public Stream<Epic> streamEpics() {
+        return StreamSupport.stream(epics.values().spliterator(), false);
+    }
+
+    public Stream<Subtask> streamSubtasks() {
+        return StreamSupport.stream(subtasks.values().spliterator(), false);
+    }
+
+    @Override
+    public TaskPage getTasksPage(int afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным! - " + limit);
+        }
+        List<Task> page = new ArrayList<>(Math.min(limit + 1, index.size() + 1));
+        long range = (long) maxId - afterId;
+        if (range <= (long) index.size() * DENSE_PAGE_SCAN_FACTOR) {
+            for (long id = afterId + 1L; id <= maxId && page.size() <= limit; id++) {
+                Task task = findTask((int) id);
+                if (task != null) {
+                    page.add(task);
+                }
+            }
+        } else {
+            collectSmallestIdsAfter(afterId, limit + 1, page);
+        }
+        boolean hasMore = page.size() > limit;
+        if (hasMore) {
+            page.remove(limit);
+        }
+        int nextCursor = page.isEmpty() ? afterId : page.get(page.size() - 1).getId();
+        return new TaskPage(page, nextCursor, hasMore);
+    }
+
+    /**
+     * Один проход по индексу с кучей на count элементов: O(n log count) без копии доски.
+     */
+    private void collectSmallestIdsAfter(int afterId, int count, List<Task> page) {
+        PriorityQueue<Task> largest = new PriorityQueue<>(Math.min(count, index.size() + 1), Comparator.comparingInt(Task::getId).reversed());
+        for (Task task : index.values()) {
+            if (task.getId() <= afterId) {
+                continue;
+            }
+            if (largest.size() < count) {
+                largest.add(task);
+            } else if (task.getId() < largest.peek().getId()) {
+                largest.poll();
+                largest.add(task);
+            }
+        }
+        page.addAll(largest);
+        page.sort(Comparator.comparingInt(Task::getId));
+    }
+
     public void deleteAllTasks() {
+        List<Task> deleted = eventsMuted ? List.of() : new ArrayList<>(index.values());
+        for (Task task : index.values()) {
+            historyManager.remove(task.getId());
+        }
+        index.clear();
         tasks.clear();
         epics.clear();
         subtasks.clear();
+        statusIndex.clear();
+        timeIndex.clear();
+        searchIndex.clear();
+        hierarchy.clear();
+        snapshots.clear();
+        for (Task task : deleted) {
+            events.taskDeleted(task);
+        }
     }
 
+    /**
+     * Подзадачи эпика в порядке добавления — представление только для чтения
+     * без копирования, которое отражает последующие изменения менеджера.
+     */
     public List<Subtask> getSubtasksByEpic(int epicId) {
         Epic epic = epics.get(epicId);
-        return epic != null ? new ArrayList<>(epic.getSubtasks()) : new ArrayList<>();
+        return epic != null ? epic.getSubtasks() : Collections.emptyList();
     }
 
     @Override
     public void updateTask(Task task) {
-        int id = task.getId();
+        timeIndex.checkOverlap(task);
+        Task previous = index.put(task.getId(), task);
+        maxId = Math.max(maxId, task.getId());
+        if (previous != null) {
+            statusIndex.remove(previous);
+        }
         if (task instanceof Epic) {
-            updateEpic((Epic) task);
+            updateEpic((Epic) task, previous);
         } else if (task instanceof Subtask) {
-            updateSubtask((Subtask) task);
+            updateSubtask((Subtask) task, previous);
         } else {
             updateSimpleTask(task);
         }
+        statusIndex.add(task);
+        timeIndex.put(task);
+        searchIndex.put(task);
+        snapshots.publish(task.getId());
+        if (!eventsMuted) {
+            events.taskUpdated(task);
+        }
+        publishEpicStatusChanges();
     }
 
-    private void updateEpic(Epic epic) {
+    private void updateEpic(Epic epic, Task previous) {
+        if (previous instanceof Epic) {
+            epic.takeSubtasksFrom((Epic) previous);
+        }
         epics.put(epic.getId(), epic);
+        hierarchy.add(epic.getId());
         updateEpicStatus(epic);
     }
 
-    private void updateSubtask(Subtask subtask) {
+    private void updateSubtask(Subtask subtask, Task previous) {
         subtasks.put(subtask.getId(), subtask);
-        updateEpicStatus(subtask.getParentEpic());
+        Epic parentEpic = subtask.getParentEpic();
+        if (previous == subtask) {
+            if (parentEpic != null) {
+                parentEpic.refreshSubtaskStatus(subtask);
+                updateEpicStatus(parentEpic);
+            }
+            return;
+        }
+        Epic previousEpic = previous instanceof Subtask ? ((Subtask) previous).getParentEpic() : null;
+        if (previousEpic != null && previousEpic == parentEpic) {
+            parentEpic.replaceSubtask((Subtask) previous, subtask);
+        } else {
+            if (previousEpic != null) {
+                previousEpic.removeSubtask((Subtask) previous);
+                updateEpicStatus(previousEpic);
+            }
+            if (parentEpic != null) {
+                parentEpic.addSubtask(subtask);
+            }
+        }
+        if (parentEpic != null) {
+            updateEpicStatus(parentEpic);
+        }
     }
 
     private void updateSimpleTask(Task task) {
         tasks.put(task.getId(), task);
     }
 
+    /**
+     * Статус эпика с подзадачами выводится из его счётчиков, здесь остаётся
+     * только сброс пустого эпика в NEW и, в режиме проверки, сверка счётчиков
+     * с полным обходом подзадач. Эпик, принадлежащий менеджеру, переносится
+     * в индексе статусов.
+     */
     private void updateEpicStatus(Epic epic) {
-        boolean allNew = true;
-        boolean allDone = true;
-        for (Subtask subtask : epic.getSubtasks()) {
-            Status status = subtask.getStatus();
-            if (status != Status.NEW) {
-                allNew = false;
+        if (batchEpics != null) {
+            if (epic != lastBatchEpic) {
+                batchEpics.add(epic);
+                lastBatchEpic = epic;
+            }
+            return;
+        }
+        if (epic.getSubtasks().isEmpty()) {
+            epic.setStatus(Status.NEW);
+        } else if (statusConsistencyCheck && epic.getStatus() != epic.computeStatusByScan()) {
+            throw new IllegalStateException("Счётчики статусов эпика не совпадают с подзадачами! - " + epic.getId());
+        }
+        if (index.get(epic.getId()) == epic) {
+            syncRollup(epic);
+            Status previous = statusIndex.reindex(epic);
+            snapshots.publish(epic.getId());
+            if (!eventsMuted && previous != null) {
+                changedEpics.add(epic);
+                changedEpicStatuses.add(previous);
+            }
+        }
+    }
+
+    private void publishEpicStatusChanges() {
+        for (int i = 0; i < changedEpics.size(); i++) {
+            events.epicStatusChanged(changedEpics.get(i), changedEpicStatuses.get(i));
+        }
+        changedEpics.clear();
+        changedEpicStatuses.clear();
+    }
+
+    /**
+     * Операции пакета идут через обычные методы менеджера, поэтому наследники
+     * видят каждую из них; пересчёт статусов эпиков откладывается до конца пакета.
+     */
+    @Override
+    public void applyBatch(TaskBatch batch) {
+        List<TaskBatch.Operation> operations = batch.getOperations();
+        timeIndex.checkBatch(operations, this::getSubtasksByEpic);
+        nextId = prepareBatch(operations, this::isIdUnique, nextId);
+        batchEpics = Collections.newSetFromMap(new IdentityHashMap<>());
+        snapshots.beginBatch();
+        try {
+            for (TaskBatch.Operation operation : operations) {
+                switch (operation.getKind()) {
+                    case ADD:
+                        addNewTask(operation.getTask());
+                        break;
+                    case UPDATE:
+                        updateTask(operation.getTask());
+                        break;
+                    default:
+                        deleteTaskOnId(operation.getId());
+                }
+            }
+        } finally {
+            Set<Epic> affected = batchEpics;
+            batchEpics = null;
+            lastBatchEpic = null;
+            for (Epic epic : affected) {
+                updateEpicStatus(epic);
             }
-            if (status != Status.DONE) {
-                allDone = false;
+            snapshots.endBatch();
+            publishEpicStatusChanges();
+        }
+    }
+
+    /**
+     * Проверяет ID всех добавлений с учётом предыдущих операций пакета и только
+     * после этого выделяет новые ID одним диапазоном, пропуская занятые.
+     * ID подзадач, удаляемых вместе с эпиком пакета, свободными не считаются.
+     * Возвращает следующий свободный ID после выделенного диапазона.
+     */
+    static int prepareBatch(List<TaskBatch.Operation> operations, IntPredicate isIdUnique, int nextId) {
+        IntHashMap<Boolean> present = new IntHashMap<>();
+        List<Task> withoutId = new ArrayList<>();
+        for (TaskBatch.Operation operation : operations) {
+            int id = operation.getId();
+            if (operation.getKind() == TaskBatch.Kind.DELETE) {
+                present.put(id, Boolean.FALSE);
+                continue;
             }
-            if (!allNew && !allDone) {
-                break;
+            if (operation.getKind() == TaskBatch.Kind.ADD) {
+                if (id == 0) {
+                    withoutId.add(operation.getTask());
+                    continue;
+                }
+                Boolean exists = present.get(id);
+                if (exists != null ? exists : !isIdUnique.test(id)) {
+                    throw new IllegalArgumentException("Задача с таким ID уже существует! -  " + id);
+                }
             }
+            present.put(id, Boolean.TRUE);
         }
-        if (allNew) {
-            epic.setStatus(Status.NEW);
-        } else if (allDone) {
-            epic.setStatus(Status.DONE);
-        } else {
-            epic.setStatus(Status.IN_PROGRESS);
+        if (withoutId.isEmpty()) {
+            return nextId;
+        }
+        requireDistinct(withoutId);
+        int id = nextId;
+        for (Task task : withoutId) {
+            while (present.containsKey(id) || !isIdUnique.test(id)) {
+                id++;
+            }
+            task.setId(id++);
         }
+        return id;
+    }
+
+    /**
+     * ID задаче назначается один раз, поэтому повтор одного экземпляра
+     * ловится до выделения ID, а не откатом.
+     */
+    static void requireDistinct(List<Task> tasks) {
+        Set<Task> distinct = Collections.newSetFromMap(new IdentityHashMap<>(tasks.size()));
+        for (Task task : tasks) {
+            if (!distinct.add(task)) {
+                throw new IllegalArgumentException("Задача добавлена в пакет дважды! - " + task);
+            }
+        }
+    }
+
+    /**
+     * Включает сверку счётчиков статусов эпика с полным обходом после каждого изменения.
+     * Предназначено для тестов: стоимость изменения подзадачи снова становится O(n).
+     */
+    public void setStatusConsistencyCheck(boolean enabled) {
+        this.statusConsistencyCheck = enabled;
     }
 
     public List<Epic> getAllEpics() {
@@ -161,36 +499,197 @@ public class InMemoryTaskManager implements TaskManager {
         return new ArrayList<>(subtasks.values());
     }
 
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        List<Task> result = new ArrayList<>(statusIndex.count(status));
+        statusIndex.collect(status, result);
+        return result;
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(TaskType type, Status status) {
+        return statusIndex.get(type, status);
+    }
+
+    @Override
+    public int countByStatus(Status status) {
+        return statusIndex.count(status);
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        return statusIndex.count(type, status);
+    }
+
+    @Override
+    public int countByType(TaskType type) {
+        switch (type) {
+            case EPIC:
+                return epics.size();
+            case SUBTASK:
+                return subtasks.size();
+            default:
+                return tasks.size();
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpic(int epicId, Status status) {
+        Epic epic = epics.get(epicId);
+        return epic != null ? epic.getSubtasks(status) : new ArrayList<>();
+    }
+
+    @Override
+    public int countSubtasksByEpic(int epicId, Status status) {
+        Epic epic = epics.get(epicId);
+        return epic != null ? epic.getSubtaskCount(status) : 0;
+    }
+
     @Override
     public void deleteTaskOnId(int id) {
-        if (tasks.containsKey(id)) {
+        Task task = index.remove(id);
+        if (task != null) {
+            historyManager.remove(id);
+            statusIndex.remove(task);
+            timeIndex.remove(id);
+            searchIndex.remove(id);
+        }
+        List<Subtask> deletedSubtasks = List.of();
+        if (task instanceof Epic) {
+            deletedSubtasks = deleteEpic((Epic) task);
+        } else if (task instanceof Subtask) {
+            deleteSubtask((Subtask) task);
+        } else if (task != null) {
             tasks.remove(id);
-        } else if (subtasks.containsKey(id)) {
-            deleteSubtask(id);
-        } else if (epics.containsKey(id)) {
-            deleteEpic(id);
         }
+        if (task != null) {
+            snapshots.publish(id);
+            if (!eventsMuted) {
+                events.taskDeleted(task);
+                for (Subtask subtask : deletedSubtasks) {
+                    events.taskDeleted(subtask);
+                }
+            }
+        }
+        publishEpicStatusChanges();
     }
 
-    private void deleteSubtask(int id) {
-        Subtask subtask = subtasks.remove(id);
+    private void deleteSubtask(Subtask subtask) {
+        subtasks.remove(subtask.getId());
         Epic parentEpic = subtask.getParentEpic();
         if (parentEpic != null) {
-            parentEpic.getSubtasks().remove(subtask);
+            parentEpic.removeSubtask(subtask);
             updateEpicStatus(parentEpic);
         }
     }
 
-    private void deleteEpic(int id) {
-        Epic epic = epics.remove(id);
+    /**
+     * Удаляет эпик с подзадачами и возвращает удалённые подзадачи для событий
+     * (пустой список, если события выключены).
+     */
+    private List<Subtask> deleteEpic(Epic epic) {
+        List<Subtask> deleted = eventsMuted ? List.of() : new ArrayList<>(epic.getSubtasks());
+        epics.remove(epic.getId());
+        hierarchy.remove(epic.getId());
         for (Subtask subtask : epic.getSubtasks()) {
+            historyManager.remove(subtask.getId());
+            index.remove(subtask.getId());
             subtasks.remove(subtask.getId());
+            statusIndex.remove(subtask);
+            timeIndex.remove(subtask.getId());
+            searchIndex.remove(subtask.getId());
+            snapshots.publish(subtask.getId());
+        }
+        epic.clearSubtasks();
+        return deleted;
+    }
+
+    /**
+     * Вкладывает эпик в другой эпик; parentId = 0 делает его верхним.
+     * Сводки родителя и всех его предков обновляются за O(глубины).
+     * Вложенность живёт только в памяти: журнал FileBackedTaskManager её не пишет.
+     *
+     * @throws IllegalArgumentException если эпика нет или вложение замыкает цикл
+     */
+    public void setParentEpic(int epicId, int parentId) {
+        hierarchy.setParent(epicId, parentId);
+    }
+
+    /**
+     * Эпик, в который вложен данный, либо null у верхнего и неизвестного эпика.
+     */
+    public Epic getParentEpic(int epicId) {
+        return hierarchy.contains(epicId) ? epics.get(hierarchy.getParent(epicId)) : null;
+    }
+
+    public List<Epic> getChildEpics(int epicId) {
+        if (!hierarchy.contains(epicId)) {
+            return new ArrayList<>();
+        }
+        int[] children = hierarchy.getChildren(epicId);
+        List<Epic> result = new ArrayList<>(children.length);
+        for (int i = children.length - 1; i >= 0; i--) {
+            result.add(epics.get(children[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Сводка по подзадачам эпика и всех вложенных в него эпиков за O(1);
+     * null, если эпика нет.
+     */
+    public EpicRollup getEpicRollup(int epicId) {
+        return hierarchy.contains(epicId) ? hierarchy.getRollup(epicId) : null;
+    }
+
+    /**
+     * Переносит счётчики подзадач эпика в иерархию, а разницу — в сводки предков.
+     */
+    private void syncRollup(Epic epic) {
+        for (Status status : STATUSES) {
+            hierarchy.setCount(epic.getId(), status, epic.getSubtaskCount(status));
         }
-        epic.getSubtasks().clear();
     }
 
     @Override
     public List<Task> getHistory() {
         return historyManager.getHistory();
     }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return timeIndex.getPrioritized();
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        List<SearchIndex.Hit> hits = searchHits(query, limit);
+        List<Task> found = new ArrayList<>(hits.size());
+        for (SearchIndex.Hit hit : hits) {
+            found.add(index.get(hit.getId()));
+        }
+        return found;
+    }
+
+    /**
+     * Результаты поиска с оценками — для слияния выдачи нескольких менеджеров.
+     */
+    List<SearchIndex.Hit> searchHits(String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер выдачи должен быть положительным! - " + limit);
+        }
+        return searchIndex.search(query, limit);
+    }
+
+    /**
+     * Первый снимок собирается обходом доски, дальше изменения поддерживают его
+     * сами и снимок стоит O(1). Менеджер не потокобезопасен, но полученный
+     * снимок можно читать из других потоков, пока этот поток пишет, а после
+     * первого вызова и сам snapshot() вызывать из них.
+     */
+    @Override
+    public TaskSnapshot snapshot() {
+        TaskSnapshot snapshot = snapshots.get();
+        return snapshot != null ? snapshot : snapshots.start(index.values());
+    }
 }
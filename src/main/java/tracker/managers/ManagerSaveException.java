@@ -0,0 +1,16 @@
+package main.java.tracker.managers;
+
+/**
+ * Ошибка чтения или записи состояния менеджера на диск.
+ */
+public class ManagerSaveException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ManagerSaveException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public ManagerSaveException(String message) {
+        super(message);
+    }
+}
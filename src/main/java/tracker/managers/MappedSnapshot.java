@@ -0,0 +1,364 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.Epic;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Двоичный снимок доски, который читается через MappedByteBuffer без разбора
+ * всего файла.
+ * <pre>
+ * заголовок: magic, версия, число записей, nextId, смещения секций
+ * записи:    фиксированной длины, отсортированы по ID —
+ *            id, тип, статус, флаги времени, id эпика, ссылки на строки,
+ *            начало и число детей, время начала и длительность
+ * смежность: номера записей подзадач каждого эпика в порядке эпика
+ * строки:    число строк, таблица смещений, байты UTF-8; одинаковые строки
+ *            хранятся один раз
+ * </pre>
+ * Поиск записи по ID — двоичный поиск по отображённому файлу, строки
+ * декодируются при первом обращении и дальше переиспользуются.
+ * Размер файла ограничен 2 ГБ — пределом одного MappedByteBuffer.
+ * Снимки первой версии, записи которых короче и без времени, тоже читаются.
+ */
+public final class MappedSnapshot {
+    private static final int MAGIC = 0x4B4D5331;
+    private static final short FORMAT_VERSION = 2;
+    private static final short FIRST_FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 2 + 4 + 4 + 4 + 4 + 4 + 4;
+    private static final int FIRST_RECORD_SIZE = 4 + 1 + 1 + 2 + 4 + 4 + 4 + 4 + 4;
+    private static final int RECORD_SIZE = FIRST_RECORD_SIZE + 2 * TaskRecords.TIME_SIZE;
+    private static final int NO_STRING = -1;
+    private static final Status[] STATUSES = Status.values();
+
+    private final MappedByteBuffer buffer;
+    private final int recordSize;
+    private final int count;
+    private final int nextId;
+    private final int recordsOffset;
+    private final int adjacencyOffset;
+    private final int stringsOffset;
+    private final int stringCount;
+    private final int stringDataOffset;
+    private final String[] strings;
+
+    private MappedSnapshot(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new ManagerSaveException("Неизвестный формат снимка");
+        }
+        short version = buffer.getShort(4);
+        if (version == FORMAT_VERSION) {
+            recordSize = RECORD_SIZE;
+        } else if (version == FIRST_FORMAT_VERSION) {
+            recordSize = FIRST_RECORD_SIZE;
+        } else {
+            throw new ManagerSaveException("Неизвестный формат снимка");
+        }
+        count = buffer.getInt(8);
+        nextId = buffer.getInt(12);
+        recordsOffset = buffer.getInt(16);
+        adjacencyOffset = buffer.getInt(20);
+        stringsOffset = buffer.getInt(24);
+        stringCount = buffer.getInt(stringsOffset);
+        stringDataOffset = stringsOffset + 4 + (stringCount + 1) * 4;
+        strings = new String[stringCount];
+    }
+
+    public static MappedSnapshot open(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ManagerSaveException("Снимок больше 2 ГБ: " + path);
+            }
+            return new MappedSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось открыть снимок " + path, e);
+        }
+    }
+
+    /**
+     * Записывает задачи в снимок. Подзадачи эпика берутся из его списка,
+     * поэтому их порядок сохраняется.
+     */
+    public static void write(Path path, Collection<? extends Task> tasks, int nextId) {
+        List<Task> sorted = new ArrayList<>(tasks);
+        sorted.sort(Comparator.comparingInt(Task::getId));
+        Map<Integer, Integer> recordById = new HashMap<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            recordById.put(sorted.get(i).getId(), i);
+        }
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<byte[]> stringBytes = new ArrayList<>();
+        int adjacencySize = 0;
+        for (Task task : sorted) {
+            intern(task.getTitle(), stringIds, stringBytes);
+            intern(task.getDescription(), stringIds, stringBytes);
+            if (task instanceof Epic) {
+                adjacencySize += ((Epic) task).getSubtasks().size();
+            }
+        }
+        long stringDataSize = 0;
+        for (byte[] bytes : stringBytes) {
+            stringDataSize += bytes.length;
+        }
+        long recordsOffset = HEADER_SIZE;
+        long adjacencyOffset = recordsOffset + (long) sorted.size() * RECORD_SIZE;
+        long stringsOffset = adjacencyOffset + (long) adjacencySize * 4;
+        long total = stringsOffset + 4 + (stringBytes.size() + 1L) * 4 + stringDataSize;
+        if (total > Integer.MAX_VALUE) {
+            throw new ManagerSaveException("Снимок больше 2 ГБ: " + path);
+        }
+
+        ByteBuffer out = ByteBuffer.allocate((int) total);
+        out.putInt(MAGIC).putShort(FORMAT_VERSION).putShort((short) 0);
+        out.putInt(sorted.size()).putInt(nextId);
+        out.putInt((int) recordsOffset).putInt((int) adjacencyOffset).putInt((int) stringsOffset);
+        out.putInt(0);
+        int firstChild = 0;
+        for (Task task : sorted) {
+            int children = task instanceof Epic ? ((Epic) task).getSubtasks().size() : 0;
+            out.putInt(task.getId());
+            out.put(TaskRecords.kindOf(task));
+            out.put((byte) task.getStatus().ordinal());
+            out.putShort(TaskRecords.timeFlagsOf(task));
+            out.putInt(TaskRecords.parentIdOf(task));
+            out.putInt(stringRef(task.getTitle(), stringIds));
+            out.putInt(stringRef(task.getDescription(), stringIds));
+            out.putInt(firstChild);
+            out.putInt(children);
+            firstChild += children;
+            LocalDateTime start = task.getStartTime();
+            Duration duration = task.getDuration();
+            TaskRecords.writeStart(out, start != null ? start : LocalDateTime.MIN);
+            TaskRecords.writeDuration(out, duration != null ? duration : Duration.ZERO);
+        }
+        for (Task task : sorted) {
+            if (task instanceof Epic) {
+                for (Subtask subtask : ((Epic) task).getSubtasks()) {
+                    Integer record = recordById.get(subtask.getId());
+                    if (record == null) {
+                        throw new ManagerSaveException("Подзадача эпика отсутствует в снимке! - " + subtask.getId());
+                    }
+                    out.putInt(record);
+                }
+            }
+        }
+        out.putInt(stringBytes.size());
+        int offset = 0;
+        for (byte[] bytes : stringBytes) {
+            out.putInt(offset);
+            offset += bytes.length;
+        }
+        out.putInt(offset);
+        for (byte[] bytes : stringBytes) {
+            out.put(bytes);
+        }
+        out.flip();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось записать снимок " + path, e);
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Не удалось записать снимок " + path, e);
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getNextId() {
+        return nextId;
+    }
+
+    /**
+     * Номер записи с данным ID или -1.
+     */
+    public int indexOf(int id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = id(middle);
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Номер первой записи с ID больше данного (или size(), если таких нет).
+     */
+    public int indexAfter(int id) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (id(middle) <= id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public int id(int record) {
+        return buffer.getInt(recordOffset(record));
+    }
+
+    public byte kind(int record) {
+        return buffer.get(recordOffset(record) + 4);
+    }
+
+    public boolean isEpic(int record) {
+        return kind(record) == TaskRecords.KIND_EPIC;
+    }
+
+    public boolean isSubtask(int record) {
+        return kind(record) == TaskRecords.KIND_SUBTASK;
+    }
+
+    public Status status(int record) {
+        return STATUSES[buffer.get(recordOffset(record) + 5)];
+    }
+
+    public int parentId(int record) {
+        return buffer.getInt(recordOffset(record) + 8);
+    }
+
+    public String title(int record) {
+        return string(buffer.getInt(recordOffset(record) + 12));
+    }
+
+    public String description(int record) {
+        return string(buffer.getInt(recordOffset(record) + 16));
+    }
+
+    /**
+     * Время начала или null, если оно не задано.
+     */
+    public LocalDateTime startTime(int record) {
+        if ((timeFlags(record) & TaskRecords.HAS_START) == 0) {
+            return null;
+        }
+        return TaskRecords.readStart(buffer.slice(recordOffset(record) + FIRST_RECORD_SIZE, TaskRecords.TIME_SIZE));
+    }
+
+    /**
+     * Длительность или null, если она не задана.
+     */
+    public Duration duration(int record) {
+        if ((timeFlags(record) & TaskRecords.HAS_DURATION) == 0) {
+            return null;
+        }
+        return TaskRecords.readDuration(buffer.slice(recordOffset(record) + FIRST_RECORD_SIZE
+                + TaskRecords.TIME_SIZE, TaskRecords.TIME_SIZE));
+    }
+
+    public int childCount(int record) {
+        return buffer.getInt(recordOffset(record) + 24);
+    }
+
+    /**
+     * Номер записи n-й подзадачи эпика.
+     */
+    public int child(int record, int n) {
+        int first = buffer.getInt(recordOffset(record) + 20);
+        return buffer.getInt(adjacencyOffset + (first + n) * 4);
+    }
+
+    /**
+     * Создаёт объект задачи без подзадач; для подзадачи нужен уже созданный эпик.
+     */
+    public Task materialize(int record, Epic parentEpic) {
+        Task task;
+        byte kind = kind(record);
+        if (kind == TaskRecords.KIND_EPIC) {
+            task = new Epic(title(record), description(record), status(record));
+        } else if (kind == TaskRecords.KIND_SUBTASK) {
+            task = new Subtask(title(record), description(record), status(record), parentEpic);
+        } else {
+            task = new Task(title(record), description(record), status(record));
+        }
+        task.setId(id(record));
+        task.setStartTime(startTime(record));
+        task.setDuration(duration(record));
+        return task;
+    }
+
+    private int timeFlags(int record) {
+        return recordSize == RECORD_SIZE ? buffer.getShort(recordOffset(record) + 6) : 0;
+    }
+
+    private int recordOffset(int record) {
+        return recordsOffset + record * recordSize;
+    }
+
+    private String string(int ref) {
+        if (ref == NO_STRING) {
+            return null;
+        }
+        String value = strings[ref];
+        if (value == null) {
+            int start = buffer.getInt(stringsOffset + 4 + ref * 4);
+            int end = buffer.getInt(stringsOffset + 4 + (ref + 1) * 4);
+            byte[] bytes = new byte[end - start];
+            buffer.get(stringDataOffset + start, bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+            strings[ref] = value;
+        }
+        return value;
+    }
+
+    private static void intern(String value, Map<String, Integer> stringIds, List<byte[]> stringBytes) {
+        if (value != null && !stringIds.containsKey(value)) {
+            stringIds.put(value, stringBytes.size());
+            stringBytes.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static int stringRef(String value, Map<String, Integer> stringIds) {
+        return value != null ? stringIds.get(value) : NO_STRING;
+    }
+
+    @Override
+    public String toString() {
+        return "MappedSnapshot{records=" + count + ", strings=" + stringCount + ", nextId=" + nextId
+                + ", bytes=" + buffer.limit() + "}";
+    }
+}
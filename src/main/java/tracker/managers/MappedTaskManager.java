@@ -0,0 +1,338 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.Epic;
+import main.java.tracker.EpicRollup;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskBatch;
+import main.java.tracker.TaskPage;
+import main.java.tracker.TaskSnapshot;
+import main.java.tracker.TaskType;
+
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Менеджер, открывающий {@link MappedSnapshot} без загрузки всей доски.
+ * Задача создаётся из отображённого файла при первом обращении к ней и
+ * дальше живёт в памяти как в InMemoryTaskManager; эпик подгружается
+ * вместе со своими подзадачами, чтобы ссылки и счётчики статусов были целыми.
+ * Изменения в файл не пишутся — для сохранения есть {@link #save(Path)}.
+ */
+public class MappedTaskManager extends InMemoryTaskManager {
+    private final MappedSnapshot snapshot;
+    /**
+     * Записи снимка, уже загруженные в память (или удалённые после загрузки).
+     */
+    private final BitSet loaded;
+    private int loadedCount;
+
+    public MappedTaskManager(Path snapshotFile) {
+        this(MappedSnapshot.open(snapshotFile));
+    }
+
+    public MappedTaskManager(MappedSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.loaded = new BitSet(snapshot.size());
+        setNextId(snapshot.getNextId());
+    }
+
+    /**
+     * Сохраняет задачи менеджера в формате MappedSnapshot.
+     */
+    public static void save(InMemoryTaskManager manager, Path snapshotFile) {
+        MappedSnapshot.write(snapshotFile, manager.getAllTasks(), manager.getNextId());
+    }
+
+    public void save(Path snapshotFile) {
+        save(this, snapshotFile);
+    }
+
+    /**
+     * Сколько записей снимка уже загружено в память.
+     */
+    public int getLoadedCount() {
+        return loadedCount;
+    }
+
+    /**
+     * Пересечение по времени проверяется по индексу загруженных задач,
+     * поэтому запланированная задача сначала загружает снимок целиком.
+     */
+    @Override
+    public void addNewTask(Task task) {
+        if (TimeIndex.isScheduled(task)) {
+            loadAll();
+        } else if (task.getId() != 0) {
+            load(task.getId());
+        }
+        super.addNewTask(task);
+    }
+
+    @Override
+    public boolean isIdUnique(int id) {
+        load(id);
+        return super.isIdUnique(id);
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        load(id);
+        return super.getTaskById(id);
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        loadAll();
+        return super.getAllTasks();
+    }
+
+    @Override
+    public Stream<Task> streamAllTasks() {
+        loadAll();
+        return super.streamAllTasks();
+    }
+
+    @Override
+    public Stream<Epic> streamEpics() {
+        loadAll();
+        return super.streamEpics();
+    }
+
+    @Override
+    public Stream<Subtask> streamSubtasks() {
+        loadAll();
+        return super.streamSubtasks();
+    }
+
+    /**
+     * Записи снимка отсортированы по ID, поэтому достаточно загрузить limit + 1
+     * записей после курсора — остальные заведомо не попадут на страницу.
+     */
+    @Override
+    public TaskPage getTasksPage(int afterId, int limit) {
+        int record = snapshot.indexAfter(afterId);
+        for (int end = (int) Math.min((long) record + limit + 1, snapshot.size()); record < end; record++) {
+            load(snapshot.id(record));
+        }
+        return super.getTasksPage(afterId, limit);
+    }
+
+    @Override
+    public TaskSnapshot snapshot() {
+        loadAll();
+        return super.snapshot();
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        loadAll();
+        return super.getAllEpics();
+    }
+
+    @Override
+    public List<Subtask> getAllSubtasks() {
+        loadAll();
+        return super.getAllSubtasks();
+    }
+
+    /**
+     * Индекс интервалов строится при загрузке задач, поэтому снимок загружается целиком.
+     */
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        loadAll();
+        return super.getPrioritizedTasks();
+    }
+
+    /**
+     * Текстовый индекс тоже строится при загрузке, поэтому поиск загружает снимок целиком.
+     */
+    @Override
+    public List<Task> search(String query, int limit) {
+        loadAll();
+        return super.search(query, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpic(int epicId) {
+        load(epicId);
+        return super.getSubtasksByEpic(epicId);
+    }
+
+    /**
+     * Индексы по статусу строятся при загрузке задач, поэтому выборки
+     * и подсчёты по всей доске сначала загружают снимок целиком.
+     */
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        loadAll();
+        return super.getTasksByStatus(status);
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(TaskType type, Status status) {
+        loadAll();
+        return super.getTasksByStatus(type, status);
+    }
+
+    @Override
+    public int countByStatus(Status status) {
+        loadAll();
+        return super.countByStatus(status);
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        loadAll();
+        return super.countByStatus(type, status);
+    }
+
+    @Override
+    public int countByType(TaskType type) {
+        loadAll();
+        return super.countByType(type);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpic(int epicId, Status status) {
+        load(epicId);
+        return super.getSubtasksByEpic(epicId, status);
+    }
+
+    @Override
+    public int countSubtasksByEpic(int epicId, Status status) {
+        load(epicId);
+        return super.countSubtasksByEpic(epicId, status);
+    }
+
+    /**
+     * Вложенность эпиков в снимок не пишется, поэтому достаточно загрузить
+     * сам эпик и нового родителя: вложенные в них эпики уже загружены.
+     */
+    @Override
+    public void setParentEpic(int epicId, int parentId) {
+        load(epicId);
+        if (parentId != 0) {
+            load(parentId);
+        }
+        super.setParentEpic(epicId, parentId);
+    }
+
+    @Override
+    public Epic getParentEpic(int epicId) {
+        load(epicId);
+        return super.getParentEpic(epicId);
+    }
+
+    @Override
+    public List<Epic> getChildEpics(int epicId) {
+        load(epicId);
+        return super.getChildEpics(epicId);
+    }
+
+    @Override
+    public EpicRollup getEpicRollup(int epicId) {
+        load(epicId);
+        return super.getEpicRollup(epicId);
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        if (TimeIndex.isScheduled(task)) {
+            loadAll();
+        } else {
+            load(task.getId());
+        }
+        super.updateTask(task);
+    }
+
+    @Override
+    public void applyBatch(TaskBatch batch) {
+        if (batch.getOperations().stream().anyMatch(operation -> operation.getTask() != null
+                && TimeIndex.isScheduled(operation.getTask()))) {
+            loadAll();
+        }
+        super.applyBatch(batch);
+    }
+
+    @Override
+    public void deleteTaskOnId(int id) {
+        load(id);
+        super.deleteTaskOnId(id);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        loaded.set(0, snapshot.size());
+        loadedCount = snapshot.size();
+        super.deleteAllTasks();
+    }
+
+    @Override
+    Task findTask(int id) {
+        load(id);
+        return super.findTask(id);
+    }
+
+    private void load(int id) {
+        int record = snapshot.indexOf(id);
+        if (record < 0 || loaded.get(record)) {
+            return;
+        }
+        if (snapshot.isSubtask(record)) {
+            int parentRecord = snapshot.indexOf(snapshot.parentId(record));
+            if (parentRecord >= 0 && !loaded.get(parentRecord)) {
+                loadRecord(parentRecord);
+            }
+        }
+        if (!loaded.get(record)) {
+            loadRecord(record);
+        }
+    }
+
+    /**
+     * Подгрузка записи — не изменение доски, поэтому событий она не порождает.
+     */
+    private void loadRecord(int record) {
+        boolean muted = muteEvents(true);
+        try {
+            Task task;
+            if (snapshot.isSubtask(record)) {
+                Task parent = super.findTask(snapshot.parentId(record));
+                task = snapshot.materialize(record, parent instanceof Epic ? (Epic) parent : null);
+            } else {
+                task = snapshot.materialize(record, null);
+            }
+            markLoaded(record);
+            super.addNewTask(task);
+            if (task instanceof Epic) {
+                Epic epic = (Epic) task;
+                for (int n = 0; n < snapshot.childCount(record); n++) {
+                    int child = snapshot.child(record, n);
+                    if (!loaded.get(child)) {
+                        markLoaded(child);
+                        super.addNewTask(snapshot.materialize(child, epic));
+                    }
+                }
+            }
+        } finally {
+            muteEvents(muted);
+        }
+    }
+
+    private void loadAll() {
+        for (int record = loaded.nextClearBit(0); record < snapshot.size();
+             record = loaded.nextClearBit(record + 1)) {
+            load(snapshot.id(record));
+        }
+    }
+
+    private void markLoaded(int record) {
+        loaded.set(record);
+        loadedCount++;
+    }
+}
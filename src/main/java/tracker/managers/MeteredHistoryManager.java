@@ -0,0 +1,69 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.HistoryManager;
+import main.java.tracker.Task;
+import main.java.tracker.metrics.Operation;
+import main.java.tracker.metrics.TaskManagerMetrics;
+
+import java.util.List;
+
+/**
+ * Декоратор истории просмотров, который считает вызовы и время в
+ * {@link TaskManagerMetrics}. У замеренных просмотров проверяется, была ли
+ * задача уже в истории, — из них складывается доля попаданий.
+ */
+public class MeteredHistoryManager implements HistoryManager {
+    private final HistoryManager delegate;
+    private final TaskManagerMetrics metrics;
+
+    public MeteredHistoryManager(HistoryManager delegate, TaskManagerMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    public TaskManagerMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void add(Task task) {
+        long start = metrics.start(Operation.HISTORY_ADD);
+        if (TaskManagerMetrics.isSampled(start)) {
+            metrics.historyAdd(delegate.contains(task.getId()));
+        }
+        try {
+            delegate.add(task);
+        } finally {
+            metrics.stop(Operation.HISTORY_ADD, start);
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        long start = metrics.start(Operation.HISTORY_REMOVE);
+        try {
+            delegate.remove(id);
+        } finally {
+            metrics.stop(Operation.HISTORY_REMOVE, start);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        long start = metrics.start(Operation.HISTORY_GET);
+        try {
+            List<Task> history = delegate.getHistory();
+            if (TaskManagerMetrics.isSampled(start)) {
+                metrics.historySize(history.size());
+            }
+            return history;
+        } finally {
+            metrics.stop(Operation.HISTORY_GET, start);
+        }
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return delegate.contains(id);
+    }
+}
@@ -0,0 +1,293 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskBatch;
+import main.java.tracker.TaskManager;
+import main.java.tracker.TaskPage;
+import main.java.tracker.TaskSnapshot;
+import main.java.tracker.TaskType;
+import main.java.tracker.metrics.Operation;
+import main.java.tracker.metrics.TaskManagerMetrics;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Декоратор менеджера задач, который считает вызовы и время операций
+ * в {@link TaskManagerMetrics}. Пересчёт статуса эпика идёт внутри менеджера,
+ * поэтому его время входит в операции с подзадачами. Для замеренных
+ * добавлений и изменений подзадач записывается и размер эпика.
+ * <p>
+ * Потокобезопасен настолько же, насколько обёрнутый менеджер.
+ */
+public class MeteredTaskManager implements TaskManager {
+    private static final Status[] STATUSES = Status.values();
+
+    private final TaskManager delegate;
+    private final TaskManagerMetrics metrics;
+
+    public MeteredTaskManager(TaskManager delegate, TaskManagerMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    public TaskManager getDelegate() {
+        return delegate;
+    }
+
+    public TaskManagerMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void addNewTask(Task task) {
+        TaskType type = TaskType.of(task);
+        Operation operation = type == TaskType.EPIC ? Operation.ADD_EPIC
+                : type == TaskType.SUBTASK ? Operation.ADD_SUBTASK : Operation.ADD_TASK;
+        long start = metrics.start(operation);
+        try {
+            delegate.addNewTask(task);
+        } finally {
+            metrics.stop(operation, start);
+        }
+        if (type == TaskType.SUBTASK && TaskManagerMetrics.isSampled(start)) {
+            recordFanOut((Subtask) task);
+        }
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        long start = metrics.start(Operation.GET_TASK_BY_ID);
+        try {
+            Task task = delegate.getTaskById(id);
+            if (task != null) {
+                metrics.lookupHit();
+            }
+            return task;
+        } finally {
+            metrics.stop(Operation.GET_TASK_BY_ID, start);
+        }
+    }
+
+    @Override
+    public Task peekTask(int id) {
+        return delegate.peekTask(id);
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        long start = metrics.start(Operation.GET_ALL_TASKS);
+        try {
+            return delegate.getAllTasks();
+        } finally {
+            metrics.stop(Operation.GET_ALL_TASKS, start);
+        }
+    }
+
+    /**
+     * Замеряется создание потока, а не его обход.
+     */
+    @Override
+    public Stream<Task> streamAllTasks() {
+        long start = metrics.start(Operation.STREAM_ALL_TASKS);
+        try {
+            return delegate.streamAllTasks();
+        } finally {
+            metrics.stop(Operation.STREAM_ALL_TASKS, start);
+        }
+    }
+
+    @Override
+    public TaskPage getTasksPage(int afterId, int limit) {
+        long start = metrics.start(Operation.GET_TASKS_PAGE);
+        try {
+            return delegate.getTasksPage(afterId, limit);
+        } finally {
+            metrics.stop(Operation.GET_TASKS_PAGE, start);
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        TaskType type = TaskType.of(task);
+        Operation operation = type == TaskType.EPIC ? Operation.UPDATE_EPIC
+                : type == TaskType.SUBTASK ? Operation.UPDATE_SUBTASK : Operation.UPDATE_TASK;
+        long start = metrics.start(operation);
+        try {
+            delegate.updateTask(task);
+        } finally {
+            metrics.stop(operation, start);
+        }
+        if (type == TaskType.SUBTASK && TaskManagerMetrics.isSampled(start)) {
+            recordFanOut((Subtask) task);
+        }
+    }
+
+    @Override
+    public void deleteTaskOnId(int id) {
+        long start = metrics.start(Operation.DELETE_TASK);
+        try {
+            delegate.deleteTaskOnId(id);
+        } finally {
+            metrics.stop(Operation.DELETE_TASK, start);
+        }
+    }
+
+    @Override
+    public void applyBatch(TaskBatch batch) {
+        long start = metrics.start(Operation.APPLY_BATCH);
+        try {
+            delegate.applyBatch(batch);
+        } finally {
+            metrics.stop(Operation.APPLY_BATCH, start);
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        long start = metrics.start(Operation.GET_HISTORY);
+        try {
+            return delegate.getHistory();
+        } finally {
+            metrics.stop(Operation.GET_HISTORY, start);
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        long start = metrics.start(Operation.GET_PRIORITIZED_TASKS);
+        try {
+            return delegate.getPrioritizedTasks();
+        } finally {
+            metrics.stop(Operation.GET_PRIORITIZED_TASKS, start);
+        }
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        long start = metrics.start(Operation.SEARCH);
+        try {
+            return delegate.search(query, limit);
+        } finally {
+            metrics.stop(Operation.SEARCH, start);
+        }
+    }
+
+    @Override
+    public TaskSnapshot snapshot() {
+        long start = metrics.start(Operation.SNAPSHOT);
+        try {
+            return delegate.snapshot();
+        } finally {
+            metrics.stop(Operation.SNAPSHOT, start);
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpic(int id) {
+        long start = metrics.start(Operation.GET_SUBTASKS_BY_EPIC);
+        try {
+            List<Subtask> subtasks = delegate.getSubtasksByEpic(id);
+            if (TaskManagerMetrics.isSampled(start) && !subtasks.isEmpty()) {
+                metrics.epicFanOut(subtasks.size());
+            }
+            return subtasks;
+        } finally {
+            metrics.stop(Operation.GET_SUBTASKS_BY_EPIC, start);
+        }
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        long start = metrics.start(Operation.GET_TASKS_BY_STATUS);
+        try {
+            return delegate.getTasksByStatus(status);
+        } finally {
+            metrics.stop(Operation.GET_TASKS_BY_STATUS, start);
+        }
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(TaskType type, Status status) {
+        long start = metrics.start(Operation.GET_TASKS_BY_STATUS);
+        try {
+            return delegate.getTasksByStatus(type, status);
+        } finally {
+            metrics.stop(Operation.GET_TASKS_BY_STATUS, start);
+        }
+    }
+
+    @Override
+    public int countByStatus(Status status) {
+        long start = metrics.start(Operation.COUNT);
+        try {
+            return delegate.countByStatus(status);
+        } finally {
+            metrics.stop(Operation.COUNT, start);
+        }
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        long start = metrics.start(Operation.COUNT);
+        try {
+            return delegate.countByStatus(type, status);
+        } finally {
+            metrics.stop(Operation.COUNT, start);
+        }
+    }
+
+    @Override
+    public int countByType(TaskType type) {
+        long start = metrics.start(Operation.COUNT);
+        try {
+            return delegate.countByType(type);
+        } finally {
+            metrics.stop(Operation.COUNT, start);
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpic(int epicId, Status status) {
+        long start = metrics.start(Operation.GET_SUBTASKS_BY_EPIC);
+        try {
+            return delegate.getSubtasksByEpic(epicId, status);
+        } finally {
+            metrics.stop(Operation.GET_SUBTASKS_BY_EPIC, start);
+        }
+    }
+
+    @Override
+    public int countSubtasksByEpic(int epicId, Status status) {
+        long start = metrics.start(Operation.COUNT);
+        try {
+            return delegate.countSubtasksByEpic(epicId, status);
+        } finally {
+            metrics.stop(Operation.COUNT, start);
+        }
+    }
+
+    /**
+     * Размер эпика подзадачи по счётчикам статусов: три пробы индекса вместо обхода эпика.
+     */
+    private void recordFanOut(Subtask subtask) {
+        if (subtask.getParentEpic() == null) {
+            return;
+        }
+        int epicId = subtask.getParentEpic().getId();
+        int count = 0;
+        for (Status status : STATUSES) {
+            count += delegate.countSubtasksByEpic(epicId, status);
+        }
+        metrics.epicFanOut(count);
+    }
+
+    @Override
+    public String toString() {
+        return "MeteredTaskManager{" +
+                "delegate=" + delegate +
+                '}';
+    }
+}
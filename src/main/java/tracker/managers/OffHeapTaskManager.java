@@ -0,0 +1,877 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.Epic;
+import main.java.tracker.HistoryManager;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskBatch;
+import main.java.tracker.TaskManager;
+import main.java.tracker.TaskPage;
+import main.java.tracker.TaskSnapshot;
+import main.java.tracker.TaskType;
+import main.java.tracker.util.IntHashMap;
+import main.java.tracker.util.IntIntHashMap;
+import main.java.tracker.util.Managers;
+import main.java.tracker.util.TimeWindow;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Менеджер для досок в миллионы задач: поля задач хранятся по столбцам
+ * в прямых ByteBuffer вне кучи, заголовки и описания — в {@link StringArena}.
+ * Задача — номер строки в столбцах, ID сопоставляется строке через
+ * {@link IntIntHashMap}. Подзадачи эпика и задачи каждой пары (тип, статус)
+ * связаны двусвязными списками через столбцы соседей, счётчики статусов
+ * подзадач хранятся в строке эпика, поэтому изменения стоят O(1).
+ * <p>
+ * Объекты Task создаются только на границе API: методы возвращают новые
+ * экземпляры, а изменения переданной задачи менеджер видит только после
+ * updateTask. Эпик возвращается без списка подзадач — их отдаёт
+ * getSubtasksByEpic. Подзадача, эпик которой не найден в менеджере,
+ * хранится без родителя. Не потокобезопасен.
+ * <p>
+ * Время задач встречается не у всех, поэтому хранится в куче по ID, как и
+ * индекс интервалов и окна эпиков по строке эпика: так столбцы не растут
+ * ради редких полей. Полнотекстовый индекс тоже живёт в куче: его списки
+ * вхождений сжаты и обычно меньше самих строк.
+ */
+public class OffHeapTaskManager implements TaskManager {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int AVERAGE_STRING_BYTES = 32;
+    private static final int DENSE_PAGE_SCAN_FACTOR = 4;
+    private static final int NONE = -1;
+    private static final byte FREE = -1;
+    private static final Status[] STATUSES = Status.values();
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final int STATUS_COUNT = STATUSES.length;
+
+    private final HistoryManager historyManager;
+    private final IntIntHashMap rows;
+    /**
+     * Головы и длины списков задач по (тип, статус).
+     */
+    private final int[] listHeads = new int[TYPES.length * STATUS_COUNT];
+    private final int[] listSizes = new int[TYPES.length * STATUS_COUNT];
+    private final int[] typeSizes = new int[TYPES.length];
+    private final SnapshotPublisher snapshots = new SnapshotPublisher(this::materializeById);
+    private final IntHashMap<Schedule> schedules = new IntHashMap<>();
+    private final IntHashMap<TimeWindow> windows = new IntHashMap<>();
+    private final TimeIndex timeIndex = new TimeIndex();
+    private final SearchIndex searchIndex = new SearchIndex();
+    private StringArena strings;
+
+    private ByteBuffer ids;
+    private ByteBuffer kinds;
+    private ByteBuffer statuses;
+    private ByteBuffer titles;
+    private ByteBuffer descriptions;
+    /**
+     * Строка эпика у подзадачи; у остальных NONE.
+     */
+    private ByteBuffer parents;
+    private ByteBuffer firstChildren;
+    private ByteBuffer lastChildren;
+    /**
+     * Соседи в списке подзадач эпика; у свободной строки nextSiblings — следующая свободная.
+     */
+    private ByteBuffer nextSiblings;
+    private ByteBuffer prevSiblings;
+    /**
+     * Число подзадач эпика в каждом статусе, STATUS_COUNT значений на строку.
+     */
+    private ByteBuffer childCounts;
+    private ByteBuffer statusNext;
+    private ByteBuffer statusPrev;
+
+    private int capacity;
+    private int rowCount;
+    private int freeRows = NONE;
+    private int nextId = 1;
+    private int maxId;
+
+    public OffHeapTaskManager() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public OffHeapTaskManager(int expectedSize) {
+        this(expectedSize, Managers.getDefaultHistory());
+    }
+
+    public OffHeapTaskManager(int expectedSize, HistoryManager historyManager) {
+        this.historyManager = historyManager;
+        capacity = Math.max(expectedSize, 16);
+        rows = new IntIntHashMap(capacity, NONE);
+        strings = new StringArena((int) Math.min(Integer.MAX_VALUE, (long) capacity * AVERAGE_STRING_BYTES));
+        ids = column(capacity, 4);
+        kinds = column(capacity, 1);
+        statuses = column(capacity, 1);
+        titles = column(capacity, 4);
+        descriptions = column(capacity, 4);
+        parents = column(capacity, 4);
+        firstChildren = column(capacity, 4);
+        lastChildren = column(capacity, 4);
+        nextSiblings = column(capacity, 4);
+        prevSiblings = column(capacity, 4);
+        childCounts = column(capacity, 4 * STATUS_COUNT);
+        statusNext = column(capacity, 4);
+        statusPrev = column(capacity, 4);
+        Arrays.fill(listHeads, NONE);
+    }
+
+    @Override
+    public void addNewTask(Task task) {
+        int id = task.getId();
+        if (id != 0 && rows.containsKey(id)) {
+            throw new IllegalArgumentException("Задача с таким ID уже существует! -  " + id);
+        }
+        timeIndex.checkOverlap(task);
+        if (id == 0) {
+            do {
+                id = nextId++;
+            } while (rows.containsKey(id));
+            task.setId(id);
+        }
+        insert(task);
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        int row = rows.get(id);
+        if (row == NONE) {
+            return null;
+        }
+        Task task = materialize(row, null);
+        historyManager.add(task);
+        return task;
+    }
+
+    @Override
+    public Task peekTask(int id) {
+        int row = rows.get(id);
+        return row != NONE ? materialize(row, null) : null;
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        List<Task> allTasks = new ArrayList<>(rows.size());
+        IntHashMap<Epic> epicCache = new IntHashMap<>();
+        for (int row = 0; row < rowCount; row++) {
+            if (kinds.get(row) != FREE) {
+                allTasks.add(materialize(row, epicCache));
+            }
+        }
+        return allTasks;
+    }
+
+    /**
+     * Задачи создаются по мере обхода столбцов; поток можно сделать параллельным.
+     */
+    @Override
+    public Stream<Task> streamAllTasks() {
+        return IntStream.range(0, rowCount)
+                .filter(row -> kinds.get(row) != FREE)
+                .mapToObj(row -> materialize(row, null));
+    }
+
+    @Override
+    public TaskPage getTasksPage(int afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным! - " + limit);
+        }
+        int[] pageRows = new int[Math.min(limit + 1, rows.size() + 1)];
+        int found = 0;
+        if ((long) maxId - afterId <= (long) rows.size() * DENSE_PAGE_SCAN_FACTOR) {
+            for (long id = afterId + 1L; id <= maxId && found <= limit; id++) {
+                int row = rows.get((int) id);
+                if (row != NONE) {
+                    pageRows[found++] = row;
+                }
+            }
+        } else {
+            PriorityQueue<Integer> largest = new PriorityQueue<>(pageRows.length, Comparator.reverseOrder());
+            for (int row = 0; row < rowCount; row++) {
+                if (kinds.get(row) == FREE) {
+                    continue;
+                }
+                int id = intAt(ids, row);
+                if (id <= afterId) {
+                    continue;
+                }
+                if (largest.size() < pageRows.length) {
+                    largest.add(id);
+                } else if (id < largest.peek()) {
+                    largest.poll();
+                    largest.add(id);
+                }
+            }
+            found = largest.size();
+            for (int i = found - 1; i >= 0; i--) {
+                pageRows[i] = rows.get(largest.poll());
+            }
+        }
+        boolean hasMore = found > limit;
+        int count = Math.min(found, limit);
+        List<Task> page = new ArrayList<>(count);
+        IntHashMap<Epic> epicCache = new IntHashMap<>();
+        for (int i = 0; i < count; i++) {
+            page.add(materialize(pageRows[i], epicCache));
+        }
+        int nextCursor = count == 0 ? afterId : page.get(count - 1).getId();
+        return new TaskPage(page, nextCursor, hasMore);
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        timeIndex.checkOverlap(task);
+        int row = rows.get(task.getId());
+        if (row == NONE) {
+            insert(task);
+            return;
+        }
+        TaskType type = TaskType.of(task);
+        if (typeOf(row) != type) {
+            remove(row);
+            insert(task);
+            return;
+        }
+        if (!strings.matches(intAt(titles, row), task.getTitle())) {
+            strings.release(intAt(titles, row));
+            setInt(titles, row, strings.put(task.getTitle()));
+        }
+        if (!strings.matches(intAt(descriptions, row), task.getDescription())) {
+            strings.release(intAt(descriptions, row));
+            setInt(descriptions, row, strings.put(task.getDescription()));
+        }
+        windowRemove(row);
+        schedule(task);
+        searchIndex.put(task);
+        if (type == TaskType.SUBTASK) {
+            updateSubtask(row, (Subtask) task);
+        } else if (type == TaskType.EPIC) {
+            if (intAt(firstChildren, row) == NONE) {
+                setStatus(row, Status.NEW);
+            }
+        } else {
+            setStatus(row, task.getStatus());
+        }
+        windowAdd(row);
+        compactStringsIfNeeded();
+        snapshots.publish(task.getId());
+    }
+
+    private void updateSubtask(int row, Subtask subtask) {
+        int parentRow = epicRowOf(subtask);
+        int previousParent = intAt(parents, row);
+        if (parentRow != previousParent) {
+            detach(row);
+            setStatus(row, subtask.getStatus());
+            attach(row, parentRow);
+            return;
+        }
+        Status previous = statusOf(row);
+        Status actual = subtask.getStatus();
+        if (previous == actual) {
+            return;
+        }
+        setStatus(row, actual);
+        if (parentRow != NONE) {
+            addChildCount(parentRow, previous, -1);
+            addChildCount(parentRow, actual, 1);
+            refreshEpicStatus(parentRow);
+        }
+    }
+
+    @Override
+    public void deleteTaskOnId(int id) {
+        int row = rows.get(id);
+        if (row == NONE) {
+            return;
+        }
+        historyManager.remove(id);
+        remove(row);
+        compactStringsIfNeeded();
+    }
+
+    public void deleteAllTasks() {
+        for (int row = 0; row < rowCount; row++) {
+            if (kinds.get(row) != FREE) {
+                historyManager.remove(intAt(ids, row));
+            }
+        }
+        rows.clear();
+        strings.clear();
+        schedules.clear();
+        windows.clear();
+        timeIndex.clear();
+        searchIndex.clear();
+        Arrays.fill(listHeads, NONE);
+        Arrays.fill(listSizes, 0);
+        Arrays.fill(typeSizes, 0);
+        rowCount = 0;
+        freeRows = NONE;
+        snapshots.clear();
+    }
+
+    /**
+     * Статус эпика пересчитывается по его счётчикам при каждом изменении
+     * подзадачи, поэтому откладывать пересчёт до конца пакета не нужно.
+     */
+    @Override
+    public void applyBatch(TaskBatch batch) {
+        List<TaskBatch.Operation> operations = batch.getOperations();
+        timeIndex.checkBatch(operations, this::getSubtasksByEpic);
+        nextId = InMemoryTaskManager.prepareBatch(operations, id -> !rows.containsKey(id), nextId);
+        snapshots.beginBatch();
+        try {
+            for (TaskBatch.Operation operation : operations) {
+                switch (operation.getKind()) {
+                    case ADD:
+                        addNewTask(operation.getTask());
+                        break;
+                    case UPDATE:
+                        updateTask(operation.getTask());
+                        break;
+                    default:
+                        deleteTaskOnId(operation.getId());
+                }
+            }
+        } finally {
+            snapshots.endBatch();
+        }
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    /**
+     * Задачи создаются по индексу интервалов заново, как и в остальных методах.
+     */
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        List<Task> prioritized = timeIndex.getPrioritized();
+        IntHashMap<Epic> epicCache = new IntHashMap<>();
+        for (int i = 0; i < prioritized.size(); i++) {
+            prioritized.set(i, materialize(rows.get(prioritized.get(i).getId()), epicCache));
+        }
+        return prioritized;
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер выдачи должен быть положительным! - " + limit);
+        }
+        List<SearchIndex.Hit> hits = searchIndex.search(query, limit);
+        List<Task> found = new ArrayList<>(hits.size());
+        IntHashMap<Epic> epicCache = new IntHashMap<>();
+        for (SearchIndex.Hit hit : hits) {
+            found.add(materialize(rows.get(hit.getId()), epicCache));
+        }
+        return found;
+    }
+
+    /**
+     * Снимок держит копии задач в куче, поэтому до первого вызова его не
+     * поддерживают; первый вызов создаёт объекты для всей доски.
+     */
+    @Override
+    public TaskSnapshot snapshot() {
+        TaskSnapshot snapshot = snapshots.get();
+        return snapshot != null ? snapshot : snapshots.start(getAllTasks());
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpic(int id) {
+        return subtasksOf(id, null);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpic(int epicId, Status status) {
+        return subtasksOf(epicId, status);
+    }
+
+    @Override
+    public int countSubtasksByEpic(int epicId, Status status) {
+        int row = rows.get(epicId);
+        return row != NONE && typeOf(row) == TaskType.EPIC ? childCount(row, status) : 0;
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        List<Task> result = new ArrayList<>(countByStatus(status));
+        IntHashMap<Epic> epicCache = new IntHashMap<>();
+        for (TaskType type : TYPES) {
+            collect(type, status, result, epicCache);
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(TaskType type, Status status) {
+        List<Task> result = new ArrayList<>(countByStatus(type, status));
+        collect(type, status, result, new IntHashMap<>());
+        return result;
+    }
+
+    @Override
+    public int countByStatus(Status status) {
+        int count = 0;
+        for (TaskType type : TYPES) {
+            count += countByStatus(type, status);
+        }
+        return count;
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        return listSizes[slotOf(type.ordinal(), status.ordinal())];
+    }
+
+    @Override
+    public int countByType(TaskType type) {
+        return typeSizes[type.ordinal()];
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * Число строк, под которое сейчас выделены столбцы.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Байты, занятые вне кучи: ёмкость всех столбцов и арены строк.
+     */
+    public long getOffHeapBytes() {
+        long bytes = strings.getCapacityBytes();
+        for (ByteBuffer column : columns()) {
+            bytes += column.capacity();
+        }
+        return bytes;
+    }
+
+    private void insert(Task task) {
+        int row = allocateRow();
+        int id = task.getId();
+        rows.put(id, row);
+        maxId = Math.max(maxId, id);
+        TaskType type = TaskType.of(task);
+        setInt(ids, row, id);
+        kinds.put(row, (byte) type.ordinal());
+        statuses.put(row, (byte) task.getStatus().ordinal());
+        setInt(titles, row, strings.put(task.getTitle()));
+        setInt(descriptions, row, strings.put(task.getDescription()));
+        setInt(parents, row, NONE);
+        setInt(firstChildren, row, NONE);
+        setInt(lastChildren, row, NONE);
+        setInt(nextSiblings, row, NONE);
+        setInt(prevSiblings, row, NONE);
+        for (int i = 0; i < STATUS_COUNT; i++) {
+            childCounts.putInt((row * STATUS_COUNT + i) << 2, 0);
+        }
+        typeSizes[type.ordinal()]++;
+        link(row);
+        schedule(task);
+        searchIndex.put(task);
+        if (type == TaskType.SUBTASK) {
+            attach(row, epicRowOf((Subtask) task));
+            windowAdd(row);
+        }
+        snapshots.publish(id);
+    }
+
+    /**
+     * Удаляет строку; у эпика вместе с ним удаляются его подзадачи.
+     */
+    private void remove(int row) {
+        TaskType type = typeOf(row);
+        if (type == TaskType.SUBTASK) {
+            windowRemove(row);
+            detach(row);
+        } else if (type == TaskType.EPIC) {
+            windows.remove(row);
+            int child = intAt(firstChildren, row);
+            while (child != NONE) {
+                int next = intAt(nextSiblings, child);
+                historyManager.remove(intAt(ids, child));
+                release(child);
+                child = next;
+            }
+        }
+        release(row);
+    }
+
+    private void release(int row) {
+        unlink(row);
+        typeSizes[kinds.get(row)]--;
+        strings.release(intAt(titles, row));
+        strings.release(intAt(descriptions, row));
+        rows.remove(intAt(ids, row));
+        schedules.remove(intAt(ids, row));
+        timeIndex.remove(intAt(ids, row));
+        searchIndex.remove(intAt(ids, row));
+        kinds.put(row, FREE);
+        setInt(nextSiblings, row, freeRows);
+        freeRows = row;
+        snapshots.publish(intAt(ids, row));
+    }
+
+    private int allocateRow() {
+        if (freeRows != NONE) {
+            int row = freeRows;
+            freeRows = intAt(nextSiblings, row);
+            return row;
+        }
+        if (rowCount == capacity) {
+            grow();
+        }
+        return rowCount++;
+    }
+
+    private void attach(int row, int parentRow) {
+        if (parentRow == NONE) {
+            return;
+        }
+        int last = intAt(lastChildren, parentRow);
+        setInt(parents, row, parentRow);
+        setInt(prevSiblings, row, last);
+        setInt(nextSiblings, row, NONE);
+        if (last == NONE) {
+            setInt(firstChildren, parentRow, row);
+        } else {
+            setInt(nextSiblings, last, row);
+        }
+        setInt(lastChildren, parentRow, row);
+        addChildCount(parentRow, statusOf(row), 1);
+        refreshEpicStatus(parentRow);
+    }
+
+    private void detach(int row) {
+        int parentRow = intAt(parents, row);
+        if (parentRow == NONE) {
+            return;
+        }
+        int prev = intAt(prevSiblings, row);
+        int next = intAt(nextSiblings, row);
+        if (prev == NONE) {
+            setInt(firstChildren, parentRow, next);
+        } else {
+            setInt(nextSiblings, prev, next);
+        }
+        if (next == NONE) {
+            setInt(lastChildren, parentRow, prev);
+        } else {
+            setInt(prevSiblings, next, prev);
+        }
+        setInt(parents, row, NONE);
+        addChildCount(parentRow, statusOf(row), -1);
+        refreshEpicStatus(parentRow);
+    }
+
+    private void schedule(Task task) {
+        if (task.getStartTime() != null || task.getDuration() != null) {
+            schedules.put(task.getId(), new Schedule(task.getStartTime(), task.getDuration(), task.getEndTime()));
+        } else {
+            schedules.remove(task.getId());
+        }
+        timeIndex.put(task);
+    }
+
+    /**
+     * Учитывает время подзадачи в окне её эпика.
+     */
+    private void windowAdd(int row) {
+        int parentRow = intAt(parents, row);
+        Schedule schedule = schedules.get(intAt(ids, row));
+        if (parentRow == NONE || schedule == null || schedule.start == null) {
+            return;
+        }
+        TimeWindow window = windows.get(parentRow);
+        if (window == null) {
+            window = new TimeWindow();
+            windows.put(parentRow, window);
+        }
+        window.add(schedule.start, schedule.duration);
+        snapshots.publish(intAt(ids, parentRow));
+    }
+
+    /**
+     * Убирает из окна эпика время подзадачи, учтённое windowAdd.
+     */
+    private void windowRemove(int row) {
+        int parentRow = intAt(parents, row);
+        Schedule schedule = schedules.get(intAt(ids, row));
+        if (parentRow == NONE || schedule == null || schedule.start == null) {
+            return;
+        }
+        TimeWindow window = windows.get(parentRow);
+        window.remove(schedule.start, schedule.duration);
+        if (window.isEmpty()) {
+            windows.remove(parentRow);
+        }
+        snapshots.publish(intAt(ids, parentRow));
+    }
+
+    /**
+     * Статус эпика по счётчикам подзадач; эпик без подзадач сбрасывается в NEW.
+     */
+    private void refreshEpicStatus(int row) {
+        int newCount = childCount(row, Status.NEW);
+        int doneCount = childCount(row, Status.DONE);
+        int total = newCount + doneCount + childCount(row, Status.IN_PROGRESS);
+        Status status;
+        if (total == newCount) {
+            status = Status.NEW;
+        } else if (total == doneCount) {
+            status = Status.DONE;
+        } else {
+            status = Status.IN_PROGRESS;
+        }
+        if (statusOf(row) != status) {
+            setStatus(row, status);
+            snapshots.publish(intAt(ids, row));
+        }
+    }
+
+    private void setStatus(int row, Status status) {
+        if (statuses.get(row) == status.ordinal()) {
+            return;
+        }
+        unlink(row);
+        statuses.put(row, (byte) status.ordinal());
+        link(row);
+    }
+
+    private void link(int row) {
+        int slot = slotOf(kinds.get(row), statuses.get(row));
+        int head = listHeads[slot];
+        setInt(statusNext, row, head);
+        setInt(statusPrev, row, NONE);
+        if (head != NONE) {
+            setInt(statusPrev, head, row);
+        }
+        listHeads[slot] = row;
+        listSizes[slot]++;
+    }
+
+    private void unlink(int row) {
+        int slot = slotOf(kinds.get(row), statuses.get(row));
+        int prev = intAt(statusPrev, row);
+        int next = intAt(statusNext, row);
+        if (prev == NONE) {
+            listHeads[slot] = next;
+        } else {
+            setInt(statusNext, prev, next);
+        }
+        if (next != NONE) {
+            setInt(statusPrev, next, prev);
+        }
+        listSizes[slot]--;
+    }
+
+    private void collect(TaskType type, Status status, List<? super Task> result, IntHashMap<Epic> epicCache) {
+        for (int row = listHeads[slotOf(type.ordinal(), status.ordinal())]; row != NONE;
+             row = intAt(statusNext, row)) {
+            result.add(materialize(row, epicCache));
+        }
+    }
+
+    private List<Subtask> subtasksOf(int epicId, Status status) {
+        List<Subtask> result = new ArrayList<>();
+        int row = rows.get(epicId);
+        if (row == NONE || typeOf(row) != TaskType.EPIC) {
+            return result;
+        }
+        IntHashMap<Epic> epicCache = new IntHashMap<>(1);
+        for (int child = intAt(firstChildren, row); child != NONE; child = intAt(nextSiblings, child)) {
+            if (status == null || statusOf(child) == status) {
+                result.add((Subtask) materialize(child, epicCache));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Создаёт объект задачи по строке. Эпики родителей переиспользуются через
+     * epicCache, если он передан.
+     */
+    private Task materialize(int row, IntHashMap<Epic> epicCache) {
+        TaskType type = typeOf(row);
+        if (type == TaskType.EPIC) {
+            return materializeEpic(row, epicCache);
+        }
+        Task task;
+        if (type == TaskType.SUBTASK) {
+            int parentRow = intAt(parents, row);
+            Epic parent = parentRow != NONE ? materializeEpic(parentRow, epicCache) : null;
+            task = new Subtask(strings.get(intAt(titles, row)), strings.get(intAt(descriptions, row)),
+                    statusOf(row), parent);
+        } else {
+            task = new Task(strings.get(intAt(titles, row)), strings.get(intAt(descriptions, row)), statusOf(row));
+        }
+        task.setId(intAt(ids, row));
+        Schedule schedule = schedules.get(task.getId());
+        if (schedule != null) {
+            task.setStartTime(schedule.start);
+            task.setDuration(schedule.duration);
+        }
+        return task;
+    }
+
+    private Task materializeById(int id) {
+        int row = rows.get(id);
+        return row != NONE ? materialize(row, null) : null;
+    }
+
+    private Epic materializeEpic(int row, IntHashMap<Epic> epicCache) {
+        Epic epic = epicCache != null ? epicCache.get(row) : null;
+        if (epic == null) {
+            epic = new Epic(strings.get(intAt(titles, row)), strings.get(intAt(descriptions, row)), statusOf(row));
+            epic.setId(intAt(ids, row));
+            setEpicTime(epic, row);
+            if (epicCache != null) {
+                epicCache.put(row, epic);
+            }
+        }
+        return epic;
+    }
+
+    /**
+     * Эпик с подзадачами получает окно их времени, эпик без подзадач — своё.
+     */
+    private void setEpicTime(Epic epic, int row) {
+        TimeWindow window = windows.get(row);
+        if (window != null) {
+            epic.setStartTime(window.getStartTime());
+            epic.setDuration(window.getDuration());
+            epic.setEndTime(window.getEndTime());
+            return;
+        }
+        Schedule schedule = schedules.get(epic.getId());
+        if (schedule != null && intAt(firstChildren, row) == NONE) {
+            epic.setStartTime(schedule.start);
+            epic.setDuration(schedule.duration);
+            epic.setEndTime(schedule.end);
+        }
+    }
+
+    private int epicRowOf(Subtask subtask) {
+        Epic parentEpic = subtask.getParentEpic();
+        if (parentEpic == null) {
+            return NONE;
+        }
+        int row = rows.get(parentEpic.getId());
+        return row != NONE && typeOf(row) == TaskType.EPIC ? row : NONE;
+    }
+
+    private TaskType typeOf(int row) {
+        return TYPES[kinds.get(row)];
+    }
+
+    private Status statusOf(int row) {
+        return STATUSES[statuses.get(row)];
+    }
+
+    private int childCount(int row, Status status) {
+        return childCounts.getInt((row * STATUS_COUNT + status.ordinal()) << 2);
+    }
+
+    private void addChildCount(int row, Status status, int delta) {
+        int offset = (row * STATUS_COUNT + status.ordinal()) << 2;
+        childCounts.putInt(offset, childCounts.getInt(offset) + delta);
+    }
+
+    /**
+     * Переписывает живые строки в новую арену, когда мусор занимает больше половины старой.
+     */
+    private void compactStringsIfNeeded() {
+        if (!strings.isMostlyGarbage()) {
+            return;
+        }
+        StringArena compacted = strings.copyLive();
+        for (int row = 0; row < rowCount; row++) {
+            if (kinds.get(row) != FREE) {
+                setInt(titles, row, compacted.copyFrom(strings, intAt(titles, row)));
+                setInt(descriptions, row, compacted.copyFrom(strings, intAt(descriptions, row)));
+            }
+        }
+        strings = compacted;
+    }
+
+    private void grow() {
+        int larger = capacity * 2;
+        if (larger < 0 || (long) larger * 4 * STATUS_COUNT > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Слишком много задач для столбцов вне кучи: " + capacity);
+        }
+        ids = grow(ids, larger * 4);
+        kinds = grow(kinds, larger);
+        statuses = grow(statuses, larger);
+        titles = grow(titles, larger * 4);
+        descriptions = grow(descriptions, larger * 4);
+        parents = grow(parents, larger * 4);
+        firstChildren = grow(firstChildren, larger * 4);
+        lastChildren = grow(lastChildren, larger * 4);
+        nextSiblings = grow(nextSiblings, larger * 4);
+        prevSiblings = grow(prevSiblings, larger * 4);
+        childCounts = grow(childCounts, larger * 4 * STATUS_COUNT);
+        statusNext = grow(statusNext, larger * 4);
+        statusPrev = grow(statusPrev, larger * 4);
+        capacity = larger;
+    }
+
+    private ByteBuffer[] columns() {
+        return new ByteBuffer[]{ids, kinds, statuses, titles, descriptions, parents, firstChildren, lastChildren,
+                nextSiblings, prevSiblings, childCounts, statusNext, statusPrev};
+    }
+
+    private static ByteBuffer column(int rows, int bytesPerRow) {
+        return ByteBuffer.allocateDirect(rows * bytesPerRow).order(ByteOrder.nativeOrder());
+    }
+
+    private static ByteBuffer grow(ByteBuffer column, int bytes) {
+        ByteBuffer larger = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        larger.put(0, column, 0, column.capacity());
+        return larger;
+    }
+
+    private static int intAt(ByteBuffer column, int row) {
+        return column.getInt(row << 2);
+    }
+
+    private static void setInt(ByteBuffer column, int row, int value) {
+        column.putInt(row << 2, value);
+    }
+
+    private static int slotOf(int type, int status) {
+        return type * STATUS_COUNT + status;
+    }
+
+    private static final class Schedule {
+        private final LocalDateTime start;
+        private final Duration duration;
+        private final LocalDateTime end;
+
+        private Schedule(LocalDateTime start, Duration duration, LocalDateTime end) {
+            this.start = start;
+            this.duration = duration;
+            this.end = end;
+        }
+    }
+}
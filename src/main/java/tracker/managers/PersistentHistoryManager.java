@@ -0,0 +1,261 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.HistoryManager;
+import main.java.tracker.Task;
+import main.java.tracker.TaskView;
+import main.java.tracker.ViewCount;
+import main.java.tracker.util.CountMinSketch;
+import main.java.tracker.util.HeavyHitters;
+import main.java.tracker.util.IntIntHashMap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * История просмотров, которая переживает перезапуск и знает, какие задачи
+ * смотрят чаще всего.
+ * <p>
+ * Каждый просмотр и удаление задачи дописывается с отметкой времени в
+ * кольцевой {@link ViewLog} на диске, а getHistory() по-прежнему отдаёт
+ * историю текущего сеанса из обычного HistoryManager. Частоты считаются по
+ * корзинам времени фиксированной длины: у каждой корзины свой
+ * {@link CountMinSketch} и {@link HeavyHitters} на topCapacity задач.
+ * Память постоянна — buckets корзин по 32 КБ счётчиков плюс список
+ * кандидатов — и не зависит ни от числа просмотров, ни от числа задач.
+ * При открытии счётчики заново набираются из журнала.
+ * <p>
+ * getMostViewed(window, k) складывает оценки кандидатов по корзинам окна:
+ * окно округляется вверх до целых корзин и не длиннее buckets корзин, а
+ * учитываются только просмотры, ещё не затёртые в журнале. Задача, которая
+ * не вошла в список самых частых ни одной корзины, в ответ не попадает.
+ * Методы синхронизированы.
+ */
+public class PersistentHistoryManager implements HistoryManager, Closeable {
+    public static final int DEFAULT_LOG_CAPACITY = 1 << 20;
+    public static final Duration DEFAULT_BUCKET = Duration.ofHours(1);
+    public static final int DEFAULT_BUCKETS = 24;
+    public static final int DEFAULT_TOP_CAPACITY = 64;
+
+    private static final int SKETCH_WIDTH = 2048;
+    private static final int NONE = -1;
+    private static final Comparator<ViewCount> BY_VIEWS = Comparator.comparingLong(ViewCount::getViews)
+            .reversed().thenComparingInt(ViewCount::getTaskId);
+
+    private final HistoryManager recent;
+    private final ViewLog log;
+    private final Clock clock;
+    private final long bucketMillis;
+    private final Bucket[] buckets;
+
+    public PersistentHistoryManager(Path file) {
+        this(file, DEFAULT_LOG_CAPACITY, new InMemoryHistoryManager(), Clock.systemUTC(),
+                DEFAULT_BUCKET, DEFAULT_BUCKETS, DEFAULT_TOP_CAPACITY);
+    }
+
+    /**
+     * @param logCapacity сколько последних событий хранит журнал; у
+     *                    существующего файла берётся из него
+     * @param recent      история текущего сеанса для getHistory()
+     * @param bucket      длина корзины — шаг, с которым задаётся окно
+     * @param buckets     сколько корзин хранится; самое длинное окно — bucket * buckets
+     * @param topCapacity сколько самых частых задач помнит каждая корзина
+     */
+    public PersistentHistoryManager(Path file, int logCapacity, HistoryManager recent, Clock clock,
+                                    Duration bucket, int buckets, int topCapacity) {
+        if (bucket.toMillis() <= 0) {
+            throw new IllegalArgumentException("Длина корзины должна быть не меньше миллисекунды! - " + bucket);
+        }
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("Число корзин должно быть положительным! - " + buckets);
+        }
+        this.recent = recent;
+        this.clock = clock;
+        this.bucketMillis = bucket.toMillis();
+        this.buckets = new Bucket[buckets];
+        for (int i = 0; i < buckets; i++) {
+            this.buckets[i] = new Bucket(topCapacity);
+        }
+        this.log = ViewLog.open(file, logCapacity);
+        replay();
+    }
+
+    @Override
+    public synchronized void add(Task task) {
+        recent.add(task);
+        long now = clock.millis();
+        log.append(now, ViewLog.VIEW, task.getId());
+        count(now, task.getId());
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        recent.remove(id);
+        log.append(clock.millis(), ViewLog.REMOVE, id);
+        forget(id);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        return recent.getHistory();
+    }
+
+    @Override
+    public synchronized boolean contains(int id) {
+        return recent.contains(id);
+    }
+
+    /**
+     * Последние limit просмотров из журнала, от новых к старым, в том числе
+     * из прошлых сеансов. Повторные просмотры не схлопываются, просмотры
+     * задач, удалённых после них, пропускаются.
+     */
+    public synchronized List<TaskView> getHistory(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер выборки должен быть положительным! - " + limit);
+        }
+        List<TaskView> views = new ArrayList<>(Math.min(limit, 1024));
+        IntIntHashMap removed = new IntIntHashMap(NONE);
+        for (long sequence = log.getNext() - 1; sequence >= log.getFirst() && views.size() < limit; sequence--) {
+            int id = log.idOf(sequence);
+            if (log.kindOf(sequence) == ViewLog.REMOVE) {
+                removed.put(id, 0);
+            } else if (!removed.containsKey(id)) {
+                views.add(new TaskView(id, Instant.ofEpochMilli(log.timeOf(sequence))));
+            }
+        }
+        return views;
+    }
+
+    /**
+     * k самых просматриваемых задач за последние window, по убыванию
+     * числа просмотров. Счёт — оценка count-min: не меньше истинного.
+     */
+    public synchronized List<ViewCount> getMostViewed(Duration window, int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("Размер выборки должен быть положительным! - " + k);
+        }
+        List<Bucket> covered = covered(window);
+        HeavyHitters top = new HeavyHitters(k);
+        IntIntHashMap seen = new IntIntHashMap(NONE);
+        for (Bucket bucket : covered) {
+            for (int i = 0; i < bucket.top.size(); i++) {
+                int id = bucket.top.keyAt(i);
+                if (seen.put(id, 0) == NONE) {
+                    top.offer(id, estimate(covered, id));
+                }
+            }
+        }
+        List<ViewCount> result = new ArrayList<>(top.size());
+        for (int i = 0; i < top.size(); i++) {
+            result.add(new ViewCount(top.keyAt(i), top.countAt(i)));
+        }
+        result.sort(BY_VIEWS);
+        return result;
+    }
+
+    /**
+     * Оценка числа просмотров задачи за последние window.
+     */
+    public synchronized long getViewCount(int id, Duration window) {
+        return estimate(covered(window), id);
+    }
+
+    /**
+     * Сбрасывает журнал на диск.
+     */
+    public synchronized void flush() {
+        log.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        log.close();
+    }
+
+    private void replay() {
+        for (long sequence = log.getFirst(); sequence < log.getNext(); sequence++) {
+            int id = log.idOf(sequence);
+            if (log.kindOf(sequence) == ViewLog.VIEW) {
+                count(log.timeOf(sequence), id);
+            } else {
+                forget(id);
+            }
+        }
+    }
+
+    private void count(long timeMillis, int id) {
+        long index = Math.floorDiv(timeMillis, bucketMillis);
+        Bucket bucket = buckets[(int) Math.floorMod(index, (long) buckets.length)];
+        if (bucket.index > index) {
+            return;
+        }
+        if (bucket.index != index) {
+            bucket.reset(index);
+        }
+        bucket.top.offer(id, bucket.sketch.add(id));
+    }
+
+    private void forget(int id) {
+        for (Bucket bucket : buckets) {
+            bucket.top.remove(id);
+        }
+    }
+
+    private List<Bucket> covered(Duration window) {
+        long millis = window.toMillis();
+        if (millis <= 0) {
+            throw new IllegalArgumentException("Окно должно быть положительным! - " + window);
+        }
+        long count = Math.min(buckets.length, (millis + bucketMillis - 1) / bucketMillis);
+        long now = Math.floorDiv(clock.millis(), bucketMillis);
+        List<Bucket> covered = new ArrayList<>((int) count);
+        for (Bucket bucket : buckets) {
+            if (bucket.index <= now && bucket.index > now - count) {
+                covered.add(bucket);
+            }
+        }
+        return covered;
+    }
+
+    private static long estimate(List<Bucket> covered, int id) {
+        long views = 0;
+        for (Bucket bucket : covered) {
+            views += bucket.sketch.estimate(id);
+        }
+        return views;
+    }
+
+    @Override
+    public String toString() {
+        return "PersistentHistoryManager{" +
+                "logCapacity=" + log.getCapacity() +
+                ", logged=" + log.getNext() +
+                '}';
+    }
+
+    /**
+     * Счётчики одного отрезка времени длиной bucketMillis с номером index.
+     */
+    private static final class Bucket {
+        private final CountMinSketch sketch = new CountMinSketch(SKETCH_WIDTH);
+        private final HeavyHitters top;
+        private long index = Long.MIN_VALUE;
+
+        private Bucket(int topCapacity) {
+            top = new HeavyHitters(topCapacity);
+        }
+
+        private void reset(long index) {
+            this.index = index;
+            sketch.clear();
+            top.clear();
+        }
+    }
+}
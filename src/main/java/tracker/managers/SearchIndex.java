@@ -0,0 +1,278 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.Task;
+import main.java.tracker.util.IntHashMap;
+import main.java.tracker.util.PostingList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Инвертированный индекс заголовков и описаний задач: словарь термов в
+ * TreeMap, чтобы префикс запроса раскрывался диапазоном словаря, и сжатый
+ * {@link PostingList} на каждый терм. Вес вхождения — где встретился терм:
+ * 1 — описание, 2 — заголовок, 3 — оба.
+ * <p>
+ * Термы документа запоминаются при индексировании, поэтому текст, изменённый
+ * у того же экземпляра до updateTask, не мешает удалить старые вхождения.
+ * Удаление ленивое: вхождение остаётся в списке, но при поиске отбрасывается,
+ * а список прореживается, когда устаревших вхождений в нём больше, чем живых.
+ * Не потокобезопасен.
+ */
+final class SearchIndex {
+    private static final int TITLE_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MAX_TOKEN_LENGTH = 64;
+    private static final int MIN_GARBAGE_TO_COMPACT = 16;
+    /**
+     * Доля веса, с которой учитывается совпадение только по префиксу терма.
+     */
+    private static final double PREFIX_FACTOR = 0.5;
+    static final Comparator<Hit> BY_RANK = Comparator.comparingDouble(Hit::getScore).reversed()
+            .thenComparingInt(Hit::getId);
+
+    private final TreeMap<String, Term> terms = new TreeMap<>();
+    private final IntHashMap<Term[]> docs = new IntHashMap<>();
+
+    /**
+     * Найденная задача и её оценка.
+     */
+    static final class Hit {
+        private final int id;
+        private final double score;
+
+        Hit(int id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        double getScore() {
+            return score;
+        }
+    }
+
+    private static final class Candidate {
+        private final int id;
+        /**
+         * Сумма оценок уже обработанных слов запроса.
+         */
+        private final double total;
+        private double word;
+
+        private Candidate(int id, double total) {
+            this.id = id;
+            this.total = total;
+        }
+    }
+
+    private static final class Term {
+        private final String text;
+        private final PostingList postings = new PostingList();
+        private int live;
+
+        private Term(String text) {
+            this.text = text;
+        }
+    }
+
+    /**
+     * Разбивает текст на термы: непрерывные последовательности букв и цифр
+     * любого алфавита в нижнем регистре, "ё" приравнена к "е". Термы длиннее
+     * MAX_TOKEN_LENGTH обрезаются.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder token = new StringBuilder();
+        int i = 0;
+        while (i <= text.length()) {
+            int codePoint = i < text.length() ? text.codePointAt(i) : ' ';
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (token.length() < MAX_TOKEN_LENGTH) {
+                    int lower = Character.toLowerCase(codePoint);
+                    token.appendCodePoint(lower == 'ё' ? 'е' : lower);
+                }
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+            i += Character.charCount(codePoint);
+        }
+        return tokens;
+    }
+
+    int size() {
+        return docs.size();
+    }
+
+    int termCount() {
+        return terms.size();
+    }
+
+    /**
+     * Индексирует заголовок и описание задачи под её ID, заменяя прежние вхождения.
+     */
+    void put(Task task) {
+        int id = task.getId();
+        Map<String, Integer> weights = new TreeMap<>();
+        for (String token : tokenize(task.getTitle())) {
+            weights.merge(token, TITLE_WEIGHT, (a, b) -> a | b);
+        }
+        for (String token : tokenize(task.getDescription())) {
+            weights.merge(token, DESCRIPTION_WEIGHT, (a, b) -> a | b);
+        }
+        Term[] previous = docs.get(id);
+        Term[] current = new Term[weights.size()];
+        int next = 0;
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            Term term = terms.computeIfAbsent(entry.getKey(), Term::new);
+            if (!contains(previous, term)) {
+                term.live++;
+            }
+            term.postings.add(id, entry.getValue());
+            current[next++] = term;
+        }
+        docs.put(id, current);
+        if (previous != null) {
+            for (Term term : previous) {
+                if (!contains(current, term)) {
+                    release(term);
+                }
+            }
+        }
+    }
+
+    void remove(int id) {
+        Term[] previous = docs.remove(id);
+        if (previous != null) {
+            for (Term term : previous) {
+                release(term);
+            }
+        }
+    }
+
+    void clear() {
+        terms.clear();
+        docs.clear();
+    }
+
+    /**
+     * До limit задач, в которых нашлось каждое слово запроса — целиком или
+     * как начало терма, по убыванию оценки (при равенстве — по ID). Оценка —
+     * сумма по словам запроса лучшего idf * вес среди подходящих термов;
+     * совпадение только по префиксу весит вдвое меньше.
+     */
+    List<Hit> search(String query, int limit) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        List<NavigableMap<String, Term>> expansions = new ArrayList<>(words.size());
+        for (String word : words) {
+            NavigableMap<String, Term> matching = terms.subMap(word, true, word + Character.MAX_VALUE, false);
+            if (matching.isEmpty()) {
+                return Collections.emptyList();
+            }
+            expansions.add(matching);
+        }
+        if (words.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // Начинаем с самого редкого слова: дальше кандидатов становится только меньше.
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < words.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparingLong(i -> postingCount(expansions.get(i))));
+        IntHashMap<Candidate> candidates = null;
+        for (int i : order) {
+            candidates = score(words.get(i), expansions.get(i), candidates);
+            if (candidates.isEmpty()) {
+                return Collections.emptyList();
+            }
+        }
+        PriorityQueue<Hit> best = new PriorityQueue<>(Math.min(limit, candidates.size()) + 1, BY_RANK.reversed());
+        for (Candidate candidate : candidates.values()) {
+            Hit hit = new Hit(candidate.id, candidate.total + candidate.word);
+            if (best.size() < limit) {
+                best.add(hit);
+            } else if (BY_RANK.compare(hit, best.peek()) < 0) {
+                best.poll();
+                best.add(hit);
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(BY_RANK);
+        return hits;
+    }
+
+    /**
+     * Документы, где нашлось слово запроса, с его лучшей оценкой в word; если
+     * previous передан, учитываются только его документы и их накопленная оценка.
+     */
+    private IntHashMap<Candidate> score(String word, NavigableMap<String, Term> matching,
+                                        IntHashMap<Candidate> previous) {
+        IntHashMap<Candidate> scores = new IntHashMap<>();
+        double documents = docs.size();
+        for (Term term : matching.values()) {
+            double idf = Math.log(1 + documents / term.live);
+            double factor = term.text.equals(word) ? 1 : PREFIX_FACTOR;
+            term.postings.forEach((id, weight) -> {
+                Candidate before = previous != null ? previous.get(id) : null;
+                if (previous != null && before == null || !contains(docs.get(id), term)) {
+                    return;
+                }
+                double value = idf * weight * factor;
+                Candidate candidate = scores.get(id);
+                if (candidate == null) {
+                    candidate = new Candidate(id, before != null ? before.total + before.word : 0);
+                    scores.put(id, candidate);
+                }
+                candidate.word = Math.max(candidate.word, value);
+            });
+        }
+        return scores;
+    }
+
+    private static long postingCount(NavigableMap<String, Term> matching) {
+        long count = 0;
+        for (Term term : matching.values()) {
+            count += term.live;
+        }
+        return count;
+    }
+
+    private void release(Term term) {
+        term.live--;
+        if (term.live == 0) {
+            terms.remove(term.text);
+            return;
+        }
+        int garbage = term.postings.size() - term.live;
+        if (garbage >= MIN_GARBAGE_TO_COMPACT && garbage > term.live) {
+            term.postings.retain((id, weight) -> contains(docs.get(id), term));
+        }
+    }
+
+    private static boolean contains(Term[] docTerms, Term term) {
+        if (docTerms == null) {
+            return false;
+        }
+        for (Term docTerm : docTerms) {
+            if (docTerm == term) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,884 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.Epic;
+import main.java.tracker.HistoryManager;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskBatch;
+import main.java.tracker.TaskManager;
+import main.java.tracker.TaskPage;
+import main.java.tracker.TaskSnapshot;
+import main.java.tracker.TaskType;
+import main.java.tracker.util.IntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+
+/**
+ * Потокобезопасный менеджер, разбитый на независимые сегменты. Каждый сегмент —
+ * свой {@link InMemoryTaskManager} под своей блокировкой; эпик живёт в одном
+ * сегменте вместе со всеми подзадачами, поэтому изменения разных эпиков
+ * в разных сегментах не ждут друг друга.
+ * <p>
+ * ID выделяются блоками по blockSize: сегмент забирает у общего распределителя
+ * свежий блок, когда исчерпает свой, и дальше раздаёт ID без синхронизации
+ * с остальными. Сегмент задачи определяется владельцем блока её ID. Новые
+ * задачи и эпики распределяются по сегментам случайно, подзадачи попадают
+ * в сегмент эпика. Задача с явным ID идёт в сегмент-владелец блока (блок без владельца
+ * закрепляется за сегментом по номеру блока); подзадача, чей ID принадлежит
+ * чужому блоку, запоминается в небольшой таблице переездов.
+ * <p>
+ * Списки и история собираются по сегментам поочерёдно, без общей блокировки:
+ * streamAllTasks копирует следующий сегмент, только когда поток до него дошёл.
+ * История каждого сегмента помечает просмотры общим счётчиком, и общая
+ * история — последние просмотры всех сегментов в порядке этих меток.
+ * applyBatch и первый snapshot() берут блокировки всех сегментов.
+ * <p>
+ * Пересечения по времени проверяются по общему индексу интервалов под его
+ * монитором, который берётся после блокировок сегментов; добавления
+ * незапланированных задач его не ждут.
+ * <p>
+ * Полнотекстовый поиск идёт по индексам сегментов поочерёдно, и лучшие
+ * результаты сливаются по оценке. Редкость слова сегмент считает по своим
+ * задачам; задачи распределены по сегментам случайно, так что оценки
+ * сегментов сопоставимы.
+ */
+public class ShardedTaskManager implements TaskManager {
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+    private static final int UNOWNED = -1;
+
+    private final Shard[] shards;
+    private final int blockSize;
+    private final int historySize;
+    private final AtomicLong viewSequence = new AtomicLong();
+    /**
+     * Владелец каждого выданного блока ID; при росте массив заменяется копией
+     * под блокировкой распределителя.
+     */
+    private volatile AtomicIntegerArray blockOwners = newOwners(16);
+    private int nextBlock;
+    /**
+     * Подзадачи, живущие не в сегменте-владельце блока своего ID: ID -> сегмент.
+     */
+    private final ConcurrentMap<Integer, Integer> relocated = new ConcurrentHashMap<>();
+    private final SnapshotPublisher snapshots = new SnapshotPublisher(this::findTask);
+    private final TimeIndex timeIndex = new TimeIndex();
+
+    public ShardedTaskManager() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public ShardedTaskManager(int shardCount) {
+        this(shardCount, DEFAULT_BLOCK_SIZE, InMemoryHistoryManager.DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param historySize размер общей истории просмотров
+     */
+    public ShardedTaskManager(int shardCount, int blockSize, int historySize) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Количество сегментов должно быть положительным! - " + shardCount);
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Размер блока ID должен быть положительным! - " + blockSize);
+        }
+        if (historySize <= 0) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным! - " + historySize);
+        }
+        this.blockSize = blockSize;
+        this.historySize = historySize;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, new ShardHistory(historySize, viewSequence));
+        }
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public void addNewTask(Task task) {
+        if (task.getId() == 0) {
+            Shard shard = task instanceof Subtask ? shardForEpic((Subtask) task) : preferredShard();
+            shard.lock.lock();
+            try {
+                if (TimeIndex.isScheduled(task)) {
+                    synchronized (timeIndex) {
+                        timeIndex.checkOverlap(task);
+                        task.setId(allocateId(shard, id -> false));
+                        timeIndex.put(task);
+                    }
+                } else {
+                    task.setId(allocateId(shard, id -> false));
+                }
+                shard.tasks.addNewTask(task);
+                publishChange(task, null);
+            } finally {
+                shard.lock.unlock();
+            }
+            return;
+        }
+        int id = task.getId();
+        Shard home = homeShard(id);
+        Shard target = task instanceof Subtask ? shardForEpic((Subtask) task) : home;
+        lock(home, target);
+        try {
+            if (!home.tasks.isIdUnique(id) || relocated.containsKey(id)) {
+                throw new IllegalArgumentException("Задача с таким ID уже существует! -  " + id);
+            }
+            if (TimeIndex.isScheduled(task)) {
+                schedule(task);
+            }
+            target.tasks.addNewTask(task);
+            if (target != home) {
+                relocated.put(id, target.index);
+            }
+            publishChange(task, null);
+        } finally {
+            unlock(home, target);
+        }
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        Shard shard = lockOwner(id);
+        if (shard == null) {
+            return null;
+        }
+        try {
+            return shard.tasks.getTaskById(id);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public Task peekTask(int id) {
+        Shard shard = lockOwner(id);
+        if (shard == null) {
+            return null;
+        }
+        try {
+            return shard.tasks.peekTask(id);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        List<Task> allTasks = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                allTasks.addAll(shard.tasks.getAllTasks());
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return allTasks;
+    }
+
+    /**
+     * Сегменты копируются по одному по мере обхода, так что поток видит
+     * каждый сегмент целиком, но не все сегменты на один момент.
+     */
+    @Override
+    public Stream<Task> streamAllTasks() {
+        return Arrays.stream(shards).flatMap(shard -> {
+            shard.lock.lock();
+            try {
+                return shard.tasks.getAllTasks().stream();
+            } finally {
+                shard.lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Страница каждого сегмента уже упорядочена по ID, общая страница — их слияние.
+     */
+    @Override
+    public TaskPage getTasksPage(int afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным! - " + limit);
+        }
+        List<Task> merged = new ArrayList<>();
+        boolean hasMore = false;
+        for (Shard shard : shards) {
+            TaskPage page;
+            shard.lock.lock();
+            try {
+                page = shard.tasks.getTasksPage(afterId, limit);
+            } finally {
+                shard.lock.unlock();
+            }
+            merged.addAll(page.getTasks());
+            hasMore |= page.hasMore();
+        }
+        merged.sort(Comparator.comparingInt(Task::getId));
+        if (merged.size() > limit) {
+            merged.subList(limit, merged.size()).clear();
+            hasMore = true;
+        }
+        int nextCursor = merged.isEmpty() ? afterId : merged.get(merged.size() - 1).getId();
+        return new TaskPage(merged, nextCursor, hasMore);
+    }
+
+    /**
+     * Подзадача, сменившая эпик на эпик из другого сегмента, переезжает:
+     * удаляется из прежнего сегмента и добавляется в новый, её просмотр
+     * в истории переносится с прежней меткой.
+     */
+    @Override
+    public void updateTask(Task task) {
+        int id = task.getId();
+        if (id <= 0) {
+            throw new IllegalArgumentException("У изменяемой задачи нет ID! - " + task);
+        }
+        while (true) {
+            Shard current = locate(id);
+            Shard target;
+            if (task instanceof Subtask && ((Subtask) task).getParentEpic() != null) {
+                target = shardForEpic((Subtask) task);
+            } else {
+                target = current != null ? current : homeShard(id);
+            }
+            lock(current, target);
+            try {
+                if (locate(id) != current) {
+                    continue;
+                }
+                schedule(task);
+                Task previous = current != null ? current.tasks.findTask(id) : null;
+                ShardHistory.View view = null;
+                if (current != null && current != target) {
+                    view = current.history.view(id);
+                    current.tasks.deleteTaskOnId(id);
+                }
+                target.tasks.updateTask(task);
+                if (view != null) {
+                    target.history.restore(view);
+                }
+                if (target.index == ownerOf(id)) {
+                    relocated.remove(id);
+                } else {
+                    relocated.put(id, target.index);
+                }
+                publishChange(task, previous);
+                return;
+            } finally {
+                unlock(current, target);
+            }
+        }
+    }
+
+    @Override
+    public void deleteTaskOnId(int id) {
+        Shard shard = lockOwner(id);
+        if (shard == null) {
+            return;
+        }
+        try {
+            Task task = shard.tasks.findTask(id);
+            boolean scheduled = shard.tasks.hasScheduledTasks();
+            List<Subtask> subtasks = task instanceof Epic
+                    && (!relocated.isEmpty() || snapshots.get() != null || scheduled)
+                    ? new ArrayList<>(shard.tasks.getSubtasksByEpic(id)) : Collections.emptyList();
+            shard.tasks.deleteTaskOnId(id);
+            if (!relocated.isEmpty()) {
+                relocated.remove(id);
+            }
+            if (scheduled) {
+                synchronized (timeIndex) {
+                    timeIndex.remove(id);
+                    for (Subtask subtask : subtasks) {
+                        timeIndex.remove(subtask.getId());
+                    }
+                }
+            }
+            for (Subtask subtask : subtasks) {
+                relocated.remove(subtask.getId());
+                snapshots.publish(subtask.getId());
+            }
+            if (task != null) {
+                publishChange(task, null);
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Пакет применяется под блокировками всех сегментов, поэтому виден целиком.
+     * ID всех добавлений проверяются до первого изменения; новые ID выделяются
+     * из блоков сегментов, в которые попадут задачи.
+     */
+    @Override
+    public void applyBatch(TaskBatch batch) {
+        List<TaskBatch.Operation> operations = batch.getOperations();
+        lockAll();
+        try {
+            synchronized (timeIndex) {
+                timeIndex.checkBatch(operations, this::getSubtasksByEpic);
+                applyBatchLocked(operations);
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private void applyBatchLocked(List<TaskBatch.Operation> operations) {
+        List<TaskBatch.Operation> explicit = new ArrayList<>();
+        List<Task> withoutId = new ArrayList<>();
+        IntHashMap<Boolean> reserved = new IntHashMap<>();
+        for (TaskBatch.Operation operation : operations) {
+            if (operation.getKind() == TaskBatch.Kind.ADD && operation.getId() == 0) {
+                withoutId.add(operation.getTask());
+            } else {
+                explicit.add(operation);
+                if (operation.getKind() == TaskBatch.Kind.ADD) {
+                    reserved.put(operation.getId(), Boolean.TRUE);
+                }
+            }
+        }
+        InMemoryTaskManager.prepareBatch(explicit, this::isIdUnique, 0);
+        InMemoryTaskManager.requireDistinct(withoutId);
+        for (Task task : withoutId) {
+            Shard shard = task instanceof Subtask ? shardForEpic((Subtask) task) : preferredShard();
+            task.setId(allocateId(shard, reserved::containsKey));
+        }
+        snapshots.beginBatch();
+        try {
+            for (TaskBatch.Operation operation : operations) {
+                switch (operation.getKind()) {
+                    case ADD:
+                        addNewTask(operation.getTask());
+                        break;
+                    case UPDATE:
+                        updateTask(operation.getTask());
+                        break;
+                    default:
+                        deleteTaskOnId(operation.getId());
+                }
+            }
+        } finally {
+            snapshots.endBatch();
+        }
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        synchronized (timeIndex) {
+            return timeIndex.getPrioritized();
+        }
+    }
+
+    /**
+     * Последние просмотры всех сегментов, упорядоченные по общему счётчику просмотров.
+     */
+    @Override
+    public List<Task> getHistory() {
+        List<ShardHistory.View> views = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                shard.history.collect(views);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        views.sort(Comparator.comparingLong(ShardHistory.View::getSequence));
+        List<Task> history = new ArrayList<>(Math.min(views.size(), historySize));
+        for (int i = Math.max(0, views.size() - historySize); i < views.size(); i++) {
+            history.add(views.get(i).getTask());
+        }
+        return history;
+    }
+
+    /**
+     * Первый вызов берёт блокировки всех сегментов и собирает снимок; дальше
+     * каждое изменение публикуется в общий снимок и snapshot() стоит O(1).
+     * Публикация — CAS одной ссылки, так что после первого снимка записи
+     * разных сегментов встречаются на ней.
+     */
+    @Override
+    public TaskSnapshot snapshot() {
+        TaskSnapshot snapshot = snapshots.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        lockAll();
+        try {
+            List<Task> allTasks = new ArrayList<>();
+            for (Shard shard : shards) {
+                allTasks.addAll(shard.tasks.getAllTasks());
+            }
+            return snapshots.start(allTasks);
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpic(int id) {
+        Shard shard = lockOwner(id);
+        if (shard == null) {
+            return new ArrayList<>();
+        }
+        try {
+            return new ArrayList<>(shard.tasks.getSubtasksByEpic(id));
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> search(String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Размер выдачи должен быть положительным! - " + limit);
+        }
+        List<SearchIndex.Hit> hits = new ArrayList<>();
+        IntHashMap<Task> found = new IntHashMap<>();
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                for (SearchIndex.Hit hit : shard.tasks.searchHits(query, limit)) {
+                    hits.add(hit);
+                    found.put(hit.getId(), shard.tasks.findTask(hit.getId()));
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        hits.sort(SearchIndex.BY_RANK);
+        List<Task> result = new ArrayList<>(Math.min(limit, hits.size()));
+        for (int i = 0; i < hits.size() && i < limit; i++) {
+            result.add(found.get(hits.get(i).getId()));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        List<Task> result = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                result.addAll(shard.tasks.getTasksByStatus(status));
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(TaskType type, Status status) {
+        List<Task> result = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                result.addAll(shard.tasks.getTasksByStatus(type, status));
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int countByStatus(Status status) {
+        int count = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                count += shard.tasks.countByStatus(status);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int countByStatus(TaskType type, Status status) {
+        int count = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                count += shard.tasks.countByStatus(type, status);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int countByType(TaskType type) {
+        int count = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                count += shard.tasks.countByType(type);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpic(int epicId, Status status) {
+        Shard shard = lockOwner(epicId);
+        if (shard == null) {
+            return new ArrayList<>();
+        }
+        try {
+            return shard.tasks.getSubtasksByEpic(epicId, status);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public int countSubtasksByEpic(int epicId, Status status) {
+        Shard shard = lockOwner(epicId);
+        if (shard == null) {
+            return 0;
+        }
+        try {
+            return shard.tasks.countSubtasksByEpic(epicId, status);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Номер сегмента, в котором живёт задача с данным ID, либо -1.
+     */
+    public int shardOf(int id) {
+        Shard shard = locate(id);
+        return shard != null ? shard.index : UNOWNED;
+    }
+
+    /**
+     * Публикует в снимок задачу и эпики, статус которых она могла изменить.
+     * Вызывается под блокировкой сегмента задачи.
+     */
+    private void publishChange(Task task, Task previous) {
+        snapshots.publish(task.getId());
+        if (task instanceof Subtask && ((Subtask) task).getParentEpic() != null) {
+            snapshots.publish(((Subtask) task).getParentEpic().getId());
+        }
+        if (previous instanceof Subtask && ((Subtask) previous).getParentEpic() != null) {
+            snapshots.publish(((Subtask) previous).getParentEpic().getId());
+        }
+    }
+
+    /**
+     * Проверяет пересечение по времени и переносит интервал задачи в общий индекс.
+     */
+    private void schedule(Task task) {
+        synchronized (timeIndex) {
+            timeIndex.checkOverlap(task);
+            timeIndex.put(task);
+        }
+    }
+
+    private boolean isIdUnique(int id) {
+        Shard shard = locate(id);
+        return shard == null || shard.tasks.isIdUnique(id);
+    }
+
+    private Task findTask(int id) {
+        Shard shard = locate(id);
+        return shard != null ? shard.tasks.findTask(id) : null;
+    }
+
+    /**
+     * Сегмент, за которым числится ID, без закрепления новых блоков.
+     */
+    private Shard locate(int id) {
+        if (!relocated.isEmpty()) {
+            Integer moved = relocated.get(id);
+            if (moved != null) {
+                return shards[moved];
+            }
+        }
+        int owner = ownerOf(id);
+        return owner != UNOWNED ? shards[owner] : null;
+    }
+
+    /**
+     * Берёт блокировку сегмента задачи с данным ID; null, если ID ни за кем не числится.
+     * Если задача успела переехать, пока ждали блокировку, повторяет поиск.
+     */
+    private Shard lockOwner(int id) {
+        while (true) {
+            Shard shard = locate(id);
+            if (shard == null) {
+                return null;
+            }
+            shard.lock.lock();
+            if (locate(id) == shard) {
+                return shard;
+            }
+            shard.lock.unlock();
+        }
+    }
+
+    private Shard shardForEpic(Subtask subtask) {
+        Epic epic = subtask.getParentEpic();
+        if (epic == null || epic.getId() == 0) {
+            return preferredShard();
+        }
+        Shard shard = locate(epic.getId());
+        return shard != null ? shard : homeShard(epic.getId());
+    }
+
+    /**
+     * Случайный сегмент для новой задачи или эпика: эпики расходятся по сегментам
+     * равномерно, даже если их создаёт один поток.
+     */
+    private Shard preferredShard() {
+        return shards[ThreadLocalRandom.current().nextInt(shards.length)];
+    }
+
+    /**
+     * Сегмент-владелец блока ID; блок без владельца закрепляется за сегментом по своему номеру.
+     */
+    private Shard homeShard(int id) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("ID задачи должен быть положительным! - " + id);
+        }
+        int owner = ownerOf(id);
+        if (owner != UNOWNED) {
+            return shards[owner];
+        }
+        int block = (id - 1) / blockSize;
+        return shards[claimBlock(block, block % shards.length)];
+    }
+
+    private int ownerOf(int id) {
+        if (id <= 0) {
+            return UNOWNED;
+        }
+        int block = (id - 1) / blockSize;
+        AtomicIntegerArray owners = blockOwners;
+        return block < owners.length() ? owners.get(block) : UNOWNED;
+    }
+
+    /**
+     * Следующий свободный ID из блоков сегмента. Вызывается под блокировкой сегмента.
+     */
+    private int allocateId(Shard shard, IntPredicate reserved) {
+        while (true) {
+            if (shard.nextId == shard.blockEnd) {
+                int block = claimFreshBlock(shard.index);
+                shard.nextId = block * blockSize + 1;
+                shard.blockEnd = shard.nextId + blockSize;
+            }
+            int id = shard.nextId++;
+            if (shard.tasks.isIdUnique(id) && !relocated.containsKey(id) && !reserved.test(id)) {
+                return id;
+            }
+        }
+    }
+
+    private synchronized int claimFreshBlock(int shard) {
+        while (ownerOf(nextBlock * blockSize + 1) != UNOWNED) {
+            nextBlock++;
+        }
+        if ((long) nextBlock * blockSize + blockSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("ID задач исчерпаны! - блок " + nextBlock);
+        }
+        claimBlock(nextBlock, shard);
+        return nextBlock++;
+    }
+
+    /**
+     * Закрепляет блок за сегментом, если у блока ещё нет владельца; возвращает владельца.
+     */
+    private synchronized int claimBlock(int block, int shard) {
+        AtomicIntegerArray owners = blockOwners;
+        if (block >= owners.length()) {
+            AtomicIntegerArray grown = newOwners(Math.max(block + 1, owners.length() * 2));
+            for (int i = 0; i < owners.length(); i++) {
+                grown.set(i, owners.get(i));
+            }
+            blockOwners = grown;
+            owners = grown;
+        }
+        if (owners.get(block) == UNOWNED) {
+            owners.set(block, shard);
+        }
+        return owners.get(block);
+    }
+
+    private static AtomicIntegerArray newOwners(int length) {
+        AtomicIntegerArray owners = new AtomicIntegerArray(length);
+        for (int i = 0; i < length; i++) {
+            owners.set(i, UNOWNED);
+        }
+        return owners;
+    }
+
+    /**
+     * Блокировки двух сегментов по возрастанию номера; любой из них может быть null.
+     */
+    private static void lock(Shard first, Shard second) {
+        if (first == null || second == null || first == second) {
+            Shard only = first != null ? first : second;
+            only.lock.lock();
+            return;
+        }
+        Shard lower = first.index < second.index ? first : second;
+        Shard upper = lower == first ? second : first;
+        lower.lock.lock();
+        upper.lock.lock();
+    }
+
+    private static void unlock(Shard first, Shard second) {
+        if (first != null) {
+            first.lock.unlock();
+        }
+        if (second != null && second != first) {
+            second.lock.unlock();
+        }
+    }
+
+    private void lockAll() {
+        for (Shard shard : shards) {
+            shard.lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = shards.length - 1; i >= 0; i--) {
+            shards[i].lock.unlock();
+        }
+    }
+
+    /**
+     * Сегмент: своё хранилище, своя история и свой текущий блок ID под одной блокировкой.
+     */
+    private static final class Shard {
+        private final int index;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ShardHistory history;
+        private final InMemoryTaskManager tasks;
+        private int nextId;
+        private int blockEnd;
+
+        private Shard(int index, ShardHistory history) {
+            this.index = index;
+            this.history = history;
+            this.tasks = new InMemoryTaskManager(history);
+        }
+    }
+
+    /**
+     * История сегмента: обычная история плюс метка общего счётчика у каждого
+     * просмотра. Метки вытесненных просмотров отбрасываются, когда их
+     * накапливается вдвое больше размера истории.
+     */
+    private static final class ShardHistory implements HistoryManager {
+        private final InMemoryHistoryManager history;
+        private final AtomicLong viewSequence;
+        private IntHashMap<Long> sequences = new IntHashMap<>();
+
+        private ShardHistory(int maxSize, AtomicLong viewSequence) {
+            this.history = new InMemoryHistoryManager(maxSize);
+            this.viewSequence = viewSequence;
+        }
+
+        @Override
+        public void add(Task task) {
+            history.add(task);
+            sequences.put(task.getId(), viewSequence.incrementAndGet());
+            if (sequences.size() > 2 * history.getMaxSize()) {
+                IntHashMap<Long> kept = new IntHashMap<>(history.getMaxSize());
+                for (Task viewed : history.getHistory()) {
+                    kept.put(viewed.getId(), sequences.get(viewed.getId()));
+                }
+                sequences = kept;
+            }
+        }
+
+        @Override
+        public void remove(int id) {
+            history.remove(id);
+            sequences.remove(id);
+        }
+
+        @Override
+        public List<Task> getHistory() {
+            return history.getHistory();
+        }
+
+        @Override
+        public boolean contains(int id) {
+            return history.contains(id);
+        }
+
+        private View view(int id) {
+            Long sequence = sequences.get(id);
+            if (sequence == null || !history.contains(id)) {
+                return null;
+            }
+            for (Task task : history.getHistory()) {
+                if (task.getId() == id) {
+                    return new View(sequence, task);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Возвращает перенесённый из другого сегмента просмотр с его меткой.
+         */
+        private void restore(View view) {
+            history.add(view.getTask());
+            sequences.put(view.getTask().getId(), view.getSequence());
+        }
+
+        private void collect(List<View> views) {
+            for (Task task : history.getHistory()) {
+                views.add(new View(sequences.get(task.getId()), task));
+            }
+        }
+
+        private static final class View {
+            private final long sequence;
+            private final Task task;
+
+            private View(long sequence, Task task) {
+                this.sequence = sequence;
+                this.task = task;
+            }
+
+            long getSequence() {
+                return sequence;
+            }
+
+            Task getTask() {
+                return task;
+            }
+        }
+    }
+}
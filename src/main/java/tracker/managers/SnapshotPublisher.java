@@ -0,0 +1,106 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.Epic;
+import main.java.tracker.Task;
+import main.java.tracker.TaskSnapshot;
+import main.java.tracker.util.IntHashMap;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+/**
+ * Поддерживает текущий {@link TaskSnapshot} менеджера. До первого снимка
+ * изменения ничего не стоят; после него каждое изменение задачи публикуется
+ * заменой пути в неизменяемом дереве, а снимок — одно чтение ссылки.
+ * <p>
+ * publish читает задачу из менеджера внутри цикла CAS, поэтому из двух
+ * гонящихся публикаций одного ID последней учитывается более поздняя.
+ * Изменения пакета копятся в потоке, который его применяет, и публикуются
+ * одной версией в конце.
+ */
+final class SnapshotPublisher {
+    private final IntFunction<Task> lookup;
+    private final AtomicReference<TaskSnapshot> current = new AtomicReference<>();
+    private volatile boolean ready;
+    private Thread batchOwner;
+    private IntHashMap<Integer> deferred;
+
+    /**
+     * @param lookup текущая задача менеджера по ID либо null
+     */
+    SnapshotPublisher(IntFunction<Task> lookup) {
+        this.lookup = lookup;
+    }
+
+    /**
+     * Текущий снимок либо null, если снимки ещё не запрашивались.
+     */
+    TaskSnapshot get() {
+        return ready ? current.get() : null;
+    }
+
+    /**
+     * Включает публикацию и заполняет первый снимок задачами менеджера:
+     * сначала эпиками, чтобы подзадачи ссылались на их копии. Вызывающий
+     * отвечает за то, чтобы эпики и подзадачи в это время не менялись.
+     */
+    synchronized TaskSnapshot start(Iterable<? extends Task> tasks) {
+        if (!ready) {
+            current.compareAndSet(null, TaskSnapshot.EMPTY);
+            for (Task task : tasks) {
+                if (task instanceof Epic) {
+                    publish(task.getId());
+                }
+            }
+            for (Task task : tasks) {
+                if (!(task instanceof Epic)) {
+                    publish(task.getId());
+                }
+            }
+            ready = true;
+        }
+        return current.get();
+    }
+
+    void publish(int id) {
+        if (current.get() == null) {
+            return;
+        }
+        if (batchOwner == Thread.currentThread()) {
+            deferred.put(id, id);
+            return;
+        }
+        current.updateAndGet(snapshot -> snapshot.with(id, lookup.apply(id)));
+    }
+
+    void clear() {
+        if (current.get() != null) {
+            current.updateAndGet(TaskSnapshot::cleared);
+        }
+    }
+
+    void beginBatch() {
+        if (current.get() != null) {
+            batchOwner = Thread.currentThread();
+            deferred = new IntHashMap<>();
+        }
+    }
+
+    void endBatch() {
+        if (batchOwner != Thread.currentThread()) {
+            return;
+        }
+        IntHashMap<Integer> ids = deferred;
+        batchOwner = null;
+        deferred = null;
+        if (ids.isEmpty()) {
+            return;
+        }
+        current.updateAndGet(snapshot -> {
+            for (int id : ids.values()) {
+                snapshot = snapshot.with(id, lookup.apply(id));
+            }
+            return snapshot;
+        });
+    }
+}
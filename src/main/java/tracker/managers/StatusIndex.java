@@ -0,0 +1,90 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.Status;
+import main.java.tracker.Task;
+import main.java.tracker.TaskType;
+import main.java.tracker.util.IntHashMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Вторичный индекс задач по типу и статусу для InMemoryTaskManager:
+ * по таблице id -> задача на каждую пару (тип, статус). Запись задачи ищется
+ * во всех статусах её типа, поэтому статус, изменённый у того же экземпляра
+ * до updateTask, не оставляет в индексе устаревших записей. Не потокобезопасен.
+ */
+final class StatusIndex {
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+    private static final int STATUS_COUNT = STATUSES.length;
+
+    private final IntHashMap<Task>[] buckets;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    StatusIndex() {
+        buckets = new IntHashMap[TYPES.length * STATUS_COUNT];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new IntHashMap<>();
+        }
+    }
+
+    void add(Task task) {
+        buckets[slotOf(TaskType.of(task), task.getStatus())].put(task.getId(), task);
+    }
+
+    /**
+     * Удаляет запись задачи и возвращает статус, под которым она была учтена, либо null.
+     */
+    Status remove(Task task) {
+        int first = TaskType.of(task).ordinal() * STATUS_COUNT;
+        Status indexed = null;
+        for (int slot = first; slot < first + STATUS_COUNT; slot++) {
+            if (buckets[slot].remove(task.getId()) != null) {
+                indexed = STATUSES[slot - first];
+            }
+        }
+        return indexed;
+    }
+
+    /**
+     * Переносит задачу в ячейку её текущего статуса и возвращает прежний статус.
+     */
+    Status reindex(Task task) {
+        Status previous = remove(task);
+        add(task);
+        return previous;
+    }
+
+    void clear() {
+        for (IntHashMap<Task> bucket : buckets) {
+            bucket.clear();
+        }
+    }
+
+    List<Task> get(TaskType type, Status status) {
+        return new ArrayList<>(buckets[slotOf(type, status)].values());
+    }
+
+    void collect(Status status, List<Task> result) {
+        for (TaskType type : TYPES) {
+            result.addAll(buckets[slotOf(type, status)].values());
+        }
+    }
+
+    int count(TaskType type, Status status) {
+        return buckets[slotOf(type, status)].size();
+    }
+
+    int count(Status status) {
+        int count = 0;
+        for (TaskType type : TYPES) {
+            count += count(type, status);
+        }
+        return count;
+    }
+
+    private static int slotOf(TaskType type, Status status) {
+        return type.ordinal() * STATUS_COUNT + status.ordinal();
+    }
+}
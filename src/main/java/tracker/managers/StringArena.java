@@ -0,0 +1,129 @@
+package main.java.tracker.managers;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Строки в памяти вне кучи: записи [длина][байты UTF-8] подряд в прямом
+ * ByteBuffer, ссылка на строку — смещение записи, {@link #NO_STRING} — null.
+ * Освобождённые записи не переиспользуются, а копятся как мусор до сжатия
+ * через {@link #copyLive}. Размер арены ограничен 2 ГБ. Не потокобезопасна.
+ */
+final class StringArena {
+    static final int NO_STRING = -1;
+
+    private ByteBuffer buffer;
+    private int used;
+    private long garbage;
+
+    StringArena(int initialCapacity) {
+        buffer = ByteBuffer.allocateDirect(Math.max(initialCapacity, 64)).order(ByteOrder.nativeOrder());
+    }
+
+    int put(String value) {
+        return value != null ? put(value.getBytes(StandardCharsets.UTF_8)) : NO_STRING;
+    }
+
+    int put(byte[] bytes) {
+        ensureCapacity(4 + bytes.length);
+        int ref = used;
+        buffer.putInt(ref, bytes.length);
+        buffer.put(ref + 4, bytes);
+        used += 4 + bytes.length;
+        return ref;
+    }
+
+    String get(int ref) {
+        if (ref == NO_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[buffer.getInt(ref)];
+        buffer.get(ref + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Совпадает ли строка по ссылке с данной, без декодирования.
+     */
+    boolean matches(int ref, String value) {
+        if (ref == NO_STRING || value == null) {
+            return ref == NO_STRING && value == null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (buffer.getInt(ref) != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(ref + 4 + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void release(int ref) {
+        if (ref != NO_STRING) {
+            garbage += 4 + buffer.getInt(ref);
+        }
+    }
+
+    /**
+     * Стоит ли сжимать: мусор занимает больше половины арены.
+     */
+    boolean isMostlyGarbage() {
+        return garbage > used / 2 && used > 1 << 20;
+    }
+
+    /**
+     * Переносит запись из другой арены и возвращает ссылку на копию.
+     */
+    int copyFrom(StringArena source, int ref) {
+        if (ref == NO_STRING) {
+            return NO_STRING;
+        }
+        int length = 4 + source.buffer.getInt(ref);
+        ensureCapacity(length);
+        int copy = used;
+        buffer.put(copy, source.buffer, ref, length);
+        used += length;
+        return copy;
+    }
+
+    /**
+     * Новая арена размером под живые строки этой.
+     */
+    StringArena copyLive() {
+        return new StringArena((int) Math.min(Integer.MAX_VALUE, used - garbage + 64));
+    }
+
+    void clear() {
+        used = 0;
+        garbage = 0;
+    }
+
+    /**
+     * Байты, занятые записями, включая мусор.
+     */
+    long getUsedBytes() {
+        return used;
+    }
+
+    long getCapacityBytes() {
+        return buffer.capacity();
+    }
+
+    private void ensureCapacity(int bytes) {
+        long required = (long) used + bytes;
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Арена строк больше 2 ГБ");
+        }
+        int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(required, (long) buffer.capacity() * 2));
+        ByteBuffer larger = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+        larger.put(0, buffer, 0, used);
+        buffer = larger;
+    }
+}
@@ -0,0 +1,315 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.Epic;
+import main.java.tracker.Status;
+import main.java.tracker.Task;
+import main.java.tracker.TaskEvent;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Издатель событий менеджера задач по {@link Flow}. У каждого подписчика своё
+ * ограниченное кольцо без блокировок: писатель кладёт событие и двигает хвост,
+ * доставка идёт задачей на executor, которая отдаёт события в onNext в пределах
+ * запрошенного request(n) и двигает голову. Что делать, когда кольцо полно,
+ * задаёт {@link Overflow}; по умолчанию отставший подписчик отключается,
+ * чтобы подписка не могла остановить писателя. BLOCK включается только явно.
+ * <p>
+ * Пока подписчиков нет, события даже не создаются. Публиковать события
+ * должен один поток — писатель менеджера; подписываться и отписываться
+ * можно из любых потоков.
+ */
+public class TaskEventPublisher implements Flow.Publisher<TaskEvent> {
+    public static final int DEFAULT_BUFFER_SIZE = 1024;
+    public static final Overflow DEFAULT_OVERFLOW = Overflow.DISCONNECT;
+    private static final long BLOCK_PARK_NANOS = 50_000;
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
+    /**
+     * Поведение при полном кольце подписчика.
+     */
+    public enum Overflow {
+        /**
+         * Писатель ждёт, пока подписчик освободит место. Подписчик, который
+         * перестал вызывать request(n), останавливает все записи менеджера.
+         */
+        BLOCK,
+        /**
+         * Новое событие отбрасывается.
+         */
+        DROP_NEWEST,
+        /**
+         * Самое старое недоставленное событие вытесняется новым.
+         */
+        DROP_OLDEST,
+        /**
+         * Подписка отменяется, подписчик получает onError
+         * и может перечитать доску через снимок.
+         */
+        DISCONNECT
+    }
+
+    private final Executor executor;
+    private final int bufferSize;
+    private final Overflow overflow;
+    private volatile Subscription[] subscriptions = NO_SUBSCRIPTIONS;
+    private long sequence;
+
+    public TaskEventPublisher() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BUFFER_SIZE, DEFAULT_OVERFLOW);
+    }
+
+    /**
+     * @param executor   на нём выполняется доставка событий подписчикам
+     * @param bufferSize размер кольца подписчика по умолчанию, округляется до степени двойки
+     * @param overflow   поведение при полном кольце по умолчанию
+     */
+    public TaskEventPublisher(Executor executor, int bufferSize, Overflow overflow) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Размер буфера должен быть положительным! - " + bufferSize);
+        }
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.overflow = overflow;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super TaskEvent> subscriber) {
+        subscribe(subscriber, bufferSize, overflow);
+    }
+
+    public void subscribe(Flow.Subscriber<? super TaskEvent> subscriber, int bufferSize, Overflow overflow) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Размер буфера должен быть положительным! - " + bufferSize);
+        }
+        Subscription subscription = new Subscription(subscriber, bufferSize, overflow);
+        subscriber.onSubscribe(subscription);
+        synchronized (this) {
+            if (!subscription.cancelled && subscription.error == null) {
+                Subscription[] current = subscriptions;
+                Subscription[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = subscription;
+                subscriptions = updated;
+            }
+        }
+    }
+
+    public boolean hasSubscribers() {
+        return subscriptions.length > 0;
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.length;
+    }
+
+    /**
+     * Сколько событий отброшено при переполнении у всех текущих подписчиков.
+     */
+    public long getDroppedCount() {
+        long count = 0;
+        for (Subscription subscription : subscriptions) {
+            count += subscription.dropped.get();
+        }
+        return count;
+    }
+
+    /**
+     * Номер последнего выпущенного события.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    void taskCreated(Task task) {
+        if (hasSubscribers()) {
+            publish(TaskEvent.created(++sequence, task));
+        }
+    }
+
+    void taskUpdated(Task task) {
+        if (hasSubscribers()) {
+            publish(TaskEvent.updated(++sequence, task));
+        }
+    }
+
+    void taskDeleted(Task task) {
+        if (hasSubscribers()) {
+            publish(TaskEvent.deleted(++sequence, task));
+        }
+    }
+
+    void epicStatusChanged(Epic epic, Status previousStatus) {
+        if (hasSubscribers() && previousStatus != epic.getStatus()) {
+            publish(TaskEvent.epicStatusChanged(++sequence, epic, previousStatus));
+        }
+    }
+
+    /**
+     * Завершает все подписки: после доставки накопленного подписчики получат onComplete.
+     */
+    public void close() {
+        Subscription[] current;
+        synchronized (this) {
+            current = subscriptions;
+            subscriptions = NO_SUBSCRIPTIONS;
+        }
+        for (Subscription subscription : current) {
+            subscription.complete();
+        }
+    }
+
+    private void publish(TaskEvent event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    private synchronized void remove(Subscription subscription) {
+        Subscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                Subscription[] updated = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                subscriptions = updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Кольцо одного подписчика. Хвост двигает только писатель; голову двигает
+     * доставка, а при DROP_OLDEST и писатель, поэтому голова сдвигается CAS:
+     * доставка читает событие до CAS и отбрасывает его, если CAS не удался.
+     * Задача доставки одна на подписку благодаря счётчику wip.
+     */
+    private final class Subscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super TaskEvent> subscriber;
+        private final AtomicReferenceArray<TaskEvent> ring;
+        private final int mask;
+        private final Overflow overflow;
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile boolean cancelled;
+        private volatile boolean completed;
+        private volatile Throwable error;
+
+        private Subscription(Flow.Subscriber<? super TaskEvent> subscriber, int bufferSize, Overflow overflow) {
+            int capacity = Integer.highestOneBit(Math.max(bufferSize - 1, 1)) << 1;
+            this.subscriber = subscriber;
+            this.ring = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+            this.overflow = overflow;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("Запрос событий должен быть положительным! - " + n));
+                return;
+            }
+            demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            remove(this);
+        }
+
+        private void offer(TaskEvent event) {
+            if (cancelled) {
+                return;
+            }
+            long position = tail.get();
+            while (position - head.get() > mask) {
+                if (cancelled) {
+                    return;
+                }
+                switch (overflow) {
+                    case DROP_NEWEST:
+                        dropped.incrementAndGet();
+                        return;
+                    case DROP_OLDEST:
+                        long oldest = head.get();
+                        if (position - oldest > mask && head.compareAndSet(oldest, oldest + 1)) {
+                            dropped.incrementAndGet();
+                        }
+                        break;
+                    case DISCONNECT:
+                        fail(new IllegalStateException("Подписчик отстал больше чем на " + (mask + 1)
+                                + " событий, последнее - " + event.getSequence()));
+                        return;
+                    default:
+                        signal();
+                        LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                }
+            }
+            ring.lazySet((int) position & mask, event);
+            tail.lazySet(position + 1);
+            signal();
+        }
+
+        private void fail(Throwable throwable) {
+            if (error == null) {
+                error = throwable;
+            }
+            remove(this);
+            signal();
+        }
+
+        private void complete() {
+            completed = true;
+            signal();
+        }
+
+        private void signal() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (!cancelled && error != null) {
+                    cancelled = true;
+                    subscriber.onError(error);
+                }
+                long delivered = 0;
+                long requested = demand.get();
+                while (delivered != requested && !cancelled) {
+                    long position = head.get();
+                    if (position == tail.get()) {
+                        break;
+                    }
+                    TaskEvent event = ring.get((int) position & mask);
+                    if (head.compareAndSet(position, position + 1)) {
+                        subscriber.onNext(event);
+                        delivered++;
+                    }
+                }
+                if (delivered != 0 && requested != Long.MAX_VALUE) {
+                    demand.addAndGet(-delivered);
+                }
+                if (!cancelled && completed && head.get() == tail.get()) {
+                    cancelled = true;
+                    subscriber.onComplete();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
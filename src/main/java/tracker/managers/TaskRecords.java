@@ -0,0 +1,183 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.Epic;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Двоичное представление задачи для журнала и снимков:
+ * тип (1 байт), ID, статус (1 байт), ID родительского эпика (0 — нет),
+ * заголовок и описание как длина + байты UTF-8 (длина -1 означает null),
+ * затем флаги времени (1 байт) и заданные из начала и длительности — как
+ * секунды (long) и наносекунды (int). Записи первой версии формата времени не содержат.
+ */
+final class TaskRecords {
+    static final byte KIND_TASK = 0;
+    static final byte KIND_EPIC = 1;
+    static final byte KIND_SUBTASK = 2;
+    static final byte HAS_START = 1;
+    static final byte HAS_DURATION = 2;
+    static final int TIME_SIZE = 8 + 4;
+
+    private static final Status[] STATUSES = Status.values();
+
+    private TaskRecords() {
+    }
+
+    /**
+     * Разрешение ID родительского эпика при чтении записи подзадачи.
+     */
+    interface EpicResolver {
+        Epic findEpic(int id);
+    }
+
+    static byte kindOf(Task task) {
+        if (task instanceof Epic) {
+            return KIND_EPIC;
+        } else if (task instanceof Subtask) {
+            return KIND_SUBTASK;
+        }
+        return KIND_TASK;
+    }
+
+    static int parentIdOf(Task task) {
+        if (task instanceof Subtask) {
+            Epic parentEpic = ((Subtask) task).getParentEpic();
+            return parentEpic != null ? parentEpic.getId() : 0;
+        }
+        return 0;
+    }
+
+    static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    static int encodedSize(Task task, byte[] title, byte[] description) {
+        return 1 + 4 + 1 + 4 + stringSize(title) + stringSize(description) + 1
+                + Integer.bitCount(timeFlagsOf(task)) * TIME_SIZE;
+    }
+
+    static int encodedSize(Task task) {
+        return encodedSize(task, utf8(task.getTitle()), utf8(task.getDescription()));
+    }
+
+    static byte timeFlagsOf(Task task) {
+        int flags = 0;
+        if (task.getStartTime() != null) {
+            flags |= HAS_START;
+        }
+        if (task.getDuration() != null) {
+            flags |= HAS_DURATION;
+        }
+        return (byte) flags;
+    }
+
+    static void write(ByteBuffer buffer, Task task) {
+        write(buffer, task, utf8(task.getTitle()), utf8(task.getDescription()));
+    }
+
+    static void write(ByteBuffer buffer, Task task, byte[] title, byte[] description) {
+        buffer.put(kindOf(task));
+        buffer.putInt(task.getId());
+        buffer.put((byte) task.getStatus().ordinal());
+        buffer.putInt(parentIdOf(task));
+        writeString(buffer, title);
+        writeString(buffer, description);
+        buffer.put(timeFlagsOf(task));
+        if (task.getStartTime() != null) {
+            writeStart(buffer, task.getStartTime());
+        }
+        if (task.getDuration() != null) {
+            writeDuration(buffer, task.getDuration());
+        }
+    }
+
+    /**
+     * @param withTime содержит ли запись поля времени (вторая версия формата и новее)
+     */
+    static Task read(ByteBuffer buffer, EpicResolver epics, boolean withTime) {
+        byte kind = buffer.get();
+        int id = buffer.getInt();
+        Status status = STATUSES[buffer.get()];
+        int parentId = buffer.getInt();
+        String title = readString(buffer);
+        String description = readString(buffer);
+        Task task;
+        if (kind == KIND_EPIC) {
+            task = new Epic(title, description, status);
+        } else if (kind == KIND_SUBTASK) {
+            task = new Subtask(title, description, status, parentId != 0 ? epics.findEpic(parentId) : null);
+        } else if (kind == KIND_TASK) {
+            task = new Task(title, description, status);
+        } else {
+            throw new ManagerSaveException("Неизвестный тип задачи в записи! - " + kind);
+        }
+        task.setId(id);
+        if (withTime) {
+            byte flags = buffer.get();
+            if ((flags & HAS_START) != 0) {
+                task.setStartTime(readStart(buffer));
+            }
+            if ((flags & HAS_DURATION) != 0) {
+                task.setDuration(readDuration(buffer));
+            }
+        }
+        return task;
+    }
+
+    static void writeStart(ByteBuffer buffer, LocalDateTime start) {
+        buffer.putLong(start.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(start.getNano());
+    }
+
+    static LocalDateTime readStart(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        return LocalDateTime.ofEpochSecond(seconds, buffer.getInt(), ZoneOffset.UTC);
+    }
+
+    static void writeDuration(ByteBuffer buffer, Duration duration) {
+        buffer.putLong(duration.getSeconds());
+        buffer.putInt(duration.getNano());
+    }
+
+    static Duration readDuration(ByteBuffer buffer) {
+        long seconds = buffer.getLong();
+        return Duration.ofSeconds(seconds, buffer.getInt());
+    }
+
+    private static int stringSize(byte[] value) {
+        return 4 + (value != null ? value.length : 0);
+    }
+
+    private static void writeString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(value.length);
+        buffer.put(value);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (buffer.hasArray()) {
+            String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
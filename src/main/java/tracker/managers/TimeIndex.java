@@ -0,0 +1,207 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.Epic;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskBatch;
+import main.java.tracker.TaskOverlapException;
+import main.java.tracker.util.IntHashMap;
+import main.java.tracker.util.IntIntHashMap;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+
+/**
+ * Индекс интервалов [начало, конец) запланированных задач и подзадач:
+ * сбалансированное дерево по (начало, конец, ключ). Пересечения в индексе
+ * не допускаются, поэтому в этом порядке не убывают и концы интервалов,
+ * и проверка нового интервала сводится к одному соседу — последнему
+ * интервалу, начинающемуся раньше его конца: O(log n). Интервал запоминается
+ * при индексировании, так что время, изменённое у того же экземпляра до
+ * updateTask, не портит дерево. Эпики не индексируются: их окно выводится
+ * из подзадач. Не потокобезопасен.
+ */
+final class TimeIndex {
+    private static final int NONE = -1;
+
+    private final TreeMap<Slot, Task> slots = new TreeMap<>();
+    private final IntHashMap<Slot> slotsByKey = new IntHashMap<>();
+
+    static boolean isScheduled(Task task) {
+        return !(task instanceof Epic) && task.getStartTime() != null;
+    }
+
+    int size() {
+        return slots.size();
+    }
+
+    boolean isEmpty() {
+        return slots.isEmpty();
+    }
+
+    /**
+     * Задача индекса, интервал которой пересекается с интервалом task, либо null.
+     * Запись самой задачи и записи с ключами, для которых ignored истинно, не учитываются.
+     */
+    Task findOverlap(Task task, IntPredicate ignored) {
+        if (!isScheduled(task)) {
+            return null;
+        }
+        LocalDateTime start = task.getStartTime();
+        Slot probe = new Slot(task.getEndTime(), LocalDateTime.MIN, Integer.MIN_VALUE);
+        Map.Entry<Slot, Task> candidate = slots.lowerEntry(probe);
+        while (candidate != null && (isSameTask(candidate.getValue(), task) || ignored.test(candidate.getKey().key))) {
+            candidate = slots.lowerEntry(candidate.getKey());
+        }
+        return candidate != null && candidate.getKey().end.isAfter(start) ? candidate.getValue() : null;
+    }
+
+    void checkOverlap(Task task) {
+        Task conflict = findOverlap(task, key -> false);
+        if (conflict != null) {
+            throw overlapError(task, conflict);
+        }
+    }
+
+    /**
+     * Индексирует задачу под её ID, заменяя прежнюю запись этого ID;
+     * незапланированная задача только убирает прежнюю запись.
+     */
+    void put(Task task) {
+        put(task.getId(), task);
+    }
+
+    void remove(int key) {
+        Slot slot = slotsByKey.remove(key);
+        if (slot != null) {
+            slots.remove(slot);
+        }
+    }
+
+    void clear() {
+        slots.clear();
+        slotsByKey.clear();
+    }
+
+    /**
+     * Запланированные задачи в порядке начала — обход дерева за O(n).
+     */
+    List<Task> getPrioritized() {
+        return new ArrayList<>(slots.values());
+    }
+
+    /**
+     * Проверяет времена всех добавлений и обновлений пакета до первого
+     * изменения, проигрывая пакет над пустым индексом его собственных задач:
+     * задача пакета сверяется с ним и с этим индексом без задач, которые пакет
+     * к этому моменту обновил или удалил (с подзадачами удалённых эпиков).
+     * subtasksOf возвращает текущие подзадачи эпика по ID (для остальных задач —
+     * пустой список). Пакет без запланированных
+     * задач пересечений не создаёт и не проверяется.
+     */
+    void checkBatch(List<TaskBatch.Operation> operations, IntFunction<List<Subtask>> subtasksOf) {
+        if (operations.stream().noneMatch(operation -> operation.getKind() != TaskBatch.Kind.DELETE
+                && isScheduled(operation.getTask()))) {
+            return;
+        }
+        IntHashMap<Boolean> released = new IntHashMap<>();
+        IntIntHashMap pendingKeys = new IntIntHashMap(NONE);
+        TimeIndex pending = new TimeIndex();
+        for (int i = 0; i < operations.size(); i++) {
+            TaskBatch.Operation operation = operations.get(i);
+            if (operation.getKind() == TaskBatch.Kind.DELETE) {
+                release(operation.getId(), released, pendingKeys, pending);
+                for (Subtask subtask : subtasksOf.apply(operation.getId())) {
+                    release(subtask.getId(), released, pendingKeys, pending);
+                }
+                pending.removeSubtasksOf(operation.getId());
+                continue;
+            }
+            Task task = operation.getTask();
+            if (task.getId() != 0) {
+                release(task.getId(), released, pendingKeys, pending);
+            }
+            Task conflict = findOverlap(task, released::containsKey);
+            if (conflict == null) {
+                conflict = pending.findOverlap(task, key -> false);
+            }
+            if (conflict != null) {
+                throw overlapError(task, conflict);
+            }
+            if (isScheduled(task)) {
+                pending.put(i, task);
+                if (task.getId() != 0) {
+                    pendingKeys.put(task.getId(), i);
+                }
+            }
+        }
+    }
+
+    private void put(int key, Task task) {
+        remove(key);
+        if (isScheduled(task)) {
+            Slot slot = new Slot(task.getStartTime(), task.getEndTime(), key);
+            slots.put(slot, task);
+            slotsByKey.put(key, slot);
+        }
+    }
+
+    private void removeSubtasksOf(int epicId) {
+        Iterator<Map.Entry<Slot, Task>> iterator = slots.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Slot, Task> entry = iterator.next();
+            if (entry.getValue() instanceof Subtask) {
+                Epic parentEpic = ((Subtask) entry.getValue()).getParentEpic();
+                if (parentEpic != null && parentEpic.getId() == epicId) {
+                    slotsByKey.remove(entry.getKey().key);
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private static void release(int id, IntHashMap<Boolean> released, IntIntHashMap pendingKeys, TimeIndex pending) {
+        released.put(id, Boolean.TRUE);
+        int key = pendingKeys.remove(id);
+        if (key != NONE) {
+            pending.remove(key);
+        }
+    }
+
+    private static boolean isSameTask(Task indexed, Task task) {
+        return indexed == task || task.getId() != 0 && indexed.getId() == task.getId();
+    }
+
+    static TaskOverlapException overlapError(Task task, Task conflict) {
+        return new TaskOverlapException("Задача пересекается по времени с задачей "
+                + conflict.getId() + "! - " + task.getId());
+    }
+
+    private static final class Slot implements Comparable<Slot> {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final int key;
+
+        private Slot(LocalDateTime start, LocalDateTime end, int key) {
+            this.start = start;
+            this.end = end;
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            int byStart = start.compareTo(other.start);
+            if (byStart != 0) {
+                return byStart;
+            }
+            int byEnd = end.compareTo(other.end);
+            return byEnd != 0 ? byEnd : Integer.compare(key, other.key);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package main.java.tracker.managers;
+
+import main.java.tracker.HistoryManager;
+import main.java.tracker.Task;
+
+/**
+ * Буфер просмотров перед общей историей. Чтение дописывает копию задачи в
+ * полосу своего потока под монитором полосы, а в HistoryManager полосы
+ * сливаются под монитором истории: при чтении истории, удалении из неё и
+ * когда полоса заполнилась. Поток всегда пишет в одну и ту же полосу, поэтому
+ * её монитор почти не бывает занят другими потоками и чтения не сходятся на
+ * одной блокировке.
+ * <p>
+ * Просмотры одного потока попадают в историю в том порядке, в каком он их
+ * сделал, а просмотры разных потоков между двумя сливами — полоса за полосой:
+ * у параллельных чтений и так нет общего порядка, а общий счётчик или часы
+ * на каждое чтение вернули бы ту самую общую точку. Всё, что прочитано до
+ * getHistory(), в его ответ попадает. Копия снимается при записи, так что
+ * история хранит задачу такой, какой её прочитали.
+ */
+final class ViewBuffer {
+    private static final int STRIPE_CAPACITY = 256;
+    private static final int MAX_STRIPES = 64;
+
+    private final HistoryManager history;
+    private final Stripe[] stripes;
+
+    ViewBuffer(HistoryManager history) {
+        this(history, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    ViewBuffer(HistoryManager history, int threads) {
+        int count = 1;
+        while (count < threads && count < MAX_STRIPES) {
+            count <<= 1;
+        }
+        this.history = history;
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Запоминает просмотр. Монитор истории берётся, только если полоса
+     * потока заполнена — раз в STRIPE_CAPACITY просмотров.
+     */
+    void record(Task task) {
+        Task view = task.copy();
+        Stripe stripe = stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+        while (true) {
+            synchronized (stripe) {
+                if (stripe.offer(view)) {
+                    return;
+                }
+            }
+            synchronized (history) {
+                drain();
+            }
+        }
+    }
+
+    /**
+     * Переносит накопленные просмотры в историю. Вызывается под монитором истории.
+     */
+    void drain() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.swap();
+            }
+            for (int i = 0; i < stripe.drainSize; i++) {
+                history.add(stripe.drainViews[i]);
+                stripe.drainViews[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Два массива: в один пишут читатели под монитором полосы, другой
+     * под монитором истории разбирает drain().
+     */
+    private static final class Stripe {
+        private Task[] views = new Task[STRIPE_CAPACITY];
+        private int size;
+        private Task[] drainViews = new Task[STRIPE_CAPACITY];
+        private int drainSize;
+
+        private boolean offer(Task view) {
+            if (size == views.length) {
+                return false;
+            }
+            views[size++] = view;
+            return true;
+        }
+
+        private void swap() {
+            Task[] filled = views;
+            views = drainViews;
+            drainViews = filled;
+            drainSize = size;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package main.java.tracker.managers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Кольцевой журнал просмотров в отображённом в память файле.
+ * <pre>
+ * заголовок: magic, версия, ёмкость, номер следующей записи (long)
+ * записи:    capacity ячеек по 12 байт — (время в мс << 8 | вид), id задачи
+ * </pre>
+ * Запись с номером n лежит в ячейке n % capacity, поэтому файл не растёт:
+ * новые записи затирают самые старые. Номер следующей записи обновляется
+ * после самой записи, и оборванная при сбое запись просто не видна.
+ * Запись — несколько put в отображённую память, на диск страницы уходят
+ * сами или по {@link #force()}. Ёмкость задаётся при создании файла.
+ */
+final class ViewLog implements Closeable {
+    static final byte VIEW = 1;
+    static final byte REMOVE = 2;
+
+    private static final int MAGIC = 0x4B564C31;
+    private static final short FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 2 + 2 + 4 + 4 + 8 + 8;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int NEXT_OFFSET = 16;
+    private static final int RECORD_SIZE = 8 + 4;
+    private static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private long next;
+
+    private ViewLog(FileChannel channel, MappedByteBuffer buffer, int capacity, long next) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.next = next;
+    }
+
+    /**
+     * Открывает журнал либо создаёт его с указанной ёмкостью; у существующего
+     * файла ёмкость берётся из заголовка.
+     */
+    static ViewLog open(Path path, int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Неверная ёмкость журнала просмотров! - " + capacity);
+        }
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long size = channel.size();
+            if (size == 0) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                        HEADER_SIZE + (long) capacity * RECORD_SIZE);
+                buffer.putInt(0, MAGIC);
+                buffer.putShort(4, FORMAT_VERSION);
+                buffer.putInt(CAPACITY_OFFSET, capacity);
+                buffer.putLong(NEXT_OFFSET, 0);
+                return new ViewLog(channel, buffer, capacity, 0);
+            }
+            if (size < HEADER_SIZE) {
+                throw new ManagerSaveException("Неизвестный формат журнала просмотров " + path);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            int stored = header.getInt(CAPACITY_OFFSET);
+            long next = header.getLong(NEXT_OFFSET);
+            if (header.getInt(0) != MAGIC || header.getShort(4) != FORMAT_VERSION
+                    || stored <= 0 || stored > MAX_CAPACITY || next < 0
+                    || size != HEADER_SIZE + (long) stored * RECORD_SIZE) {
+                throw new ManagerSaveException("Неизвестный формат журнала просмотров " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new ViewLog(channel, buffer, stored, next);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new ManagerSaveException("Не удалось открыть журнал просмотров " + path, e);
+        } catch (RuntimeException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    void append(long timeMillis, byte kind, int id) {
+        int offset = offset(next);
+        buffer.putLong(offset, timeMillis << 8 | kind);
+        buffer.putInt(offset + 8, id);
+        buffer.putLong(NEXT_OFFSET, ++next);
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Номер следующей записи — сколько записей сделано за всё время.
+     */
+    long getNext() {
+        return next;
+    }
+
+    /**
+     * Номер самой старой ещё не затёртой записи.
+     */
+    long getFirst() {
+        return Math.max(0, next - capacity);
+    }
+
+    long timeOf(long sequence) {
+        return buffer.getLong(offset(sequence)) >> 8;
+    }
+
+    byte kindOf(long sequence) {
+        return (byte) buffer.getLong(offset(sequence));
+    }
+
+    int idOf(long sequence) {
+        return buffer.getInt(offset(sequence) + 8);
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private int offset(long sequence) {
+        return HEADER_SIZE + (int) (sequence % capacity) * RECORD_SIZE;
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // исходная ошибка важнее
+        }
+    }
+}
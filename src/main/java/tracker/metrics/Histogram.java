@@ -0,0 +1,145 @@
+package main.java.tracker.metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма неотрицательных значений в духе HdrHistogram: на каждую степень
+ * двойки по 16 ячеек, так что значение восстанавливается с точностью до 1/16
+ * (значения меньше 16 — точно). Счётчики ячеек — LongAdder, которые создаются
+ * при первом попадании: запись из многих потоков не упирается в одну ячейку
+ * памяти. Значения больше 2^40 учитываются в последней ячейке.
+ */
+public final class Histogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<>(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long value) {
+        long recorded = Math.max(value, 0);
+        bucket(indexOf(recorded)).increment();
+        count.increment();
+        sum.add(recorded);
+        max.accumulate(recorded);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Сбрасывает счётчики. Записи, идущие одновременно со сбросом, могут учесться частично.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            LongAdder bucket = buckets.get(i);
+            if (bucket != null) {
+                bucket.reset();
+            }
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            LongAdder bucket = buckets.get(i);
+            if (bucket != null) {
+                counts[i] = bucket.sum();
+                total += counts[i];
+            }
+        }
+        return new Snapshot(counts, total, sum.sum(), max.get());
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Наибольшее значение, попадающее в ячейку.
+     */
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    private LongAdder bucket(int index) {
+        LongAdder bucket = buckets.get(index);
+        if (bucket == null) {
+            buckets.compareAndSet(index, null, new LongAdder());
+            bucket = buckets.get(index);
+        }
+        return bucket;
+    }
+
+    /**
+     * Согласованная копия счётчиков на момент вызова snapshot().
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Значение, не меньше которого percentile процентов записей,
+         * с точностью ячейки гистограммы.
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(count * Math.min(percentile, 100) / 100));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueOf(i), max);
+                }
+            }
+            return max;
+        }
+    }
+}
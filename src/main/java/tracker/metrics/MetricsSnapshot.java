@@ -0,0 +1,73 @@
+package main.java.tracker.metrics;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Значения метрик на момент вызова {@link TaskManagerMetrics#snapshot()}.
+ * Распределения размера эпиков и истории, как и время операций, строятся
+ * по выборке вызовов.
+ */
+public final class MetricsSnapshot {
+    private final List<OperationStats> operations;
+    private final long lookupHits;
+    private final long lookupMisses;
+    private final long historyAdds;
+    private final long historyHits;
+    private final Histogram.Snapshot epicFanOut;
+    private final Histogram.Snapshot historySize;
+
+    MetricsSnapshot(List<OperationStats> operations, long lookupHits, long lookupMisses,
+                    long historyAdds, long historyHits,
+                    Histogram.Snapshot epicFanOut, Histogram.Snapshot historySize) {
+        this.operations = Collections.unmodifiableList(operations);
+        this.lookupHits = lookupHits;
+        this.lookupMisses = lookupMisses;
+        this.historyAdds = historyAdds;
+        this.historyHits = historyHits;
+        this.epicFanOut = epicFanOut;
+        this.historySize = historySize;
+    }
+
+    /**
+     * Статистика всех операций в порядке {@link Operation}.
+     */
+    public List<OperationStats> getOperations() {
+        return operations;
+    }
+
+    public OperationStats getOperation(Operation operation) {
+        return operations.get(operation.ordinal());
+    }
+
+    public long getLookupHits() {
+        return lookupHits;
+    }
+
+    public long getLookupMisses() {
+        return lookupMisses;
+    }
+
+    public long getHistoryAdds() {
+        return historyAdds;
+    }
+
+    public long getHistoryHits() {
+        return historyHits;
+    }
+
+    public double getHistoryHitRate() {
+        return historyAdds == 0 ? 0 : (double) historyHits / historyAdds;
+    }
+
+    /**
+     * Число подзадач эпика при добавлении и изменении подзадач и при чтении getSubtasksByEpic.
+     */
+    public Histogram.Snapshot getEpicFanOut() {
+        return epicFanOut;
+    }
+
+    public Histogram.Snapshot getHistorySize() {
+        return historySize;
+    }
+}
@@ -0,0 +1,31 @@
+package main.java.tracker.metrics;
+
+/**
+ * Замеряемые операции. Пересчёт статуса эпика идёт внутри менеджера, поэтому
+ * его цена видна в операциях с подзадачами: ADD_SUBTASK, UPDATE_SUBTASK и
+ * DELETE_TASK подзадачи.
+ */
+public enum Operation {
+    ADD_TASK,
+    ADD_EPIC,
+    ADD_SUBTASK,
+    UPDATE_TASK,
+    UPDATE_EPIC,
+    UPDATE_SUBTASK,
+    DELETE_TASK,
+    APPLY_BATCH,
+    GET_TASK_BY_ID,
+    GET_ALL_TASKS,
+    STREAM_ALL_TASKS,
+    GET_TASKS_PAGE,
+    GET_SUBTASKS_BY_EPIC,
+    GET_TASKS_BY_STATUS,
+    COUNT,
+    GET_HISTORY,
+    GET_PRIORITIZED_TASKS,
+    SEARCH,
+    SNAPSHOT,
+    HISTORY_ADD,
+    HISTORY_REMOVE,
+    HISTORY_GET
+}
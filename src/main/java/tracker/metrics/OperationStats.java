@@ -0,0 +1,74 @@
+package main.java.tracker.metrics;
+
+import java.util.Locale;
+
+/**
+ * Счётчик вызовов и распределение времени одной операции. Время известно
+ * только для замеренной выборки вызовов, его объём — getSampled().
+ */
+public final class OperationStats {
+    private final String name;
+    private final long calls;
+    private final long sampled;
+    private final double meanNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    OperationStats(Operation operation, long calls, Histogram.Snapshot latency) {
+        this.name = operation.name();
+        this.calls = calls;
+        this.sampled = latency.getCount();
+        this.meanNanos = latency.getMean();
+        this.p50Nanos = latency.getValueAtPercentile(50);
+        this.p90Nanos = latency.getValueAtPercentile(90);
+        this.p99Nanos = latency.getValueAtPercentile(99);
+        this.p999Nanos = latency.getValueAtPercentile(99.9);
+        this.maxNanos = latency.getMax();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getSampled() {
+        return sampled;
+    }
+
+    public double getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%s{calls=%d, sampled=%d, mean=%.1fns, p50=%dns, p99=%dns, p99.9=%dns, max=%dns}",
+                name, calls, sampled, meanNanos, p50Nanos, p99Nanos, p999Nanos, maxNanos);
+    }
+}
@@ -0,0 +1,201 @@
+package main.java.tracker.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики и гистограммы операций менеджера задач. Вызовы и попадания поиска
+ * считаются в копиях по потокам ({@link ThreadCounters}), гистограммы — на
+ * LongAdder, так что запись из многих потоков не упирается в одну ячейку памяти.
+ * <p>
+ * Вызовы считаются все, а время, размер эпиков и попадания в историю —
+ * у одного вызова из sampleInterval: System.nanoTime и обход эпика стоят
+ * дороже самих счётчиков, и выборка держит накладные расходы в несколько
+ * наносекунд на вызов. При sampleInterval, равном 1, замеряется каждый вызов.
+ */
+public final class TaskManagerMetrics implements TaskManagerMetricsMXBean {
+    public static final int DEFAULT_SAMPLE_INTERVAL = 64;
+    private static final long NOT_SAMPLED = Long.MIN_VALUE;
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final int LOOKUP_HITS = OPERATIONS.length;
+
+    private final int sampleMask;
+    private final ThreadCounters counters = new ThreadCounters(OPERATIONS.length + 1);
+    private final Histogram[] latencies = new Histogram[OPERATIONS.length];
+    private final Histogram epicFanOut = new Histogram();
+    private final LongAdder historyAdds = new LongAdder();
+    private final LongAdder historyHits = new LongAdder();
+    private final Histogram historySize = new Histogram();
+
+    public TaskManagerMetrics() {
+        this(DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * @param sampleInterval замеряется в среднем один вызов из sampleInterval,
+     *                       округляется вверх до степени двойки
+     */
+    public TaskManagerMetrics(int sampleInterval) {
+        if (sampleInterval <= 0) {
+            throw new IllegalArgumentException("Интервал выборки должен быть положительным! - " + sampleInterval);
+        }
+        this.sampleMask = sampleInterval == 1 ? 0 : (Integer.highestOneBit(sampleInterval - 1) << 1) - 1;
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            latencies[i] = new Histogram();
+        }
+    }
+
+    /**
+     * Учитывает вызов операции.
+     *
+     * @return метка для {@link #stop} — время начала, если вызов попал в выборку
+     */
+    public long start(Operation operation) {
+        ThreadCounters.Cells cells = counters.cells();
+        cells.increment(operation.ordinal());
+        if (sampleMask != 0 && (cells.nextRandom() & sampleMask) != 0) {
+            return NOT_SAMPLED;
+        }
+        return System.nanoTime();
+    }
+
+    public void stop(Operation operation, long start) {
+        if (start != NOT_SAMPLED) {
+            latencies[operation.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Попал ли вызов с такой меткой в выборку: тогда стоит замерить и дорогие величины.
+     */
+    public static boolean isSampled(long start) {
+        return start != NOT_SAMPLED;
+    }
+
+    /**
+     * getTaskById нашёл задачу; промахи — остальные вызовы getTaskById.
+     */
+    public void lookupHit() {
+        counters.cells().increment(LOOKUP_HITS);
+    }
+
+    public void epicFanOut(int subtasks) {
+        epicFanOut.record(subtasks);
+    }
+
+    /**
+     * Замеренный просмотр: hit — задача уже была в истории.
+     */
+    public void historyAdd(boolean hit) {
+        historyAdds.increment();
+        if (hit) {
+            historyHits.increment();
+        }
+    }
+
+    public void historySize(int size) {
+        historySize.record(size);
+    }
+
+    public MetricsSnapshot snapshot() {
+        long[] sums = counters.sums();
+        List<OperationStats> operations = new ArrayList<>(OPERATIONS.length);
+        for (Operation operation : OPERATIONS) {
+            int i = operation.ordinal();
+            operations.add(new OperationStats(operation, sums[i], latencies[i].snapshot()));
+        }
+        long hits = sums[LOOKUP_HITS];
+        long lookups = sums[Operation.GET_TASK_BY_ID.ordinal()];
+        return new MetricsSnapshot(operations, hits, Math.max(lookups - hits, 0),
+                historyAdds.sum(), historyHits.sum(), epicFanOut.snapshot(), historySize.snapshot());
+    }
+
+    @Override
+    public List<OperationStats> getOperations() {
+        return snapshot().getOperations();
+    }
+
+    @Override
+    public long getLookupHits() {
+        return counters.sums()[LOOKUP_HITS];
+    }
+
+    @Override
+    public long getLookupMisses() {
+        long[] sums = counters.sums();
+        return Math.max(sums[Operation.GET_TASK_BY_ID.ordinal()] - sums[LOOKUP_HITS], 0);
+    }
+
+    @Override
+    public double getHistoryHitRate() {
+        long adds = historyAdds.sum();
+        return adds == 0 ? 0 : (double) historyHits.sum() / adds;
+    }
+
+    @Override
+    public long getHistorySizeMax() {
+        return historySize.snapshot().getMax();
+    }
+
+    @Override
+    public long getEpicFanOutP50() {
+        return epicFanOut.snapshot().getValueAtPercentile(50);
+    }
+
+    @Override
+    public long getEpicFanOutP99() {
+        return epicFanOut.snapshot().getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getEpicFanOutMax() {
+        return epicFanOut.snapshot().getMax();
+    }
+
+    @Override
+    public void reset() {
+        counters.reset();
+        for (Histogram latency : latencies) {
+            latency.reset();
+        }
+        epicFanOut.reset();
+        historyAdds.reset();
+        historyHits.reset();
+        historySize.reset();
+    }
+
+    /**
+     * Регистрирует метрики в платформенном MBean-сервере под именем
+     * main.java.tracker:type=TaskManagerMetrics,name=...
+     */
+    public ObjectName register(String name) {
+        try {
+            ObjectName objectName = objectName(name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось зарегистрировать метрики! - " + name, e);
+        }
+    }
+
+    public void unregister(String name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = objectName(name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Не удалось снять регистрацию метрик! - " + name, e);
+        }
+    }
+
+    private static ObjectName objectName(String name) throws JMException {
+        return new ObjectName("main.java.tracker:type=TaskManagerMetrics,name=" + ObjectName.quote(name));
+    }
+}
@@ -0,0 +1,30 @@
+package main.java.tracker.metrics;
+
+import java.util.List;
+
+/**
+ * Метрики менеджера задач в JMX.
+ */
+public interface TaskManagerMetricsMXBean {
+
+    List<OperationStats> getOperations();
+
+    long getLookupHits();
+
+    long getLookupMisses();
+
+    /**
+     * Доля просмотров задач, которые уже были в истории.
+     */
+    double getHistoryHitRate();
+
+    long getHistorySizeMax();
+
+    long getEpicFanOutP50();
+
+    long getEpicFanOutP99();
+
+    long getEpicFanOutMax();
+
+    void reset();
+}
@@ -0,0 +1,104 @@
+package main.java.tracker.metrics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Набор счётчиков, разбитый по потокам: каждый поток увеличивает свою копию
+ * без CAS, а сумма собирается при чтении. Это дешевле LongAdder, у которого
+ * даже без конкуренции каждое увеличение — CAS. Копии завершившихся потоков
+ * при чтении складываются в общий остаток, чтобы список не рос.
+ * <p>
+ * Сброс запоминает текущие суммы и дальше вычитает их: чужие копии
+ * из читающего потока не пишутся.
+ */
+final class ThreadCounters {
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int size;
+    private final ThreadLocal<Cells> local = ThreadLocal.withInitial(this::register);
+    private final List<Cells> live = new ArrayList<>();
+    private final long[] retired;
+    private long[] baseline;
+
+    ThreadCounters(int size) {
+        this.size = size;
+        this.retired = new long[size];
+        this.baseline = new long[size];
+    }
+
+    /**
+     * Копия счётчиков текущего потока.
+     */
+    Cells cells() {
+        return local.get();
+    }
+
+    synchronized long[] sums() {
+        long[] sums = retired.clone();
+        for (int i = live.size() - 1; i >= 0; i--) {
+            Cells cells = live.get(i);
+            boolean alive = cells.owner.isAlive();
+            for (int j = 0; j < size; j++) {
+                long value = (long) CELLS.getOpaque(cells.values, j);
+                sums[j] += value;
+                if (!alive) {
+                    retired[j] += value;
+                }
+            }
+            if (!alive) {
+                live.remove(i);
+            }
+        }
+        for (int j = 0; j < size; j++) {
+            sums[j] -= baseline[j];
+        }
+        return sums;
+    }
+
+    synchronized void reset() {
+        long[] sums = sums();
+        for (int j = 0; j < size; j++) {
+            baseline[j] += sums[j];
+        }
+    }
+
+    private synchronized Cells register() {
+        Cells cells = new Cells(Thread.currentThread(), size);
+        live.add(cells);
+        return cells;
+    }
+
+    /**
+     * Счётчики одного потока и его генератор выборки.
+     */
+    static final class Cells {
+        private final Thread owner;
+        private final long[] values;
+        private int seed;
+
+        private Cells(Thread owner, int size) {
+            this.owner = owner;
+            this.values = new long[size];
+            this.seed = (int) owner.getId() * 0x9E3779B9 | 1;
+        }
+
+        void increment(int index) {
+            CELLS.setOpaque(values, index, (long) CELLS.getOpaque(values, index) + 1);
+        }
+
+        /**
+         * Следующее псевдослучайное число потока (xorshift).
+         */
+        int nextRandom() {
+            int x = seed;
+            x ^= x << 13;
+            x ^= x >>> 17;
+            x ^= x << 5;
+            seed = x;
+            return x;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package main.java.tracker.util;
+
+/**
+ * Счётчики {@link IntCache} на момент вызова stats().
+ */
+public final class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final int size;
+    private final int capacity;
+
+    public CacheStats(long hits, long misses, long evictions, int size, int capacity) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+        this.capacity = capacity;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Доля попаданий среди всех чтений; 0, если чтений не было.
+     */
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    /**
+     * Сумма счётчиков двух кэшей, например задач и списков подзадач.
+     */
+    public CacheStats plus(CacheStats other) {
+        return new CacheStats(hits + other.hits, misses + other.misses, evictions + other.evictions,
+                size + other.size, capacity + other.capacity);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                ", size=" + size +
+                ", capacity=" + capacity +
+                '}';
+    }
+}
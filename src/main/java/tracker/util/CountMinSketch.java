@@ -0,0 +1,83 @@
+package main.java.tracker.util;
+
+import java.util.Arrays;
+
+/**
+ * Счётчик частот int-ключей (count-min sketch) с 32-битными счётчиками:
+ * четыре строки по width счётчиков. В отличие от {@link FrequencySketch}
+ * не насыщается и не стареет — это точная сверху оценка числа событий, а
+ * забывание делает владелец, очищая весь счётчик.
+ * <p>
+ * Увеличение консервативное: растут только минимальные из четырёх
+ * счётчиков ключа. Оценка не меньше истинной частоты и превышает её не
+ * больше чем на 2N/width с вероятностью 1 - 1/16, где N — число событий.
+ * Не потокобезопасен.
+ */
+public final class CountMinSketch {
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+
+    private final int[] table;
+    private final int mask;
+    private final int shift;
+    private long total;
+
+    /**
+     * @param width число счётчиков в строке, округляется вверх до степени двойки
+     */
+    public CountMinSketch(int width) {
+        if (width <= 0 || width > 1 << 28) {
+            throw new IllegalArgumentException("Неверная ширина счётчика! - " + width);
+        }
+        int length = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        table = new int[length * DEPTH];
+        mask = length - 1;
+        shift = Integer.numberOfTrailingZeros(length);
+    }
+
+    /**
+     * Увеличивает частоту ключа на единицу и возвращает её новую оценку.
+     */
+    public int add(int key) {
+        int estimate = estimate(key);
+        if (estimate == Integer.MAX_VALUE) {
+            return estimate;
+        }
+        estimate++;
+        for (int row = 0; row < DEPTH; row++) {
+            int slot = slot(key, row);
+            if (table[slot] < estimate) {
+                table[slot] = estimate;
+            }
+        }
+        total++;
+        return estimate;
+    }
+
+    public int estimate(int key) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, table[slot(key, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * Сколько событий учтено с последней очистки.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        total = 0;
+    }
+
+    private int slot(int key, int row) {
+        long hash = (key + SEEDS[row]) * SEEDS[(row + 1) & 3];
+        return row << shift | (int) ((hash ^ hash >>> 29) >>> 32) & mask;
+    }
+}
@@ -0,0 +1,88 @@
+package main.java.tracker.util;
+
+import java.util.Arrays;
+
+/**
+ * Приблизительный счётчик частот int-ключей (count-min sketch) с 4-битными
+ * счётчиками: шестнадцать счётчиков в одном long, четыре хеш-функции.
+ * Частота ключа — минимум из его четырёх счётчиков, поэтому оценка может
+ * быть завышена коллизиями, но не занижена (до насыщения в 15).
+ * <p>
+ * После sampleSize увеличений все счётчики делятся пополам: старая
+ * популярность постепенно забывается, и оценка следует за сменой нагрузки.
+ * Не потокобезопасен.
+ */
+public final class FrequencySketch {
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param expectedKeys сколько ключей нужно различать; таблица занимает
+     *                     около восьми байт на ключ
+     */
+    public FrequencySketch(int expectedKeys) {
+        if (expectedKeys <= 0) {
+            throw new IllegalArgumentException("Число ключей должно быть положительным! - " + expectedKeys);
+        }
+        int length = Integer.highestOneBit(Math.max(expectedKeys - 1, 1)) << 1;
+        table = new long[length];
+        mask = length - 1;
+        sampleSize = (int) Math.min(10L * Math.max(expectedKeys, 16), Integer.MAX_VALUE);
+    }
+
+    public int frequency(int key) {
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < DEPTH; i++) {
+            long hash = hash(key, i);
+            int shift = ((int) hash & 15) << 2;
+            frequency = Math.min(frequency, (int) (table[index(hash)] >>> shift) & MAX_COUNT);
+        }
+        return frequency;
+    }
+
+    public void increment(int key) {
+        boolean added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            long hash = hash(key, i);
+            int index = index(hash);
+            int shift = ((int) hash & 15) << 2;
+            if ((table[index] >>> shift & MAX_COUNT) != MAX_COUNT) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        additions = 0;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = table[i] >>> 1 & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int index(long hash) {
+        return (int) (hash >>> 32) & mask;
+    }
+
+    private static long hash(int key, int row) {
+        long hash = (key + SEEDS[row]) * SEEDS[(row + 1) & 3];
+        return hash ^ hash >>> 29;
+    }
+}
@@ -0,0 +1,151 @@
+package main.java.tracker.util;
+
+/**
+ * Не больше capacity самых частых int-ключей с их счётом: минимальная куча
+ * по счёту и индекс ключ -> позиция в куче. Счёт приносит вызывающий —
+ * обычно оценку из {@link CountMinSketch} после очередного события, — и
+ * ключ попадает в кучу, только если его счёт больше самого малого в ней.
+ * Обновление и вытеснение стоят O(log capacity), память не зависит от
+ * числа разных ключей. Не потокобезопасен.
+ */
+public final class HeavyHitters {
+    private static final int ABSENT = -1;
+
+    private final int[] keys;
+    private final long[] counts;
+    private final IntIntHashMap positions;
+    private int size;
+
+    public HeavyHitters(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Размер списка должен быть положительным! - " + capacity);
+        }
+        keys = new int[capacity];
+        counts = new long[capacity];
+        positions = new IntIntHashMap(capacity, ABSENT);
+    }
+
+    /**
+     * Сообщает новый счёт ключа; возвращает, есть ли ключ в списке после вызова.
+     */
+    public boolean offer(int key, long count) {
+        int position = positions.get(key);
+        if (position != ABSENT) {
+            long previous = counts[position];
+            counts[position] = count;
+            if (count > previous) {
+                siftDown(position);
+            } else {
+                siftUp(position);
+            }
+            return true;
+        }
+        if (size < keys.length) {
+            place(size, key, count);
+            siftUp(size++);
+            return true;
+        }
+        if (count <= counts[0]) {
+            return false;
+        }
+        positions.remove(keys[0]);
+        place(0, key, count);
+        siftDown(0);
+        return true;
+    }
+
+    public boolean remove(int key) {
+        int position = positions.remove(key);
+        if (position == ABSENT) {
+            return false;
+        }
+        size--;
+        if (position != size) {
+            place(position, keys[size], counts[size]);
+            siftDown(position);
+            siftUp(position);
+        }
+        return true;
+    }
+
+    public boolean contains(int key) {
+        return positions.containsKey(key);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Ключ на позиции index в порядке кучи (0 <= index < size()).
+     */
+    public int keyAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Нет ключа на позиции! - " + index);
+        }
+        return keys[index];
+    }
+
+    public long countAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Нет ключа на позиции! - " + index);
+        }
+        return counts[index];
+    }
+
+    /**
+     * Самый малый счёт в заполненном списке — порог входа; 0, пока есть место.
+     */
+    public long threshold() {
+        return size < keys.length ? 0 : counts[0];
+    }
+
+    public void clear() {
+        positions.clear();
+        size = 0;
+    }
+
+    private void siftUp(int position) {
+        int key = keys[position];
+        long count = counts[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[parent] <= count) {
+                break;
+            }
+            place(position, keys[parent], counts[parent]);
+            position = parent;
+        }
+        place(position, key, count);
+    }
+
+    private void siftDown(int position) {
+        int key = keys[position];
+        long count = counts[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && counts[child + 1] < counts[child]) {
+                child++;
+            }
+            if (counts[child] >= count) {
+                break;
+            }
+            place(position, keys[child], counts[child]);
+            position = child;
+        }
+        place(position, key, count);
+    }
+
+    private void place(int position, int key, long count) {
+        keys[position] = key;
+        counts[position] = count;
+        positions.put(key, position);
+    }
+}
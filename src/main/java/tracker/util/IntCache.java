@@ -0,0 +1,276 @@
+package main.java.tracker.util;
+
+import java.util.Arrays;
+
+/**
+ * Кэш int -> V ограниченного размера. Узлы лежат в массивах, заведённых
+ * сразу на всю ёмкость, а списки вытеснения связаны индексами, поэтому
+ * get и put не создают объектов.
+ * <p>
+ * {@link Policy#LRU} вытесняет давно не читанный ключ. {@link Policy#TINY_LFU}
+ * — W-TinyLFU: новый ключ попадает в окно LRU на 1% ёмкости, а вытесненный из
+ * окна допускается в основную часть, только если по {@link FrequencySketch}
+ * его спрашивали чаще, чем кандидата на вытеснение оттуда. Основная часть —
+ * сегментированный LRU: повторное чтение переводит ключ из испытательного
+ * сегмента в защищённый (80% основной части). Так редкие ключи при
+ * сканировании не выталкивают популярные.
+ * <p>
+ * Не потокобезопасен.
+ */
+public final class IntCache<V> {
+    private static final int NONE = -1;
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    /**
+     * Политика вытеснения.
+     */
+    public enum Policy {
+        LRU,
+        TINY_LFU
+    }
+
+    /**
+     * Получатель значений, вытесненных из-за переполнения; remove и clear его не вызывают.
+     */
+    public interface EvictionListener<V> {
+        void evicted(int key, V value);
+    }
+
+    private final Policy policy;
+    private final int capacity;
+    private final int windowMax;
+    private final int protectedMax;
+    private final IntIntHashMap slots;
+    private final FrequencySketch sketch;
+    private final EvictionListener<? super V> listener;
+    private final int[] keys;
+    private final Object[] values;
+    private final int[] prev;
+    private final int[] next;
+    private final byte[] segments;
+    private final int[] heads = {NONE, NONE, NONE};
+    private final int[] tails = {NONE, NONE, NONE};
+    private final int[] counts = new int[3];
+    private int free;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public IntCache(int capacity, Policy policy) {
+        this(capacity, policy, null);
+    }
+
+    public IntCache(int capacity, Policy policy, EvictionListener<? super V> listener) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ёмкость кэша должна быть положительной! - " + capacity);
+        }
+        this.policy = policy;
+        this.capacity = capacity;
+        this.listener = listener;
+        if (policy == Policy.TINY_LFU) {
+            windowMax = Math.max(1, capacity / 100);
+            protectedMax = (capacity - windowMax) * 4 / 5;
+            sketch = new FrequencySketch(capacity);
+        } else {
+            windowMax = capacity;
+            protectedMax = 0;
+            sketch = null;
+        }
+        slots = new IntIntHashMap(capacity, NONE);
+        // Одна лишняя ячейка — для ключа, который ждёт решения о допуске.
+        keys = new int[capacity + 1];
+        values = new Object[capacity + 1];
+        prev = new int[capacity + 1];
+        next = new int[capacity + 1];
+        segments = new byte[capacity + 1];
+        clear();
+    }
+
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Значение ключа либо null; считается попаданием или промахом.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+        int slot = slots.get(key);
+        if (slot == NONE) {
+            misses++;
+            return null;
+        }
+        hits++;
+        touch(slot);
+        return (V) values[slot];
+    }
+
+    /**
+     * Значение ключа без учёта в статистике и без влияния на вытеснение.
+     */
+    @SuppressWarnings("unchecked")
+    public V peek(int key) {
+        int slot = slots.get(key);
+        return slot == NONE ? null : (V) values[slot];
+    }
+
+    public boolean containsKey(int key) {
+        return slots.containsKey(key);
+    }
+
+    /**
+     * Кладёт значение; если кэш переполнен, вытесняет одно значение по политике.
+     */
+    public void put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Кэш не хранит null! - " + key);
+        }
+        int slot = slots.get(key);
+        if (slot != NONE) {
+            values[slot] = value;
+            touch(slot);
+            return;
+        }
+        slot = free;
+        free = next[slot];
+        keys[slot] = key;
+        values[slot] = value;
+        slots.put(key, slot);
+        linkFirst(WINDOW, slot);
+        if (counts[WINDOW] > windowMax) {
+            int candidate = tails[WINDOW];
+            if (sketch == null) {
+                evict(candidate);
+                return;
+            }
+            unlink(candidate);
+            linkFirst(PROBATION, candidate);
+            if (size() > capacity) {
+                admit(candidate);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = slots.remove(key);
+        if (slot == NONE) {
+            return null;
+        }
+        V value = (V) values[slot];
+        unlink(slot);
+        release(slot);
+        return value;
+    }
+
+    public void clear() {
+        slots.clear();
+        Arrays.fill(values, null);
+        Arrays.fill(heads, NONE);
+        Arrays.fill(tails, NONE);
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < next.length; i++) {
+            next[i] = i + 1 < next.length ? i + 1 : NONE;
+        }
+        free = 0;
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, size(), capacity);
+    }
+
+    public void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    /**
+     * Из кандидата, только что вытесненного из окна, и самого старого ключа
+     * испытательного сегмента остаётся тот, что спрашивали чаще; при равенстве
+     * остаётся старожил — так однократные чтения не вымывают основную часть.
+     */
+    private void admit(int candidate) {
+        int victim = tails[PROBATION];
+        if (victim != candidate && sketch.frequency(keys[candidate]) > sketch.frequency(keys[victim])) {
+            evict(victim);
+        } else {
+            evict(candidate);
+        }
+    }
+
+    private void evict(int slot) {
+        int key = keys[slot];
+        @SuppressWarnings("unchecked")
+        V value = (V) values[slot];
+        slots.remove(key);
+        unlink(slot);
+        release(slot);
+        evictions++;
+        if (listener != null) {
+            listener.evicted(key, value);
+        }
+    }
+
+    private void touch(int slot) {
+        int segment = segments[slot];
+        unlink(slot);
+        if (segment == PROBATION) {
+            linkFirst(PROTECTED, slot);
+            if (counts[PROTECTED] > protectedMax) {
+                int demoted = tails[PROTECTED];
+                unlink(demoted);
+                linkFirst(PROBATION, demoted);
+            }
+        } else {
+            linkFirst(segment, slot);
+        }
+    }
+
+    private void linkFirst(int segment, int slot) {
+        segments[slot] = (byte) segment;
+        prev[slot] = NONE;
+        next[slot] = heads[segment];
+        if (heads[segment] != NONE) {
+            prev[heads[segment]] = slot;
+        } else {
+            tails[segment] = slot;
+        }
+        heads[segment] = slot;
+        counts[segment]++;
+    }
+
+    private void unlink(int slot) {
+        int segment = segments[slot];
+        if (prev[slot] != NONE) {
+            next[prev[slot]] = next[slot];
+        } else {
+            heads[segment] = next[slot];
+        }
+        if (next[slot] != NONE) {
+            prev[next[slot]] = prev[slot];
+        } else {
+            tails[segment] = prev[slot];
+        }
+        counts[segment]--;
+    }
+
+    private void release(int slot) {
+        values[slot] = null;
+        next[slot] = free;
+        free = slot;
+    }
+}
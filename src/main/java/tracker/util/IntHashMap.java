@@ -0,0 +1,274 @@
+package main.java.tracker.util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Хеш-таблица с ключами типа int и открытой адресацией (линейное пробирование).
+ * Ключи не упаковываются в Integer, удаление выполняется обратным сдвигом,
+ * поэтому "надгробий" нет и поиск всегда укладывается в одну цепочку проб.
+ * Значения null не допускаются. Не потокобезопасна.
+ */
+public class IntHashMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+    private int modCount;
+
+    public IntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntHashMap(int expectedSize) {
+        int capacity = tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR));
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return values[indexOf(key)] != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        return (V) values[indexOf(key)];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Значение не может быть null");
+        }
+        int slot = indexOf(key);
+        Object previous = values[slot];
+        values[slot] = value;
+        if (previous == null) {
+            keys[slot] = key;
+            modCount++;
+            if (++size > resizeThreshold) {
+                resize(keys.length << 1);
+            }
+        }
+        return (V) previous;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = indexOf(key);
+        Object previous = values[slot];
+        if (previous == null) {
+            return null;
+        }
+        shiftBack(slot);
+        size--;
+        modCount++;
+        return (V) previous;
+    }
+
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        Arrays.fill(values, null);
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Представление значений без копирования. Порядок обхода не определён.
+     * Spliterator делит таблицу по диапазонам ячеек, так что поток значений
+     * можно обрабатывать параллельно.
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public Spliterator<V> spliterator() {
+                return new ValueSpliterator(values, 0, values.length, modCount);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Позиция ключа либо пустая ячейка, куда его следует вставить.
+     */
+    private int indexOf(int key) {
+        int slot = mix(key) & mask;
+        while (values[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void shiftBack(int hole) {
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == null) {
+                break;
+            }
+            int home = mix(keys[slot]) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        values[hole] = null;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = indexOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        return Math.max(n, 2);
+    }
+
+    private class ValueSpliterator implements Spliterator<V> {
+        private final Object[] table;
+        private final int expectedModCount;
+        private int index;
+        private final int fence;
+
+        private ValueSpliterator(Object[] table, int origin, int fence, int expectedModCount) {
+            this.table = table;
+            this.index = origin;
+            this.fence = fence;
+            this.expectedModCount = expectedModCount;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean tryAdvance(Consumer<? super V> action) {
+            while (index < fence) {
+                Object value = table[index++];
+                if (value != null) {
+                    action.accept((V) value);
+                    checkForComodification();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void forEachRemaining(Consumer<? super V> action) {
+            for (; index < fence; index++) {
+                Object value = table[index];
+                if (value != null) {
+                    action.accept((V) value);
+                }
+            }
+            checkForComodification();
+        }
+
+        @Override
+        public Spliterator<V> trySplit() {
+            int middle = (index + fence) >>> 1;
+            if (middle <= index) {
+                return null;
+            }
+            Spliterator<V> prefix = new ValueSpliterator(table, index, middle, expectedModCount);
+            index = middle;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return (long) size * (fence - index) / table.length;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.NONNULL;
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    private class ValueIterator implements Iterator<V> {
+        private final int expectedModCount = modCount;
+        private int next = advance(0);
+
+        private int advance(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= values.length) {
+                throw new NoSuchElementException();
+            }
+            V value = (V) values[next];
+            next = advance(next + 1);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package main.java.tracker.util;
+
+import java.util.Arrays;
+
+/**
+ * Хеш-таблица int -> int без упаковки: ключи и значения лежат в двух массивах
+ * примитивов, которые сборщику мусора не нужно обходить. Пустая ячейка
+ * отмечена ключом 0, сам ключ 0 хранится отдельно. Пробирование линейное,
+ * удаление — обратным сдвигом, как в {@link IntHashMap}. Для отсутствующего
+ * ключа возвращается missingValue. Не потокобезопасна.
+ */
+public class IntIntHashMap {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final int missingValue;
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+    private int resizeThreshold;
+    private boolean hasZeroKey;
+    private int zeroValue;
+
+    public IntIntHashMap(int missingValue) {
+        this(DEFAULT_CAPACITY, missingValue);
+    }
+
+    public IntIntHashMap(int expectedSize, int missingValue) {
+        this.missingValue = missingValue;
+        allocate(tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR)));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getMissingValue() {
+        return missingValue;
+    }
+
+    public boolean containsKey(int key) {
+        return key == 0 ? hasZeroKey : keys[indexOf(key)] != 0;
+    }
+
+    public int get(int key) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : missingValue;
+        }
+        int slot = indexOf(key);
+        return keys[slot] != 0 ? values[slot] : missingValue;
+    }
+
+    public int put(int key, int value) {
+        if (key == 0) {
+            int previous = hasZeroKey ? zeroValue : missingValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        int slot = indexOf(key);
+        if (keys[slot] != 0) {
+            int previous = values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            resize(keys.length << 1);
+        }
+        return missingValue;
+    }
+
+    public int remove(int key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return missingValue;
+            }
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+        int slot = indexOf(key);
+        if (keys[slot] == 0) {
+            return missingValue;
+        }
+        int previous = values[slot];
+        shiftBack(slot);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    /**
+     * Позиция ненулевого ключа либо пустая ячейка, куда его следует вставить.
+     */
+    private int indexOf(int key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void shiftBack(int hole) {
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (keys[slot] == 0) {
+                break;
+            }
+            int home = mix(keys[slot]) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = keys[slot];
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = 0;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = indexOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        return Math.max(n, 2);
+    }
+}
@@ -2,8 +2,23 @@ package main.java.tracker.util;
 
 import main.java.tracker.HistoryManager;
 import main.java.tracker.TaskManager;
+import main.java.tracker.managers.CachingTaskManager;
+import main.java.tracker.managers.CompactHistoryManager;
+import main.java.tracker.managers.ConcurrentTaskManager;
+import main.java.tracker.managers.ExecutorAsyncTaskManager;
+import main.java.tracker.managers.FileBackedTaskManager;
 import main.java.tracker.managers.InMemoryHistoryManager;
 import main.java.tracker.managers.InMemoryTaskManager;
+import main.java.tracker.managers.MappedTaskManager;
+import main.java.tracker.managers.MeteredHistoryManager;
+import main.java.tracker.managers.MeteredTaskManager;
+import main.java.tracker.managers.OffHeapTaskManager;
+import main.java.tracker.managers.PersistentHistoryManager;
+import main.java.tracker.managers.ShardedTaskManager;
+import main.java.tracker.metrics.TaskManagerMetrics;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
 
 public class Managers {
 
@@ -11,8 +26,94 @@ public class Managers {
         return new InMemoryHistoryManager();
     }
 
+    public static HistoryManager getDefaultHistory(int maxSize) {
+        return new InMemoryHistoryManager(maxSize);
+    }
+
+    /**
+     * История, которая при записи просмотра не создаёт объектов.
+     */
+    public static HistoryManager getCompactHistory() {
+        return new CompactHistoryManager();
+    }
+
+    public static HistoryManager getCompactHistory(int maxSize) {
+        return new CompactHistoryManager(maxSize);
+    }
+
+    /**
+     * История с журналом просмотров на диске и подсчётом самых просматриваемых задач.
+     */
+    public static PersistentHistoryManager getPersistentHistory(Path logFile) {
+        return new PersistentHistoryManager(logFile);
+    }
+
     public static TaskManager getDefault(){
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
+    public static FileBackedTaskManager getFileBacked(Path directory) {
+        return new FileBackedTaskManager(directory);
+    }
+
+    public static MappedTaskManager getMapped(Path snapshotFile) {
+        return new MappedTaskManager(snapshotFile);
+    }
+
+    /**
+     * Менеджер со столбцами вне кучи для больших досок.
+     */
+    public static OffHeapTaskManager getOffHeap(int expectedSize) {
+        return new OffHeapTaskManager(expectedSize);
+    }
+
+    /**
+     * Потокобезопасный менеджер из shards независимых сегментов, разбитых по эпикам.
+     */
+    public static ShardedTaskManager getSharded(int shards) {
+        return new ShardedTaskManager(shards);
+    }
+
+    /**
+     * Менеджер в памяти, у которого операции и история просмотров пишут метрики
+     * в общий {@link TaskManagerMetrics}; метрики доступны через getMetrics().
+     */
+    public static MeteredTaskManager getMetered() {
+        TaskManagerMetrics metrics = new TaskManagerMetrics();
+        return new MeteredTaskManager(new InMemoryTaskManager(new MeteredHistoryManager(getDefaultHistory(), metrics)),
+                metrics);
+    }
+
+    public static MeteredTaskManager getMetered(TaskManager taskManager, TaskManagerMetrics metrics) {
+        return new MeteredTaskManager(taskManager, metrics);
+    }
+
+    /**
+     * Кэш задач и списков подзадач поверх медленного менеджера; историю
+     * просмотров ведёт кэш.
+     */
+    public static CachingTaskManager getCaching(TaskManager taskManager, int capacity, IntCache.Policy policy) {
+        return new CachingTaskManager(taskManager, getDefaultHistory(), capacity, policy);
+    }
+
+    /**
+     * Неблокирующий менеджер поверх потокобезопасного; операции идут на
+     * виртуальных потоках, где они есть.
+     */
+    public static ExecutorAsyncTaskManager getAsync(TaskManager taskManager) {
+        return new ExecutorAsyncTaskManager(taskManager);
+    }
+
+    public static ExecutorAsyncTaskManager getAsync(TaskManager taskManager, Executor executor) {
+        return new ExecutorAsyncTaskManager(taskManager, executor);
+    }
+
+    public static HistoryManager getMeteredHistory(HistoryManager historyManager, TaskManagerMetrics metrics) {
+        return new MeteredHistoryManager(historyManager, metrics);
+    }
+
 }
@@ -0,0 +1,243 @@
+package main.java.tracker.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Отображение int -> значение с порядком вставки. Значения лежат в массиве
+ * порядка, а {@link IntIntHashMap} хранит позицию каждого ключа, так что
+ * вставка, поиск и удаление выполняются за O(1). Удаление оставляет в массиве
+ * "надгробие" (null); когда надгробий становится больше, чем живых записей,
+ * массив уплотняется, что в среднем тоже O(1) на удаление. Замена значения
+ * по существующему ключу сохраняет его место в порядке.
+ * Значения null не допускаются. Не потокобезопасна; чтение, в том числе через
+ * {@link #values()}, структуру не меняет.
+ */
+public class OrderedIntMap<V> {
+    private static final int DEFAULT_CAPACITY = 4;
+
+    private final IntIntHashMap positions;
+    private int[] keys;
+    private Object[] values;
+    private int end;
+    private int size;
+    private int modCount;
+
+    public OrderedIntMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public OrderedIntMap(int expectedSize) {
+        int capacity = Math.max(expectedSize, 1);
+        positions = new IntIntHashMap(capacity, -1);
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return positions.containsKey(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int position = positions.get(key);
+        return position >= 0 ? (V) values[position] : null;
+    }
+
+    /**
+     * Добавляет запись в конец порядка либо заменяет значение на прежнем месте.
+     *
+     * @return прежнее значение по ключу или null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Значение не может быть null");
+        }
+        int position = positions.get(key);
+        if (position >= 0) {
+            Object previous = values[position];
+            values[position] = value;
+            return (V) previous;
+        }
+        if (end == values.length) {
+            grow();
+        }
+        keys[end] = key;
+        values[end] = value;
+        positions.put(key, end++);
+        size++;
+        modCount++;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int position = positions.remove(key);
+        if (position < 0) {
+            return null;
+        }
+        Object previous = values[position];
+        values[position] = null;
+        size--;
+        modCount++;
+        while (end > 0 && values[end - 1] == null) {
+            end--;
+        }
+        if (end - size > size) {
+            compact();
+        }
+        return (V) previous;
+    }
+
+    public void clear() {
+        if (end == 0) {
+            return;
+        }
+        Arrays.fill(values, 0, end, null);
+        positions.clear();
+        end = 0;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * Значения в порядке вставки, только для чтения и без копирования.
+     * Представление отражает последующие изменения; обход после изменения
+     * бросает ConcurrentModificationException. Доступ по индексу — O(1),
+     * пока в массиве нет надгробий, иначе до ближайшего уплотнения — обход.
+     */
+    public List<V> values() {
+        return new ValuesView();
+    }
+
+    /**
+     * Сдвигает живые записи в начало, а при сильном опустошении ещё и уменьшает массивы.
+     */
+    private void compact() {
+        int target = 0;
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                if (i != target) {
+                    keys[target] = keys[i];
+                    values[target] = values[i];
+                    positions.put(keys[target], target);
+                }
+                target++;
+            }
+        }
+        Arrays.fill(values, target, end, null);
+        end = target;
+        if (values.length > DEFAULT_CAPACITY && size < values.length / 4) {
+            int capacity = Math.max(size * 2, DEFAULT_CAPACITY);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private void grow() {
+        if (end - size > size / 2) {
+            compact();
+            if (end < values.length) {
+                return;
+            }
+        }
+        int capacity = values.length + (values.length >> 1) + 1;
+        keys = Arrays.copyOf(keys, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    private class ValuesView extends AbstractList<V> {
+        @Override
+        @SuppressWarnings("unchecked")
+        public V get(int index) {
+            Objects.checkIndex(index, size);
+            if (end == size) {
+                return (V) values[index];
+            }
+            int seen = 0;
+            for (int i = 0; i < end; i++) {
+                if (values[i] != null && seen++ == index) {
+                    return (V) values[i];
+                }
+            }
+            throw new ConcurrentModificationException();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            for (int i = 0; i < end; i++) {
+                if (values[i] != null && values[i].equals(o)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Object[] toArray() {
+            Object[] result = new Object[size];
+            int target = 0;
+            for (int i = 0; i < end; i++) {
+                if (values[i] != null) {
+                    result[target++] = values[i];
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new ValueIterator();
+        }
+    }
+
+    private class ValueIterator implements Iterator<V> {
+        private final int expectedModCount = modCount;
+        private int next = advance(0);
+
+        private int advance(int from) {
+            while (from < end && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < end;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= end) {
+                throw new NoSuchElementException();
+            }
+            V value = (V) values[next];
+            next = advance(next + 1);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package main.java.tracker.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Неизменяемая таблица int -> значение со структурным разделением: префиксное
+ * дерево по 5 бит ключа на уровень, начиная с младших, узлы хранят только
+ * занятые ветви по битовой маске. put и remove возвращают новую таблицу,
+ * копируя лишь путь от корня до листа — не больше семи массивов до 32 ссылок,
+ * для плотных ID миллиона задач четыре. Прежние версии не меняются, поэтому
+ * читать их можно из любых потоков без блокировок. Значения null не допускаются,
+ * порядок обхода не определён.
+ */
+public final class PersistentIntMap<V> implements Iterable<V> {
+    private static final int BITS = 5;
+    private static final int MAX_DEPTH = (Integer.SIZE + BITS - 1) / BITS;
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentIntMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        Node node = root;
+        for (int shift = 0; node != null; shift += BITS) {
+            int bit = bit(key, shift);
+            if ((node.bitmap & bit) == 0) {
+                return null;
+            }
+            Object entry = node.entries[node.index(bit)];
+            if (entry instanceof Leaf) {
+                Leaf leaf = (Leaf) entry;
+                return leaf.key == key ? (V) leaf.value : null;
+            }
+            node = (Node) entry;
+        }
+        return null;
+    }
+
+    public PersistentIntMap<V> put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Значение не может быть null! - " + key);
+        }
+        boolean exists = containsKey(key);
+        Node updated = put(root, new Leaf(key, value), 0);
+        return updated == root ? this : new PersistentIntMap<>(updated, exists ? size : size + 1);
+    }
+
+    public PersistentIntMap<V> remove(int key) {
+        if (!containsKey(key)) {
+            return this;
+        }
+        return new PersistentIntMap<>((Node) remove(root, key, 0), size - 1);
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new ValueIterator<>(root);
+    }
+
+    @Override
+    public Spliterator<V> spliterator() {
+        return Spliterators.spliterator(iterator(), size,
+                Spliterator.SIZED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    public Stream<V> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    private static Node put(Node node, Leaf leaf, int shift) {
+        int bit = bit(leaf.key, shift);
+        if (node == null) {
+            return new Node(bit, new Object[]{leaf});
+        }
+        int i = node.index(bit);
+        if ((node.bitmap & bit) == 0) {
+            Object[] entries = new Object[node.entries.length + 1];
+            System.arraycopy(node.entries, 0, entries, 0, i);
+            entries[i] = leaf;
+            System.arraycopy(node.entries, i, entries, i + 1, node.entries.length - i);
+            return new Node(node.bitmap | bit, entries);
+        }
+        Object entry = node.entries[i];
+        Object replacement;
+        if (entry instanceof Node) {
+            replacement = put((Node) entry, leaf, shift + BITS);
+            if (replacement == entry) {
+                return node;
+            }
+        } else {
+            Leaf existing = (Leaf) entry;
+            if (existing.key != leaf.key) {
+                replacement = put(put(null, existing, shift + BITS), leaf, shift + BITS);
+            } else if (existing.value == leaf.value) {
+                return node;
+            } else {
+                replacement = leaf;
+            }
+        }
+        Object[] entries = node.entries.clone();
+        entries[i] = replacement;
+        return new Node(node.bitmap, entries);
+    }
+
+    /**
+     * Узел без ключа, который в нём точно есть: null, если узел опустел,
+     * а ниже корня — единственный оставшийся лист вместо узла.
+     */
+    private static Object remove(Node node, int key, int shift) {
+        int bit = bit(key, shift);
+        int i = node.index(bit);
+        Object entry = node.entries[i];
+        Object replacement = entry instanceof Node ? remove((Node) entry, key, shift + BITS) : null;
+        if (replacement instanceof Leaf && node.entries.length == 1 && shift > 0) {
+            return replacement;
+        }
+        if (replacement != null) {
+            Object[] entries = node.entries.clone();
+            entries[i] = replacement;
+            return new Node(node.bitmap, entries);
+        }
+        int length = node.entries.length;
+        if (length == 1) {
+            return null;
+        }
+        if (length == 2 && shift > 0 && node.entries[1 - i] instanceof Leaf) {
+            return node.entries[1 - i];
+        }
+        Object[] entries = new Object[length - 1];
+        System.arraycopy(node.entries, 0, entries, 0, i);
+        System.arraycopy(node.entries, i + 1, entries, i, length - i - 1);
+        return new Node(node.bitmap & ~bit, entries);
+    }
+
+    private static int bit(int key, int shift) {
+        return 1 << ((key >>> shift) & ((1 << BITS) - 1));
+    }
+
+    private static final class Node {
+        private final int bitmap;
+        private final Object[] entries;
+
+        private Node(int bitmap, Object[] entries) {
+            this.bitmap = bitmap;
+            this.entries = entries;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+    }
+
+    private static final class Leaf {
+        private final int key;
+        private final Object value;
+
+        private Leaf(int key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Обход в глубину со стеком узлов высотой не больше числа уровней дерева.
+     */
+    private static final class ValueIterator<V> implements Iterator<V> {
+        private final Node[] nodes = new Node[MAX_DEPTH];
+        private final int[] positions = new int[MAX_DEPTH];
+        private int depth = -1;
+        private Leaf next;
+
+        private ValueIterator(Node root) {
+            if (root != null) {
+                nodes[++depth] = root;
+                advance();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Object value = next.value;
+            advance();
+            return (V) value;
+        }
+
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Node node = nodes[depth];
+                if (positions[depth] == node.entries.length) {
+                    positions[depth--] = 0;
+                    continue;
+                }
+                Object entry = node.entries[positions[depth]++];
+                if (entry instanceof Leaf) {
+                    next = (Leaf) entry;
+                    return;
+                }
+                nodes[++depth] = (Node) entry;
+            }
+        }
+    }
+}
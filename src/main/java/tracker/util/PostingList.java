@@ -0,0 +1,236 @@
+package main.java.tracker.util;
+
+import java.util.Arrays;
+
+/**
+ * Сжатый список вхождений терма: возрастающие неотрицательные ID документов
+ * с небольшим весом (0..3) каждого. Основная часть — varint от
+ * (разность с предыдущим ID << 2 | вес), так что плотные ID занимают байт на
+ * вхождение вместо восьми. Каждое SKIP-е вхождение попадает в таблицу
+ * пропусков, поэтому поиск ID — двоичный поиск плюс разбор не более SKIP
+ * записей, а вес найденного вхождения меняется на месте.
+ * <p>
+ * ID больше последнего дописывается в конец. ID из середины списка попадает
+ * в небольшой отсортированный буфер, который сливается с основной частью,
+ * когда вырастает до её восьмой части, — в среднем O(1) на вставку.
+ * Не потокобезопасен.
+ */
+public final class PostingList {
+    public static final int MAX_WEIGHT = 3;
+    private static final int WEIGHT_BITS = 2;
+    private static final int SKIP = 64;
+    private static final int MIN_PENDING = 32;
+
+    private byte[] data = new byte[4];
+    private int length;
+    private int size;
+    private int last;
+    /**
+     * ID и смещение первого вхождения каждого блока из SKIP вхождений.
+     */
+    private int[] skipIds = new int[1];
+    private int[] skipOffsets = new int[1];
+    private int[] pendingIds = new int[0];
+    private byte[] pendingWeights = new byte[0];
+    private int pendingSize;
+
+    /**
+     * Получатель вхождений при обходе списка.
+     */
+    public interface Consumer {
+        void accept(int id, int weight);
+    }
+
+    /**
+     * Проверка вхождения при прореживании списка.
+     */
+    public interface Filter {
+        boolean keep(int id, int weight);
+    }
+
+    public int size() {
+        return size + pendingSize;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Байты, занятые записями, таблицей пропусков и буфером.
+     */
+    public int byteSize() {
+        return length + ((size + SKIP - 1) / SKIP) * 8 + pendingSize * 5;
+    }
+
+    /**
+     * Добавляет вхождение либо меняет вес уже имеющегося.
+     */
+    public void add(int id, int weight) {
+        if (weight < 0 || weight > MAX_WEIGHT) {
+            throw new IllegalArgumentException("Вес вхождения вне диапазона! - " + weight);
+        }
+        if (id < 0) {
+            throw new IllegalArgumentException("ID вхождения не может быть отрицательным! - " + id);
+        }
+        if (size == 0 || id > last) {
+            append(id, weight);
+            return;
+        }
+        int offset = offsetOf(id);
+        if (offset >= 0) {
+            data[offset] = (byte) (data[offset] & ~MAX_WEIGHT | weight);
+            return;
+        }
+        int position = Arrays.binarySearch(pendingIds, 0, pendingSize, id);
+        if (position >= 0) {
+            pendingWeights[position] = (byte) weight;
+            return;
+        }
+        insertPending(-position - 1, id, weight);
+        if (pendingSize > Math.max(MIN_PENDING, size >> 3)) {
+            retain((existing, existingWeight) -> true);
+        }
+    }
+
+    /**
+     * Оставляет только вхождения, для которых filter истинен, за один проход;
+     * заодно сливает буфер с основной частью.
+     */
+    public void retain(Filter filter) {
+        PostingList kept = new PostingList();
+        forEach((id, weight) -> {
+            if (filter.keep(id, weight)) {
+                kept.append(id, weight);
+            }
+        });
+        data = kept.data;
+        length = kept.length;
+        size = kept.size;
+        last = kept.last;
+        skipIds = kept.skipIds;
+        skipOffsets = kept.skipOffsets;
+        pendingIds = kept.pendingIds;
+        pendingWeights = kept.pendingWeights;
+        pendingSize = 0;
+    }
+
+    public boolean contains(int id) {
+        return size > 0 && id <= last && offsetOf(id) >= 0
+                || Arrays.binarySearch(pendingIds, 0, pendingSize, id) >= 0;
+    }
+
+    /**
+     * Обходит вхождения по возрастанию ID.
+     */
+    public void forEach(Consumer consumer) {
+        int position = 0;
+        long id = 0;
+        int pending = 0;
+        while (position < length) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            id += value >>> WEIGHT_BITS;
+            while (pending < pendingSize && pendingIds[pending] < id) {
+                consumer.accept(pendingIds[pending], pendingWeights[pending]);
+                pending++;
+            }
+            consumer.accept((int) id, (int) (value & MAX_WEIGHT));
+        }
+        while (pending < pendingSize) {
+            consumer.accept(pendingIds[pending], pendingWeights[pending]);
+            pending++;
+        }
+    }
+
+    public int[] toIdArray() {
+        int[] ids = new int[size()];
+        int[] next = {0};
+        forEach((id, weight) -> ids[next[0]++] = id);
+        return ids;
+    }
+
+    /**
+     * Смещение первого байта записи с данным ID в основной части либо -1.
+     */
+    private int offsetOf(int id) {
+        int block = Arrays.binarySearch(skipIds, 0, (size + SKIP - 1) / SKIP, id);
+        if (block >= 0) {
+            return skipOffsets[block];
+        }
+        block = -block - 2;
+        if (block < 0) {
+            return -1;
+        }
+        int position = skipOffsets[block];
+        int end = block + 1 < (size + SKIP - 1) / SKIP ? skipOffsets[block + 1] : length;
+        long current = skipIds[block];
+        position = skipVarint(position);
+        while (position < end) {
+            int start = position;
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            current += value >>> WEIGHT_BITS;
+            if (current >= id) {
+                return current == id ? start : -1;
+            }
+        }
+        return -1;
+    }
+
+    private int skipVarint(int position) {
+        while (data[position] < 0) {
+            position++;
+        }
+        return position + 1;
+    }
+
+    private void append(int id, int weight) {
+        long delta = size == 0 ? id : (long) id - last;
+        long value = delta << WEIGHT_BITS | weight;
+        if (length + 10 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + 10));
+        }
+        if (size % SKIP == 0) {
+            int block = size / SKIP;
+            if (block == skipIds.length) {
+                skipIds = Arrays.copyOf(skipIds, block * 2);
+                skipOffsets = Arrays.copyOf(skipOffsets, block * 2);
+            }
+            skipIds[block] = id;
+            skipOffsets[block] = length;
+        }
+        while ((value & ~0x7FL) != 0) {
+            data[length++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+        size++;
+        last = id;
+    }
+
+    private void insertPending(int position, int id, int weight) {
+        if (pendingSize == pendingIds.length) {
+            int capacity = Math.max(4, pendingSize * 2);
+            pendingIds = Arrays.copyOf(pendingIds, capacity);
+            pendingWeights = Arrays.copyOf(pendingWeights, capacity);
+        }
+        System.arraycopy(pendingIds, position, pendingIds, position + 1, pendingSize - position);
+        System.arraycopy(pendingWeights, position, pendingWeights, position + 1, pendingSize - position);
+        pendingIds[position] = id;
+        pendingWeights[position] = (byte) weight;
+        pendingSize++;
+    }
+}
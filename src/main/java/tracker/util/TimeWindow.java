@@ -0,0 +1,63 @@
+package main.java.tracker.util;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.TreeMap;
+
+/**
+ * Окно набора интервалов: самое раннее начало, самый поздний конец и сумма
+ * длительностей. Начала и концы хранятся мультимножествами в TreeMap,
+ * поэтому добавление и удаление интервала и чтение границ стоят O(log n).
+ * Не потокобезопасно.
+ */
+public final class TimeWindow {
+    private final TreeMap<LocalDateTime, Integer> starts = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> ends = new TreeMap<>();
+    private Duration duration = Duration.ZERO;
+
+    /**
+     * @param duration длительность интервала; null считается нулевой
+     */
+    public void add(LocalDateTime start, Duration duration) {
+        starts.merge(start, 1, Integer::sum);
+        ends.merge(endOf(start, duration), 1, Integer::sum);
+        if (duration != null) {
+            this.duration = this.duration.plus(duration);
+        }
+    }
+
+    /**
+     * Удаляет интервал, добавленный раньше с теми же началом и длительностью.
+     */
+    public void remove(LocalDateTime start, Duration duration) {
+        decrement(starts, start);
+        decrement(ends, endOf(start, duration));
+        if (duration != null) {
+            this.duration = this.duration.minus(duration);
+        }
+    }
+
+    public boolean isEmpty() {
+        return starts.isEmpty();
+    }
+
+    public LocalDateTime getStartTime() {
+        return starts.isEmpty() ? null : starts.firstKey();
+    }
+
+    public LocalDateTime getEndTime() {
+        return ends.isEmpty() ? null : ends.lastKey();
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    private static LocalDateTime endOf(LocalDateTime start, Duration duration) {
+        return duration != null ? start.plus(duration) : start;
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> counts, LocalDateTime key) {
+        counts.computeIfPresent(key, (ignored, count) -> count > 1 ? count - 1 : null);
+    }
+}
@@ -0,0 +1,193 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.ConcurrentTaskManager;
+import main.java.tracker.managers.ExecutorAsyncTaskManager;
+import main.java.tracker.util.Managers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class AsyncTaskManagerTest {
+
+    @Test
+    @DisplayName("Одновременные чтения одного ID выполняются одним обращением, после записи — новым")
+    void shouldCoalesceConcurrentReads() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger reads = new AtomicInteger();
+        ConcurrentTaskManager slow = new ConcurrentTaskManager() {
+            @Override
+            public Task getTaskById(int id) {
+                reads.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getTaskById(id);
+            }
+        };
+        try (ExecutorAsyncTaskManager manager = Managers.getAsync(slow)) {
+            Task task = manager.addNewTask(new Task("Задача", "Описание", Status.NEW)).get(5, TimeUnit.SECONDS);
+            List<CompletableFuture<Task>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(manager.getTaskById(task.getId()));
+            }
+            futures.get(0).cancel(false);
+            release.countDown();
+            for (CompletableFuture<Task> future : futures.subList(1, futures.size())) {
+                assertSame(task, future.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, reads.get());
+
+            Task updated = new Task("Задача", "Описание", Status.DONE);
+            updated.setId(task.getId());
+            manager.updateTask(updated).get(5, TimeUnit.SECONDS);
+            assertSame(updated, manager.getTaskById(task.getId()).get(5, TimeUnit.SECONDS));
+            assertEquals(2, reads.get());
+        }
+    }
+
+    @Test
+    @DisplayName("Записи одного эпика выполняются по порядку, даже когда подзадача переходит между эпиками")
+    void shouldKeepWritesOfEpicInOrder() throws Exception {
+        List<String> applied = Collections.synchronizedList(new ArrayList<>());
+        Random delays = new Random(9);
+        ConcurrentTaskManager slow = new ConcurrentTaskManager() {
+            @Override
+            public void updateTask(Task task) {
+                int delay;
+                synchronized (delays) {
+                    delay = delays.nextInt(200);
+                }
+                for (long end = System.nanoTime() + delay * 1_000L; System.nanoTime() < end; ) {
+                    Thread.onSpinWait();
+                }
+                super.updateTask(task);
+                applied.add(task.getDescription());
+            }
+        };
+        try (ExecutorAsyncTaskManager manager = Managers.getAsync(slow)) {
+            Epic first = manager.addNewTask(new Epic("Первый", "", Status.NEW)).get(5, TimeUnit.SECONDS);
+            Epic second = manager.addNewTask(new Epic("Второй", "", Status.NEW)).get(5, TimeUnit.SECONDS);
+            Subtask subtask = manager.addNewTask(new Subtask("Подзадача", "", Status.NEW, first))
+                    .get(5, TimeUnit.SECONDS);
+            Status[] statuses = Status.values();
+            List<String> expected = new ArrayList<>();
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            Subtask last = null;
+            for (int i = 0; i < 300; i++) {
+                last = new Subtask("Подзадача", String.valueOf(i), statuses[i % statuses.length],
+                        i % 7 < 4 ? first : second);
+                last.setId(subtask.getId());
+                expected.add(last.getDescription());
+                futures.add(manager.updateTask(last));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+            assertEquals(expected, applied);
+            assertSame(last, slow.getTaskById(subtask.getId()));
+            assertEquals(List.of(last), slow.getSubtasksByEpic(last.getParentEpic().getId()));
+            assertEquals(last.getStatus(), slow.getTaskById(last.getParentEpic().getId()).getStatus());
+        }
+    }
+
+    @Test
+    @DisplayName("Подзадача эпика, добавленного без ID, ждёт добавления самого эпика")
+    void subtasksShouldWaitForEpicWithoutId() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ConcurrentTaskManager slow = new ConcurrentTaskManager() {
+            @Override
+            public void addNewTask(Task task) {
+                if (task instanceof Epic) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.addNewTask(task);
+            }
+        };
+        try (ExecutorAsyncTaskManager manager = Managers.getAsync(slow)) {
+            Epic epic = new Epic("Эпик", "", Status.NEW);
+            CompletableFuture<Epic> addedEpic = manager.addNewTask(epic);
+            CompletableFuture<Subtask> first = manager.addNewTask(new Subtask("Раз", "", Status.DONE, epic));
+            CompletableFuture<Subtask> second = manager.addNewTask(new Subtask("Два", "", Status.NEW, epic));
+            assertThrows(TimeoutException.class, () -> first.get(100, TimeUnit.MILLISECONDS));
+            release.countDown();
+
+            addedEpic.get(5, TimeUnit.SECONDS);
+            Subtask third = new Subtask("Три", "", Status.NEW, epic);
+            manager.addNewTask(third).get(5, TimeUnit.SECONDS);
+            assertEquals(List.of(first.get(), second.get(), third),
+                    manager.getSubtasksByEpic(epic.getId()).get(5, TimeUnit.SECONDS));
+            assertEquals(Status.IN_PROGRESS, slow.getTaskById(epic.getId()).getStatus());
+        }
+    }
+
+    @Test
+    @DisplayName("Записи разных эпиков выполняются одновременно")
+    void writesOfDifferentEpicsShouldRunConcurrently() throws Exception {
+        CyclicBarrier bothInside = new CyclicBarrier(2);
+        ConcurrentTaskManager slow = new ConcurrentTaskManager() {
+            @Override
+            public void updateTask(Task task) {
+                try {
+                    bothInside.await(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException("Записи разных эпиков не встретились", e);
+                }
+                super.updateTask(task);
+            }
+        };
+        try (ExecutorAsyncTaskManager manager = Managers.getAsync(slow)) {
+            Epic first = manager.addNewTask(new Epic("Первый", "", Status.NEW)).get(5, TimeUnit.SECONDS);
+            Epic second = manager.addNewTask(new Epic("Второй", "", Status.NEW)).get(5, TimeUnit.SECONDS);
+            Subtask inFirst = new Subtask("Раз", "", Status.DONE, first);
+            Subtask inSecond = new Subtask("Два", "", Status.DONE, second);
+            manager.addNewTask(inFirst).get(5, TimeUnit.SECONDS);
+            manager.addNewTask(inSecond).get(5, TimeUnit.SECONDS);
+
+            CompletableFuture<Void> one = manager.updateTask(inFirst);
+            CompletableFuture<Void> two = manager.updateTask(inSecond);
+            one.get(10, TimeUnit.SECONDS);
+            two.get(10, TimeUnit.SECONDS);
+            assertEquals(Status.DONE, manager.getTaskById(first.getId()).get().getStatus());
+        }
+    }
+
+    @Test
+    @DisplayName("Ошибка операции завершает её future, а после close операции отвергаются")
+    void shouldCompleteExceptionally() throws Exception {
+        ExecutorAsyncTaskManager manager = Managers.getAsync(new ConcurrentTaskManager());
+        Task task = manager.addNewTask(new Task("Задача", "", Status.NEW)).get(5, TimeUnit.SECONDS);
+        Task duplicate = new Task("Дубль", "", Status.NEW);
+        duplicate.setId(task.getId());
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> manager.addNewTask(duplicate).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+        assertEquals(List.of(task), manager.getAllTasks().get(5, TimeUnit.SECONDS));
+
+        manager.close();
+        error = assertThrows(ExecutionException.class,
+                () -> manager.deleteTaskOnId(task.getId()).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        error = assertThrows(ExecutionException.class,
+                () -> manager.getTaskById(task.getId()).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+    }
+}
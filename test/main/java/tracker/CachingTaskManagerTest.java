@@ -0,0 +1,161 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.CachingTaskManager;
+import main.java.tracker.managers.InMemoryTaskManager;
+import main.java.tracker.util.IntCache;
+import main.java.tracker.util.Managers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class CachingTaskManagerTest {
+
+    /**
+     * Менеджер в памяти, который считает чтения, дошедшие до него.
+     */
+    private static class CountingTaskManager extends InMemoryTaskManager {
+        private int reads;
+
+        @Override
+        public Task getTaskById(int id) {
+            reads++;
+            return super.getTaskById(id);
+        }
+
+        @Override
+        public List<Subtask> getSubtasksByEpic(int epicId) {
+            reads++;
+            return super.getSubtasksByEpic(epicId);
+        }
+    }
+
+    @Test
+    @DisplayName("Повторное чтение берётся из кэша, но попадает в историю")
+    void shouldServeRepeatedReadsFromCache() {
+        CountingTaskManager slow = new CountingTaskManager();
+        CachingTaskManager manager = Managers.getCaching(slow, 10, IntCache.Policy.LRU);
+        Task task = new Task("Задача", "Описание", Status.NEW);
+        manager.addNewTask(task);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(task, manager.getTaskById(task.getId()));
+        }
+        assertNull(manager.getTaskById(1_000));
+        assertEquals(2, slow.reads);
+        assertEquals(4, manager.getStats().getHits());
+        assertEquals(2, manager.getStats().getMisses());
+        assertEquals(List.of(task), manager.getHistory());
+
+        manager.deleteTaskOnId(task.getId());
+        assertNull(manager.getTaskById(task.getId()));
+        assertEquals(List.of(), manager.getHistory());
+    }
+
+    @Test
+    @DisplayName("Изменение и удаление подзадачи сбрасывают список и статус её эпиков")
+    void subtaskWritesShouldInvalidateEpics() {
+        CachingTaskManager manager = Managers.getCaching(new CountingTaskManager(), 10, IntCache.Policy.TINY_LFU);
+        Epic first = new Epic("Первый", "", Status.NEW);
+        Epic second = new Epic("Второй", "", Status.NEW);
+        manager.addNewTask(first);
+        manager.addNewTask(second);
+        Subtask subtask = new Subtask("Подзадача", "", Status.NEW, first);
+        manager.addNewTask(subtask);
+        assertEquals(List.of(subtask), manager.getSubtasksByEpic(first.getId()));
+        assertEquals(List.of(), manager.getSubtasksByEpic(second.getId()));
+
+        Subtask moved = new Subtask("Подзадача", "", Status.DONE, second);
+        moved.setId(subtask.getId());
+        manager.updateTask(moved);
+        assertEquals(List.of(), manager.getSubtasksByEpic(first.getId()));
+        assertEquals(List.of(moved), manager.getSubtasksByEpic(second.getId()));
+        assertEquals(Status.DONE, manager.getTaskById(second.getId()).getStatus());
+
+        manager.getTaskById(moved.getId());
+        manager.getTaskById(first.getId());
+        manager.deleteTaskOnId(second.getId());
+        assertNull(manager.getTaskById(moved.getId()));
+        assertEquals(List.of(), manager.getSubtasksByEpic(second.getId()));
+        assertEquals(List.of(first), manager.getHistory());
+    }
+
+    @Test
+    @DisplayName("Запись без задачи в кэше не читает её через getTaskById и не пишет просмотр")
+    void writesShouldNotRecordViews() {
+        CountingTaskManager slow = new CountingTaskManager();
+        CachingTaskManager manager = Managers.getCaching(slow, 10, IntCache.Policy.LRU);
+        Epic first = new Epic("Первый", "", Status.NEW);
+        Epic second = new Epic("Второй", "", Status.NEW);
+        Task task = new Task("Задача", "", Status.NEW);
+        Subtask subtask = new Subtask("Подзадача", "", Status.DONE, first);
+        manager.applyBatch(new TaskBatch().add(first).add(second).add(task).add(subtask));
+        assertEquals(Status.DONE, manager.getTaskById(first.getId()).getStatus());
+        int reads = slow.reads;
+
+        Subtask moved = new Subtask("Подзадача", "", Status.DONE, second);
+        moved.setId(subtask.getId());
+        manager.updateTask(moved);
+        task.setStatus(Status.DONE);
+        manager.updateTask(task);
+        manager.applyBatch(new TaskBatch().delete(task.getId()));
+        manager.deleteTaskOnId(moved.getId());
+
+        assertEquals(reads, slow.reads);
+        assertEquals(List.of(first), manager.getHistory());
+        assertEquals(Status.NEW, manager.getTaskById(first.getId()).getStatus());
+        assertEquals(reads + 1, slow.reads, "Прежний эпик подзадачи сброшен из кэша");
+    }
+
+    @Test
+    @DisplayName("При случайных изменениях кэш отдаёт то же, что обёрнутый менеджер")
+    void shouldMatchDelegateOnRandomChanges() {
+        for (IntCache.Policy policy : IntCache.Policy.values()) {
+            InMemoryTaskManager slow = new InMemoryTaskManager();
+            CachingTaskManager manager = Managers.getCaching(slow, 16, policy);
+            List<Epic> epics = new ArrayList<>();
+            List<Integer> ids = new ArrayList<>();
+            Random random = new Random(17);
+            for (int i = 0; i < 8; i++) {
+                Epic epic = new Epic("Эпик " + i, "", Status.NEW);
+                manager.addNewTask(epic);
+                epics.add(epic);
+            }
+            for (int step = 0; step < 5_000; step++) {
+                int action = random.nextInt(10);
+                Epic epic = epics.get(random.nextInt(epics.size()));
+                if (action < 3 || ids.isEmpty()) {
+                    Subtask subtask = new Subtask("Подзадача", "", Status.NEW, epic);
+                    if (random.nextInt(5) == 0) {
+                        manager.applyBatch(new TaskBatch().add(subtask));
+                    } else {
+                        manager.addNewTask(subtask);
+                    }
+                    ids.add(subtask.getId());
+                } else if (action < 6) {
+                    Subtask subtask = new Subtask("Подзадача", "", Status.values()[random.nextInt(3)], epic);
+                    subtask.setId(ids.get(random.nextInt(ids.size())));
+                    manager.updateTask(subtask);
+                } else if (action < 7) {
+                    int id = ids.remove(random.nextInt(ids.size()));
+                    if (random.nextBoolean()) {
+                        manager.deleteTaskOnId(id);
+                    } else {
+                        manager.applyBatch(new TaskBatch().delete(id));
+                    }
+                } else {
+                    int id = ids.get(random.nextInt(ids.size()));
+                    assertSame(slow.getTaskById(id), manager.getTaskById(id));
+                }
+                for (Epic each : epics) {
+                    assertEquals(slow.getSubtasksByEpic(each.getId()), manager.getSubtasksByEpic(each.getId()),
+                            policy + " " + step);
+                }
+            }
+            assertTrue(manager.getSubtaskListStats().getHitRate() > 0.5, policy.toString());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.InMemoryTaskManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import main.java.tracker.util.Managers;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class CompactHistoryManagerTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Test
+    @DisplayName("Компактная история совпадает с обычной при случайных просмотрах и удалениях")
+    void shouldMatchLinkedHistory() {
+        HistoryManager expected = Managers.getDefaultHistory(5);
+        HistoryManager compact = Managers.getCompactHistory(5);
+        Random random = new Random(3);
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 20; id++) {
+            Task task = new Task("Задача " + id, "Описание", Status.NEW);
+            task.setId(id);
+            tasks.add(task);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            Task task = tasks.get(random.nextInt(tasks.size()));
+            if (random.nextInt(5) == 0) {
+                expected.remove(task.getId());
+                compact.remove(task.getId());
+            } else {
+                task.setStatus(Status.values()[random.nextInt(3)]);
+                boolean scheduled = random.nextBoolean();
+                task.setStartTime(scheduled ? START.plusHours(random.nextInt(100)) : null);
+                task.setDuration(scheduled ? Duration.ofMinutes(random.nextInt(120)) : null);
+                expected.add(task);
+                compact.add(task);
+            }
+            assertHistoryEquals(expected.getHistory(), compact.getHistory());
+        }
+    }
+
+    @Test
+    @DisplayName("Компактная история сохраняет тип и статус задачи на момент просмотра")
+    void shouldPreserveTypeAndStatusAtViewTime() {
+        HistoryManager historyManager = Managers.getCompactHistory();
+        Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+        epic.setId(1);
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epic);
+        subtask.setId(2);
+        historyManager.add(epic);
+        historyManager.add(subtask);
+        subtask.setStatus(Status.DONE);
+        List<Task> history = historyManager.getHistory();
+        assertTrue(history.get(0) instanceof Epic);
+        assertTrue(history.get(1) instanceof Subtask);
+        assertEquals(Status.NEW, history.get(1).getStatus());
+        assertSame(epic, ((Subtask) history.get(1)).getParentEpic());
+    }
+
+    @Test
+    @DisplayName("Компактная история хранит время эпика с подзадачами на момент просмотра")
+    void shouldPreserveEpicWindow() {
+        TaskManager taskManager = new InMemoryTaskManager(Managers.getCompactHistory());
+        Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+        taskManager.addNewTask(epic);
+        Subtask first = new Subtask("Первая", "Описание", Status.NEW, epic);
+        first.setStartTime(START);
+        first.setDuration(Duration.ofHours(1));
+        Subtask second = new Subtask("Вторая", "Описание", Status.NEW, epic);
+        second.setStartTime(START.plusHours(3));
+        second.setDuration(Duration.ofHours(2));
+        taskManager.addNewTask(first);
+        taskManager.addNewTask(second);
+        taskManager.getTaskById(epic.getId());
+        taskManager.deleteTaskOnId(second.getId());
+
+        Task viewed = taskManager.getHistory().get(0);
+        assertEquals(START, viewed.getStartTime());
+        assertEquals(Duration.ofHours(3), viewed.getDuration());
+        assertEquals(START.plusHours(5), viewed.getEndTime());
+    }
+
+    @Test
+    @DisplayName("Изменение задачи из истории не меняет следующие чтения")
+    void historyViewsShouldNotShareStateBetweenReads() {
+        HistoryManager historyManager = Managers.getCompactHistory();
+        Task task = new Task("Задача", "Описание", Status.NEW);
+        task.setId(1);
+        historyManager.add(task);
+        historyManager.getHistory().get(0).setStatus(Status.DONE);
+        assertEquals(Status.NEW, historyManager.getHistory().get(0).getStatus());
+        assertNotSame(historyManager.getHistory().get(0), historyManager.getHistory().get(0));
+    }
+
+    @Test
+    @DisplayName("getTaskById с компактной историей не выделяет память")
+    void getTaskByIdShouldNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        TaskManager taskManager = new InMemoryTaskManager(Managers.getCompactHistory());
+        int[] ids = new int[100];
+        for (int i = 0; i < ids.length; i++) {
+            Task task = new Task("Задача " + i, "Описание", Status.NEW);
+            taskManager.addNewTask(task);
+            ids[i] = task.getId();
+        }
+        for (int i = 0; i < 200_000; i++) {
+            taskManager.getTaskById(ids[i % ids.length]);
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            taskManager.getTaskById(ids[i % ids.length]);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertTrue(allocated < 10_000, "Выделено байт: " + allocated);
+    }
+
+    private static void assertHistoryEquals(List<Task> expected, List<Task> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getStatus(), actual.get(i).getStatus());
+            assertEquals(expected.get(i).getStartTime(), actual.get(i).getStartTime());
+            assertEquals(expected.get(i).getDuration(), actual.get(i).getDuration());
+            assertEquals(expected.get(i).getEndTime(), actual.get(i).getEndTime());
+        }
+    }
+}
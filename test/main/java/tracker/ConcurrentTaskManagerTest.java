@@ -0,0 +1,239 @@
+package main.java.tracker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import main.java.tracker.managers.ConcurrentTaskManager;
+import main.java.tracker.util.Managers;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+class ConcurrentTaskManagerTest {
+    private static final int THREADS = 8;
+    private static final int TASKS_PER_THREAD = 1_000;
+
+    private TaskManager taskManager;
+
+    @BeforeEach
+    @DisplayName("Подготовка объектов перед каждым тестом")
+    void setUp() {
+        taskManager = Managers.getConcurrent();
+    }
+
+    @Test
+    @DisplayName("Параллельно добавленные задачи получают уникальные ID")
+    void concurrentlyAddedTasksShouldHaveUniqueIds() throws Exception {
+        List<Task> added = runInParallel(threadNo -> {
+            List<Task> result = new ArrayList<>();
+            for (int i = 0; i < TASKS_PER_THREAD; i++) {
+                Task task = new Task("Задача " + threadNo + "-" + i, "Описание", Status.NEW);
+                taskManager.addNewTask(task);
+                result.add(task);
+            }
+            return result;
+        });
+        Set<Integer> ids = new HashSet<>();
+        for (Task task : added) {
+            assertTrue(ids.add(task.getId()), "Повторный ID: " + task.getId());
+        }
+        assertEquals(THREADS * TASKS_PER_THREAD, taskManager.getAllTasks().size());
+    }
+
+    @Test
+    @DisplayName("Статус эпика согласован после параллельных изменений подзадач")
+    void epicStatusShouldStayConsistentUnderConcurrentSubtaskUpdates() throws Exception {
+        Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+        taskManager.addNewTask(epic);
+        runInParallel(threadNo -> {
+            for (int i = 0; i < TASKS_PER_THREAD; i++) {
+                Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epic);
+                taskManager.addNewTask(subtask);
+                subtask.setStatus(Status.DONE);
+                taskManager.updateTask(subtask);
+            }
+            return List.of();
+        });
+        assertEquals(THREADS * TASKS_PER_THREAD, taskManager.getSubtasksByEpic(epic.getId()).size());
+        assertEquals(Status.DONE, epic.getStatus());
+    }
+
+    @Test
+    @DisplayName("Параллельное удаление подзадач не оставляет их в эпике")
+    void concurrentSubtaskDeletionShouldDetachSubtasksFromEpic() throws Exception {
+        Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+        taskManager.addNewTask(epic);
+        List<Subtask> created = new ArrayList<>();
+        for (int i = 0; i < THREADS * TASKS_PER_THREAD; i++) {
+            Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epic);
+            taskManager.addNewTask(subtask);
+            created.add(subtask);
+        }
+        runInParallel(threadNo -> {
+            for (int i = threadNo; i < created.size(); i += THREADS) {
+                taskManager.deleteTaskOnId(created.get(i).getId());
+            }
+            return List.of();
+        });
+        assertTrue(taskManager.getSubtasksByEpic(epic.getId()).isEmpty());
+        assertEquals(1, taskManager.getAllTasks().size());
+    }
+
+    @Test
+    @DisplayName("Параллельные переносы и обновления оставляют подзадачу ровно в одном эпике")
+    void concurrentMovesShouldKeepEachSubtaskInOneEpic() throws Exception {
+        List<Epic> epics = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            // Уступает поток при каждом getId(), растягивая окно между чтением подзадачи и блокировкой.
+            Epic epic = new Epic("Эпик " + i, "Описание", Status.NEW) {
+                @Override
+                public int getId() {
+                    Thread.yield();
+                    return super.getId();
+                }
+            };
+            taskManager.addNewTask(epic);
+            epics.add(epic);
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epics.get(i % epics.size()));
+            taskManager.addNewTask(subtask);
+            ids.add(subtask.getId());
+        }
+        runInParallel(threadNo -> {
+            Random random = new Random(threadNo);
+            for (int i = 0; i < TASKS_PER_THREAD * 5; i++) {
+                int epicNo = random.nextInt(epics.size() + 1);
+                Subtask subtask = new Subtask("Подзадача", "Описание", Status.values()[random.nextInt(3)],
+                        epicNo < epics.size() ? epics.get(epicNo) : null);
+                subtask.setId(ids.get(random.nextInt(ids.size())));
+                taskManager.updateTask(subtask);
+            }
+            return List.of();
+        });
+
+        Set<Integer> seen = new HashSet<>();
+        for (Epic epic : epics) {
+            int total = 0;
+            for (Status status : Status.values()) {
+                List<Subtask> inStatus = new ArrayList<>();
+                for (Subtask subtask : epic.getSubtasks()) {
+                    if (subtask.getStatus() == status) {
+                        inStatus.add(subtask);
+                    }
+                }
+                assertEquals(inStatus.size(), epic.getSubtaskCount(status));
+                total += inStatus.size();
+            }
+            assertEquals(epic.getSubtasks().size(), total);
+            assertEquals(epic.computeStatusByScan(), epic.getStatus());
+            for (Subtask subtask : epic.getSubtasks()) {
+                assertTrue(seen.add(subtask.getId()), "Подзадача в двух эпиках: " + subtask.getId());
+                assertSame(subtask, taskManager.getTaskById(subtask.getId()));
+                assertSame(epic, subtask.getParentEpic());
+            }
+        }
+        for (int id : ids) {
+            Subtask stored = (Subtask) taskManager.getTaskById(id);
+            assertEquals(stored.getParentEpic() != null, seen.contains(id));
+        }
+    }
+
+    @Test
+    @DisplayName("Просмотры из параллельных чтений попадают в историю и уходят из неё при удалении")
+    void concurrentViewsShouldReachHistory() throws Exception {
+        List<Task> created = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Task task = new Task("Задача " + i, "Описание", Status.NEW);
+            taskManager.addNewTask(task);
+            created.add(task);
+        }
+        runInParallel(threadNo -> {
+            for (int i = 0; i < TASKS_PER_THREAD; i++) {
+                taskManager.getTaskById(created.get(threadNo).getId());
+            }
+            return List.of();
+        });
+        assertEquals(new HashSet<>(created), new HashSet<>(taskManager.getHistory()));
+
+        taskManager.getTaskById(created.get(0).getId());
+        List<Task> history = taskManager.getHistory();
+        assertEquals(created.get(0), history.get(history.size() - 1));
+        taskManager.deleteTaskOnId(created.get(1).getId());
+        assertFalse(taskManager.getHistory().contains(created.get(1)));
+        assertEquals(THREADS - 1, taskManager.getHistory().size());
+    }
+
+    @Test
+    @DisplayName("ID, освобождённый удалением в пакете, не достаётся чужому addNewTask до повторного добавления")
+    void batchShouldKeepIdFreedByItsOwnDelete() throws Exception {
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        List<Throwable> intruderErrors = new ArrayList<>();
+        ConcurrentTaskManager manager = new ConcurrentTaskManager() {
+            @Override
+            public void deleteTaskOnId(int id) {
+                super.deleteTaskOnId(id);
+                // Другой поток пытается занять ID в промежутке между удалением и добавлением пакета.
+                Task intruder = new Task("Чужая", "Описание", Status.NEW);
+                intruder.setId(id);
+                try {
+                    other.submit(() -> addNewTask(intruder)).get();
+                } catch (Exception e) {
+                    intruderErrors.add(e.getCause());
+                }
+            }
+        };
+        try {
+            Task original = new Task("Старая", "Описание", Status.NEW);
+            manager.addNewTask(original);
+            Task replacement = new Task("Новая", "Описание", Status.DONE);
+            replacement.setId(original.getId());
+            Task extra = new Task("Ещё одна", "Описание", Status.NEW);
+            manager.applyBatch(new TaskBatch().delete(original.getId()).add(replacement).add(extra));
+
+            assertEquals(1, intruderErrors.size());
+            assertInstanceOf(IllegalArgumentException.class, intruderErrors.get(0));
+            assertSame(replacement, manager.getTaskById(original.getId()));
+            assertEquals(List.of(replacement), manager.getTasksByStatus(Status.DONE));
+            assertEquals(2, manager.getAllTasks().size());
+        } finally {
+            other.shutdownNow();
+        }
+    }
+
+    private List<Task> runInParallel(ThreadBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<Task>>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int threadNo = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return body.run(threadNo);
+                }));
+            }
+            start.countDown();
+            List<Task> result = new ArrayList<>();
+            for (Future<List<Task>> future : futures) {
+                result.addAll(future.get());
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface ThreadBody {
+        List<Task> run(int threadNo);
+    }
+}
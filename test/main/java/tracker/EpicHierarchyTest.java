@@ -0,0 +1,259 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.EpicHierarchy;
+import main.java.tracker.managers.InMemoryTaskManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+class EpicHierarchyTest {
+    private static final Status[] STATUSES = Status.values();
+    private static final int NODES = 1_000_000;
+    private static final int CHAIN = 500;
+
+    /**
+     * Наивная модель: родитель и собственные счётчики каждого узла, итоги
+     * пересчитываются полным обходом.
+     */
+    private static class NaiveForest {
+        final int[] parents = new int[NODES + 1];
+        final int[][] own = new int[STATUSES.length][NODES + 1];
+        final boolean[] alive = new boolean[NODES + 1];
+
+        boolean isAncestor(int ancestor, int node) {
+            for (int current = node; current != 0; current = parents[current]) {
+                if (current == ancestor) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void remove(int id) {
+            alive[id] = false;
+            for (int[] counts : own) {
+                counts[id] = 0;
+            }
+            for (int node = 1; node <= NODES; node++) {
+                if (parents[node] == id) {
+                    parents[node] = 0;
+                }
+            }
+            parents[id] = 0;
+        }
+
+        /**
+         * Итоги поддеревьев: дети по родителю в CSR, затем узлы в порядке
+         * обхода в ширину от корней и сложение снизу вверх.
+         */
+        int[][] totals() {
+            int[] start = new int[NODES + 2];
+            for (int node = 1; node <= NODES; node++) {
+                if (alive[node]) {
+                    start[parents[node] + 1]++;
+                }
+            }
+            for (int i = 1; i < start.length; i++) {
+                start[i] += start[i - 1];
+            }
+            int[] children = new int[start[NODES + 1]];
+            int[] fill = Arrays.copyOf(start, start.length);
+            for (int node = 1; node <= NODES; node++) {
+                if (alive[node]) {
+                    children[fill[parents[node]]++] = node;
+                }
+            }
+            int[] order = new int[children.length];
+            int size = 0;
+            for (int i = start[0]; i < start[1]; i++) {
+                order[size++] = children[i];
+            }
+            for (int head = 0; head < size; head++) {
+                int node = order[head];
+                for (int i = start[node]; i < start[node + 1]; i++) {
+                    order[size++] = children[i];
+                }
+            }
+            assertEquals(children.length, size);
+            int[][] totals = new int[STATUSES.length][];
+            for (int s = 0; s < STATUSES.length; s++) {
+                totals[s] = Arrays.copyOf(own[s], NODES + 1);
+                for (int i = size - 1; i >= 0; i--) {
+                    int node = order[i];
+                    if (parents[node] != 0) {
+                        totals[s][parents[node]] += totals[s][node];
+                    }
+                }
+            }
+            return totals;
+        }
+    }
+
+    private static void assertMatches(NaiveForest naive, EpicHierarchy hierarchy) {
+        int[][] totals = naive.totals();
+        int live = 0;
+        for (int node = 1; node <= NODES; node++) {
+            if (!naive.alive[node]) {
+                assertFalse(hierarchy.contains(node));
+                continue;
+            }
+            live++;
+            assertEquals(naive.parents[node], hierarchy.getParent(node));
+            for (int s = 0; s < STATUSES.length; s++) {
+                if (totals[s][node] != hierarchy.getCount(node, STATUSES[s])) {
+                    fail("Итог узла " + node + " в статусе " + STATUSES[s] + ": ожидалось "
+                            + totals[s][node] + ", получено " + hierarchy.getCount(node, STATUSES[s]));
+                }
+            }
+        }
+        assertEquals(live, hierarchy.size());
+    }
+
+    @Test
+    @DisplayName("Сводки на случайном лесе из миллиона эпиков совпадают с полным пересчётом")
+    void rollupsShouldMatchNaiveRecomputation() {
+        Random random = new Random(25);
+        NaiveForest naive = new NaiveForest();
+        EpicHierarchy hierarchy = new EpicHierarchy();
+        for (int node = 1; node <= NODES; node++) {
+            hierarchy.add(node);
+            naive.alive[node] = true;
+            if (random.nextBoolean()) {
+                setRandomCounts(random, naive, hierarchy, node);
+            }
+        }
+        for (int node = 2; node <= NODES; node++) {
+            int parent = node <= CHAIN ? node - 1 : random.nextInt(50) == 0 ? 0 : 1 + random.nextInt(node - 1);
+            if (parent != 0) {
+                hierarchy.setParent(node, parent);
+                naive.parents[node] = parent;
+            }
+            if (random.nextInt(4) == 0) {
+                setRandomCounts(random, naive, hierarchy, 1 + random.nextInt(node));
+            }
+        }
+        assertEquals(CHAIN - 1, hierarchy.getDepth(CHAIN));
+        assertMatches(naive, hierarchy);
+
+        int cycles = 0;
+        for (int step = 0; step < 200_000; step++) {
+            int node = 1 + random.nextInt(NODES);
+            int action = random.nextInt(20);
+            if (!naive.alive[node]) {
+                hierarchy.add(node);
+                naive.alive[node] = true;
+            } else if (action < 12) {
+                Status status = STATUSES[random.nextInt(STATUSES.length)];
+                int delta = random.nextInt(5) - naive.own[status.ordinal()][node] / 2;
+                hierarchy.adjust(node, status, delta);
+                naive.own[status.ordinal()][node] += delta;
+            } else if (action < 19) {
+                int parent = random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(NODES);
+                if (parent != 0 && !naive.alive[parent]) {
+                    continue;
+                }
+                if (parent != 0 && naive.isAncestor(node, parent)) {
+                    assertThrows(IllegalArgumentException.class, () -> hierarchy.setParent(node, parent));
+                    cycles++;
+                } else {
+                    hierarchy.setParent(node, parent);
+                    naive.parents[node] = parent;
+                }
+            } else if (step % 40 == 0) {
+                hierarchy.remove(node);
+                naive.remove(node);
+            }
+        }
+        assertTrue(cycles > 0);
+        assertMatches(naive, hierarchy);
+    }
+
+    @Test
+    @DisplayName("Цикл из самого эпика или потомка отклоняется без изменений")
+    void shouldRejectCycles() {
+        EpicHierarchy hierarchy = new EpicHierarchy();
+        for (int id = 1; id <= 4; id++) {
+            hierarchy.add(id);
+            hierarchy.setCount(id, Status.DONE, id);
+        }
+        hierarchy.setParent(2, 1);
+        hierarchy.setParent(3, 2);
+        hierarchy.setParent(4, 2);
+
+        assertThrows(IllegalArgumentException.class, () -> hierarchy.setParent(1, 1));
+        assertThrows(IllegalArgumentException.class, () -> hierarchy.setParent(1, 3));
+        assertThrows(IllegalArgumentException.class, () -> hierarchy.setParent(2, 4));
+        assertThrows(IllegalArgumentException.class, () -> hierarchy.setParent(5, 1));
+        assertEquals(10, hierarchy.getCount(1, Status.DONE));
+        assertArrayEquals(new int[]{4, 3}, hierarchy.getChildren(2));
+
+        hierarchy.setParent(4, 3);
+        assertEquals(3, hierarchy.getDepth(4));
+        hierarchy.remove(3);
+        assertEquals(0, hierarchy.getParent(4));
+        assertEquals(3, hierarchy.getCount(1, Status.DONE));
+        assertEquals(4, hierarchy.getCount(4, Status.DONE));
+    }
+
+    @Test
+    @DisplayName("Менеджер обновляет сводки вложенных эпиков при изменении подзадач")
+    void managerShouldRollUpNestedEpics() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Epic programme = new Epic("Программа", "Описание", Status.NEW);
+        Epic project = new Epic("Проект", "Описание", Status.NEW);
+        Epic feature = new Epic("Фича", "Описание", Status.NEW);
+        manager.addNewTask(programme);
+        manager.addNewTask(project);
+        manager.addNewTask(feature);
+        manager.setParentEpic(project.getId(), programme.getId());
+        manager.setParentEpic(feature.getId(), project.getId());
+
+        Subtask first = new Subtask("Первая", "Описание", Status.DONE, feature);
+        manager.addNewTask(first);
+        manager.addNewTask(new Subtask("Вторая", "Описание", Status.NEW, feature));
+        manager.addNewTask(new Subtask("Третья", "Описание", Status.NEW, project));
+
+        EpicRollup rollup = manager.getEpicRollup(programme.getId());
+        assertEquals(3, rollup.getTotal());
+        assertEquals(1, rollup.getCount(Status.DONE));
+        assertEquals(100.0 / 3, rollup.getPercentDone(), 1e-9);
+        assertEquals(Status.IN_PROGRESS, rollup.getStatus());
+        assertEquals(Status.NEW, programme.getStatus());
+
+        first.setStatus(Status.IN_PROGRESS);
+        manager.updateTask(first);
+        assertEquals(0, manager.getEpicRollup(programme.getId()).getCount(Status.DONE));
+        assertEquals(2, manager.getEpicRollup(feature.getId()).getTotal());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.setParentEpic(programme.getId(), feature.getId()));
+        assertEquals(List.of(project), manager.getChildEpics(programme.getId()));
+        assertEquals(project, manager.getParentEpic(feature.getId()));
+
+        manager.deleteTaskOnId(project.getId());
+        assertNull(manager.getEpicRollup(project.getId()));
+        assertNull(manager.getParentEpic(feature.getId()));
+        assertEquals(0, manager.getEpicRollup(programme.getId()).getTotal());
+        assertEquals(2, manager.getEpicRollup(feature.getId()).getTotal());
+
+        TaskBatch batch = new TaskBatch();
+        for (int i = 0; i < 3; i++) {
+            batch.add(new Subtask("Пакет " + i, "Описание", Status.DONE, feature));
+        }
+        manager.setParentEpic(feature.getId(), programme.getId());
+        manager.applyBatch(batch);
+        assertEquals(new EpicRollup(programme.getId(), new int[]{1, 1, 3}), manager.getEpicRollup(programme.getId()));
+    }
+
+    private static void setRandomCounts(Random random, NaiveForest naive, EpicHierarchy hierarchy, int node) {
+        for (Status status : STATUSES) {
+            int count = random.nextInt(6);
+            hierarchy.setCount(node, status, count);
+            naive.own[status.ordinal()][node] = count;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.InMemoryTaskManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+class EpicStatusTest {
+    private InMemoryTaskManager taskManager;
+    private Epic epic;
+
+    @BeforeEach
+    @DisplayName("Подготовка менеджера со сверкой счётчиков статусов")
+    void setUp() {
+        taskManager = new InMemoryTaskManager();
+        taskManager.setStatusConsistencyCheck(true);
+        epic = new Epic("Эпик", "Описание", Status.NEW);
+        taskManager.addNewTask(epic);
+    }
+
+    @Test
+    @DisplayName("Замороженные подзадачи делят копию эпика, пока он не изменится")
+    void frozenSubtasksShouldShareParentCopy() {
+        Subtask subtask1 = new Subtask("Подзадача 1", "Описание", Status.NEW, epic);
+        Subtask subtask2 = new Subtask("Подзадача 2", "Описание", Status.NEW, epic);
+        assertTrue(epic.getSubtasks().isEmpty());
+        List<Subtask> view = epic.getSubtasks();
+        taskManager.addNewTask(subtask1);
+        taskManager.addNewTask(subtask2);
+        assertEquals(List.of(subtask1, subtask2), view);
+
+        Epic parent = subtask1.frozenCopy().getParentEpic();
+        assertSame(parent, subtask2.frozenCopy().getParentEpic());
+        assertEquals(Status.NEW, parent.getStatus());
+        assertThrows(UnsupportedOperationException.class, () -> parent.setStatus(Status.DONE));
+
+        subtask1.setStatus(Status.DONE);
+        taskManager.updateTask(subtask1);
+        Epic changed = subtask2.frozenCopy().getParentEpic();
+        assertNotSame(parent, changed);
+        assertEquals(Status.IN_PROGRESS, changed.getStatus());
+        assertEquals(Status.NEW, parent.getStatus());
+        assertTrue(epic.copy().getSubtasks().isEmpty());
+        assertEquals(0, epic.copy().getSubtaskCount(Status.DONE));
+    }
+
+    @Test
+    @DisplayName("Статус эпика следует за статусами подзадач")
+    void epicStatusShouldFollowSubtasks() {
+        Subtask subtask1 = new Subtask("Подзадача 1", "Описание", Status.NEW, epic);
+        Subtask subtask2 = new Subtask("Подзадача 2", "Описание", Status.NEW, epic);
+        taskManager.addNewTask(subtask1);
+        taskManager.addNewTask(subtask2);
+        assertEquals(Status.NEW, epic.getStatus());
+
+        subtask1.setStatus(Status.DONE);
+        taskManager.updateTask(subtask1);
+        assertEquals(Status.IN_PROGRESS, epic.getStatus());
+
+        subtask2.setStatus(Status.DONE);
+        taskManager.updateTask(subtask2);
+        assertEquals(Status.DONE, epic.getStatus());
+
+        taskManager.deleteTaskOnId(subtask1.getId());
+        taskManager.deleteTaskOnId(subtask2.getId());
+        assertEquals(Status.NEW, epic.getStatus());
+    }
+
+    @Test
+    @DisplayName("Замена подзадачи новым экземпляром учитывает только разницу статусов")
+    void replacingSubtaskInstanceShouldApplyStatusDelta() {
+        Subtask original = new Subtask("Подзадача", "Описание", Status.NEW, epic);
+        taskManager.addNewTask(original);
+        Subtask replacement = new Subtask("Подзадача", "Новое описание", Status.DONE, epic);
+        replacement.setId(original.getId());
+        taskManager.updateTask(replacement);
+        assertEquals(1, epic.getSubtasks().size());
+        assertEquals(1, epic.getSubtaskCount(Status.DONE));
+        assertEquals(0, epic.getSubtaskCount(Status.NEW));
+        assertEquals(Status.DONE, epic.getStatus());
+    }
+
+    @Test
+    @DisplayName("Повторное добавление подзадачи в эпик не создаёт дубликата")
+    void addingSameSubtaskTwiceShouldNotDuplicate() {
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.DONE, epic);
+        taskManager.addNewTask(subtask);
+        epic.addSubtask(subtask);
+        assertEquals(List.of(subtask), epic.getSubtasks());
+        assertEquals(1, epic.getSubtaskCount(Status.DONE));
+        assertTrue(epic.containsSubtask(subtask.getId()));
+
+        taskManager.deleteTaskOnId(subtask.getId());
+        assertFalse(epic.containsSubtask(subtask.getId()));
+        assertTrue(taskManager.getSubtasksByEpic(epic.getId()).isEmpty());
+        assertEquals(Status.NEW, epic.getStatus());
+    }
+
+    @Test
+    @DisplayName("Счётчики совпадают с полным обходом при случайных изменениях подзадач")
+    void countersShouldMatchFullRescanOnRandomChanges() {
+        Random random = new Random(7);
+        Status[] statuses = Status.values();
+        List<Subtask> alive = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            int action = random.nextInt(3);
+            if (action == 0 || alive.isEmpty()) {
+                Subtask subtask = new Subtask("Подзадача", "Описание", statuses[random.nextInt(3)], epic);
+                taskManager.addNewTask(subtask);
+                alive.add(subtask);
+            } else if (action == 1) {
+                Subtask subtask = alive.get(random.nextInt(alive.size()));
+                subtask.setStatus(statuses[random.nextInt(3)]);
+                taskManager.updateTask(subtask);
+            } else {
+                Subtask subtask = alive.remove(random.nextInt(alive.size()));
+                taskManager.deleteTaskOnId(subtask.getId());
+            }
+            assertEquals(epic.computeStatusByScan(), epic.getStatus());
+        }
+    }
+}
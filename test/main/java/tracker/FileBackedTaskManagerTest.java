@@ -0,0 +1,330 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.FileBackedTaskManager;
+import main.java.tracker.managers.ManagerSaveException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class FileBackedTaskManagerTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Сколько следующих fsync журнала должно завершиться ошибкой.
+     */
+    private final AtomicInteger failingForces = new AtomicInteger();
+
+    @Test
+    @DisplayName("После перезапуска восстанавливаются задачи, связи эпиков и счётчик ID")
+    void shouldRestoreStateAfterRestart() {
+        int epicId;
+        int subtaskId;
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory)) {
+            Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+            manager.addNewTask(epic);
+            Subtask subtask1 = new Subtask("Подзадача 1", "Описание", Status.NEW, epic);
+            Subtask subtask2 = new Subtask("Подзадача 2", "Описание", Status.NEW, epic);
+            manager.addNewTask(subtask1);
+            manager.addNewTask(subtask2);
+            subtask1.setStatus(Status.DONE);
+            manager.updateTask(subtask1);
+            Task task = new Task("Задача", "Описание", Status.NEW);
+            manager.addNewTask(task);
+            manager.deleteTaskOnId(task.getId());
+            epicId = epic.getId();
+            subtaskId = subtask1.getId();
+        }
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory)) {
+            assertEquals(3, manager.getAllTasks().size());
+            List<Subtask> subtasks = manager.getSubtasksByEpic(epicId);
+            assertEquals(2, subtasks.size());
+            assertEquals(subtaskId, subtasks.get(0).getId());
+            assertSame(manager.getTaskById(epicId), subtasks.get(0).getParentEpic());
+            assertEquals(Status.IN_PROGRESS, manager.getTaskById(epicId).getStatus());
+            Task next = new Task("Новая задача", "Описание", Status.NEW);
+            manager.addNewTask(next);
+            assertEquals(5, next.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Сжатие журнала в снимок сохраняет состояние")
+    void compactionShouldKeepState() {
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory, 1, 0, 2_000)) {
+            Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+            manager.addNewTask(epic);
+            for (int i = 0; i < 200; i++) {
+                Subtask subtask = new Subtask("Подзадача " + i, "Описание", Status.DONE, epic);
+                manager.addNewTask(subtask);
+            }
+            assertTrue(manager.getWalSize() < 2_000);
+        }
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory)) {
+            assertEquals(201, manager.getAllTasks().size());
+            Task epic = manager.getAllTasks().stream().filter(t -> t instanceof Epic).findFirst().orElseThrow();
+            assertEquals(Status.DONE, epic.getStatus());
+            assertEquals("Подзадача 0", manager.getSubtasksByEpic(epic.getId()).get(0).getTitle());
+        }
+    }
+
+    @Test
+    @DisplayName("Оборванная последняя запись журнала отбрасывается при восстановлении")
+    void shouldDropTornTailRecord() throws IOException {
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory)) {
+            manager.addNewTask(new Task("Задача 1", "Описание", Status.NEW));
+            manager.addNewTask(new Task("Задача 2", "Описание", Status.NEW));
+        }
+        Path wal = directory.resolve(FileBackedTaskManager.WAL_FILE);
+        try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory)) {
+            assertEquals(1, manager.getAllTasks().size());
+            manager.addNewTask(new Task("Задача 3", "Описание", Status.NEW));
+        }
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory)) {
+            assertEquals(2, manager.getAllTasks().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Пакетная фиксация не теряет записи при закрытии")
+    void batchedWritesShouldBeFlushedOnClose() {
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory, 100, 1_000, 0)) {
+            for (int i = 0; i < 250; i++) {
+                manager.addNewTask(new Task("Задача " + i, "Описание", Status.NEW));
+            }
+        }
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory)) {
+            assertEquals(250, manager.getAllTasks().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Неполная группа записей сбрасывается по интервалу без закрытия менеджера")
+    void batchedWritesShouldBeFlushedByInterval(@TempDir Path copy) throws Exception {
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory, 100, 50, 0)) {
+            for (int i = 0; i < 3; i++) {
+                manager.addNewTask(new Task("Задача " + i, "Описание", Status.NEW));
+            }
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (manager.getWalSize() != Files.size(directory.resolve(FileBackedTaskManager.WAL_FILE))
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    Files.copy(file, copy.resolve(file.getFileName()));
+                }
+            }
+        }
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(copy)) {
+            assertEquals(3, manager.getAllTasks().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Пакет пишется в журнал одной записью и отбрасывается целиком, если оборван")
+    void batchShouldBeReplayedAtomically() throws IOException {
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory)) {
+            Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+            manager.applyBatch(new TaskBatch()
+                    .add(epic)
+                    .add(new Subtask("Подзадача 1", "Описание", Status.DONE, epic))
+                    .add(new Subtask("Подзадача 2", "Описание", Status.DONE, epic)));
+        }
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory)) {
+            assertEquals(3, manager.getAllTasks().size());
+            assertEquals(Status.DONE, manager.getTaskById(1).getStatus());
+            manager.applyBatch(new TaskBatch()
+                    .add(new Task("Задача 1", "Описание", Status.NEW))
+                    .add(new Task("Задача 2", "Описание", Status.NEW)));
+        }
+        Path wal = directory.resolve(FileBackedTaskManager.WAL_FILE);
+        try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory)) {
+            assertEquals(3, manager.getAllTasks().size(), "Оборванный пакет не должен применяться частично");
+        }
+    }
+
+    @Test
+    @DisplayName("Неудачный fsync не дублирует и не теряет записи журнала")
+    void failedFsyncShouldNotDuplicateOrLoseRecords() {
+        try (FileBackedTaskManager manager = openFaulty(100)) {
+            manager.addNewTask(new Task("Задача 1", "Описание", Status.NEW));
+            manager.addNewTask(new Task("Задача 2", "Описание", Status.NEW));
+            failingForces.set(1);
+            assertThrows(ManagerSaveException.class, manager::flush);
+            manager.addNewTask(new Task("Задача 3", "Описание", Status.NEW));
+            manager.flush();
+        }
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory)) {
+            assertEquals(3, manager.getAllTasks().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Изменение, на котором сброс журнала упал, сохраняется следующим сбросом")
+    void changeShouldStayQueuedAfterFailedFsync() {
+        try (FileBackedTaskManager manager = openFaulty(1)) {
+            failingForces.set(1);
+            assertThrows(ManagerSaveException.class,
+                    () -> manager.addNewTask(new Task("Задача 1", "Описание", Status.NEW)));
+            manager.addNewTask(new Task("Задача 2", "Описание", Status.NEW));
+        }
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory)) {
+            assertEquals(2, manager.getAllTasks().size());
+        }
+    }
+
+    @Test
+    @DisplayName("Запись после сбоя фонового сброса остаётся в журнале, хотя ошибка достаётся вызывающему")
+    void changeShouldStayQueuedAfterBackgroundFailure() throws InterruptedException {
+        try (FileBackedTaskManager manager = openFaulty(100, 20)) {
+            failingForces.set(1);
+            manager.addNewTask(new Task("Задача 1", "Описание", Status.NEW));
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (failingForces.get() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThrows(ManagerSaveException.class,
+                    () -> manager.addNewTask(new Task("Задача 2", "Описание", Status.NEW)));
+        }
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory)) {
+            assertEquals(2, manager.getAllTasks().size());
+        }
+    }
+
+    private FileBackedTaskManager openFaulty(int fsyncBatch) {
+        return openFaulty(fsyncBatch, 0);
+    }
+
+    private FileBackedTaskManager openFaulty(int fsyncBatch, long fsyncIntervalMillis) {
+        return new FileBackedTaskManager(directory, fsyncBatch, fsyncIntervalMillis, 0) {
+            @Override
+            protected FileChannel openChannel(Path path) throws IOException {
+                return new FaultyFileChannel(super.openChannel(path));
+            }
+        };
+    }
+
+    /**
+     * Канал журнала, у которого fsync падает, пока не исчерпан failingForces.
+     */
+    private class FaultyFileChannel extends FileChannel {
+        private final FileChannel channel;
+
+        FaultyFileChannel(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (failingForces.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                throw new IOException("Сбой fsync");
+            }
+            channel.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return channel.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return channel.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return channel.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return channel.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return channel.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+}
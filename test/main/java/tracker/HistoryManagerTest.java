@@ -0,0 +1,75 @@
+package main.java.tracker;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import main.java.tracker.util.Managers;
+
+import java.util.List;
+
+class HistoryManagerTest {
+
+    @Test
+    @DisplayName("Повторный просмотр переносит задачу в конец истории без дубликата")
+    void repeatedViewShouldMoveTaskToEnd() {
+        HistoryManager historyManager = Managers.getDefaultHistory();
+        Task task1 = task(1);
+        Task task2 = task(2);
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task1);
+        List<Task> history = historyManager.getHistory();
+        assertEquals(2, history.size());
+        assertEquals(task2.getId(), history.get(0).getId());
+        assertEquals(task1.getId(), history.get(1).getId());
+    }
+
+    @Test
+    @DisplayName("При переполнении вытесняется самый старый просмотр")
+    void shouldEvictOldestWhenFull() {
+        HistoryManager historyManager = Managers.getDefaultHistory(3);
+        for (int id = 1; id <= 5; id++) {
+            historyManager.add(task(id));
+        }
+        List<Task> history = historyManager.getHistory();
+        assertEquals(3, history.size());
+        assertEquals(3, history.get(0).getId());
+        assertEquals(5, history.get(2).getId());
+    }
+
+    @Test
+    @DisplayName("История сохраняет тип задачи")
+    void historyShouldPreserveTaskType() {
+        HistoryManager historyManager = Managers.getDefaultHistory();
+        Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+        epic.setId(1);
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.DONE, epic);
+        subtask.setId(2);
+        historyManager.add(epic);
+        historyManager.add(subtask);
+        List<Task> history = historyManager.getHistory();
+        assertTrue(history.get(0) instanceof Epic);
+        assertTrue(history.get(1) instanceof Subtask);
+        assertEquals(epic, ((Subtask) history.get(1)).getParentEpic());
+    }
+
+    @Test
+    @DisplayName("Удалённая из менеджера задача пропадает из истории")
+    void deletedTaskShouldDisappearFromHistory() {
+        TaskManager taskManager = Managers.getDefault();
+        Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+        taskManager.addNewTask(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epic);
+        taskManager.addNewTask(subtask);
+        taskManager.getTaskById(subtask.getId());
+        taskManager.getTaskById(epic.getId());
+        taskManager.deleteTaskOnId(epic.getId());
+        assertTrue(taskManager.getHistory().isEmpty());
+    }
+
+    private static Task task(int id) {
+        Task task = new Task("Задача " + id, "Описание", Status.NEW);
+        task.setId(id);
+        return task;
+    }
+}
@@ -0,0 +1,149 @@
+package main.java.tracker;
+
+import main.java.tracker.http.HttpTaskServer;
+import main.java.tracker.util.Managers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+class HttpTaskServerTest {
+    private TaskManager taskManager;
+    private HttpTaskServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        taskManager = Managers.getDefault();
+        server = new HttpTaskServer(taskManager, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @DisplayName("Задачи создаются, читаются, изменяются и удаляются по HTTP")
+    void shouldSupportCrudForTasks() throws Exception {
+        HttpResponse<String> created = send("POST", "/tasks",
+                "{\"title\": \"Задача \\\"1\\\"\", \"description\": \"Описание\\nвторая строка\"}");
+        assertEquals(201, created.statusCode());
+        assertEquals("{\"id\":1,\"type\":\"TASK\",\"title\":\"Задача \\\"1\\\"\","
+                + "\"description\":\"Описание\\nвторая строка\",\"status\":\"NEW\"}", created.body());
+        assertEquals("Задача \"1\"", taskManager.snapshot().getTaskById(1).getTitle());
+
+        HttpResponse<String> updated = send("POST", "/tasks",
+                "{\"id\": 1, \"title\": \"Задача\", \"description\": \"\", \"status\": \"DONE\"}");
+        assertEquals(200, updated.statusCode());
+        assertEquals(Status.DONE, taskManager.snapshot().getTaskById(1).getStatus());
+
+        assertEquals(200, send("GET", "/tasks/1", null).statusCode());
+        assertEquals(List.of(1), taskManager.getHistory().stream().map(Task::getId).toList());
+        assertEquals(404, send("GET", "/epics/1", null).statusCode());
+
+        assertEquals(200, send("DELETE", "/tasks/1", null).statusCode());
+        assertNull(taskManager.snapshot().getTaskById(1));
+        assertEquals(404, send("DELETE", "/tasks/1", null).statusCode());
+        assertEquals("[]", send("GET", "/tasks", null).body());
+    }
+
+    @Test
+    @DisplayName("Подзадачи привязываются к эпику, а его статус пересчитывается")
+    void shouldLinkSubtasksToEpic() throws Exception {
+        assertEquals(201, send("POST", "/epics", "{\"title\": \"Эпик\", \"description\": \"\"}").statusCode());
+        assertEquals(201, send("POST", "/subtasks",
+                "{\"title\": \"Первая\", \"description\": \"\", \"status\": \"DONE\", \"epicId\": 1}").statusCode());
+        assertEquals(201, send("POST", "/subtasks",
+                "{\"title\": \"Вторая\", \"description\": \"\", \"status\": \"NEW\", \"epicId\": 1}").statusCode());
+
+        String epic = send("GET", "/epics/1", null).body();
+        assertTrue(epic.contains("\"status\":\"IN_PROGRESS\""), epic);
+        assertTrue(epic.contains("\"subtaskIds\":[2,3]") || epic.contains("\"subtaskIds\":[3,2]"), epic);
+        String subtasks = send("GET", "/epics/1/subtasks", null).body();
+        assertTrue(subtasks.contains("\"title\":\"Первая\",\"description\":\"\",\"status\":\"DONE\",\"epicId\":1"),
+                subtasks);
+        assertEquals("[]", send("GET", "/subtasks?status=IN_PROGRESS", null).body());
+        assertTrue(send("GET", "/subtasks?status=DONE", null).body().contains("\"id\":2"));
+        assertEquals(404, send("POST", "/subtasks",
+                "{\"title\": \"Без эпика\", \"epicId\": 99}").statusCode());
+    }
+
+    @Test
+    @DisplayName("История просмотров отдаётся в порядке просмотра")
+    void shouldReturnHistory() throws Exception {
+        send("POST", "/tasks", "{\"title\": \"Первая\"}");
+        send("POST", "/tasks", "{\"title\": \"Вторая\"}");
+        send("GET", "/tasks/2", null);
+        send("GET", "/tasks/1", null);
+
+        String history = send("GET", "/history", null).body();
+        assertTrue(history.startsWith("[{\"id\":2,") && history.contains("},{\"id\":1,"), history);
+    }
+
+    @Test
+    @DisplayName("Задачи со временем отдаются по порядку начала, пересечение получает 406")
+    void shouldListPrioritizedTasks() throws Exception {
+        assertEquals(201, send("POST", "/tasks",
+                "{\"title\": \"Поздняя\", \"startTime\": \"2026-10-18T12:00\", \"duration\": 30}").statusCode());
+        HttpResponse<String> early = send("POST", "/tasks",
+                "{\"title\": \"Ранняя\", \"startTime\": \"2026-10-18T10:00\", \"duration\": 90}");
+        assertEquals(201, early.statusCode());
+        assertTrue(early.body().endsWith("\"startTime\":\"2026-10-18T10:00\",\"duration\":90}"), early.body());
+        send("POST", "/tasks", "{\"title\": \"Без времени\"}");
+
+        HttpResponse<String> overlapping = send("POST", "/tasks",
+                "{\"title\": \"Пересекается\", \"startTime\": \"2026-10-18T11:00\", \"duration\": 15}");
+        assertEquals(406, overlapping.statusCode());
+        assertEquals(400, send("POST", "/tasks", "{\"title\": \"Задача\", \"startTime\": \"завтра\"}").statusCode());
+
+        String prioritized = send("GET", "/prioritized", null).body();
+        assertTrue(prioritized.startsWith("[{\"id\":2,") && prioritized.contains("},{\"id\":1,")
+                && !prioritized.contains("\"id\":3"), prioritized);
+    }
+
+    @Test
+    @DisplayName("Неверные запросы получают 400, 404 и 405 с описанием ошибки")
+    void shouldRejectInvalidRequests() throws Exception {
+        HttpResponse<String> malformed = send("POST", "/tasks", "{\"title\": ");
+        assertEquals(400, malformed.statusCode());
+        assertTrue(malformed.body().startsWith("{\"error\":"), malformed.body());
+        assertEquals(400, send("POST", "/tasks", "{\"description\": \"без названия\"}").statusCode());
+        assertEquals(400, send("POST", "/tasks", "{\"title\": \"Задача\", \"status\": \"LATER\"}").statusCode());
+        assertEquals(400, send("GET", "/tasks/abc", null).statusCode());
+        assertEquals(404, send("POST", "/tasks", "{\"id\": 5, \"title\": \"Задача\"}").statusCode());
+        assertEquals(404, send("GET", "/unknown", null).statusCode());
+        assertEquals(405, send("PUT", "/tasks", "{}").statusCode());
+        assertEquals(405, send("POST", "/history", "{}").statusCode());
+    }
+
+    @Test
+    @DisplayName("Большой список отдаётся потоком и совпадает с доской")
+    void shouldStreamLargeLists() throws Exception {
+        for (int i = 0; i < 20_000; i++) {
+            taskManager.addNewTask(new Task("Задача " + i, "Описание", Status.NEW));
+        }
+        HttpResponse<String> response = send("GET", "/tasks", null);
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Transfer-Encoding").isPresent());
+        assertEquals(20_000, response.body().split("\"type\":\"TASK\"", -1).length - 1);
+    }
+}
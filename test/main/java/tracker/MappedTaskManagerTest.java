@@ -0,0 +1,121 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.InMemoryTaskManager;
+import main.java.tracker.managers.MappedSnapshot;
+import main.java.tracker.managers.MappedTaskManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.List;
+
+class MappedTaskManagerTest {
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private Epic epic;
+    private Subtask subtask1;
+    private Subtask subtask2;
+    private Task task;
+
+    @BeforeEach
+    @DisplayName("Подготовка снимка с эпиком, подзадачами и задачей")
+    void setUp() {
+        InMemoryTaskManager source = new InMemoryTaskManager();
+        epic = new Epic("Эпик", "Общее описание", Status.NEW);
+        source.addNewTask(epic);
+        subtask1 = new Subtask("Подзадача 1", "Общее описание", Status.DONE, epic);
+        subtask2 = new Subtask("Подзадача 2", "Общее описание", Status.NEW, epic);
+        source.addNewTask(subtask1);
+        source.addNewTask(subtask2);
+        task = new Task("Задача", null, Status.IN_PROGRESS);
+        source.addNewTask(task);
+        file = directory.resolve("board.snapshot");
+        MappedTaskManager.save(source, file);
+    }
+
+    @Test
+    @DisplayName("Задача загружается из снимка только при обращении")
+    void shouldLoadTasksLazily() {
+        MappedTaskManager manager = new MappedTaskManager(file);
+        assertEquals(0, manager.getLoadedCount());
+        Task loaded = manager.getTaskById(task.getId());
+        assertEquals(1, manager.getLoadedCount());
+        assertEquals("Задача", loaded.getTitle());
+        assertNull(loaded.getDescription());
+        assertEquals(Status.IN_PROGRESS, loaded.getStatus());
+    }
+
+    @Test
+    @DisplayName("Подзадачи эпика читаются по смежности в исходном порядке")
+    void shouldServeSubtasksOfEpic() {
+        MappedTaskManager manager = new MappedTaskManager(file);
+        List<Subtask> subtasks = manager.getSubtasksByEpic(epic.getId());
+        assertEquals(List.of(subtask1, subtask2), subtasks);
+        assertSame(manager.getTaskById(epic.getId()), subtasks.get(0).getParentEpic());
+        assertEquals(Status.IN_PROGRESS, subtasks.get(0).getParentEpic().getStatus());
+        assertEquals(3, manager.getLoadedCount());
+    }
+
+    @Test
+    @DisplayName("Сводки и вложенность эпиков подгружают эпики из снимка")
+    void hierarchyShouldLoadEpics() {
+        assertEquals(new EpicRollup(epic.getId(), new int[]{1, 0, 1}),
+                new MappedTaskManager(file).getEpicRollup(epic.getId()));
+
+        InMemoryTaskManager source = new InMemoryTaskManager();
+        Epic programme = new Epic("Программа", "", Status.NEW);
+        Epic project = new Epic("Проект", "", Status.NEW);
+        source.addNewTask(programme);
+        source.addNewTask(project);
+        source.addNewTask(new Subtask("Подзадача", "", Status.DONE, project));
+        Path nested = directory.resolve("nested.snapshot");
+        MappedTaskManager.save(source, nested);
+
+        MappedTaskManager manager = new MappedTaskManager(nested);
+        manager.setParentEpic(project.getId(), programme.getId());
+        assertEquals(List.of(project), manager.getChildEpics(programme.getId()));
+        assertEquals(programme, manager.getParentEpic(project.getId()));
+        assertEquals(1, manager.getEpicRollup(programme.getId()).getCount(Status.DONE));
+
+        MappedTaskManager fresh = new MappedTaskManager(nested);
+        assertEquals(List.of(), fresh.getChildEpics(programme.getId()));
+        assertNull(fresh.getParentEpic(project.getId()));
+        assertEquals(1, fresh.getEpicRollup(project.getId()).getTotal());
+    }
+
+    @Test
+    @DisplayName("Одинаковые строки хранятся в снимке один раз")
+    void shouldInternStrings() {
+        MappedSnapshot snapshot = MappedSnapshot.open(file);
+        int first = snapshot.indexOf(subtask1.getId());
+        int second = snapshot.indexOf(subtask2.getId());
+        assertSame(snapshot.description(first), snapshot.description(second));
+    }
+
+    @Test
+    @DisplayName("Изменения поверх снимка не затрагивают незагруженные задачи и сохраняются заново")
+    void shouldApplyChangesOnTopOfSnapshot() {
+        MappedTaskManager manager = new MappedTaskManager(file);
+        manager.deleteTaskOnId(subtask1.getId());
+        Task added = new Task("Новая", "Описание", Status.NEW);
+        manager.addNewTask(added);
+        assertEquals(5, added.getId());
+        assertThrows(IllegalArgumentException.class, () -> {
+            Task duplicate = new Task("Дубликат", "Описание", Status.NEW);
+            duplicate.setId(task.getId());
+            manager.addNewTask(duplicate);
+        });
+        Path copy = directory.resolve("copy.snapshot");
+        manager.save(copy);
+        MappedTaskManager reopened = new MappedTaskManager(copy);
+        assertEquals(4, reopened.getAllTasks().size());
+        assertEquals(List.of(subtask2), reopened.getSubtasksByEpic(epic.getId()));
+        assertEquals(Status.NEW, reopened.getTaskById(epic.getId()).getStatus());
+    }
+}
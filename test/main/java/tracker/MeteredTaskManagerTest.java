@@ -0,0 +1,129 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.InMemoryTaskManager;
+import main.java.tracker.managers.MeteredTaskManager;
+import main.java.tracker.metrics.MetricsSnapshot;
+import main.java.tracker.metrics.Operation;
+import main.java.tracker.metrics.TaskManagerMetrics;
+import main.java.tracker.util.Managers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+
+class MeteredTaskManagerTest {
+
+    private static MeteredTaskManager meteredEveryCall(TaskManagerMetrics metrics) {
+        return Managers.getMetered(new InMemoryTaskManager(
+                Managers.getMeteredHistory(Managers.getDefaultHistory(), metrics)), metrics);
+    }
+
+    @Test
+    @DisplayName("Метрики считают вызовы по операциям и типам задач")
+    void shouldCountOperationsByType() {
+        TaskManagerMetrics metrics = new TaskManagerMetrics(1);
+        TaskManager taskManager = meteredEveryCall(metrics);
+        Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+        taskManager.addNewTask(epic);
+        for (int i = 0; i < 3; i++) {
+            taskManager.addNewTask(new Subtask("Подзадача " + i, "Описание", Status.NEW, epic));
+        }
+        Task task = new Task("Задача", "Описание", Status.NEW);
+        taskManager.addNewTask(task);
+        task.setStatus(Status.DONE);
+        taskManager.updateTask(task);
+        taskManager.deleteTaskOnId(task.getId());
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.getOperation(Operation.ADD_EPIC).getCalls());
+        assertEquals(3, snapshot.getOperation(Operation.ADD_SUBTASK).getCalls());
+        assertEquals(3, snapshot.getOperation(Operation.ADD_SUBTASK).getSampled());
+        assertEquals(1, snapshot.getOperation(Operation.ADD_TASK).getCalls());
+        assertEquals(1, snapshot.getOperation(Operation.UPDATE_TASK).getCalls());
+        assertEquals(0, snapshot.getOperation(Operation.UPDATE_SUBTASK).getCalls());
+        assertEquals(1, snapshot.getOperation(Operation.DELETE_TASK).getCalls());
+        assertEquals(3, snapshot.getEpicFanOut().getMax());
+        assertEquals(3, snapshot.getEpicFanOut().getCount());
+        assertEquals(Operation.values().length, snapshot.getOperations().size());
+    }
+
+    @Test
+    @DisplayName("Метрики считают попадания поиска и повторные просмотры в истории")
+    void shouldTrackLookupAndHistoryHits() {
+        TaskManagerMetrics metrics = new TaskManagerMetrics(1);
+        TaskManager taskManager = meteredEveryCall(metrics);
+        Task first = new Task("Первая", "Описание", Status.NEW);
+        Task second = new Task("Вторая", "Описание", Status.NEW);
+        taskManager.addNewTask(first);
+        taskManager.addNewTask(second);
+
+        taskManager.getTaskById(first.getId());
+        taskManager.getTaskById(second.getId());
+        taskManager.getTaskById(first.getId());
+        taskManager.getTaskById(first.getId());
+        taskManager.getTaskById(1_000);
+        taskManager.getHistory();
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(5, snapshot.getOperation(Operation.GET_TASK_BY_ID).getCalls());
+        assertEquals(4, snapshot.getLookupHits());
+        assertEquals(1, snapshot.getLookupMisses());
+        assertEquals(4, snapshot.getHistoryAdds());
+        assertEquals(2, snapshot.getHistoryHits());
+        assertEquals(0.5, snapshot.getHistoryHitRate());
+        assertEquals(2, snapshot.getHistorySize().getMax());
+
+        metrics.reset();
+        assertEquals(0, metrics.snapshot().getOperation(Operation.GET_TASK_BY_ID).getCalls());
+        assertEquals(0, metrics.getHistoryHitRate());
+    }
+
+    @Test
+    @DisplayName("При выборке вызовы считаются все, а время — только у части")
+    void shouldSampleLatencyButCountEveryCall() {
+        MeteredTaskManager taskManager = Managers.getMetered();
+        Task task = new Task("Задача", "Описание", Status.NEW);
+        taskManager.addNewTask(task);
+        for (int i = 0; i < 10_000; i++) {
+            taskManager.getTaskById(task.getId());
+        }
+
+        MetricsSnapshot snapshot = taskManager.getMetrics().snapshot();
+        long sampled = snapshot.getOperation(Operation.GET_TASK_BY_ID).getSampled();
+        assertEquals(10_000, snapshot.getOperation(Operation.GET_TASK_BY_ID).getCalls());
+        assertTrue(sampled > 0 && sampled < 2_000, "замерено " + sampled);
+        assertEquals(10_000, snapshot.getOperation(Operation.HISTORY_ADD).getCalls());
+        assertEquals(1.0, snapshot.getHistoryHitRate(), 0.01);
+        assertEquals(task, taskManager.getHistory().get(0));
+    }
+
+    @Test
+    @DisplayName("Метрики доступны через JMX")
+    void shouldExposeMetricsThroughJmx() throws Exception {
+        TaskManagerMetrics metrics = new TaskManagerMetrics(1);
+        TaskManager taskManager = meteredEveryCall(metrics);
+        Task task = new Task("Задача", "Описание", Status.NEW);
+        taskManager.addNewTask(task);
+        taskManager.getTaskById(task.getId());
+        taskManager.getTaskById(task.getId());
+
+        ObjectName name = metrics.register("test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(2L, server.getAttribute(name, "LookupHits"));
+            assertEquals(0.5, server.getAttribute(name, "HistoryHitRate"));
+            CompositeData[] operations = (CompositeData[]) server.getAttribute(name, "Operations");
+            CompositeData lookup = operations[Operation.GET_TASK_BY_ID.ordinal()];
+            assertEquals("GET_TASK_BY_ID", lookup.get("name"));
+            assertEquals(2L, lookup.get("calls"));
+            assertThrows(IllegalStateException.class, () -> metrics.register("test"));
+        } finally {
+            metrics.unregister("test");
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+}
@@ -0,0 +1,156 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.InMemoryTaskManager;
+import main.java.tracker.managers.OffHeapTaskManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+class OffHeapTaskManagerTest {
+
+    @Test
+    @DisplayName("Задачи, эпики и подзадачи читаются из столбцов с теми же полями")
+    void shouldMaterializeStoredTasks() {
+        OffHeapTaskManager manager = new OffHeapTaskManager(4);
+        Epic epic = new Epic("Эпик", "Описание эпика", Status.NEW);
+        manager.addNewTask(epic);
+        Subtask subtask1 = new Subtask("Подзадача 1", null, Status.DONE, epic);
+        Subtask subtask2 = new Subtask("Подзадача 2", "Описание", Status.NEW, epic);
+        manager.addNewTask(subtask1);
+        manager.addNewTask(subtask2);
+        Task task = new Task("Задача", "Описание задачи", Status.IN_PROGRESS);
+        manager.addNewTask(task);
+
+        Task stored = manager.getTaskById(task.getId());
+        assertNotSame(task, stored);
+        assertEquals("Задача", stored.getTitle());
+        assertEquals("Описание задачи", stored.getDescription());
+        assertEquals(Status.IN_PROGRESS, stored.getStatus());
+
+        List<Subtask> subtasks = manager.getSubtasksByEpic(epic.getId());
+        assertEquals(List.of(subtask1, subtask2), subtasks);
+        assertNull(subtasks.get(0).getDescription());
+        assertSame(subtasks.get(0).getParentEpic(), subtasks.get(1).getParentEpic());
+        assertEquals(Status.IN_PROGRESS, manager.getTaskById(epic.getId()).getStatus());
+        assertEquals(List.of(task, epic), manager.getHistory());
+
+        manager.deleteTaskOnId(epic.getId());
+        assertEquals(List.of(task), manager.getAllTasks());
+        assertEquals(List.of(task), manager.getHistory());
+    }
+
+    @Test
+    @DisplayName("Случайные изменения дают то же состояние, что и InMemoryTaskManager")
+    void shouldMatchInMemoryManager() {
+        OffHeapTaskManager offHeap = new OffHeapTaskManager(16);
+        InMemoryTaskManager inMemory = new InMemoryTaskManager();
+        Random random = new Random(7);
+        Status[] statuses = Status.values();
+        List<Integer> epicIds = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            int dice = random.nextInt(10);
+            Status status = statuses[random.nextInt(statuses.length)];
+            String title = "Задача " + random.nextInt(50);
+            if (dice < 2 || epicIds.isEmpty()) {
+                Epic epic = new Epic(title, null, Status.NEW);
+                offHeap.addNewTask(epic);
+                Epic twin = new Epic(title, null, Status.NEW);
+                twin.setId(epic.getId());
+                inMemory.addNewTask(twin);
+                epicIds.add(epic.getId());
+            } else if (dice < 6) {
+                int epicId = epicIds.get(random.nextInt(epicIds.size()));
+                Epic epic = inMemory.getAllEpics().stream()
+                        .filter(e -> e.getId() == epicId).findFirst().orElse(null);
+                if (epic == null) {
+                    continue;
+                }
+                Subtask subtask = new Subtask(title, "Описание", status, epic);
+                offHeap.addNewTask(subtask);
+                Subtask twin = new Subtask(title, "Описание", status, epic);
+                twin.setId(subtask.getId());
+                inMemory.addNewTask(twin);
+            } else if (dice < 9) {
+                List<Subtask> subtasks = inMemory.getAllSubtasks();
+                if (subtasks.isEmpty()) {
+                    continue;
+                }
+                Subtask current = subtasks.get(random.nextInt(subtasks.size()));
+                List<Epic> epics = inMemory.getAllEpics();
+                Epic parent = random.nextInt(4) == 0 ? epics.get(random.nextInt(epics.size()))
+                        : current.getParentEpic();
+                Subtask update = new Subtask(title, current.getDescription(), status, parent);
+                update.setId(current.getId());
+                offHeap.updateTask(update);
+                inMemory.updateTask(update);
+            } else {
+                List<Task> all = inMemory.getAllTasks();
+                if (all.isEmpty()) {
+                    continue;
+                }
+                int id = all.get(random.nextInt(all.size())).getId();
+                offHeap.deleteTaskOnId(id);
+                inMemory.deleteTaskOnId(id);
+            }
+        }
+        assertEquals(describe(inMemory.getAllTasks()), describe(offHeap.getAllTasks()));
+        for (Epic epic : inMemory.getAllEpics()) {
+            assertEquals(describe(new ArrayList<>(epic.getSubtasks())),
+                    describe(new ArrayList<>(offHeap.getSubtasksByEpic(epic.getId()))));
+        }
+        for (Status status : statuses) {
+            for (TaskType type : TaskType.values()) {
+                assertEquals(inMemory.countByStatus(type, status), offHeap.countByStatus(type, status));
+                assertEquals(describe(inMemory.getTasksByStatus(type, status)),
+                        describe(offHeap.getTasksByStatus(type, status)));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Столбцы растут, а освобождённые строки переиспользуются")
+    void shouldGrowAndReuseRows() {
+        OffHeapTaskManager manager = new OffHeapTaskManager(16);
+        for (int i = 0; i < 10_000; i++) {
+            manager.addNewTask(new Task("Задача " + i, null, Status.NEW));
+        }
+        int grown = manager.getCapacity();
+        for (int id = 1; id <= 10_000; id += 2) {
+            manager.deleteTaskOnId(id);
+        }
+        for (int i = 0; i < 5_000; i++) {
+            manager.addNewTask(new Task("Новая задача " + i, null, Status.DONE));
+        }
+        assertEquals(10_000, manager.size());
+        assertEquals(grown, manager.getCapacity(), "Новые задачи должны занять освободившиеся строки");
+        assertEquals(5_000, manager.countByStatus(Status.DONE));
+        assertEquals(manager.getAllTasks().stream().map(Task::getId).sorted().collect(Collectors.toList()),
+                readAllPages(manager));
+    }
+
+    private static List<Integer> readAllPages(TaskManager manager) {
+        List<Integer> ids = new ArrayList<>();
+        TaskPage page;
+        int cursor = TaskPage.FIRST;
+        do {
+            page = manager.getTasksPage(cursor, 333);
+            page.getTasks().forEach(task -> ids.add(task.getId()));
+            cursor = page.getNextCursor();
+        } while (page.hasMore());
+        return ids;
+    }
+
+    private static List<String> describe(List<? extends Task> tasks) {
+        return tasks.stream()
+                .sorted(Comparator.comparingInt(Task::getId))
+                .map(task -> task + " " + (task instanceof Subtask && ((Subtask) task).getParentEpic() != null
+                        ? ((Subtask) task).getParentEpic().getId() : 0))
+                .collect(Collectors.toList());
+    }
+}
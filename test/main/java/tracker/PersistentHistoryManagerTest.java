@@ -0,0 +1,160 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.InMemoryHistoryManager;
+import main.java.tracker.managers.InMemoryTaskManager;
+import main.java.tracker.managers.PersistentHistoryManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class PersistentHistoryManagerTest {
+    private static final Duration MINUTE = Duration.ofMinutes(1);
+
+    /**
+     * Часы, которые двигает тест.
+     */
+    private static class TestClock extends Clock {
+        private long millis = 1_700_000_000_000L;
+
+        void advance(Duration duration) {
+            millis += duration.toMillis();
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static PersistentHistoryManager open(Path file, int logCapacity, TestClock clock) {
+        return new PersistentHistoryManager(file, logCapacity, new InMemoryHistoryManager(), clock,
+                MINUTE, 10, 8);
+    }
+
+    private static Task task(int id) {
+        Task task = new Task("Задача " + id, "Описание", Status.NEW);
+        task.setId(id);
+        return task;
+    }
+
+    @Test
+    @DisplayName("Просмотры переживают перезапуск, старые затираются по кругу")
+    void shouldKeepViewsAcrossSessions(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("views.log");
+        TestClock clock = new TestClock();
+        Instant first = clock.instant();
+        try (PersistentHistoryManager history = open(file, 4, clock)) {
+            history.add(task(1));
+            clock.advance(Duration.ofSeconds(1));
+            history.add(task(2));
+            assertEquals(List.of(task(1), task(2)), history.getHistory());
+        }
+        try (PersistentHistoryManager history = open(file, 1000, clock)) {
+            assertEquals(List.of(), history.getHistory());
+            assertEquals(List.of(new TaskView(2, first.plusSeconds(1)), new TaskView(1, first)),
+                    history.getHistory(10));
+
+            clock.advance(Duration.ofSeconds(1));
+            history.add(task(3));
+            history.add(task(1));
+            history.add(task(2));
+            assertEquals(List.of(2, 1, 3, 2), ids(history.getHistory(10)));
+            assertEquals(List.of(2, 1), ids(history.getHistory(2)));
+
+            history.remove(1);
+            assertEquals(List.of(2, 3), ids(history.getHistory(10)));
+            assertEquals(List.of(task(3), task(2)), history.getHistory());
+        }
+    }
+
+    @Test
+    @DisplayName("Самые просматриваемые задачи считаются по окну и восстанавливаются из журнала")
+    void shouldCountMostViewedByWindow(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("views.log");
+        TestClock clock = new TestClock();
+        try (PersistentHistoryManager history = open(file, 1000, clock)) {
+            view(history, 1, 5);
+            view(history, 2, 3);
+            clock.advance(Duration.ofMinutes(2));
+            view(history, 2, 4);
+            view(history, 3, 1);
+
+            assertEquals(List.of(new ViewCount(2, 4), new ViewCount(3, 1)), history.getMostViewed(MINUTE, 5));
+            assertEquals(List.of(new ViewCount(2, 7), new ViewCount(1, 5)),
+                    history.getMostViewed(Duration.ofMinutes(3), 2));
+            assertEquals(5, history.getViewCount(1, Duration.ofHours(1)));
+        }
+        try (PersistentHistoryManager history = open(file, 1000, clock)) {
+            assertEquals(List.of(new ViewCount(2, 7), new ViewCount(1, 5), new ViewCount(3, 1)),
+                    history.getMostViewed(Duration.ofMinutes(3), 5));
+            history.remove(2);
+            assertEquals(List.of(new ViewCount(1, 5), new ViewCount(3, 1)),
+                    history.getMostViewed(Duration.ofMinutes(3), 5));
+
+            clock.advance(Duration.ofMinutes(12));
+            assertEquals(List.of(), history.getMostViewed(Duration.ofHours(1), 5));
+            assertThrows(IllegalArgumentException.class, () -> history.getMostViewed(Duration.ZERO, 5));
+            assertThrows(IllegalArgumentException.class, () -> history.getHistory(0));
+        }
+    }
+
+    @Test
+    @DisplayName("Менеджер задач пишет просмотры getTaskById и удаления в журнал")
+    void shouldRecordViewsOfTaskManager(@TempDir Path directory) throws IOException {
+        TestClock clock = new TestClock();
+        try (PersistentHistoryManager history = open(directory.resolve("views.log"), 1000, clock)) {
+            TaskManager manager = new InMemoryTaskManager(history);
+            Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+            manager.addNewTask(epic);
+            Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epic);
+            manager.addNewTask(subtask);
+            for (int i = 0; i < 3; i++) {
+                manager.getTaskById(subtask.getId());
+            }
+            manager.getTaskById(epic.getId());
+
+            assertEquals(List.of(new ViewCount(subtask.getId(), 3), new ViewCount(epic.getId(), 1)),
+                    history.getMostViewed(MINUTE, 10));
+            manager.deleteTaskOnId(epic.getId());
+            assertEquals(List.of(), history.getMostViewed(MINUTE, 10));
+            assertEquals(List.of(), history.getHistory(10));
+            assertEquals(List.of(), manager.getHistory());
+        }
+    }
+
+    private static void view(PersistentHistoryManager history, int id, int times) {
+        for (int i = 0; i < times; i++) {
+            history.add(task(id));
+        }
+    }
+
+    private static List<Integer> ids(List<TaskView> views) {
+        return views.stream().map(TaskView::getTaskId).collect(Collectors.toList());
+    }
+}
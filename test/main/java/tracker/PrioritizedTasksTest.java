@@ -0,0 +1,313 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.ConcurrentTaskManager;
+import main.java.tracker.managers.FileBackedTaskManager;
+import main.java.tracker.managers.InMemoryTaskManager;
+import main.java.tracker.managers.MappedTaskManager;
+import main.java.tracker.managers.OffHeapTaskManager;
+import main.java.tracker.managers.ShardedTaskManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+class PrioritizedTasksTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 10, 18, 9, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Пересечения и порядок по времени совпадают с полным перебором во всех менеджерах")
+    void shouldMatchBruteForceInAllManagers() {
+        List<TaskManager> managers = List.of(new InMemoryTaskManager(), new OffHeapTaskManager(),
+                new ConcurrentTaskManager(), new ShardedTaskManager(4, 16, 10));
+        List<Map<Integer, Epic>> epics = new ArrayList<>();
+        for (int i = 0; i < managers.size(); i++) {
+            epics.add(new HashMap<>());
+        }
+        Map<Integer, int[]> intervals = new HashMap<>();
+        Map<Integer, Integer> parents = new HashMap<>();
+        List<Integer> ids = new ArrayList<>();
+        List<Integer> epicIds = new ArrayList<>();
+        Random random = new Random(19);
+        int nextId = 1;
+        for (int step = 0; step < 5_000; step++) {
+            int action = random.nextInt(20);
+            if (action < 1 || epicIds.isEmpty()) {
+                int id = nextId++;
+                for (int i = 0; i < managers.size(); i++) {
+                    Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+                    epic.setId(id);
+                    managers.get(i).addNewTask(epic);
+                    epics.get(i).put(id, epic);
+                }
+                epicIds.add(id);
+            } else if (action < 13) {
+                int id = nextId;
+                int[] interval = randomInterval(random);
+                Integer parentId = action < 6 ? epicIds.get(random.nextInt(epicIds.size())) : null;
+                boolean expected = interval == null || findOverlap(intervals, interval, id) == 0;
+                for (int i = 0; i < managers.size(); i++) {
+                    Task task = newTask(id, interval, parentId != null ? epics.get(i).get(parentId) : null);
+                    TaskManager manager = managers.get(i);
+                    assertEquals(expected, succeeds(() -> manager.addNewTask(task)), "менеджер " + i);
+                }
+                if (expected) {
+                    nextId++;
+                    ids.add(id);
+                    track(intervals, id, interval);
+                    if (parentId != null) {
+                        parents.put(id, parentId);
+                    }
+                }
+            } else if (action < 16 && !ids.isEmpty()) {
+                int id = ids.get(random.nextInt(ids.size()));
+                int[] interval = randomInterval(random);
+                Integer parentId = parents.get(id);
+                boolean expected = interval == null || findOverlap(intervals, interval, id) == 0;
+                for (int i = 0; i < managers.size(); i++) {
+                    Task task = newTask(id, interval, parentId != null ? epics.get(i).get(parentId) : null);
+                    TaskManager manager = managers.get(i);
+                    assertEquals(expected, succeeds(() -> manager.updateTask(task)), "менеджер " + i);
+                }
+                if (expected) {
+                    track(intervals, id, interval);
+                }
+            } else if (action < 18 && !ids.isEmpty()) {
+                int id = ids.remove(random.nextInt(ids.size()));
+                intervals.remove(id);
+                parents.remove(id);
+                for (TaskManager manager : managers) {
+                    manager.deleteTaskOnId(id);
+                }
+            } else if (action < 19 && epicIds.size() > 1) {
+                int epicId = epicIds.remove(random.nextInt(epicIds.size()));
+                parents.entrySet().removeIf(entry -> {
+                    if (entry.getValue() == epicId) {
+                        ids.remove(entry.getKey());
+                        intervals.remove(entry.getKey());
+                        return true;
+                    }
+                    return false;
+                });
+                for (int i = 0; i < managers.size(); i++) {
+                    managers.get(i).deleteTaskOnId(epicId);
+                    epics.get(i).remove(epicId);
+                }
+            } else {
+                int first = nextId;
+                int[] firstInterval = randomInterval(random);
+                int[] secondInterval = randomInterval(random);
+                Map<Integer, int[]> pending = new HashMap<>(intervals);
+                boolean expected = firstInterval == null || findOverlap(pending, firstInterval, first) == 0;
+                track(pending, first, firstInterval);
+                expected &= secondInterval == null || findOverlap(pending, secondInterval, first + 1) == 0;
+                for (TaskManager manager : managers) {
+                    TaskBatch batch = new TaskBatch()
+                            .add(newTask(first, firstInterval, null))
+                            .add(newTask(first + 1, secondInterval, null));
+                    assertEquals(expected, succeeds(() -> manager.applyBatch(batch)));
+                }
+                if (expected) {
+                    nextId += 2;
+                    ids.add(first);
+                    ids.add(first + 1);
+                    track(intervals, first, firstInterval);
+                    track(intervals, first + 1, secondInterval);
+                }
+            }
+            if (step % 250 == 0) {
+                assertSameSchedule(managers, intervals, parents, epicIds);
+            }
+        }
+        assertSameSchedule(managers, intervals, parents, epicIds);
+    }
+
+    @Test
+    @DisplayName("Окно эпика — от раннего начала до позднего конца подзадач, длительность — их сумма")
+    void epicWindowShouldFollowSubtasks() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+        manager.addNewTask(epic);
+        Subtask first = new Subtask("Первая", "Описание", Status.NEW, epic);
+        first.setStartTime(at(60));
+        first.setDuration(Duration.ofMinutes(60));
+        Subtask second = new Subtask("Вторая", "Описание", Status.NEW, epic);
+        second.setStartTime(at(240));
+        second.setDuration(Duration.ofMinutes(30));
+        manager.addNewTask(first);
+        manager.addNewTask(second);
+        manager.addNewTask(new Subtask("Без времени", "Описание", Status.NEW, epic));
+
+        assertEquals(at(60), epic.getStartTime());
+        assertEquals(at(270), epic.getEndTime());
+        assertEquals(Duration.ofMinutes(90), epic.getDuration());
+
+        second.setStartTime(at(180));
+        manager.updateTask(second);
+        assertEquals(at(210), epic.getEndTime());
+        assertThrows(TaskOverlapException.class, () -> {
+            first.setStartTime(at(200));
+            manager.updateTask(first);
+        });
+
+        manager.deleteTaskOnId(first.getId());
+        assertEquals(at(180), epic.getStartTime());
+        assertEquals(Duration.ofMinutes(30), epic.getDuration());
+        manager.deleteTaskOnId(second.getId());
+        assertNull(epic.getStartTime());
+        assertNull(epic.getEndTime());
+        assertEquals(List.of(), manager.getPrioritizedTasks());
+    }
+
+    @Test
+    @DisplayName("Пакет с пересечением не применяется целиком, освобождённое пакетом время доступно")
+    void batchShouldBeCheckedBeforeChanges() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Task existing = newTask(0, new int[]{0, 60}, null);
+        manager.addNewTask(existing);
+
+        TaskBatch overlapping = new TaskBatch()
+                .add(newTask(0, new int[]{120, 180}, null))
+                .add(newTask(0, new int[]{150, 160}, null));
+        assertThrows(TaskOverlapException.class, () -> manager.applyBatch(overlapping));
+        assertEquals(1, manager.getAllTasks().size());
+
+        manager.applyBatch(new TaskBatch()
+                .delete(existing.getId())
+                .add(newTask(0, new int[]{30, 90}, null)));
+        assertEquals(List.of(at(30)), manager.getPrioritizedTasks().stream()
+                .map(Task::getStartTime).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Время задач переживает перезапуск и снимок MappedSnapshot")
+    void timeShouldSurvivePersistence() {
+        Path snapshot = directory.resolve("board.snapshot");
+        List<Integer> expected;
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory.resolve("wal"))) {
+            Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+            manager.addNewTask(epic);
+            manager.addNewTask(newTask(0, new int[]{300, 330}, epic));
+            manager.addNewTask(newTask(0, new int[]{100, 100}, null));
+            manager.addNewTask(newTask(0, null, null));
+            manager.compact();
+            manager.addNewTask(newTask(0, new int[]{200, 260}, epic));
+            expected = ids(manager.getPrioritizedTasks());
+            MappedTaskManager.save(manager, snapshot);
+        }
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory.resolve("wal"))) {
+            assertEquals(expected, ids(manager.getPrioritizedTasks()));
+            assertEquals(at(330), manager.getAllEpics().get(0).getEndTime());
+            assertEquals(Duration.ZERO, manager.getTaskById(3).getDuration());
+        }
+        MappedTaskManager mapped = new MappedTaskManager(snapshot);
+        assertEquals(at(200), mapped.getTaskById(5).getStartTime());
+        assertThrows(TaskOverlapException.class, () -> mapped.addNewTask(newTask(0, new int[]{320, 340}, null)));
+        assertEquals(expected, ids(mapped.getPrioritizedTasks()));
+    }
+
+    private static void assertSameSchedule(List<TaskManager> managers, Map<Integer, int[]> intervals,
+                                           Map<Integer, Integer> parents, List<Integer> epicIds) {
+        List<Integer> expected = intervals.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<Integer, int[]>>comparingInt(entry -> entry.getValue()[0])
+                        .thenComparingInt(entry -> entry.getValue()[1])
+                        .thenComparingInt(Map.Entry::getKey))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+        for (TaskManager manager : managers) {
+            assertEquals(expected, ids(manager.getPrioritizedTasks()), manager.getClass().getSimpleName());
+            for (int epicId : epicIds) {
+                Epic epic = (Epic) manager.getTaskById(epicId);
+                int start = Integer.MAX_VALUE;
+                int end = Integer.MIN_VALUE;
+                int duration = 0;
+                for (Map.Entry<Integer, Integer> entry : parents.entrySet()) {
+                    int[] interval = intervals.get(entry.getKey());
+                    if (entry.getValue() == epicId && interval != null) {
+                        start = Math.min(start, interval[0]);
+                        end = Math.max(end, interval[1]);
+                        duration += interval[1] - interval[0];
+                    }
+                }
+                String name = manager.getClass().getSimpleName() + " " + epicId;
+                assertEquals(start == Integer.MAX_VALUE ? null : at(start), epic.getStartTime(), name);
+                assertEquals(end == Integer.MIN_VALUE ? null : at(end), epic.getEndTime(), name);
+                if (start != Integer.MAX_VALUE) {
+                    assertEquals(Duration.ofMinutes(duration), epic.getDuration(), name);
+                }
+            }
+        }
+    }
+
+    private static int findOverlap(Map<Integer, int[]> intervals, int[] interval, int id) {
+        for (Map.Entry<Integer, int[]> entry : intervals.entrySet()) {
+            int[] other = entry.getValue();
+            if (entry.getKey() != id && other[0] < interval[1] && interval[0] < other[1]) {
+                return entry.getKey();
+            }
+        }
+        return 0;
+    }
+
+    private static void track(Map<Integer, int[]> intervals, int id, int[] interval) {
+        if (interval != null) {
+            intervals.put(id, interval);
+        } else {
+            intervals.remove(id);
+        }
+    }
+
+    /**
+     * Интервал в минутах от BASE либо null — задача без времени.
+     */
+    private static int[] randomInterval(Random random) {
+        if (random.nextInt(5) == 0) {
+            return null;
+        }
+        int start = random.nextInt(3_000);
+        return new int[]{start, start + random.nextInt(40)};
+    }
+
+    private static Task newTask(int id, int[] interval, Epic parent) {
+        Task task = parent != null ? new Subtask("Подзадача", "Описание", Status.NEW, parent)
+                : new Task("Задача", "Описание", Status.NEW);
+        if (id != 0) {
+            task.setId(id);
+        }
+        if (interval != null) {
+            task.setStartTime(at(interval[0]));
+            task.setDuration(Duration.ofMinutes(interval[1] - interval[0]));
+        }
+        return task;
+    }
+
+    private static boolean succeeds(Runnable action) {
+        try {
+            action.run();
+            return true;
+        } catch (TaskOverlapException e) {
+            return false;
+        }
+    }
+
+    private static LocalDateTime at(int minutes) {
+        return BASE.plusMinutes(minutes);
+    }
+
+    private static List<Integer> ids(List<? extends Task> tasks) {
+        return tasks.stream().map(Task::getId).collect(Collectors.toList());
+    }
+}
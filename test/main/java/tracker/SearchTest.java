@@ -0,0 +1,163 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.ConcurrentTaskManager;
+import main.java.tracker.managers.InMemoryTaskManager;
+import main.java.tracker.managers.OffHeapTaskManager;
+import main.java.tracker.managers.ShardedTaskManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+class SearchTest {
+    private static final String[] WORDS = {"Отчёт", "отчетность", "релиз", "Release", "сборка", "сбор", "client",
+            "клиент", "ошибка", "2026", "v2"};
+
+    @Test
+    @DisplayName("Поиск не различает регистр и ё/е, понимает префиксы и требует все слова")
+    void shouldMatchWordsAndPrefixes() {
+        TaskManager manager = new InMemoryTaskManager();
+        Task report = new Task("Квартальный ОТЧЁТ", "Собрать цифры для клиента", Status.NEW);
+        Task release = new Task("Release 2.0", "Сборка и отчет о релизе", Status.NEW);
+        Task other = new Task("Купить молоко", null, Status.NEW);
+        manager.addNewTask(report);
+        manager.addNewTask(release);
+        manager.addNewTask(other);
+
+        assertEquals(List.of(report, release), manager.search("отчет", 10));
+        assertEquals(List.of(release), manager.search("relea отч", 10));
+        assertEquals(List.of(report), manager.search("КЛИЕНТ", 10));
+        assertEquals(List.of(report), manager.search("отчёт", 1));
+        assertEquals(List.of(), manager.search("отчет молоко", 10));
+        assertEquals(List.of(), manager.search("  ,.!", 10));
+        assertThrows(IllegalArgumentException.class, () -> manager.search("отчет", 0));
+    }
+
+    @Test
+    @DisplayName("Изменение и удаление задачи убирают её старые слова из индекса")
+    void shouldFollowUpdatesAndDeletes() {
+        TaskManager manager = new InMemoryTaskManager();
+        Epic epic = new Epic("Миграция базы", "", Status.NEW);
+        manager.addNewTask(epic);
+        Subtask subtask = new Subtask("Бэкап базы", "", Status.NEW, epic);
+        manager.addNewTask(subtask);
+        assertEquals(List.of(epic, subtask), manager.search("базы", 10));
+
+        Epic renamed = new Epic("Переезд сервера", "", Status.NEW);
+        renamed.setId(epic.getId());
+        manager.updateTask(renamed);
+        assertEquals(List.of(subtask), manager.search("базы", 10));
+        assertEquals(List.of(renamed), manager.search("переезд", 10));
+
+        manager.deleteTaskOnId(renamed.getId());
+        assertEquals(List.of(), manager.search("бэкап", 10));
+        assertEquals(List.of(), manager.search("переезд", 10));
+    }
+
+    @Test
+    @DisplayName("Удалённый эпик не занимает места в выдаче")
+    void deletedEpicsShouldLeaveIndex() {
+        for (TaskManager manager : List.of(new InMemoryTaskManager(), new ConcurrentTaskManager())) {
+            Epic first = new Epic("Альфа", "альфа", Status.NEW);
+            Epic second = new Epic("Альфа", "альфа", Status.NEW);
+            Task live = new Task("Альфа", "альфа", Status.NEW);
+            manager.addNewTask(first);
+            manager.addNewTask(second);
+            manager.addNewTask(new Subtask("Альфа", "", Status.NEW, second));
+            manager.addNewTask(live);
+            manager.deleteTaskOnId(first.getId());
+            manager.deleteTaskOnId(second.getId());
+
+            assertEquals(List.of(live), manager.search("альфа", 1), manager.getClass().getSimpleName());
+            assertEquals(List.of(live), manager.search("альфа", 10), manager.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    @DisplayName("Выдача всех менеджеров совпадает с полным перебором при случайных изменениях")
+    void shouldMatchBruteForceInAllManagers() {
+        List<TaskManager> managers = List.of(new InMemoryTaskManager(), new OffHeapTaskManager(),
+                new ConcurrentTaskManager(), new ShardedTaskManager(4, 16, 10));
+        Map<Integer, String> texts = new HashMap<>();
+        List<Integer> ids = new ArrayList<>();
+        Random random = new Random(23);
+        int nextId = 1;
+        for (int step = 0; step < 3_000; step++) {
+            int action = random.nextInt(10);
+            if (action < 5 || ids.isEmpty()) {
+                int id = nextId++;
+                String title = sentence(random);
+                String description = sentence(random);
+                for (TaskManager manager : managers) {
+                    Task task = new Task(title, description, Status.NEW);
+                    task.setId(id);
+                    manager.addNewTask(task);
+                }
+                ids.add(id);
+                texts.put(id, title + " " + description);
+            } else if (action < 8) {
+                int id = ids.get(random.nextInt(ids.size()));
+                String title = sentence(random);
+                for (TaskManager manager : managers) {
+                    Task task = new Task(title, null, Status.DONE);
+                    task.setId(id);
+                    manager.updateTask(task);
+                }
+                texts.put(id, title);
+            } else {
+                int id = ids.remove(random.nextInt(ids.size()));
+                for (TaskManager manager : managers) {
+                    manager.deleteTaskOnId(id);
+                }
+                texts.remove(id);
+            }
+            if (step % 100 == 0) {
+                String query = WORDS[random.nextInt(WORDS.length)];
+                if (random.nextBoolean()) {
+                    query = query.substring(0, 1 + random.nextInt(query.length()));
+                }
+                Set<Integer> expected = bruteForce(texts, query);
+                for (TaskManager manager : managers) {
+                    Set<Integer> actual = manager.search(query, Integer.MAX_VALUE).stream()
+                            .map(Task::getId).collect(Collectors.toSet());
+                    assertEquals(expected, actual, manager.getClass().getSimpleName() + " " + query);
+                    assertEquals(Math.min(3, expected.size()), manager.search(query, 3).size());
+                }
+            }
+        }
+    }
+
+    private static Set<Integer> bruteForce(Map<Integer, String> texts, String query) {
+        String prefix = normalize(query);
+        Set<Integer> found = new HashSet<>();
+        for (Map.Entry<Integer, String> entry : texts.entrySet()) {
+            for (String word : entry.getValue().split(" ")) {
+                if (normalize(word).startsWith(prefix)) {
+                    found.add(entry.getKey());
+                }
+            }
+        }
+        return found;
+    }
+
+    private static String normalize(String word) {
+        return word.toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+
+    private static String sentence(Random random) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = random.nextInt(4); i >= 0; i--) {
+            sentence.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return sentence.toString().trim();
+    }
+}
@@ -0,0 +1,267 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.InMemoryTaskManager;
+import main.java.tracker.managers.ShardedTaskManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+class ShardedTaskManagerTest {
+    private static final int THREADS = 8;
+
+    @Test
+    @DisplayName("Сегментированный менеджер совпадает с обычным при случайных операциях")
+    void shouldMatchInMemoryManager() {
+        ShardedTaskManager sharded = new ShardedTaskManager(4, 16, 10);
+        InMemoryTaskManager expected = new InMemoryTaskManager();
+        Map<Integer, Epic> shardedEpics = new HashMap<>();
+        Map<Integer, Epic> expectedEpics = new HashMap<>();
+        List<Integer> ids = new ArrayList<>();
+        Random random = new Random(17);
+        for (int step = 0; step < 20_000; step++) {
+            int action = random.nextInt(10);
+            Status status = Status.values()[random.nextInt(3)];
+            if (action < 2 || ids.isEmpty()) {
+                Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+                sharded.addNewTask(epic);
+                Epic copy = new Epic("Эпик", "Описание", Status.NEW);
+                copy.setId(epic.getId());
+                expected.addNewTask(copy);
+                shardedEpics.put(epic.getId(), epic);
+                expectedEpics.put(epic.getId(), copy);
+                ids.add(epic.getId());
+            } else if (action < 5 && !shardedEpics.isEmpty()) {
+                int epicId = randomEpic(shardedEpics, random);
+                Subtask subtask = new Subtask("Подзадача", "Описание", status, shardedEpics.get(epicId));
+                sharded.addNewTask(subtask);
+                Subtask copy = new Subtask("Подзадача", "Описание", status, expectedEpics.get(epicId));
+                copy.setId(subtask.getId());
+                expected.addNewTask(copy);
+                ids.add(subtask.getId());
+            } else if (action < 7) {
+                int id = ids.get(random.nextInt(ids.size()));
+                Task current = expected.getTaskById(id);
+                sharded.getTaskById(id);
+                if (current instanceof Subtask && !shardedEpics.isEmpty()) {
+                    int epicId = random.nextBoolean() ? randomEpic(shardedEpics, random)
+                            : ((Subtask) current).getParentEpic().getId();
+                    Subtask moved = new Subtask("Изменена", "Описание", status, shardedEpics.get(epicId));
+                    moved.setId(id);
+                    sharded.updateTask(moved);
+                    Subtask copy = new Subtask("Изменена", "Описание", status, expectedEpics.get(epicId));
+                    copy.setId(id);
+                    expected.updateTask(copy);
+                }
+            } else if (action < 8) {
+                Task task = new Task("Задача", "Описание", status);
+                sharded.addNewTask(task);
+                Task copy = new Task("Задача", "Описание", status);
+                copy.setId(task.getId());
+                expected.addNewTask(copy);
+                ids.add(task.getId());
+            } else {
+                int id = ids.remove(random.nextInt(ids.size()));
+                sharded.deleteTaskOnId(id);
+                expected.deleteTaskOnId(id);
+                shardedEpics.remove(id);
+                expectedEpics.remove(id);
+                Set<Integer> remaining = new HashSet<>(ids(expected.getAllTasks()));
+                ids.retainAll(remaining);
+            }
+        }
+        assertEquals(describe(expected.getAllTasks()), describe(sharded.getAllTasks()));
+        assertEquals(describe(expected.getAllTasks()), describe(sharded.snapshot().getAllTasks()));
+        assertEquals(ids(expected.getHistory()), ids(sharded.getHistory()));
+        for (Status status : Status.values()) {
+            assertEquals(expected.countByStatus(status), sharded.countByStatus(status));
+            for (int epicId : expectedEpics.keySet()) {
+                assertEquals(expected.countSubtasksByEpic(epicId, status), sharded.countSubtasksByEpic(epicId, status));
+            }
+        }
+        for (int epicId : expectedEpics.keySet()) {
+            assertEquals(describe(new ArrayList<>(expected.getSubtasksByEpic(epicId))),
+                    describe(new ArrayList<>(sharded.getSubtasksByEpic(epicId))));
+        }
+        List<Task> paged = new ArrayList<>();
+        TaskPage page = sharded.getTasksPage(TaskPage.FIRST, 37);
+        paged.addAll(page.getTasks());
+        while (page.hasMore()) {
+            page = sharded.getTasksPage(page.getNextCursor(), 37);
+            paged.addAll(page.getTasks());
+        }
+        List<Integer> expectedIds = ids(expected.getAllTasks());
+        expectedIds.sort(Integer::compare);
+        assertEquals(expectedIds, ids(paged));
+    }
+
+    @Test
+    @DisplayName("Подзадачи эпика живут в его сегменте, задачи расходятся по сегментам")
+    void shouldPartitionByEpic() {
+        ShardedTaskManager taskManager = new ShardedTaskManager(8);
+        Set<Integer> usedShards = new HashSet<>();
+        for (int e = 0; e < 64; e++) {
+            Epic epic = new Epic("Эпик " + e, "Описание", Status.NEW);
+            taskManager.addNewTask(epic);
+            usedShards.add(shardOf(taskManager, epic.getId()));
+            for (int s = 0; s < 3; s++) {
+                Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epic);
+                taskManager.addNewTask(subtask);
+                assertEquals(shardOf(taskManager, epic.getId()), shardOf(taskManager, subtask.getId()));
+            }
+        }
+        assertTrue(usedShards.size() > 4, "сегменты эпиков: " + usedShards);
+    }
+
+    @Test
+    @DisplayName("Задачи с явными ID находятся, удаляются и не дублируются")
+    void shouldRouteExplicitIds() {
+        ShardedTaskManager taskManager = new ShardedTaskManager(4, 8, 10);
+        Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+        epic.setId(1_000);
+        taskManager.addNewTask(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.DONE, epic);
+        subtask.setId(3);
+        taskManager.addNewTask(subtask);
+        Task task = new Task("Задача", "Описание", Status.NEW);
+        taskManager.addNewTask(task);
+
+        assertEquals(shardOf(taskManager, 1_000), shardOf(taskManager, 3));
+        assertEquals(subtask, taskManager.getTaskById(3));
+        assertEquals(Status.DONE, epic.getStatus());
+        assertNotEquals(3, task.getId());
+        Task duplicate = new Task("Дубликат", "Описание", Status.NEW);
+        duplicate.setId(3);
+        assertThrows(IllegalArgumentException.class, () -> taskManager.addNewTask(duplicate));
+
+        taskManager.deleteTaskOnId(1_000);
+        assertNull(taskManager.getTaskById(3));
+        assertEquals(1, taskManager.getAllTasks().size());
+        Task reused = new Task("Повтор", "Описание", Status.NEW);
+        reused.setId(3);
+        taskManager.addNewTask(reused);
+        assertEquals(reused, taskManager.getTaskById(3));
+    }
+
+    @Test
+    @DisplayName("Общая история упорядочена по просмотрам во всех сегментах")
+    void shouldMergeHistoryAcrossShards() {
+        ShardedTaskManager taskManager = new ShardedTaskManager(4, 1, 3);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Task task = new Task("Задача " + i, "Описание", Status.NEW);
+            taskManager.addNewTask(task);
+            tasks.add(task);
+        }
+        for (int i : new int[]{0, 5, 2, 7, 5, 1}) {
+            taskManager.getTaskById(tasks.get(i).getId());
+        }
+        assertEquals(List.of(tasks.get(7).getId(), tasks.get(5).getId(), tasks.get(1).getId()),
+                ids(taskManager.getHistory()));
+    }
+
+    @Test
+    @DisplayName("Пакет с занятым ID не меняет ни один сегмент")
+    void shouldApplyBatchAtomically() {
+        ShardedTaskManager taskManager = new ShardedTaskManager(4);
+        Task existing = new Task("Задача", "Описание", Status.NEW);
+        taskManager.addNewTask(existing);
+        Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+        Task duplicate = new Task("Дубликат", "Описание", Status.NEW);
+        duplicate.setId(existing.getId());
+        TaskBatch failing = new TaskBatch().add(epic).add(new Subtask("Подзадача", "", Status.NEW, epic)).add(duplicate);
+        assertThrows(IllegalArgumentException.class, () -> taskManager.applyBatch(failing));
+        assertEquals(1, taskManager.getAllTasks().size());
+        assertEquals(0, epic.getId());
+
+        Epic second = new Epic("Эпик", "Описание", Status.NEW);
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.DONE, second);
+        TaskSnapshot before = taskManager.snapshot();
+        taskManager.applyBatch(new TaskBatch().add(second).add(subtask).delete(existing.getId()));
+        assertEquals(shardOf(taskManager, second.getId()), shardOf(taskManager, subtask.getId()));
+        assertEquals(Status.DONE, taskManager.snapshot().getTaskById(second.getId()).getStatus());
+        assertNotNull(before.getTaskById(existing.getId()));
+        assertNull(taskManager.snapshot().getTaskById(existing.getId()));
+        assertEquals(2, taskManager.getAllTasks().size());
+    }
+
+    @Test
+    @DisplayName("Параллельные писатели разных эпиков получают уникальные ID и согласованные статусы")
+    void shouldHandleConcurrentWritersOfDifferentEpics() throws Exception {
+        ShardedTaskManager taskManager = new ShardedTaskManager(4, 32, 10);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<Task>>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<Task> created = new ArrayList<>();
+                    for (int e = 0; e < 50; e++) {
+                        Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+                        taskManager.addNewTask(epic);
+                        created.add(epic);
+                        for (int s = 0; s < 10; s++) {
+                            Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epic);
+                            taskManager.addNewTask(subtask);
+                            subtask.setStatus(Status.DONE);
+                            taskManager.updateTask(subtask);
+                            taskManager.getTaskById(subtask.getId());
+                            created.add(subtask);
+                        }
+                    }
+                    return created;
+                }));
+            }
+            start.countDown();
+            Set<Integer> ids = new HashSet<>();
+            for (Future<List<Task>> future : futures) {
+                for (Task task : future.get()) {
+                    assertTrue(ids.add(task.getId()), "Повторный ID: " + task.getId());
+                    if (task instanceof Epic) {
+                        assertEquals(Status.DONE, task.getStatus());
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(THREADS * 550, taskManager.getAllTasks().size());
+        assertEquals(THREADS * 550, taskManager.countByStatus(Status.DONE));
+        assertEquals(10, taskManager.getHistory().size());
+    }
+
+    private static int shardOf(ShardedTaskManager taskManager, int id) {
+        return taskManager.shardOf(id);
+    }
+
+    private static int randomEpic(Map<Integer, Epic> epics, Random random) {
+        List<Integer> keys = new ArrayList<>(epics.keySet());
+        return keys.get(random.nextInt(keys.size()));
+    }
+
+    private static List<Integer> ids(List<? extends Task> tasks) {
+        return tasks.stream().map(Task::getId).collect(Collectors.toList());
+    }
+
+    private static List<String> describe(List<? extends Task> tasks) {
+        return tasks.stream()
+                .sorted(Comparator.comparingInt(Task::getId))
+                .map(task -> task.getClass().getSimpleName() + task.getId() + task.getStatus()
+                        + (task instanceof Subtask ? "@" + ((Subtask) task).getParentEpic().getId() : ""))
+                .collect(Collectors.toList());
+    }
+}
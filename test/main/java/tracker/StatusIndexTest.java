@@ -0,0 +1,140 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.ConcurrentTaskManager;
+import main.java.tracker.managers.InMemoryTaskManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+class StatusIndexTest {
+
+    @Test
+    @DisplayName("Выборки по статусу следуют за добавлением, обновлением и удалением")
+    void indexFollowsChanges() {
+        checkIndexFollowsChanges(new InMemoryTaskManager());
+        checkIndexFollowsChanges(new ConcurrentTaskManager());
+    }
+
+    private void checkIndexFollowsChanges(TaskManager manager) {
+        Task task = new Task("Задача", null, Status.NEW);
+        manager.addNewTask(task);
+        Epic epic = new Epic("Эпик", null, Status.NEW);
+        manager.addNewTask(epic);
+        Subtask subtask1 = new Subtask("Подзадача 1", null, Status.NEW, epic);
+        Subtask subtask2 = new Subtask("Подзадача 2", null, Status.NEW, epic);
+        manager.addNewTask(subtask1);
+        manager.addNewTask(subtask2);
+
+        assertEquals(4, manager.countByStatus(Status.NEW));
+        assertEquals(2, manager.countByStatus(TaskType.SUBTASK, Status.NEW));
+        assertEquals(1, manager.countByType(TaskType.EPIC));
+
+        subtask1.setStatus(Status.DONE);
+        manager.updateTask(subtask1);
+        assertEquals(List.of(subtask1), manager.getTasksByStatus(Status.DONE));
+        assertEquals(List.of(epic), manager.getTasksByStatus(TaskType.EPIC, Status.IN_PROGRESS),
+                "Эпик должен переехать в индексе вслед за выведенным статусом");
+        assertEquals(List.of(subtask1), manager.getSubtasksByEpic(epic.getId(), Status.DONE));
+        assertEquals(1, manager.countSubtasksByEpic(epic.getId(), Status.NEW));
+
+        Task replacement = new Task("Задача", null, Status.IN_PROGRESS);
+        replacement.setId(task.getId());
+        manager.updateTask(replacement);
+        assertEquals(0, manager.countByStatus(TaskType.TASK, Status.NEW));
+        assertEquals(2, manager.countByStatus(Status.IN_PROGRESS));
+
+        manager.deleteTaskOnId(subtask2.getId());
+        assertEquals(List.of(epic), manager.getTasksByStatus(TaskType.EPIC, Status.DONE));
+        assertEquals(0, manager.countByStatus(TaskType.SUBTASK, Status.NEW));
+
+        manager.deleteTaskOnId(epic.getId());
+        assertEquals(List.of(replacement), manager.getTasksByStatus(Status.IN_PROGRESS));
+        assertEquals(0, manager.countByStatus(Status.DONE));
+        assertEquals(0, manager.countByStatus(Status.NEW));
+        assertTrue(manager.getSubtasksByEpic(epic.getId(), Status.DONE).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Замена эпика и перенос подзадачи сохраняют индексы")
+    void replaceEpicAndMoveSubtask() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        manager.setStatusConsistencyCheck(true);
+        Epic first = new Epic("Эпик 1", null, Status.NEW);
+        Epic second = new Epic("Эпик 2", null, Status.NEW);
+        manager.addNewTask(first);
+        manager.addNewTask(second);
+        Subtask subtask = new Subtask("Подзадача", null, Status.DONE, first);
+        manager.addNewTask(subtask);
+
+        Epic renamed = new Epic("Эпик 1 (новое имя)", null, Status.NEW);
+        renamed.setId(first.getId());
+        manager.updateTask(renamed);
+        assertEquals(List.of(renamed), manager.getTasksByStatus(TaskType.EPIC, Status.DONE));
+
+        Subtask moved = new Subtask("Подзадача", null, Status.IN_PROGRESS, second);
+        moved.setId(subtask.getId());
+        manager.updateTask(moved);
+        assertEquals(List.of(renamed), manager.getTasksByStatus(TaskType.EPIC, Status.NEW));
+        assertEquals(List.of(second), manager.getTasksByStatus(TaskType.EPIC, Status.IN_PROGRESS));
+        assertEquals(List.of(moved), manager.getSubtasksByEpic(second.getId(), Status.IN_PROGRESS));
+        assertEquals(0, manager.countSubtasksByEpic(renamed.getId(), Status.DONE));
+    }
+
+    @Test
+    @DisplayName("Индекс ConcurrentTaskManager согласован с задачами после параллельных обновлений")
+    void concurrentIndexIsConsistent() throws Exception {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager(8);
+        List<Subtask> all = new ArrayList<>();
+        for (int e = 0; e < 16; e++) {
+            Epic epic = new Epic("Эпик " + e, null, Status.NEW);
+            manager.addNewTask(epic);
+            for (int s = 0; s < 8; s++) {
+                Subtask subtask = new Subtask("Подзадача " + s, null, Status.NEW, epic);
+                manager.addNewTask(subtask);
+                all.add(subtask);
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        Status[] statuses = Status.values();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 5_000; i++) {
+                    Subtask current = all.get(random.nextInt(all.size()));
+                    Subtask update = new Subtask(current.getTitle(), null, statuses[random.nextInt(statuses.length)],
+                            current.getParentEpic());
+                    update.setId(current.getId());
+                    manager.updateTask(update);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        for (Status status : statuses) {
+            for (TaskType type : TaskType.values()) {
+                List<Integer> expected = manager.getAllTasks().stream()
+                        .filter(task -> TaskType.of(task) == type && task.getStatus() == status)
+                        .map(Task::getId).sorted().collect(Collectors.toList());
+                assertEquals(expected, ids(manager.getTasksByStatus(type, status)), type + " " + status);
+            }
+        }
+    }
+
+    private static List<Integer> ids(List<? extends Task> tasks) {
+        return tasks.stream().map(Task::getId).sorted().collect(Collectors.toList());
+    }
+}
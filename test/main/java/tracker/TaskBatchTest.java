@@ -0,0 +1,98 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.ConcurrentTaskManager;
+import main.java.tracker.managers.InMemoryTaskManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+class TaskBatchTest {
+
+    @Test
+    @DisplayName("Пакет создаёт, обновляет и удаляет задачи, статус эпика считается в конце")
+    void batchAppliesAllOperations() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        manager.setStatusConsistencyCheck(true);
+        checkBatchAppliesAllOperations(manager);
+        checkBatchAppliesAllOperations(new ConcurrentTaskManager());
+    }
+
+    private void checkBatchAppliesAllOperations(TaskManager manager) {
+        Task old = new Task("Старая задача", null, Status.NEW);
+        manager.addNewTask(old);
+
+        Epic epic = new Epic("Эпик", null, Status.NEW);
+        Subtask subtask1 = new Subtask("Подзадача 1", null, Status.NEW, epic);
+        Subtask subtask2 = new Subtask("Подзадача 2", null, Status.DONE, epic);
+        Task explicit = new Task("Задача с ID", null, Status.NEW);
+        explicit.setId(2);
+        manager.applyBatch(new TaskBatch()
+                .add(epic)
+                .add(subtask1)
+                .add(subtask2)
+                .add(explicit)
+                .delete(old.getId()));
+
+        assertEquals(2, explicit.getId());
+        assertEquals(List.of(3, 4, 5), List.of(epic.getId(), subtask1.getId(), subtask2.getId()),
+                "Новые ID выделяются подряд, минуя занятые в пакете");
+        assertNull(manager.getTaskById(old.getId()));
+        assertEquals(Status.IN_PROGRESS, manager.getTaskById(epic.getId()).getStatus());
+        assertEquals(List.of(epic), manager.getTasksByStatus(TaskType.EPIC, Status.IN_PROGRESS));
+
+        subtask1.setStatus(Status.DONE);
+        manager.applyBatch(new TaskBatch().update(subtask1));
+        assertEquals(Status.DONE, manager.getTaskById(epic.getId()).getStatus());
+        assertEquals(List.of(epic), manager.getTasksByStatus(TaskType.EPIC, Status.DONE));
+    }
+
+    @Test
+    @DisplayName("Пакет с занятым ID не меняет ничего")
+    void batchIsAllOrNothing() {
+        checkBatchIsAllOrNothing(new InMemoryTaskManager());
+        checkBatchIsAllOrNothing(new ConcurrentTaskManager());
+    }
+
+    private void checkBatchIsAllOrNothing(TaskManager manager) {
+        Task existing = new Task("Задача", null, Status.NEW);
+        manager.addNewTask(existing);
+        Task fresh = new Task("Новая", null, Status.NEW);
+        fresh.setId(10);
+        Task duplicate = new Task("Дубль", null, Status.NEW);
+        duplicate.setId(existing.getId());
+
+        TaskBatch batch = new TaskBatch()
+                .add(fresh)
+                .add(new Task("Без ID", null, Status.NEW))
+                .delete(existing.getId() + 100)
+                .add(duplicate);
+        assertThrows(IllegalArgumentException.class, () -> manager.applyBatch(batch));
+        assertEquals(List.of(existing), manager.getAllTasks());
+        assertTrue(manager.getTasksByStatus(Status.NEW).contains(existing));
+        assertEquals(1, manager.countByStatus(Status.NEW));
+
+        manager.addNewTask(fresh);
+        assertEquals(10, fresh.getId(), "Захваченный пакетом ID должен освободиться");
+    }
+
+    @Test
+    @DisplayName("ID, освобождённый удалением в том же пакете, можно занять снова")
+    void deletedIdCanBeReusedInBatch() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Task existing = new Task("Задача", null, Status.NEW);
+        manager.addNewTask(existing);
+        Task replacement = new Task("Замена", null, Status.DONE);
+        replacement.setId(existing.getId());
+        manager.applyBatch(new TaskBatch().delete(existing.getId()).add(replacement));
+        assertSame(replacement, manager.getTaskById(existing.getId()));
+
+        for (TaskManager target : List.of(manager, new ConcurrentTaskManager())) {
+            Task twice = new Task("Дважды", null, Status.NEW);
+            assertThrows(IllegalArgumentException.class,
+                    () -> target.applyBatch(new TaskBatch().add(twice).add(twice)));
+            assertEquals(0, twice.getId());
+        }
+    }
+}
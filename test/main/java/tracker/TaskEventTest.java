@@ -0,0 +1,218 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.InMemoryTaskManager;
+import main.java.tracker.managers.TaskEventPublisher;
+import main.java.tracker.util.Managers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+class TaskEventTest {
+
+    @Test
+    @DisplayName("Менеджер сообщает о создании, изменении, удалении задач и смене статуса эпика")
+    void managerEmitsTypedEvents() {
+        InMemoryTaskManager manager = new InMemoryTaskManager(Managers.getDefaultHistory(),
+                new TaskEventPublisher(Runnable::run, 16, TaskEventPublisher.Overflow.BLOCK));
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        manager.getEvents().subscribe(subscriber);
+
+        Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+        manager.addNewTask(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epic);
+        manager.addNewTask(subtask);
+        subtask.setStatus(Status.DONE);
+        manager.updateTask(subtask);
+        manager.deleteTaskOnId(epic.getId());
+
+        assertEquals(List.of("TaskCreated", "TaskCreated", "TaskUpdated", "EpicStatusChanged",
+                "TaskDeleted", "TaskDeleted"), subscriber.types());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), subscriber.sequences());
+        TaskEvent.EpicStatusChanged changed = (TaskEvent.EpicStatusChanged) subscriber.events.get(3);
+        assertEquals(epic.getId(), changed.getTaskId());
+        assertEquals(Status.NEW, changed.getPreviousStatus());
+        assertEquals(Status.DONE, changed.getStatus());
+        Task created = ((TaskEvent.TaskCreated) subscriber.events.get(1)).getTask();
+        assertEquals(Status.NEW, created.getStatus(), "Событие хранит копию задачи на момент изменения");
+        assertThrows(UnsupportedOperationException.class, () -> created.setStatus(Status.DONE));
+        assertEquals(TaskType.SUBTASK, ((TaskEvent.TaskDeleted) subscriber.events.get(5)).getType());
+    }
+
+    @Test
+    @DisplayName("События публикуются, когда менеджер уже в новом состоянии")
+    void eventsShouldFollowCompletedMutation() {
+        InMemoryTaskManager manager = new InMemoryTaskManager(Managers.getDefaultHistory(),
+                new TaskEventPublisher(Runnable::run, 16, TaskEventPublisher.Overflow.BLOCK));
+        Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+        manager.addNewTask(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epic);
+        manager.addNewTask(subtask);
+        List<String> observed = new ArrayList<>();
+        manager.getEvents().subscribe(new CollectingSubscriber(Long.MAX_VALUE) {
+            @Override
+            public void onNext(TaskEvent event) {
+                super.onNext(event);
+                observed.add(event.getClass().getSimpleName() + ":" + epic.getStatus() + ":"
+                        + manager.getAllTasks().size() + ":" + manager.getTasksByStatus(Status.DONE).size());
+            }
+        });
+
+        subtask.setStatus(Status.DONE);
+        manager.updateTask(subtask);
+        manager.deleteTaskOnId(subtask.getId());
+
+        assertEquals(List.of("TaskUpdated:DONE:2:2", "EpicStatusChanged:DONE:2:2",
+                "TaskDeleted:NEW:1:0", "EpicStatusChanged:NEW:1:0"), observed);
+    }
+
+    @Test
+    @DisplayName("Подписчик, который не запрашивает события, по умолчанию не останавливает писателя")
+    void silentSubscriberShouldNotBlockWriterByDefault() throws Exception {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        CollectingSubscriber subscriber = new CollectingSubscriber(0);
+        manager.getEvents().subscribe(subscriber);
+        // Поток-демон: если писатель всё же встанет, он не удержит JVM после теста.
+        ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            writer.submit(() -> {
+                for (int i = 0; i < TaskEventPublisher.DEFAULT_BUFFER_SIZE * 2; i++) {
+                    manager.addNewTask(new Task("Задача " + i, "Описание", Status.NEW));
+                }
+            }).get(10, TimeUnit.SECONDS);
+        } finally {
+            writer.shutdownNow();
+        }
+        assertEquals(TaskEventPublisher.DEFAULT_BUFFER_SIZE * 2, manager.getAllTasks().size());
+        assertFalse(manager.getEvents().hasSubscribers());
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (subscriber.error == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertInstanceOf(IllegalStateException.class, subscriber.error);
+    }
+
+    @Test
+    @DisplayName("Без подписчиков события не создаются")
+    void noEventsWithoutSubscribers() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        manager.addNewTask(new Task("Задача", "Описание", Status.NEW));
+        assertEquals(0, manager.getEvents().getSequence());
+        assertFalse(manager.getEvents().hasSubscribers());
+    }
+
+    @Test
+    @DisplayName("При переполнении события отбрасываются или подписка обрывается по выбранной политике")
+    void overflowPolicies() {
+        CollectingSubscriber newest = publishTen(TaskEventPublisher.Overflow.DROP_NEWEST);
+        assertEquals(List.of(1L, 2L, 3L, 4L), newest.sequences());
+
+        CollectingSubscriber oldest = publishTen(TaskEventPublisher.Overflow.DROP_OLDEST);
+        assertEquals(List.of(7L, 8L, 9L, 10L), oldest.sequences());
+
+        CollectingSubscriber disconnected = publishTen(TaskEventPublisher.Overflow.DISCONNECT);
+        assertTrue(disconnected.sequences().isEmpty());
+        assertInstanceOf(IllegalStateException.class, disconnected.error);
+    }
+
+    private CollectingSubscriber publishTen(TaskEventPublisher.Overflow overflow) {
+        TaskEventPublisher events = new TaskEventPublisher(Runnable::run, 4, overflow);
+        InMemoryTaskManager manager = new InMemoryTaskManager(Managers.getDefaultHistory(), events);
+        CollectingSubscriber subscriber = new CollectingSubscriber(0);
+        events.subscribe(subscriber);
+        for (int i = 0; i < 10; i++) {
+            manager.addNewTask(new Task("Задача " + i, "Описание", Status.NEW));
+        }
+        subscriber.subscription.request(Long.MAX_VALUE);
+        return subscriber;
+    }
+
+    @Test
+    @DisplayName("BLOCK придерживает писателя, пока медленный подписчик не запросит события")
+    void blockingPolicyDeliversEverythingInOrder() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            TaskEventPublisher events = new TaskEventPublisher(executor, 8, TaskEventPublisher.Overflow.BLOCK);
+            InMemoryTaskManager manager = new InMemoryTaskManager(Managers.getDefaultHistory(), events);
+            CountDownLatch done = new CountDownLatch(1);
+            CollectingSubscriber subscriber = new CollectingSubscriber(1) {
+                @Override
+                public void onNext(TaskEvent event) {
+                    super.onNext(event);
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onComplete() {
+                    done.countDown();
+                }
+            };
+            events.subscribe(subscriber);
+            for (int i = 0; i < 1_000; i++) {
+                manager.addNewTask(new Task("Задача " + i, "Описание", Status.NEW));
+            }
+            events.close();
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(1_000, subscriber.events.size());
+            assertEquals(0, events.getDroppedCount());
+            for (int i = 0; i < 1_000; i++) {
+                assertEquals(i + 1, subscriber.events.get(i).getSequence());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class CollectingSubscriber implements Flow.Subscriber<TaskEvent> {
+        final List<TaskEvent> events = new ArrayList<>();
+        final long initialRequest;
+        Flow.Subscription subscription;
+        volatile Throwable error;
+
+        CollectingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(TaskEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        List<String> types() {
+            return events.stream().map(event -> event.getClass().getSimpleName()).collect(Collectors.toList());
+        }
+
+        List<Long> sequences() {
+            return events.stream().map(TaskEvent::getSequence).collect(Collectors.toList());
+        }
+    }
+}
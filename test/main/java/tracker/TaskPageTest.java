@@ -0,0 +1,124 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.ConcurrentTaskManager;
+import main.java.tracker.managers.InMemoryTaskManager;
+import main.java.tracker.managers.MappedTaskManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class TaskPageTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Постраничный обход возвращает все задачи по возрастанию ID ровно один раз")
+    void pagesCoverAllTasksInOrder() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        fill(manager, 1);
+        assertEquals(ids(manager.getAllTasks()), readAllPages(manager, 7));
+    }
+
+    @Test
+    @DisplayName("Редкие ID обходятся так же, как плотные")
+    void sparseIdsArePaged() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        fill(manager, 1_000);
+        assertEquals(ids(manager.getAllTasks()), readAllPages(manager, 4));
+    }
+
+    @Test
+    @DisplayName("Последняя страница сообщает, что задач больше нет")
+    void lastPageHasNoMore() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        fill(manager, 1);
+        TaskPage page = manager.getTasksPage(TaskPage.FIRST, 100);
+        assertFalse(page.hasMore());
+        assertEquals(manager.getAllTasks().size(), page.getTasks().size());
+
+        TaskPage empty = manager.getTasksPage(page.getNextCursor(), 100);
+        assertTrue(empty.getTasks().isEmpty());
+        assertEquals(page.getNextCursor(), empty.getNextCursor());
+        assertThrows(IllegalArgumentException.class, () -> manager.getTasksPage(TaskPage.FIRST, 0));
+    }
+
+    @Test
+    @DisplayName("ConcurrentTaskManager и MappedTaskManager листаются так же")
+    void otherManagersArePaged() {
+        InMemoryTaskManager source = new InMemoryTaskManager();
+        fill(source, 10);
+        List<Integer> expected = ids(source.getAllTasks());
+
+        ConcurrentTaskManager concurrent = new ConcurrentTaskManager();
+        fill(concurrent, 10);
+        assertEquals(expected, readAllPages(concurrent, 3));
+
+        Path file = directory.resolve("board.snapshot");
+        MappedTaskManager.save(source, file);
+        MappedTaskManager mapped = new MappedTaskManager(file);
+        TaskPage first = mapped.getTasksPage(TaskPage.FIRST, 3);
+        assertEquals(expected.subList(0, 3), ids(first.getTasks()));
+        assertTrue(mapped.getLoadedCount() < expected.size(), "Первая страница не должна загружать всю доску");
+        assertEquals(expected, readAllPages(mapped, 3));
+    }
+
+    @Test
+    @DisplayName("Поток задач не копирует доску и делится для параллельной обработки")
+    void streamSeesAllTasks() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        for (int i = 0; i < 1_000; i++) {
+            manager.addNewTask(new Task("Задача " + i, null, i % 2 == 0 ? Status.NEW : Status.DONE));
+        }
+        assertEquals(1_000, manager.streamAllTasks().count());
+        assertEquals(500, manager.streamAllTasks().parallel().filter(task -> task.getStatus() == Status.DONE).count());
+        assertEquals(ids(manager.getAllTasks()),
+                manager.streamAllTasks().parallel().map(Task::getId).sorted().collect(Collectors.toList()));
+    }
+
+    /**
+     * Эпики с подзадачами и обычные задачи; ID идут с шагом step.
+     */
+    private static void fill(TaskManager manager, int step) {
+        int id = step;
+        for (int i = 0; i < 10; i++) {
+            Epic epic = new Epic("Эпик " + i, null, Status.NEW);
+            epic.setId(id);
+            manager.addNewTask(epic);
+            id += step;
+            for (int j = 0; j < 3; j++) {
+                Subtask subtask = new Subtask("Подзадача " + j, null, Status.NEW, epic);
+                subtask.setId(id);
+                manager.addNewTask(subtask);
+                id += step;
+            }
+            Task task = new Task("Задача " + i, null, Status.NEW);
+            task.setId(id);
+            manager.addNewTask(task);
+            id += step;
+        }
+    }
+
+    private static List<Integer> readAllPages(TaskManager manager, int limit) {
+        List<Integer> ids = new ArrayList<>();
+        TaskPage page;
+        int cursor = TaskPage.FIRST;
+        do {
+            page = manager.getTasksPage(cursor, limit);
+            assertTrue(page.getTasks().size() <= limit);
+            ids.addAll(ids(page.getTasks()));
+            cursor = page.getNextCursor();
+        } while (page.hasMore());
+        return ids;
+    }
+
+    private static List<Integer> ids(List<? extends Task> tasks) {
+        return tasks.stream().map(Task::getId).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,114 @@
+package main.java.tracker;
+
+import main.java.tracker.managers.ConcurrentTaskManager;
+import main.java.tracker.managers.InMemoryTaskManager;
+import main.java.tracker.managers.OffHeapTaskManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+class TaskSnapshotTest {
+
+    private static final List<Supplier<TaskManager>> MANAGERS = List.of(
+            InMemoryTaskManager::new, ConcurrentTaskManager::new, OffHeapTaskManager::new);
+
+    @Test
+    @DisplayName("Снимок не меняется после изменений менеджера")
+    void snapshotIsNotAffectedByLaterChanges() {
+        for (Supplier<TaskManager> factory : MANAGERS) {
+            TaskManager manager = factory.get();
+            Task task = new Task("Задача", "Описание", Status.NEW);
+            Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+            manager.addNewTask(task);
+            manager.addNewTask(epic);
+            Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epic);
+            manager.addNewTask(subtask);
+
+            TaskSnapshot before = manager.snapshot();
+            task.setStatus(Status.DONE);
+            manager.updateTask(task);
+            subtask.setStatus(Status.DONE);
+            manager.updateTask(subtask);
+            manager.addNewTask(new Subtask("Вторая", "Описание", Status.NEW, epic));
+            TaskSnapshot after = manager.snapshot();
+
+            assertEquals(3, before.size());
+            assertEquals(Status.NEW, before.getTaskById(task.getId()).getStatus());
+            assertEquals(Status.NEW, before.getTaskById(epic.getId()).getStatus());
+            assertEquals(1, before.getSubtasksByEpic(epic.getId()).size());
+
+            assertTrue(after.getVersion() > before.getVersion());
+            assertEquals(4, after.size());
+            assertEquals(Status.DONE, after.getTaskById(task.getId()).getStatus());
+            assertEquals(Status.IN_PROGRESS, after.getTaskById(epic.getId()).getStatus());
+            assertEquals(2, after.getSubtasksByEpic(epic.getId()).size());
+            assertEquals(epic.getId(), after.getSubtasksByEpic(epic.getId()).get(0).getParentEpic().getId());
+
+            manager.deleteTaskOnId(epic.getId());
+            TaskSnapshot deleted = manager.snapshot();
+            assertEquals(1, deleted.size());
+            assertTrue(deleted.getSubtasksByEpic(epic.getId()).isEmpty());
+            assertEquals(4, after.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Без изменений снимок возвращается тот же, а задачи снимка изменить нельзя")
+    void snapshotIsSharedAndFrozen() {
+        InMemoryTaskManager manager = new InMemoryTaskManager();
+        Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+        manager.addNewTask(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, epic);
+        manager.addNewTask(subtask);
+
+        TaskSnapshot snapshot = manager.snapshot();
+        assertSame(snapshot, manager.snapshot());
+        Task frozenEpic = snapshot.getTaskById(epic.getId());
+        Task frozenSubtask = snapshot.getTaskById(subtask.getId());
+        assertNotSame(epic, frozenEpic);
+        assertThrows(UnsupportedOperationException.class, () -> frozenSubtask.setStatus(Status.DONE));
+        assertThrows(UnsupportedOperationException.class, () -> ((Epic) frozenEpic).clearSubtasks());
+        assertThrows(UnsupportedOperationException.class, () -> epic.getSubtasks().clear());
+        assertEquals(1, epic.getSubtasks().size());
+    }
+
+    @Test
+    @DisplayName("Пакет виден в снимке целиком или никак")
+    void batchIsPublishedAtomically() throws InterruptedException {
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        Epic epic = new Epic("Эпик", "Описание", Status.NEW);
+        manager.addNewTask(epic);
+        manager.snapshot();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                TaskSnapshot snapshot = manager.snapshot();
+                int subtasks = snapshot.getSubtasksByEpic(epic.getId()).size();
+                long iterated = snapshot.streamAllTasks().count();
+                if (subtasks % 3 != 0 || iterated != snapshot.size()) {
+                    failure.set("подзадач " + subtasks + ", обойдено " + iterated + " из " + snapshot.size());
+                }
+            }
+        });
+        reader.start();
+        for (int i = 0; i < 500; i++) {
+            TaskBatch batch = new TaskBatch();
+            for (int s = 0; s < 3; s++) {
+                batch.add(new Subtask("Подзадача " + s, "Описание", Status.NEW, epic));
+            }
+            manager.applyBatch(batch);
+            manager.addNewTask(new Task("Задача " + i, "Описание", Status.NEW));
+        }
+        running.set(false);
+        reader.join();
+        assertNull(failure.get());
+        assertEquals(1 + 500 * 4, manager.snapshot().size());
+        assertEquals(1500, manager.snapshot().getSubtasksByEpic(epic.getId()).size());
+    }
+}
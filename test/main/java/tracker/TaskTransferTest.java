@@ -0,0 +1,160 @@
+package main.java.tracker;
+
+import main.java.tracker.io.TaskExporter;
+import main.java.tracker.io.TaskFormat;
+import main.java.tracker.io.TaskImporter;
+import main.java.tracker.util.Managers;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+class TaskTransferTest {
+
+    private static TaskManager fill() {
+        TaskManager manager = Managers.getDefault();
+        Task task = new Task("Запятая, \"кавычки\"", "Две\nстроки\tи \\ слэш", Status.IN_PROGRESS);
+        task.setStartTime(LocalDateTime.of(2024, 3, 1, 9, 30, 15, 120_000_000));
+        task.setDuration(Duration.ofMinutes(45));
+        manager.addNewTask(task);
+        manager.addNewTask(new Task("Пустое описание", "", Status.NEW));
+        manager.addNewTask(new Task("Без описания 😀", null, Status.DONE));
+        Epic epic = new Epic("Эпик", "Описание эпика", Status.NEW);
+        manager.addNewTask(epic);
+        Subtask first = new Subtask("Первая", "Описание", Status.DONE, epic);
+        first.setStartTime(LocalDateTime.of(2024, 3, 2, 10, 0));
+        first.setDuration(Duration.ofMinutes(30));
+        manager.addNewTask(first);
+        manager.addNewTask(new Subtask("Вторая", "Описание", Status.NEW, epic));
+        return manager;
+    }
+
+    private static Map<Integer, Task> byId(TaskManager manager) {
+        try (Stream<Task> tasks = manager.streamAllTasks()) {
+            return tasks.collect(Collectors.toMap(Task::getId, Function.identity()));
+        }
+    }
+
+    private static void assertSameBoard(TaskManager expected, TaskManager actual) {
+        Map<Integer, Task> actualTasks = byId(actual);
+        Map<Integer, Task> expectedTasks = byId(expected);
+        assertEquals(expectedTasks.keySet(), actualTasks.keySet());
+        for (Task task : expectedTasks.values()) {
+            Task copy = actualTasks.get(task.getId());
+            assertEquals(TaskType.of(task), TaskType.of(copy));
+            assertEquals(task.getTitle(), copy.getTitle());
+            assertEquals(task.getDescription(), copy.getDescription());
+            assertEquals(task.getStatus(), copy.getStatus());
+            assertEquals(task.getStartTime(), copy.getStartTime());
+            assertEquals(task.getDuration(), copy.getDuration());
+            if (task instanceof Subtask) {
+                assertEquals(((Subtask) task).getParentEpic().getId(), ((Subtask) copy).getParentEpic().getId());
+            }
+        }
+    }
+
+    private static TaskManager load(String text, TaskFormat format, TaskManager manager) throws IOException {
+        TaskImporter.importInto(manager, Channels.newChannel(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))), format);
+        return manager;
+    }
+
+    @Test
+    @DisplayName("Выгрузка в CSV и NDJSON загружается обратно без потерь")
+    void shouldRoundTripBothFormats(@TempDir Path directory) throws IOException {
+        TaskManager source = fill();
+        for (TaskFormat format : TaskFormat.values()) {
+            Path file = directory.resolve(format == TaskFormat.CSV ? "board.csv" : "board.ndjson");
+            assertEquals(6, TaskExporter.export(source, file, format));
+
+            TaskManager copy = Managers.getDefault();
+            assertEquals(6, TaskImporter.importInto(copy, file));
+            assertSameBoard(source, copy);
+            assertEquals(List.of(), copy.getHistory());
+        }
+    }
+
+    @Test
+    @DisplayName("Подзадача раньше эпика связывается с ним, эпик вне файла ищется на доске")
+    void shouldLinkParentsAfterChildren() throws IOException {
+        TaskManager manager = Managers.getDefault();
+        Epic existing = new Epic("Уже на доске", "", Status.NEW);
+        existing.setId(100);
+        manager.addNewTask(existing);
+
+        String csv = "type,id,epicId,status,title,extra\r\n"
+                + "SUBTASK,2,1,DONE,Раньше эпика,x\r\n"
+                + "\r\n"
+                + "EPIC,1,,NEW,Эпик,\r\n"
+                + "SUBTASK,3,100,DONE,\"К эпику на доске\",\r\n";
+        load(csv, TaskFormat.CSV, manager);
+
+        Subtask early = (Subtask) manager.getTaskById(2);
+        assertEquals(1, early.getParentEpic().getId());
+        assertEquals(List.of(early), manager.getSubtasksByEpic(1));
+        assertEquals(Status.DONE, manager.getTaskById(1).getStatus());
+        assertEquals(Status.DONE, manager.getTaskById(100).getStatus());
+
+        String json = "{\"id\":5,\"type\":\"SUBTASK\",\"epicId\":4,\"title\":\"\\u0417\\ud83d\\ude00\","
+                + "\"tags\":[{\"a\":\"}\"}],\"status\":\"IN_PROGRESS\",\"startTime\":\"2024-05-01T08:00\"}\n"
+                + "\n  {\"type\":\"EPIC\",\"id\":4,\"title\":null}  \n";
+        load(json, TaskFormat.NDJSON, manager);
+        Subtask subtask = (Subtask) manager.getTaskById(5);
+        assertEquals("З😀", subtask.getTitle());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 8, 0), subtask.getStartTime());
+        assertNull(manager.getTaskById(4).getTitle());
+        assertEquals(Status.IN_PROGRESS, manager.getTaskById(4).getStatus());
+    }
+
+    @Test
+    @DisplayName("Ошибка в файле называет строку и не меняет доску")
+    void shouldRejectBrokenFilesAtomically() throws IOException {
+        TaskManager manager = fill();
+        Map<Integer, Task> before = byId(manager);
+
+        String csv = "id,type,title\n50,TASK,Хорошая\n51,STORY,Плохая\n";
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> load(csv, TaskFormat.CSV, manager));
+        assertEquals("Неизвестный тип задачи в строке 3! - STORY", error.getMessage());
+
+        String json = "{\"id\":50,\"type\":\"TASK\"}\n{\"id\":51,\"type\":\"SUBTASK\",\"epicId\":77}\n";
+        error = assertThrows(IllegalArgumentException.class, () -> load(json, TaskFormat.NDJSON, manager));
+        assertEquals("Эпик подзадачи 51 не найден! - 77", error.getMessage());
+
+        String duplicate = "id,type,title\n1,TASK,Занятый id\n";
+        assertThrows(IllegalArgumentException.class, () -> load(duplicate, TaskFormat.CSV, manager));
+        assertEquals(before, byId(manager));
+    }
+
+    @Test
+    @DisplayName("Выгрузка пишет поля в порядке заголовка и берёт в кавычки только нужное")
+    void shouldWriteCsvRecords() throws IOException {
+        TaskManager manager = fill();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        TaskExporter.export(manager, Channels.newChannel(bytes), TaskFormat.CSV);
+        String[] lines = bytes.toString(StandardCharsets.UTF_8).split("\n", -1);
+
+        assertEquals("id,type,title,status,description,epicId,startTime,duration", lines[0]);
+        List<String> records = List.of(lines).subList(1, lines.length);
+        assertTrue(records.contains("2,TASK,Пустое описание,NEW,\"\",,,"));
+        assertTrue(records.contains("3,TASK,Без описания 😀,DONE,,,,"));
+        assertTrue(records.contains("4,EPIC,Эпик,IN_PROGRESS,Описание эпика,,,"));
+        assertTrue(records.contains("5,SUBTASK,Первая,DONE,Описание,4,2024-03-02T10:00:00,30"));
+        assertTrue(records.contains("1,TASK,\"Запятая, \"\"кавычки\"\"\",IN_PROGRESS,\"Две"));
+        assertEquals("", lines[lines.length - 1]);
+    }
+}
@@ -0,0 +1,87 @@
+package main.java.tracker.bench;
+
+import main.java.tracker.Status;
+import main.java.tracker.Task;
+import main.java.tracker.managers.ConcurrentTaskManager;
+import main.java.tracker.managers.ExecutorAsyncTaskManager;
+import main.java.tracker.util.Managers;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пачка из bench.burst (по умолчанию 64) одновременных getTaskById по
+ * bench.hotKeys горячим ID (по умолчанию 4) поверх хранилища, где каждое
+ * чтение ждёт bench.latencyNanos (по умолчанию 100000): блокирующие вызовы
+ * на кэширующем пуле против AsyncTaskManager на том же пуле с объединением
+ * чтений.
+ * Операция — вся пачка, от отправки до получения последнего ответа.
+ * Запуск: java main.java.tracker.bench.AsyncBenchmark [results.json]
+ */
+public class AsyncBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int burst = Integer.getInteger("bench.burst", 64);
+        int hotKeys = Integer.getInteger("bench.hotKeys", 4);
+        long latency = Long.getLong("bench.latencyNanos", 100_000L);
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+        AtomicLong reads = new AtomicLong();
+        ConcurrentTaskManager slow = new ConcurrentTaskManager() {
+            @Override
+            public Task getTaskById(int id) {
+                reads.incrementAndGet();
+                long deadline = System.nanoTime() + latency;
+                while (System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+                return super.getTaskById(id);
+            }
+        };
+        int[] ids = new int[hotKeys];
+        for (int i = 0; i < hotKeys; i++) {
+            Task task = new Task("Задача " + i, "Описание", Status.NEW);
+            slow.addNewTask(task);
+            ids[i] = task.getId();
+        }
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("burst", burst);
+        params.put("hotKeys", hotKeys);
+        params.put("latencyNanos", latency);
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            ExecutorAsyncTaskManager manager = Managers.getAsync(slow, executor);
+            AtomicLong calls = new AtomicLong();
+            runner.run("async.burst.blocking", params, 1, (thread, step) -> {
+                CompletableFuture<?>[] futures = new CompletableFuture<?>[burst];
+                for (int i = 0; i < burst; i++) {
+                    int id = ids[i % hotKeys];
+                    futures[i] = CompletableFuture.supplyAsync(() -> slow.getTaskById(id), executor);
+                }
+                CompletableFuture.allOf(futures).join();
+                return calls.addAndGet(burst);
+            });
+            System.out.printf(Locale.ROOT, "blocking:  %.3f storage reads per getTaskById%n",
+                    (double) reads.getAndSet(0) / calls.getAndSet(0));
+            runner.run("async.burst.coalesced", params, 1, (thread, step) -> {
+                CompletableFuture<?>[] futures = new CompletableFuture<?>[burst];
+                for (int i = 0; i < burst; i++) {
+                    futures[i] = manager.getTaskById(ids[i % hotKeys]);
+                }
+                CompletableFuture.allOf(futures).join();
+                return calls.addAndGet(burst);
+            });
+            System.out.printf(Locale.ROOT, "coalesced: %.3f storage reads per getTaskById%n",
+                    (double) reads.get() / calls.get());
+        } finally {
+            executor.shutdown();
+        }
+        runner.writeJson(args.length > 0 ? Path.of(args[0]) : null);
+    }
+}
@@ -0,0 +1,129 @@
+package main.java.tracker.bench;
+
+import main.java.tracker.Epic;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskBatch;
+import main.java.tracker.TaskManager;
+import main.java.tracker.managers.ConcurrentTaskManager;
+import main.java.tracker.managers.FileBackedTaskManager;
+import main.java.tracker.managers.InMemoryTaskManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Сравнение applyBatch с отдельными вызовами addNewTask / updateTask.
+ * Запуск: java main.java.tracker.bench.BatchBenchmark [results.json]
+ * <p>
+ * Одна операция замера — импорт целого спринта (bench.epics эпиков по bench.fanout
+ * подзадач, по умолчанию 100 и 20) в пустой менеджер либо смена статуса всех
+ * подзадач одного эпика. Задач в секунду = результат, умноженный на параметр tasks.
+ */
+public class BatchBenchmark {
+    private static final Status[] STATUSES = Status.values();
+
+    public static void main(String[] args) throws Exception {
+        int epicCount = Integer.getInteger("bench.epics", 100);
+        int fanOut = Integer.getInteger("bench.fanout", 20);
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+
+        sprintImport(runner, "InMemoryTaskManager", InMemoryTaskManager::new, epicCount, fanOut);
+        sprintImport(runner, "ConcurrentTaskManager", ConcurrentTaskManager::new, epicCount, fanOut);
+        statusUpdate(runner, "InMemoryTaskManager", new InMemoryTaskManager(), epicCount, fanOut);
+        statusUpdate(runner, "ConcurrentTaskManager", new ConcurrentTaskManager(), epicCount, fanOut);
+
+        Path directory = Files.createTempDirectory("batch-bench");
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(directory)) {
+            statusUpdate(runner, "FileBackedTaskManager(fsyncBatch=1)", manager, epicCount, fanOut);
+        } finally {
+            deleteDirectory(directory);
+        }
+        runner.writeJson(args.length > 0 ? Path.of(args[0]) : null);
+    }
+
+    private static void sprintImport(BenchmarkRunner runner, String implementation,
+                                     Supplier<TaskManager> factory, int epicCount, int fanOut) {
+        Map<String, Object> params = params(implementation, epicCount * (fanOut + 1), fanOut);
+        runner.run("import.perCall", params, 1, (thread, step) -> {
+            TaskManager manager = factory.get();
+            for (int e = 0; e < epicCount; e++) {
+                Epic epic = new Epic("Эпик " + e, "Описание", Status.NEW);
+                manager.addNewTask(epic);
+                for (int s = 0; s < fanOut; s++) {
+                    manager.addNewTask(new Subtask("Подзадача " + s, "Описание", STATUSES[s % 3], epic));
+                }
+            }
+            return manager;
+        });
+        runner.run("import.applyBatch", params, 1, (thread, step) -> {
+            TaskManager manager = factory.get();
+            TaskBatch batch = new TaskBatch();
+            for (int e = 0; e < epicCount; e++) {
+                Epic epic = new Epic("Эпик " + e, "Описание", Status.NEW);
+                batch.add(epic);
+                for (int s = 0; s < fanOut; s++) {
+                    batch.add(new Subtask("Подзадача " + s, "Описание", STATUSES[s % 3], epic));
+                }
+            }
+            manager.applyBatch(batch);
+            return manager;
+        });
+    }
+
+    private static void statusUpdate(BenchmarkRunner runner, String implementation, TaskManager manager,
+                                     int epicCount, int fanOut) {
+        Subtask[][] subtasks = new Subtask[epicCount][fanOut];
+        for (int e = 0; e < epicCount; e++) {
+            Epic epic = new Epic("Эпик " + e, "Описание", Status.NEW);
+            manager.addNewTask(epic);
+            for (int s = 0; s < fanOut; s++) {
+                subtasks[e][s] = new Subtask("Подзадача " + s, "Описание", Status.NEW, epic);
+                manager.addNewTask(subtasks[e][s]);
+            }
+        }
+        Map<String, Object> params = params(implementation, fanOut, fanOut);
+        runner.run("epicStatus.perCall", params, 1, (thread, step) -> {
+            Subtask[] epicSubtasks = subtasks[step % epicCount];
+            Status status = STATUSES[step % STATUSES.length];
+            for (Subtask subtask : epicSubtasks) {
+                subtask.setStatus(status);
+                manager.updateTask(subtask);
+            }
+            return epicSubtasks;
+        });
+        runner.run("epicStatus.applyBatch", params, 1, (thread, step) -> {
+            Subtask[] epicSubtasks = subtasks[step % epicCount];
+            Status status = STATUSES[step % STATUSES.length];
+            TaskBatch batch = new TaskBatch();
+            for (Subtask subtask : epicSubtasks) {
+                subtask.setStatus(status);
+                batch.update(subtask);
+            }
+            manager.applyBatch(batch);
+            return epicSubtasks;
+        });
+    }
+
+    private static Map<String, Object> params(String implementation, int tasks, int fanOut) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("manager", implementation);
+        params.put("tasks", tasks);
+        params.put("fanOut", fanOut);
+        return params;
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
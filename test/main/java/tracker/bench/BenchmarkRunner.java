@@ -0,0 +1,240 @@
+package main.java.tracker.bench;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * Минимальный замерщик пропускной способности без внешних зависимостей.
+ * Каждый замер: несколько разогревочных и измерительных итераций фиксированной
+ * длительности, операция крутится в N потоках, результат — операций в секунду
+ * со средним и стандартным отклонением по итерациям. Результаты можно выгрузить
+ * в JSON для сравнения между версиями.
+ * <p>
+ * Это не JMH и его гарантий у замеров нет. Все замеры одного запуска идут в
+ * одной JVM без форков, так что профиль JIT, инлайнинг и состояние кучи
+ * переходят от замера к замеру и результат зависит от их порядка; разогрев —
+ * просто первые итерации, без проверки, что компиляция закончилась; от
+ * выбрасывания вызова защищает только счётчик ненулевых результатов.
+ * ns/op — не измеренное время операции, а пересчёт пропускной способности
+ * на поток, вместе с накладными расходами цикла и лямбды. Цифры годятся для
+ * сравнения вариантов в одном запуске на одной машине, а не как абсолютные;
+ * для спорных сравнений каждый вариант стоит запускать в отдельной JVM.
+ * <p>
+ * Настройки через системные свойства: bench.warmup, bench.iterations, bench.millis.
+ */
+public class BenchmarkRunner {
+    private static final int MAX_CLOCK_CHECK_MASK = 0xFF;
+    private static final long CLOCK_CHECK_NANOS = 10_000;
+    private static volatile long blackhole;
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long iterationNanos;
+    private final List<Result> results = new ArrayList<>();
+
+    public BenchmarkRunner(int warmupIterations, int measurementIterations, long iterationMillis) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.iterationNanos = iterationMillis * 1_000_000L;
+    }
+
+    public static BenchmarkRunner fromSystemProperties() {
+        return new BenchmarkRunner(
+                Integer.getInteger("bench.warmup", 3),
+                Integer.getInteger("bench.iterations", 5),
+                Long.getLong("bench.millis", 200L));
+    }
+
+    /**
+     * Операция замера. step растёт в каждом потоке отдельно, его удобно
+     * использовать как индекс в заранее подготовленном массиве аргументов.
+     * Возвращаемое значение "потребляется", чтобы JIT не выбросил вызов.
+     */
+    public interface Operation {
+        Object run(int thread, int step);
+    }
+
+    public Result run(String name, Map<String, Object> params, int threads, Operation operation) {
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(threads, operation);
+        }
+        double[] scores = new double[measurementIterations];
+        for (int i = 0; i < measurementIterations; i++) {
+            scores[i] = iteration(threads, operation);
+        }
+        Result result = new Result(name, new LinkedHashMap<>(params), threads, scores);
+        results.add(result);
+        System.out.println(result);
+        return result;
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    /**
+     * Пишет результаты в файл либо, если путь не задан, в стандартный вывод.
+     */
+    public void writeJson(Path path) throws IOException {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            json.append("  ").append(results.get(i).toJson());
+            json.append(i + 1 < results.size() ? ",\n" : "\n");
+        }
+        json.append("]\n");
+        if (path == null) {
+            System.out.print(json);
+            return;
+        }
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write(json.toString());
+        }
+    }
+
+    private double iteration(int threads, Operation operation) {
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        long[] operations = new long[threads];
+        long[] elapsed = new long[threads];
+        long[] sinks = new long[threads];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    barrier.await();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                long sink = 0;
+                int step = 0;
+                long start = System.nanoTime();
+                long deadline = start + iterationNanos;
+                long now = start;
+                int clockCheckMask = 0;
+                while (true) {
+                    Object value = operation.run(thread, step++);
+                    sink += value == null ? 0 : 1;
+                    if ((step & clockCheckMask) == 0) {
+                        long previous = now;
+                        now = System.nanoTime();
+                        if (now >= deadline) {
+                            break;
+                        }
+                        // Для быстрых операций часы опрашиваются реже, для медленных — после каждой.
+                        if (clockCheckMask < MAX_CLOCK_CHECK_MASK && now - previous < CLOCK_CHECK_NANOS) {
+                            clockCheckMask = clockCheckMask << 1 | 1;
+                        }
+                    }
+                }
+                operations[thread] = step;
+                elapsed[thread] = now - start;
+                sinks[thread] = sink;
+            }, "bench-" + t);
+            workers[t].start();
+        }
+        double score = 0;
+        for (int t = 0; t < threads; t++) {
+            try {
+                workers[t].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            score += operations[t] * 1e9 / elapsed[t];
+        }
+        consume(sinks);
+        return score;
+    }
+
+    private static void consume(long[] sinks) {
+        long total = 0;
+        for (long sink : sinks) {
+            total += sink;
+        }
+        blackhole = total;
+    }
+
+    public static class Result {
+        private final String name;
+        private final Map<String, Object> params;
+        private final int threads;
+        private final double[] scores;
+
+        private Result(String name, Map<String, Object> params, int threads, double[] scores) {
+            this.name = name;
+            this.params = params;
+            this.threads = threads;
+            this.scores = scores;
+        }
+
+        public double getScore() {
+            double sum = 0;
+            for (double score : scores) {
+                sum += score;
+            }
+            return sum / scores.length;
+        }
+
+        public double getError() {
+            double mean = getScore();
+            double sum = 0;
+            for (double score : scores) {
+                sum += (score - mean) * (score - mean);
+            }
+            return scores.length > 1 ? Math.sqrt(sum / (scores.length - 1)) : 0;
+        }
+
+        /**
+         * Пропускная способность, пересчитанная во время операции одного потока.
+         */
+        public double getNanosPerOperation() {
+            return threads * 1e9 / getScore();
+        }
+
+        String toJson() {
+            StringBuilder json = new StringBuilder("{");
+            json.append("\"benchmark\":\"").append(name).append("\",\"params\":{");
+            int i = 0;
+            for (Map.Entry<String, Object> param : params.entrySet()) {
+                if (i++ > 0) {
+                    json.append(',');
+                }
+                json.append('"').append(param.getKey()).append("\":");
+                Object value = param.getValue();
+                if (value instanceof Number) {
+                    json.append(value);
+                } else {
+                    json.append('"').append(value).append('"');
+                }
+            }
+            json.append("},\"threads\":").append(threads);
+            json.append(",\"harness\":\"BenchmarkRunner\",\"forks\":0");
+            json.append(",\"mode\":\"thrpt\",\"unit\":\"ops/s\"");
+            json.append(String.format(Locale.ROOT, ",\"score\":%.3f,\"error\":%.3f,\"nsPerOp\":%.3f",
+                    getScore(), getError(), getNanosPerOperation()));
+            json.append(",\"iterations\":[");
+            for (int s = 0; s < scores.length; s++) {
+                if (s > 0) {
+                    json.append(',');
+                }
+                json.append(String.format(Locale.ROOT, "%.3f", scores[s]));
+            }
+            return json.append("]}").toString();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-40s %-45s threads=%-2d %,16.1f +- %,12.1f ops/s  (%,.1f ns/op)",
+                    name, params, threads, getScore(), getError(), getNanosPerOperation());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package main.java.tracker.bench;
+
+import main.java.tracker.Epic;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskManager;
+import main.java.tracker.managers.CachingTaskManager;
+import main.java.tracker.managers.InMemoryTaskManager;
+import main.java.tracker.util.CacheStats;
+import main.java.tracker.util.IntCache;
+import main.java.tracker.util.Managers;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Чтение getTaskById и getSubtasksByEpic по ID с распределением Ципфа: без
+ * кэша и через CachingTaskManager с LRU и W-TinyLFU. Медленное хранилище
+ * изображает менеджер в памяти, который на каждом чтении ждёт bench.latencyNanos
+ * (по умолчанию 20000 — запрос к локальному сервису).
+ * Запуск: java main.java.tracker.bench.CacheBenchmark [results.json]
+ * <p>
+ * Доска — bench.size задач (по умолчанию 100000), каждая десятая — эпик с
+ * подзадачами; ёмкость кэша — bench.capacity (по умолчанию 1% доски),
+ * показатель Ципфа — bench.zipf (по умолчанию 0.99).
+ */
+public class CacheBenchmark {
+    private static final int KEYS = 1 << 20;
+
+    public static void main(String[] args) throws Exception {
+        int size = Integer.getInteger("bench.size", 100_000);
+        int capacity = Integer.getInteger("bench.capacity", size / 100);
+        double skew = Double.parseDouble(System.getProperty("bench.zipf", "0.99"));
+        long latency = Long.getLong("bench.latencyNanos", 20_000L);
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+        SlowTaskManager slow = new SlowTaskManager(latency);
+        int[] epicIds = fill(slow, size);
+        int[] taskIds = zipf(size, skew, new Random(1));
+        int[] epicKeys = zipf(epicIds.length, skew, new Random(2));
+        for (int i = 0; i < epicKeys.length; i++) {
+            epicKeys[i] = epicIds[epicKeys[i] - 1];
+        }
+
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("tasks", size);
+        params.put("zipf", skew);
+        params.put("latencyNanos", latency);
+        params.put("cache", "none");
+        measure(runner, params, slow, taskIds, epicKeys);
+        for (IntCache.Policy policy : IntCache.Policy.values()) {
+            params.put("cache", policy + "/" + capacity);
+            CachingTaskManager cached = Managers.getCaching(slow, capacity, policy);
+            measure(runner, params, cached, taskIds, epicKeys);
+            CacheStats tasks = cached.getStats();
+            CacheStats lists = cached.getSubtaskListStats();
+            System.out.printf(Locale.ROOT, "%-9s capacity=%-7d getTaskById hit rate %.3f, getSubtasksByEpic hit rate %.3f%n",
+                    policy, capacity, tasks.getHitRate(), lists.getHitRate());
+        }
+        runner.writeJson(args.length > 0 ? Path.of(args[0]) : null);
+    }
+
+    private static void measure(BenchmarkRunner runner, Map<String, Object> params, TaskManager manager,
+                                int[] taskIds, int[] epicKeys) {
+        runner.run("cache.getTaskById", params, 1,
+                (thread, step) -> manager.getTaskById(taskIds[step & (KEYS - 1)]));
+        runner.run("cache.getSubtasksByEpic", params, 1,
+                (thread, step) -> manager.getSubtasksByEpic(epicKeys[step & (KEYS - 1)]).size());
+    }
+
+    private static int[] fill(TaskManager manager, int size) {
+        int[] epicIds = new int[size / 10];
+        Epic epic = null;
+        for (int i = 0; i < size; i++) {
+            if (i % 10 == 0) {
+                epic = new Epic("Эпик " + i, "Описание", Status.NEW);
+                manager.addNewTask(epic);
+                epicIds[i / 10] = epic.getId();
+            } else {
+                manager.addNewTask(new Subtask("Подзадача " + i, "Описание", Status.NEW, epic));
+            }
+        }
+        return epicIds;
+    }
+
+    /**
+     * KEYS номеров от 1 до n с вероятностью, обратной rank^skew; номер 1 — самый частый.
+     * Обратная функция распределения считается по таблице сумм и двоичному поиску.
+     */
+    private static int[] zipf(int n, double skew, Random random) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += 1 / Math.pow(rank, skew);
+            cumulative[rank - 1] = sum;
+        }
+        int[] keys = new int[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            double target = random.nextDouble() * sum;
+            int low = 0;
+            int high = n - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulative[middle] < target) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            keys[i] = low + 1;
+        }
+        return keys;
+    }
+
+    /**
+     * Менеджер в памяти, каждое чтение по ID которого ждёт latency наносекунд.
+     */
+    private static class SlowTaskManager extends InMemoryTaskManager {
+        private final long latency;
+
+        SlowTaskManager(long latency) {
+            this.latency = latency;
+        }
+
+        @Override
+        public Task getTaskById(int id) {
+            pause();
+            return super.getTaskById(id);
+        }
+
+        @Override
+        public List<Subtask> getSubtasksByEpic(int epicId) {
+            pause();
+            return super.getSubtasksByEpic(epicId);
+        }
+
+        private void pause() {
+            long deadline = System.nanoTime() + latency;
+            while (System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
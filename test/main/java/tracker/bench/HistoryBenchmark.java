@@ -0,0 +1,107 @@
+package main.java.tracker.bench;
+
+import main.java.tracker.HistoryManager;
+import main.java.tracker.Status;
+import main.java.tracker.Task;
+import main.java.tracker.managers.InMemoryHistoryManager;
+import main.java.tracker.managers.PersistentHistoryManager;
+import main.java.tracker.util.Managers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Замер стоимости HistoryManager.add при разном размере истории.
+ * Запуск: java main.java.tracker.bench.HistoryBenchmark [results.json]
+ * Стоимость операции должна оставаться примерно постоянной при росте размера.
+ * <p>
+ * Для истории с журналом на диске отдельно замеряются getMostViewed и
+ * getHistory(limit) после bench.views просмотров (по умолчанию 5 000 000)
+ * зипфовского потока по 100 000 задачам.
+ */
+public class HistoryBenchmark {
+    private static final int[] SIZES = {10, 1_000, 100_000, 1_000_000};
+    private static final int ARGUMENTS = 1 << 20;
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+        for (int size : SIZES) {
+            run(runner, "linked", Managers.getDefaultHistory(size), size);
+            run(runner, "compact", Managers.getCompactHistory(size), size);
+        }
+        Path directory = Files.createTempDirectory("history-bench");
+        Path logFile = directory.resolve("views.log");
+        try (PersistentHistoryManager history = Managers.getPersistentHistory(logFile)) {
+            run(runner, "persistent", history, InMemoryHistoryManager.DEFAULT_MAX_SIZE);
+        } finally {
+            Files.delete(logFile);
+        }
+        try (PersistentHistoryManager history = Managers.getPersistentHistory(logFile)) {
+            queries(runner, history, Integer.getInteger("bench.views", 5_000_000));
+        } finally {
+            Files.delete(logFile);
+            Files.delete(directory);
+        }
+        runner.writeJson(args.length > 0 ? Path.of(args[0]) : null);
+    }
+
+    private static void run(BenchmarkRunner runner, String name, HistoryManager historyManager, int size) {
+        Task[] pool = createTasks(size * 2);
+        for (int i = 0; i < size; i++) {
+            historyManager.add(pool[i]);
+        }
+        Random random = new Random(size);
+        int[] order = new int[ARGUMENTS];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = random.nextInt(pool.length);
+        }
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("history", name);
+        params.put("size", size);
+        runner.run("history.add", params, 1, (thread, step) -> {
+            Task task = pool[order[step & (ARGUMENTS - 1)]];
+            historyManager.add(task);
+            return task;
+        });
+    }
+
+    private static void queries(BenchmarkRunner runner, PersistentHistoryManager history, int views) {
+        int taskCount = 100_000;
+        Task[] pool = createTasks(taskCount);
+        double[] cumulative = new double[taskCount];
+        double sum = 0;
+        for (int i = 0; i < taskCount; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        Random random = new Random(views);
+        long start = System.nanoTime();
+        for (int i = 0; i < views; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            history.add(pool[rank < 0 ? -rank - 1 : rank]);
+        }
+        System.out.printf("%d просмотров записано за %d мс%n", views, (System.nanoTime() - start) / 1_000_000);
+        System.out.println("Топ-5 за час: " + history.getMostViewed(Duration.ofHours(1), 5));
+
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("history", "persistent");
+        params.put("views", views);
+        runner.run("history.mostViewed.day", params, 1,
+                (thread, step) -> history.getMostViewed(Duration.ofDays(1), 10));
+        runner.run("history.recentViews", params, 1, (thread, step) -> history.getHistory(100));
+    }
+
+    private static Task[] createTasks(int count) {
+        Task[] tasks = new Task[count];
+        for (int i = 0; i < count; i++) {
+            tasks[i] = new Task("Задача " + i, "Описание", Status.NEW);
+            tasks[i].setId(i + 1);
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,150 @@
+package main.java.tracker.bench;
+
+import main.java.tracker.Status;
+import main.java.tracker.Task;
+import main.java.tracker.TaskManager;
+import main.java.tracker.http.HttpTaskServer;
+import main.java.tracker.metrics.Histogram;
+import main.java.tracker.util.Managers;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Нагрузочный тест HTTP-сервера задач: bench.clients клиентов (по умолчанию 8)
+ * в замкнутом цикле шлют запросы к серверу на localhost, каждый со своим
+ * соединением. Замер — запросов в секунду и задержки p50/p99/p99.9 по
+ * гистограмме; разогрев bench.warmupMillis в результат не входит.
+ * Запуск: java main.java.tracker.bench.HttpLoadBenchmark [results.json]
+ * <p>
+ * Сценарии: чтение задачи по ID, создание задачи, смесь 90% чтений и 10%
+ * изменений и список из bench.listSize задач (по умолчанию 1000).
+ */
+public class HttpLoadBenchmark {
+    private static final Status[] STATUSES = Status.values();
+
+    private interface Scenario {
+        HttpRequest next(URI base);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("bench.clients", 8);
+        long warmupMillis = Long.getLong("bench.warmupMillis", 2_000);
+        long millis = Long.getLong("bench.millis", 5_000);
+        int size = Integer.getInteger("bench.size", 10_000);
+        int listSize = Integer.getInteger("bench.listSize", 1_000);
+
+        TaskManager taskManager = Managers.getDefault();
+        for (int i = 0; i < size; i++) {
+            taskManager.addNewTask(new Task("Задача " + i, "Описание задачи " + i, Status.NEW));
+        }
+        HttpTaskServer server = new HttpTaskServer(taskManager, 0);
+        server.start();
+        URI base = URI.create("http://localhost:" + server.getPort());
+        List<String> results = new ArrayList<>();
+        try {
+            results.add(measure("getTask", clients, warmupMillis, millis, base,
+                    uri -> get(uri, "/tasks/" + (1 + ThreadLocalRandom.current().nextInt(size)))));
+            results.add(measure("createTask", clients, warmupMillis, millis, base,
+                    uri -> post(uri, "/tasks", "{\"title\":\"Новая\",\"description\":\"Нагрузка\"}")));
+            results.add(measure("mixed90read", clients, warmupMillis, millis, base, uri -> {
+                int id = 1 + ThreadLocalRandom.current().nextInt(size);
+                if (ThreadLocalRandom.current().nextInt(10) != 0) {
+                    return get(uri, "/tasks/" + id);
+                }
+                Status status = STATUSES[ThreadLocalRandom.current().nextInt(STATUSES.length)];
+                return post(uri, "/tasks", "{\"id\":" + id + ",\"title\":\"Задача\",\"status\":\"" + status + "\"}");
+            }));
+            TaskManager listManager = Managers.getDefault();
+            for (int i = 0; i < listSize; i++) {
+                listManager.addNewTask(new Task("Задача " + i, "Описание задачи " + i, Status.NEW));
+            }
+            HttpTaskServer listServer = new HttpTaskServer(listManager, 0);
+            listServer.start();
+            try {
+                results.add(measure("list" + listSize, clients, warmupMillis, millis,
+                        URI.create("http://localhost:" + listServer.getPort()), uri -> get(uri, "/tasks")));
+            } finally {
+                listServer.stop(0);
+            }
+        } finally {
+            server.stop(0);
+        }
+        if (args.length > 0) {
+            try (Writer writer = Files.newBufferedWriter(Path.of(args[0]), StandardCharsets.UTF_8)) {
+                writer.write("[\n  " + String.join(",\n  ", results) + "\n]\n");
+            }
+        }
+    }
+
+    private static HttpRequest get(URI base, String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).GET().build();
+    }
+
+    private static HttpRequest post(URI base, String path, String body) {
+        return HttpRequest.newBuilder(base.resolve(path))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private static String measure(String name, int clients, long warmupMillis, long millis,
+                                  URI base, Scenario scenario) throws InterruptedException {
+        Histogram latency = new Histogram();
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long warmupEnd = System.nanoTime() + warmupMillis * 1_000_000;
+        long end = warmupEnd + millis * 1_000_000;
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int c = 0; c < clients; c++) {
+            Thread client = new Thread(() -> {
+                HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+                try {
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        HttpResponse<Void> response = http.send(scenario.next(base),
+                                HttpResponse.BodyHandlers.discarding());
+                        long finished = System.nanoTime();
+                        if (now >= warmupEnd) {
+                            latency.record(finished - now);
+                            if (response.statusCode() >= 400) {
+                                failed.incrementAndGet();
+                            }
+                            completed.incrementAndGet();
+                        }
+                    }
+                } catch (IOException e) {
+                    failed.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            }, "http-load-" + c);
+            client.setDaemon(true);
+            client.start();
+        }
+        done.await();
+        Histogram.Snapshot snapshot = latency.snapshot();
+        double rps = completed.get() * 1000.0 / millis;
+        System.out.printf(Locale.ROOT, "%-14s clients=%-3d %,12.1f req/s  p50=%,9.1f us  p99=%,9.1f us"
+                        + "  p99.9=%,9.1f us  errors=%d%n",
+                name, clients, rps, snapshot.getValueAtPercentile(50) / 1e3,
+                snapshot.getValueAtPercentile(99) / 1e3, snapshot.getValueAtPercentile(99.9) / 1e3, failed.get());
+        return String.format(Locale.ROOT, "{\"benchmark\":\"%s\",\"clients\":%d,\"requestsPerSecond\":%.1f,"
+                        + "\"p50Micros\":%.1f,\"p99Micros\":%.1f,\"p999Micros\":%.1f,\"errors\":%d}",
+                name, clients, rps, snapshot.getValueAtPercentile(50) / 1e3,
+                snapshot.getValueAtPercentile(99) / 1e3, snapshot.getValueAtPercentile(99.9) / 1e3, failed.get());
+    }
+}
@@ -0,0 +1,90 @@
+package main.java.tracker.bench;
+
+import main.java.tracker.Epic;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskManager;
+import main.java.tracker.managers.InMemoryTaskManager;
+import main.java.tracker.managers.OffHeapTaskManager;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Память на задачу у InMemoryTaskManager и OffHeapTaskManager.
+ * Запуск: java -Xmx4g main.java.tracker.bench.MemoryFootprintBenchmark
+ * <p>
+ * Доска из bench.size задач (по умолчанию 1000000): половина — обычные задачи,
+ * остальное — эпики по bench.fanout (10) подзадач. Куча замеряется после
+ * сборки мусора до и после заполнения, память вне кучи — по пулу прямых буферов.
+ * Каждый менеджер заполняется в отдельном запуске измерения, предыдущий
+ * к этому моменту уже недостижим.
+ */
+public class MemoryFootprintBenchmark {
+    private static volatile Object keepAlive;
+
+    public static void main(String[] args) {
+        int size = Integer.getInteger("bench.size", 1_000_000);
+        int fanOut = Integer.getInteger("bench.fanout", 10);
+        measure("InMemoryTaskManager", InMemoryTaskManager::new, size, fanOut);
+        measure("OffHeapTaskManager", () -> new OffHeapTaskManager(size), size, fanOut);
+    }
+
+    private static void measure(String name, Supplier<TaskManager> factory, int size, int fanOut) {
+        long heapBefore = usedHeap();
+        long directBefore = usedDirect();
+        long start = System.nanoTime();
+        TaskManager manager = fill(factory.get(), size, fanOut);
+        long fillMillis = (System.nanoTime() - start) / 1_000_000;
+        keepAlive = manager;
+        long gcStart = System.nanoTime();
+        long heap = usedHeap() - heapBefore;
+        long gcMillis = (System.nanoTime() - gcStart) / 1_000_000 / 3;
+        long direct = usedDirect() - directBefore;
+        int tasks = manager.getAllTasks().size();
+        System.out.printf(Locale.ROOT,
+                "%-22s tasks=%,d  heap=%,d B/task  offHeap=%,d B/task  total=%,d B/task  fill=%,d ms  fullGc=%,d ms%n",
+                name, tasks, heap / tasks, direct / tasks, (heap + direct) / tasks, fillMillis, gcMillis);
+        keepAlive = null;
+    }
+
+    private static TaskManager fill(TaskManager manager, int size, int fanOut) {
+        int taskCount = size / 2;
+        int epicCount = (size - taskCount) / (fanOut + 1);
+        for (int i = 0; i < taskCount; i++) {
+            manager.addNewTask(new Task("Задача " + i, "Описание задачи " + i, Status.values()[i % 3]));
+        }
+        for (int e = 0; e < epicCount; e++) {
+            Epic epic = new Epic("Эпик " + e, "Описание эпика " + e, Status.NEW);
+            manager.addNewTask(epic);
+            for (int s = 0; s < fanOut; s++) {
+                manager.addNewTask(new Subtask("Подзадача " + s, "Описание подзадачи " + e + "." + s,
+                        Status.values()[s % 3], epic));
+            }
+        }
+        return manager;
+    }
+
+    /**
+     * Занятая куча после трёх полных сборок мусора.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long usedDirect() {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,81 @@
+package main.java.tracker.bench;
+
+import main.java.tracker.Epic;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.TaskManager;
+import main.java.tracker.managers.ConcurrentTaskManager;
+import main.java.tracker.managers.InMemoryTaskManager;
+import main.java.tracker.metrics.TaskManagerMetrics;
+import main.java.tracker.util.Managers;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Накладные расходы метрик: одни и те же операции на менеджере без обёртки
+ * и в MeteredTaskManager с метрикой истории.
+ * Запуск: java main.java.tracker.bench.MetricsBenchmark [results.json]
+ * <p>
+ * Доска — bench.size задач (по умолчанию 100000): эпики по 10 подзадач;
+ * countByStatus на ConcurrentTaskManager меряется и в bench.threads потоках.
+ */
+public class MetricsBenchmark {
+    private static final Status[] STATUSES = Status.values();
+
+    public static void main(String[] args) throws Exception {
+        int size = Integer.getInteger("bench.size", 100_000);
+        int threads = Integer.getInteger("bench.threads", 4);
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+
+        measure(runner, "InMemoryTaskManager", "plain", new InMemoryTaskManager(), size, 1);
+        TaskManagerMetrics metrics = new TaskManagerMetrics();
+        measure(runner, "InMemoryTaskManager", "metered", Managers.getMetered(
+                new InMemoryTaskManager(Managers.getMeteredHistory(Managers.getDefaultHistory(), metrics)), metrics),
+                size, 1);
+        measure(runner, "ConcurrentTaskManager", "plain", new ConcurrentTaskManager(), size, threads);
+        measure(runner, "ConcurrentTaskManager", "metered", Managers.getMetered(new ConcurrentTaskManager(), new TaskManagerMetrics()),
+                size, threads);
+        runner.writeJson(args.length > 0 ? Path.of(args[0]) : null);
+    }
+
+    private static void measure(BenchmarkRunner runner, String implementation, String mode,
+                                TaskManager manager, int size, int threads) {
+        List<Subtask> subtasks = fill(manager, size);
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("manager", implementation);
+        params.put("mode", mode);
+        params.put("tasks", size);
+
+        runner.run("countByStatus", params, threads,
+                (thread, step) -> manager.countByStatus(STATUSES[step % STATUSES.length]));
+        if (threads > 1) {
+            return;
+        }
+        runner.run("getTaskById", params, 1,
+                (thread, step) -> manager.getTaskById(subtasks.get(step % subtasks.size()).getId()));
+        runner.run("updateSubtask", params, 1, (thread, step) -> {
+            Subtask subtask = subtasks.get(step % subtasks.size());
+            subtask.setStatus(STATUSES[step % STATUSES.length]);
+            manager.updateTask(subtask);
+            return subtask;
+        });
+    }
+
+    private static List<Subtask> fill(TaskManager manager, int size) {
+        List<Subtask> subtasks = new ArrayList<>(size);
+        for (int e = 0; e < size / 11; e++) {
+            Epic epic = new Epic("Эпик " + e, "Описание", Status.NEW);
+            manager.addNewTask(epic);
+            for (int s = 0; s < 10; s++) {
+                Subtask subtask = new Subtask("Подзадача " + s, "Описание", Status.NEW, epic);
+                manager.addNewTask(subtask);
+                subtasks.add(subtask);
+            }
+        }
+        return subtasks;
+    }
+}
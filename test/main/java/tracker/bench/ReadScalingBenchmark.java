@@ -0,0 +1,70 @@
+package main.java.tracker.bench;
+
+import main.java.tracker.HistoryManager;
+import main.java.tracker.Status;
+import main.java.tracker.Task;
+import main.java.tracker.managers.ConcurrentTaskManager;
+import main.java.tracker.managers.InMemoryHistoryManager;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Масштабирование getTaskById по потокам. ConcurrentTaskManager пишет
+ * просмотры в полосы потоков; для сравнения тот же поиск по ConcurrentHashMap
+ * с записью просмотра в историю под её монитором — так чтение было устроено
+ * раньше. После замеров печатается ускорение относительно одного потока.
+ * Запуск: java main.java.tracker.bench.ReadScalingBenchmark [results.json]
+ * <p>
+ * bench.threads — число потоков (1,2,4,8), bench.size — число задач (100000).
+ */
+public class ReadScalingBenchmark {
+    private static final int ARGUMENTS = 1 << 16;
+
+    public static void main(String[] args) throws Exception {
+        int[] threadCounts = TaskManagerBenchmark.intList(System.getProperty("bench.threads", "1,2,4,8"));
+        int size = Integer.getInteger("bench.size", 100_000);
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+
+        ConcurrentTaskManager manager = new ConcurrentTaskManager();
+        ConcurrentMap<Integer, Task> index = new ConcurrentHashMap<>();
+        for (int i = 0; i < size; i++) {
+            Task task = new Task("Задача " + i, "Описание", Status.NEW);
+            manager.addNewTask(task);
+            index.put(task.getId(), task);
+        }
+        int[] ids = new int[ARGUMENTS];
+        Random random = new Random(1);
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 1 + random.nextInt(size);
+        }
+        HistoryManager lockedHistory = new InMemoryHistoryManager();
+
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("size", size);
+        double[] buffered = new double[threadCounts.length];
+        double[] locked = new double[threadCounts.length];
+        for (int i = 0; i < threadCounts.length; i++) {
+            int threads = threadCounts[i];
+            buffered[i] = runner.run("getTaskById.buffered", params, threads,
+                    (thread, step) -> manager.getTaskById(ids[(step * 31 + thread) & (ARGUMENTS - 1)])).getScore();
+            locked[i] = runner.run("getTaskById.globalMonitor", params, threads, (thread, step) -> {
+                Task task = index.get(ids[(step * 31 + thread) & (ARGUMENTS - 1)]);
+                synchronized (lockedHistory) {
+                    lockedHistory.add(task);
+                }
+                return task;
+            }).getScore();
+        }
+        for (int i = 0; i < threadCounts.length; i++) {
+            System.out.printf(Locale.ROOT, "threads=%-2d ускорение: buffered x%.2f, globalMonitor x%.2f%n",
+                    threadCounts[i], buffered[i] / buffered[0], locked[i] / locked[0]);
+        }
+        runner.writeJson(args.length > 0 ? Path.of(args[0]) : null);
+    }
+}
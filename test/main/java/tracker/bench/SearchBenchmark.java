@@ -0,0 +1,95 @@
+package main.java.tracker.bench;
+
+import main.java.tracker.Status;
+import main.java.tracker.Task;
+import main.java.tracker.TaskManager;
+import main.java.tracker.managers.InMemoryTaskManager;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Поиск по словам: полный обход getAllTasks со String.contains против
+ * инвертированного индекса (точное слово, префикс, два слова), а также цена
+ * updateTask с переиндексацией текста.
+ * Запуск: java main.java.tracker.bench.SearchBenchmark [results.json]
+ * <p>
+ * Доска — bench.size задач (по умолчанию 200000), заголовки и описания
+ * собраны из словаря на русском и английском.
+ */
+public class SearchBenchmark {
+    private static final String[] WORDS = {
+            "отчёт", "релиз", "сборка", "клиент", "оплата", "доставка", "склад", "договор", "счёт", "ошибка",
+            "интеграция", "миграция", "тест", "дизайн", "макет", "бэкап", "сервер", "база", "индекс", "поиск",
+            "release", "backend", "frontend", "invoice", "deploy", "review", "hotfix", "metrics", "cache", "queue"
+    };
+    private static final int LIMIT = 20;
+
+    public static void main(String[] args) throws Exception {
+        int size = Integer.getInteger("bench.size", 200_000);
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+        TaskManager manager = new InMemoryTaskManager();
+        List<Task> tasks = fill(manager, size);
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("tasks", size);
+
+        runner.run("search.scanContains", params, 1, (thread, step) -> scan(manager, "миграция"));
+        runner.run("search.word", params, 1, (thread, step) -> manager.search("миграция", LIMIT).size());
+        runner.run("search.prefix", params, 1, (thread, step) -> manager.search("миг", LIMIT).size());
+        runner.run("search.twoWords", params, 1, (thread, step) -> manager.search("миграция release", LIMIT).size());
+        Random random = new Random(3);
+        runner.run("updateTask.reindex", params, 1, (thread, step) -> {
+            Task previous = tasks.get(step % tasks.size());
+            Task task = new Task(sentence(random, 3), previous.getDescription(), Status.NEW);
+            task.setId(previous.getId());
+            manager.updateTask(task);
+            return task;
+        });
+        runner.writeJson(args.length > 0 ? Path.of(args[0]) : null);
+    }
+
+    /**
+     * Поиск до индекса: обход всех задач, в заголовке или описании которых есть
+     * слово. Обход не останавливается на limit — иначе найденное не ранжировать.
+     */
+    private static int scan(TaskManager manager, String word) {
+        int found = 0;
+        for (Task task : manager.getAllTasks()) {
+            String title = task.getTitle().toLowerCase(Locale.ROOT);
+            String description = task.getDescription().toLowerCase(Locale.ROOT);
+            if (title.contains(word) || description.contains(word)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static List<Task> fill(TaskManager manager, int size) {
+        Random random = new Random(7);
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Task task = new Task(sentence(random, 3), sentence(random, 12), Status.NEW);
+            manager.addNewTask(task);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            // Квадрат равномерного числа даёт редкие и частые слова.
+            double r = random.nextDouble();
+            sentence.append(WORDS[(int) (r * r * WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+}
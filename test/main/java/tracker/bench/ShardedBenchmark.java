@@ -0,0 +1,76 @@
+package main.java.tracker.bench;
+
+import main.java.tracker.Epic;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.TaskManager;
+import main.java.tracker.managers.ConcurrentTaskManager;
+import main.java.tracker.managers.ShardedTaskManager;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Масштабирование записей по ядрам: каждый поток меняет подзадачи своих эпиков
+ * и добавляет новые подзадачи. Сравниваются ConcurrentTaskManager и
+ * ShardedTaskManager на 1 и bench.threads потоках (по умолчанию — число ядер).
+ * Запуск: java main.java.tracker.bench.ShardedBenchmark [results.json]
+ */
+public class ShardedBenchmark {
+    private static final Status[] STATUSES = Status.values();
+    private static final int EPICS_PER_THREAD = 64;
+    private static final int SUBTASKS_PER_EPIC = 16;
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.getInteger("bench.threads", Runtime.getRuntime().availableProcessors());
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+        for (int count : threads > 1 ? new int[]{1, threads} : new int[]{1}) {
+            measure(runner, "ConcurrentTaskManager", ConcurrentTaskManager::new, count);
+            measure(runner, "ShardedTaskManager", ShardedTaskManager::new, count);
+        }
+        runner.writeJson(args.length > 0 ? Path.of(args[0]) : null);
+    }
+
+    private static void measure(BenchmarkRunner runner, String implementation,
+                                Supplier<TaskManager> factory, int threads) {
+        TaskManager manager = factory.get();
+        List<List<Subtask>> perThread = new ArrayList<>();
+        List<List<Epic>> epicsPerThread = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            List<Subtask> subtasks = new ArrayList<>();
+            List<Epic> epics = new ArrayList<>();
+            for (int e = 0; e < EPICS_PER_THREAD; e++) {
+                Epic epic = new Epic("Эпик " + e, "Описание", Status.NEW);
+                manager.addNewTask(epic);
+                epics.add(epic);
+                for (int s = 0; s < SUBTASKS_PER_EPIC; s++) {
+                    Subtask subtask = new Subtask("Подзадача " + s, "Описание", Status.NEW, epic);
+                    manager.addNewTask(subtask);
+                    subtasks.add(subtask);
+                }
+            }
+            perThread.add(subtasks);
+            epicsPerThread.add(epics);
+        }
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("manager", implementation);
+
+        runner.run("updateSubtask", params, threads, (thread, step) -> {
+            List<Subtask> subtasks = perThread.get(thread);
+            Subtask subtask = subtasks.get(step % subtasks.size());
+            subtask.setStatus(STATUSES[step % STATUSES.length]);
+            manager.updateTask(subtask);
+            return subtask;
+        });
+        runner.run("addSubtask", params, threads, (thread, step) -> {
+            List<Epic> epics = epicsPerThread.get(thread);
+            Subtask subtask = new Subtask("Новая", "Описание", Status.NEW, epics.get(step % epics.size()));
+            manager.addNewTask(subtask);
+            return subtask;
+        });
+    }
+}
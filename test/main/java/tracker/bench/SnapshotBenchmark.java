@@ -0,0 +1,85 @@
+package main.java.tracker.bench;
+
+import main.java.tracker.Epic;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskManager;
+import main.java.tracker.TaskSnapshot;
+import main.java.tracker.managers.ConcurrentTaskManager;
+import main.java.tracker.managers.InMemoryTaskManager;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Цена снимков: изменение подзадачи до первого снимка и после него,
+ * чтение всей доски через getAllTasks и через снимок.
+ * Запуск: java main.java.tracker.bench.SnapshotBenchmark [results.json]
+ * <p>
+ * Доска — bench.size задач (по умолчанию 100000): эпики по 10 подзадач.
+ */
+public class SnapshotBenchmark {
+    private static final Status[] STATUSES = Status.values();
+
+    public static void main(String[] args) throws Exception {
+        int size = Integer.getInteger("bench.size", 100_000);
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+        measure(runner, "InMemoryTaskManager", InMemoryTaskManager::new, size);
+        measure(runner, "ConcurrentTaskManager", ConcurrentTaskManager::new, size);
+        runner.writeJson(args.length > 0 ? Path.of(args[0]) : null);
+    }
+
+    private static void measure(BenchmarkRunner runner, String implementation,
+                                Supplier<TaskManager> factory, int size) {
+        TaskManager manager = factory.get();
+        List<Subtask> subtasks = fill(manager, size);
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("manager", implementation);
+        params.put("tasks", size);
+
+        runner.run("updateSubtask.noSnapshots", params, 1, (thread, step) -> update(manager, subtasks, step));
+        runner.run("readAll.getAllTasks", params, 1, (thread, step) -> manager.getAllTasks().size());
+        TaskSnapshot first = manager.snapshot();
+        runner.run("updateSubtask.withSnapshots", params, 1, (thread, step) -> update(manager, subtasks, step));
+        runner.run("snapshot", params, 1, (thread, step) -> manager.snapshot());
+        runner.run("readAll.snapshotIterate", params, 1, (thread, step) -> {
+            int count = 0;
+            for (Task task : manager.snapshot()) {
+                count += task.getId() & 1;
+            }
+            return count;
+        });
+        if (first.size() != size) {
+            throw new IllegalStateException("Снимок неполон: " + first.size());
+        }
+    }
+
+    private static Object update(TaskManager manager, List<Subtask> subtasks, int step) {
+        Subtask subtask = subtasks.get(step % subtasks.size());
+        subtask.setStatus(STATUSES[step % STATUSES.length]);
+        manager.updateTask(subtask);
+        return subtask;
+    }
+
+    private static List<Subtask> fill(TaskManager manager, int size) {
+        List<Subtask> subtasks = new ArrayList<>(size);
+        for (int e = 0; e < size / 11; e++) {
+            Epic epic = new Epic("Эпик " + e, "Описание", Status.NEW);
+            manager.addNewTask(epic);
+            for (int s = 0; s < 10; s++) {
+                Subtask subtask = new Subtask("Подзадача " + s, "Описание", Status.NEW, epic);
+                manager.addNewTask(subtask);
+                subtasks.add(subtask);
+            }
+        }
+        for (int i = manager.getAllTasks().size(); i < size; i++) {
+            manager.addNewTask(new Task("Задача " + i, "Описание", Status.NEW));
+        }
+        return subtasks;
+    }
+}
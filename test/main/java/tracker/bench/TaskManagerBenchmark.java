@@ -0,0 +1,216 @@
+package main.java.tracker.bench;
+
+import main.java.tracker.Epic;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskManager;
+import main.java.tracker.managers.ConcurrentTaskManager;
+import main.java.tracker.managers.InMemoryTaskManager;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Замеры всех методов TaskManager на досках разного размера.
+ * Запуск: java main.java.tracker.bench.TaskManagerBenchmark [results.json]
+ * <p>
+ * Параметры через системные свойства: bench.sizes (по умолчанию 1000,100000,1000000),
+ * bench.fanouts — число подзадач в эпике (10,1000), bench.threads — потоки для
+ * многопоточных замеров ConcurrentTaskManager (1,2,4,8), а также настройки
+ * {@link BenchmarkRunner}.
+ */
+public class TaskManagerBenchmark {
+    private static final int ARGUMENTS = 1 << 16;
+    private static final int[] READ_PERCENTS = {90, 50};
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = intList(System.getProperty("bench.sizes", "1000,100000,1000000"));
+        int[] fanOuts = intList(System.getProperty("bench.fanouts", "10,1000"));
+        int[] threadCounts = intList(System.getProperty("bench.threads", "1,2,4,8"));
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+        for (int size : sizes) {
+            for (int fanOut : fanOuts) {
+                singleThreaded(runner, size, fanOut);
+                multiThreaded(runner, size, fanOut, threadCounts);
+            }
+        }
+        runner.writeJson(args.length > 0 ? Path.of(args[0]) : null);
+    }
+
+    private static void singleThreaded(BenchmarkRunner runner, int size, int fanOut) {
+        Board board = new Board(InMemoryTaskManager::new, size, fanOut);
+        TaskManager manager = board.manager;
+        Map<String, Object> params = board.params("InMemoryTaskManager");
+
+        runner.run("getTaskById", params, 1, (thread, step) -> manager.getTaskById(board.anyId(step)));
+        runner.run("getAllTasks", params, 1, (thread, step) -> manager.getAllTasks());
+        runner.run("getSubtasksByEpic", params, 1,
+                (thread, step) -> manager.getSubtasksByEpic(board.epicId(step)));
+        runner.run("getHistory", params, 1, (thread, step) -> manager.getHistory());
+        runner.run("updateTask.task", params, 1, (thread, step) -> {
+            Task task = board.task(step);
+            task.setStatus(board.status(step));
+            manager.updateTask(task);
+            return task;
+        });
+        runner.run("updateTask.subtask", params, 1, (thread, step) -> {
+            Subtask subtask = board.subtask(step);
+            subtask.setStatus(board.status(step));
+            manager.updateTask(subtask);
+            return subtask;
+        });
+        runner.run("addNewTask+deleteTaskOnId.task", params, 1, (thread, step) -> {
+            Task task = new Task("Задача", "Описание", Status.NEW);
+            manager.addNewTask(task);
+            manager.deleteTaskOnId(task.getId());
+            return task;
+        });
+        runner.run("addNewTask+deleteTaskOnId.subtask", params, 1, (thread, step) -> {
+            Subtask subtask = new Subtask("Подзадача", "Описание", Status.NEW, board.epic(step));
+            manager.addNewTask(subtask);
+            manager.deleteTaskOnId(subtask.getId());
+            return subtask;
+        });
+        for (int readPercent : READ_PERCENTS) {
+            Map<String, Object> mixParams = new LinkedHashMap<>(params);
+            mixParams.put("readPercent", readPercent);
+            runner.run("mix.getTaskById/updateTask", mixParams, 1, board.mix(readPercent));
+        }
+    }
+
+    private static void multiThreaded(BenchmarkRunner runner, int size, int fanOut, int[] threadCounts) {
+        Board board = new Board(ConcurrentTaskManager::new, size, fanOut);
+        TaskManager manager = board.manager;
+        Map<String, Object> params = board.params("ConcurrentTaskManager");
+        for (int threads : threadCounts) {
+            runner.run("getTaskById", params, threads,
+                    (thread, step) -> manager.getTaskById(board.anyId(step + thread * 7919)));
+            runner.run("updateTask.subtask", params, threads, (thread, step) -> {
+                Subtask subtask = board.subtask(step + thread * 7919);
+                subtask.setStatus(board.status(step));
+                manager.updateTask(subtask);
+                return subtask;
+            });
+            for (int readPercent : READ_PERCENTS) {
+                Map<String, Object> mixParams = new LinkedHashMap<>(params);
+                mixParams.put("readPercent", readPercent);
+                runner.run("mix.getTaskById/updateTask", mixParams, threads, board.mix(readPercent));
+            }
+        }
+    }
+
+    static int[] intList(String value) {
+        String[] parts = value.split(",");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim());
+        }
+        return result;
+    }
+
+    /**
+     * Доска из size задач: половина — обычные задачи, остальное — эпики
+     * по fanOut подзадач. Аргументы операций выбираются заранее случайно.
+     */
+    private static class Board {
+        private final TaskManager manager;
+        private final int size;
+        private final int fanOut;
+        private final Task[] tasks;
+        private final Epic[] epics;
+        private final Subtask[] subtasks;
+        private final int[] anyIds = new int[ARGUMENTS];
+        private final int[] taskIndexes = new int[ARGUMENTS];
+        private final int[] epicIndexes = new int[ARGUMENTS];
+        private final int[] subtaskIndexes = new int[ARGUMENTS];
+        private final Status[] statuses = new Status[ARGUMENTS];
+
+        private Board(Supplier<TaskManager> factory, int size, int fanOut) {
+            this.manager = factory.get();
+            this.size = size;
+            this.fanOut = fanOut;
+            int taskCount = Math.max(size / 2, 1);
+            int epicCount = Math.max((size - taskCount) / (fanOut + 1), 1);
+            tasks = new Task[taskCount];
+            epics = new Epic[epicCount];
+            subtasks = new Subtask[epicCount * fanOut];
+            for (int i = 0; i < taskCount; i++) {
+                tasks[i] = new Task("Задача " + i, "Описание задачи " + i, Status.NEW);
+                manager.addNewTask(tasks[i]);
+            }
+            for (int e = 0; e < epicCount; e++) {
+                epics[e] = new Epic("Эпик " + e, "Описание эпика " + e, Status.NEW);
+                manager.addNewTask(epics[e]);
+                for (int s = 0; s < fanOut; s++) {
+                    Subtask subtask = new Subtask("Подзадача " + s, "Описание подзадачи " + s, Status.NEW, epics[e]);
+                    manager.addNewTask(subtask);
+                    subtasks[e * fanOut + s] = subtask;
+                }
+            }
+            int total = taskCount + epicCount + subtasks.length;
+            Random random = new Random(size * 31L + fanOut);
+            Status[] values = Status.values();
+            for (int i = 0; i < ARGUMENTS; i++) {
+                anyIds[i] = 1 + random.nextInt(total);
+                taskIndexes[i] = random.nextInt(taskCount);
+                epicIndexes[i] = random.nextInt(epicCount);
+                subtaskIndexes[i] = random.nextInt(Math.max(subtasks.length, 1));
+                statuses[i] = values[random.nextInt(values.length)];
+            }
+        }
+
+        private Map<String, Object> params(String implementation) {
+            Map<String, Object> params = new LinkedHashMap<>();
+            params.put("manager", implementation);
+            params.put("size", size);
+            params.put("fanOut", fanOut);
+            return params;
+        }
+
+        private int anyId(int step) {
+            return anyIds[step & (ARGUMENTS - 1)];
+        }
+
+        private Task task(int step) {
+            return tasks[taskIndexes[step & (ARGUMENTS - 1)]];
+        }
+
+        private Epic epic(int step) {
+            return epics[epicIndexes[step & (ARGUMENTS - 1)]];
+        }
+
+        private int epicId(int step) {
+            return epic(step).getId();
+        }
+
+        private Subtask subtask(int step) {
+            return subtasks[subtaskIndexes[step & (ARGUMENTS - 1)]];
+        }
+
+        private Status status(int step) {
+            return statuses[step & (ARGUMENTS - 1)];
+        }
+
+        private BenchmarkRunner.Operation mix(int readPercent) {
+            int[] dice = new int[ARGUMENTS];
+            Random random = new Random(readPercent);
+            for (int i = 0; i < ARGUMENTS; i++) {
+                dice[i] = random.nextInt(100);
+            }
+            return (thread, step) -> {
+                int index = (step + thread * 7919) & (ARGUMENTS - 1);
+                if (dice[index] < readPercent) {
+                    return manager.getTaskById(anyIds[index]);
+                }
+                Task task = tasks[taskIndexes[index]];
+                task.setStatus(statuses[index]);
+                manager.updateTask(task);
+                return task;
+            };
+        }
+    }
+}
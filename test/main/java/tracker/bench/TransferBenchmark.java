@@ -0,0 +1,171 @@
+package main.java.tracker.bench;
+
+import main.java.tracker.Epic;
+import main.java.tracker.Status;
+import main.java.tracker.Subtask;
+import main.java.tracker.Task;
+import main.java.tracker.TaskBatch;
+import main.java.tracker.TaskManager;
+import main.java.tracker.io.TaskExporter;
+import main.java.tracker.io.TaskFormat;
+import main.java.tracker.io.TaskImporter;
+import main.java.tracker.managers.InMemoryTaskManager;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Пропускная способность выгрузки и загрузки доски в CSV и NDJSON.
+ * Запуск: java main.java.tracker.bench.TransferBenchmark [results.json]
+ * <p>
+ * Одна операция замера — вся доска (bench.epics эпиков по bench.fanout подзадач
+ * и столько же обычных задач, по умолчанию 1000 и 20) из памяти в память, без
+ * диска: export, разбор в пакет (parse), загрузка в пустой менеджер одним
+ * applyBatch и по одной задаче через addNewTask. Для сравнения — построчный
+ * разбор CSV через BufferedReader и String.split. MB/s печатаются после замеров.
+ */
+public class TransferBenchmark {
+    private static final Status[] STATUSES = Status.values();
+
+    public static void main(String[] args) throws Exception {
+        int epicCount = Integer.getInteger("bench.epics", 1000);
+        int fanOut = Integer.getInteger("bench.fanout", 20);
+        BenchmarkRunner runner = BenchmarkRunner.fromSystemProperties();
+        TaskManager source = board(epicCount, fanOut);
+        Map<String, Double> throughput = new LinkedHashMap<>();
+
+        for (TaskFormat format : TaskFormat.values()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            long tasks = TaskExporter.export(source, Channels.newChannel(bytes), format);
+            byte[] data = bytes.toByteArray();
+            Map<String, Object> params = new LinkedHashMap<>();
+            params.put("format", format.name());
+            params.put("tasks", tasks);
+            params.put("bytes", data.length);
+
+            measure(runner, throughput, format + ".export", params, data.length, (thread, step) -> {
+                DiscardChannel channel = new DiscardChannel();
+                TaskExporter.export(source, channel, format);
+                return channel.written;
+            });
+            measure(runner, throughput, format + ".parse", params, data.length,
+                    (thread, step) -> TaskImporter.read(channel(data), format, null));
+            measure(runner, throughput, format + ".import.applyBatch", params, data.length, (thread, step) -> {
+                TaskManager manager = new InMemoryTaskManager();
+                TaskImporter.importInto(manager, channel(data), format);
+                return manager;
+            });
+            measure(runner, throughput, format + ".import.perCall", params, data.length, (thread, step) -> {
+                TaskManager manager = new InMemoryTaskManager();
+                TaskBatch batch = TaskImporter.read(channel(data), format, null);
+                for (TaskBatch.Operation operation : batch.getOperations()) {
+                    manager.addNewTask(operation.getTask());
+                }
+                return manager;
+            });
+            if (format == TaskFormat.CSV) {
+                measure(runner, throughput, "CSV.parse.readLineSplit", params, data.length,
+                        (thread, step) -> naiveCsv(data));
+            }
+        }
+        runner.writeJson(args.length > 0 ? Path.of(args[0]) : null);
+        throughput.forEach((name, megabytes) -> System.out.printf("%-28s %8.1f MB/s%n", name, megabytes));
+    }
+
+    private static void measure(BenchmarkRunner runner, Map<String, Double> throughput, String name,
+                                Map<String, Object> params, int bytes, Operation operation) {
+        BenchmarkRunner.Result result = runner.run(name, params, 1, (thread, step) -> {
+            try {
+                return operation.run(thread, step);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        throughput.put(name, result.getScore() * bytes / 1e6);
+    }
+
+    private interface Operation {
+        Object run(int thread, long step) throws IOException;
+    }
+
+    private static TaskManager board(int epicCount, int fanOut) {
+        TaskManager manager = new InMemoryTaskManager();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0);
+        TaskBatch batch = new TaskBatch();
+        int slot = 0;
+        for (int e = 0; e < epicCount; e++) {
+            Epic epic = new Epic("Эпик " + e, "Описание эпика номер " + e, Status.NEW);
+            batch.add(epic);
+            for (int s = 0; s < fanOut; s++) {
+                Subtask subtask = new Subtask("Подзадача " + s, "Описание \"подзадачи\"", STATUSES[s % 3], epic);
+                subtask.setStartTime(start.plusMinutes(30L * slot++));
+                subtask.setDuration(Duration.ofMinutes(15));
+                batch.add(subtask);
+                batch.add(new Task("Задача " + e + "-" + s, "Описание задачи", STATUSES[(e + s) % 3]));
+            }
+        }
+        manager.applyBatch(batch);
+        return manager;
+    }
+
+    private static ReadableByteChannel channel(byte[] data) {
+        return Channels.newChannel(new ByteArrayInputStream(data));
+    }
+
+    /**
+     * Разбор CSV «как обычно»: строка, split, Integer.parseInt, valueOf — без
+     * кавычек внутри полей, так что это нижняя оценка его стоимости.
+     */
+    private static int naiveCsv(byte[] data) throws IOException {
+        int checksum = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ByteArrayInputStream(data), StandardCharsets.UTF_8))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",", -1);
+                checksum += Integer.parseInt(fields[0]) + Status.valueOf(fields[3]).ordinal()
+                        + fields[2].length() + fields[4].length();
+                if (!fields[6].isEmpty()) {
+                    checksum += LocalDateTime.parse(fields[6]).getMinute();
+                }
+            }
+        }
+        return checksum;
+    }
+
+    private static class DiscardChannel implements WritableByteChannel {
+        private long written;
+
+        @Override
+        public int write(ByteBuffer source) {
+            int count = source.remaining();
+            source.position(source.limit());
+            written += count;
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package main.java.tracker.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+class HistogramTest {
+
+    @Test
+    @DisplayName("Процентили гистограммы отличаются от точных не больше чем на 1/16")
+    void shouldApproximatePercentilesWithinBucketPrecision() {
+        Histogram histogram = new Histogram();
+        Random random = new Random(11);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 25);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(values.length, snapshot.getCount());
+        assertEquals(values[values.length - 1], snapshot.getMax());
+        for (double percentile : new double[]{1, 10, 50, 90, 99, 99.9, 100}) {
+            long exact = values[(int) Math.ceil(values.length * percentile / 100) - 1];
+            long approximate = snapshot.getValueAtPercentile(percentile);
+            assertTrue(approximate >= exact, "p" + percentile);
+            assertTrue(approximate - exact <= exact / 16, "p" + percentile + ": " + approximate + " vs " + exact);
+        }
+    }
+
+    @Test
+    @DisplayName("Каждое значение попадает в ячейку, верхняя граница которой не меньше его")
+    void shouldMapValuesToEnclosingBuckets() {
+        for (long value = 0; value < 1 << 20; value++) {
+            int index = Histogram.indexOf(value);
+            assertTrue(Histogram.highestValueOf(index) >= value);
+            assertTrue(index == 0 || Histogram.highestValueOf(index - 1) < value);
+        }
+        assertEquals(Histogram.indexOf(Long.MAX_VALUE), Histogram.indexOf(1L << 50));
+    }
+
+    @Test
+    @DisplayName("Сброс обнуляет гистограмму")
+    void shouldResetCounters() {
+        Histogram histogram = new Histogram();
+        histogram.record(5);
+        histogram.record(-3);
+        assertEquals(2, histogram.getCount());
+        assertEquals(0, histogram.snapshot().getValueAtPercentile(50));
+        histogram.reset();
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getValueAtPercentile(99));
+    }
+}
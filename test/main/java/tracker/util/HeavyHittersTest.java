@@ -0,0 +1,94 @@
+package main.java.tracker.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+class HeavyHittersTest {
+
+    @Test
+    @DisplayName("Count-min с кучей находит самые частые ключи зипфовского потока")
+    void shouldFindTopKeysOfSkewedStream() {
+        CountMinSketch sketch = new CountMinSketch(2048);
+        HeavyHitters top = new HeavyHitters(64);
+        Map<Integer, Integer> exact = new HashMap<>();
+        int keys = 100_000;
+        double[] cumulative = new double[keys];
+        double sum = 0;
+        for (int i = 0; i < keys; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        Random random = new Random(24);
+        for (int i = 0; i < 1_000_000; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            int key = (rank < 0 ? -rank - 1 : rank) * 7919 + 13;
+            exact.merge(key, 1, Integer::sum);
+            top.offer(key, sketch.add(key));
+        }
+        assertEquals(1_000_000, sketch.getTotal());
+        assertEquals(64, top.size());
+
+        Set<Integer> found = new HashSet<>();
+        for (int i = 0; i < top.size(); i++) {
+            int key = top.keyAt(i);
+            found.add(key);
+            assertTrue(top.countAt(i) >= exact.get(key));
+            assertTrue(top.countAt(i) - exact.get(key) <= 2 * 1_000_000 / 2048);
+        }
+        List<Integer> expected = exact.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed())
+                .limit(20).map(Map.Entry::getKey).collect(Collectors.toList());
+        assertTrue(found.containsAll(expected));
+        for (int key : exact.keySet()) {
+            assertTrue(sketch.estimate(key) >= exact.get(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Куча держит порог входа и переживает удаление и понижение счёта")
+    void shouldKeepHeapOrderAfterUpdatesAndRemovals() {
+        HeavyHitters top = new HeavyHitters(16);
+        Map<Integer, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(40);
+            if (random.nextInt(8) == 0) {
+                assertEquals(expected.remove(key) != null, top.remove(key));
+                continue;
+            }
+            long count = random.nextInt(1000) * 64L + key;
+            long threshold = top.threshold();
+            boolean kept = top.offer(key, count);
+            if (expected.containsKey(key) || expected.size() < 16) {
+                assertTrue(kept);
+                expected.put(key, count);
+            } else if (count > threshold) {
+                assertTrue(kept);
+                PriorityQueue<Map.Entry<Integer, Long>> heap = new PriorityQueue<>(Map.Entry.comparingByValue());
+                heap.addAll(expected.entrySet());
+                expected.remove(heap.peek().getKey());
+                expected.put(key, count);
+            } else {
+                assertFalse(kept);
+            }
+            assertEquals(expected.size(), top.size());
+            long min = Long.MAX_VALUE;
+            for (int j = 0; j < top.size(); j++) {
+                assertEquals(expected.get(top.keyAt(j)), top.countAt(j));
+                min = Math.min(min, top.countAt(j));
+            }
+            assertEquals(top.size() < 16 ? 0 : min, top.threshold());
+        }
+    }
+}
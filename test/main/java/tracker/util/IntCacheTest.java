@@ -0,0 +1,117 @@
+package main.java.tracker.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+class IntCacheTest {
+
+    @Test
+    @DisplayName("IntCache с LRU вытесняет то же, что LinkedHashMap в порядке доступа")
+    void lruShouldMatchLinkedHashMap() {
+        int capacity = 50;
+        List<Integer> evicted = new ArrayList<>();
+        IntCache<String> cache = new IntCache<>(capacity, IntCache.Policy.LRU, (key, value) -> evicted.add(key));
+        List<Integer> expectedEvicted = new ArrayList<>();
+        Map<Integer, String> expected = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                if (size() > capacity) {
+                    expectedEvicted.add(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+        Random random = new Random(11);
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(200) - 20;
+            int action = random.nextInt(10);
+            if (action < 5) {
+                assertEquals(expected.get(key), cache.get(key));
+            } else if (action < 9) {
+                expected.put(key, "v" + i);
+                cache.put(key, "v" + i);
+            } else {
+                assertEquals(expected.remove(key), cache.remove(key));
+            }
+            assertEquals(expected.size(), cache.size());
+        }
+        assertEquals(expectedEvicted, evicted);
+        assertEquals(evicted.size(), cache.stats().getEvictions());
+    }
+
+    @Test
+    @DisplayName("W-TinyLFU удерживает частые ключи при сканировании, а LRU их теряет")
+    void tinyLfuShouldResistScans() {
+        double lru = hotHitRateAfterScans(IntCache.Policy.LRU);
+        double tinyLfu = hotHitRateAfterScans(IntCache.Policy.TINY_LFU);
+        assertTrue(tinyLfu > 0.9, "W-TinyLFU " + tinyLfu);
+        assertTrue(lru < 0.5, "LRU " + lru);
+    }
+
+    @Test
+    @DisplayName("W-TinyLFU не превышает ёмкость и отдаёт последнее записанное значение")
+    void tinyLfuShouldStayBounded() {
+        IntCache<Integer> cache = new IntCache<>(100, IntCache.Policy.TINY_LFU);
+        Map<Integer, Integer> written = new LinkedHashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(1_000);
+            Integer cached = cache.get(key);
+            if (cached != null) {
+                assertEquals(written.get(key), cached);
+            }
+            if (random.nextInt(4) == 0) {
+                Integer removed = cache.remove(key);
+                if (removed != null) {
+                    assertEquals(written.get(key), removed);
+                }
+                written.remove(key);
+            } else {
+                cache.put(key, i);
+                written.put(key, i);
+            }
+            assertTrue(cache.size() <= 100);
+        }
+        CacheStats stats = cache.stats();
+        assertEquals(100_000, stats.getHits() + stats.getMisses());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get(written.keySet().iterator().next()));
+    }
+
+    /**
+     * Сто горячих ключей читаются вперемешку с однократным сканированием
+     * тысяч холодных; возвращается доля попаданий по горячим ключам.
+     */
+    private static double hotHitRateAfterScans(IntCache.Policy policy) {
+        IntCache<Integer> cache = new IntCache<>(200, policy);
+        int hotHits = 0;
+        int hotReads = 0;
+        int cold = 1_000;
+        for (int round = 0; round < 200; round++) {
+            for (int hot = 0; hot < 100; hot++) {
+                if (cache.get(hot) != null) {
+                    hotHits++;
+                } else {
+                    cache.put(hot, hot);
+                }
+                hotReads++;
+            }
+            for (int i = 0; i < 300; i++) {
+                if (cache.get(cold) == null) {
+                    cache.put(cold, cold);
+                }
+                cold++;
+            }
+        }
+        return (double) hotHits / hotReads;
+    }
+}
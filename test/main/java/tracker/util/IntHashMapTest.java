@@ -0,0 +1,49 @@
+package main.java.tracker.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+class IntHashMapTest {
+
+    @Test
+    @DisplayName("IntHashMap ведёт себя как HashMap при случайных вставках и удалениях")
+    void shouldBehaveLikeHashMapOnRandomOperations() {
+        IntHashMap<String> map = new IntHashMap<>(4);
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        assertEquals(new HashSet<>(expected.values()), new HashSet<>(map.values()));
+    }
+
+    @Test
+    @DisplayName("После очистки IntHashMap пуста")
+    void clearShouldRemoveAllEntries() {
+        IntHashMap<String> map = new IntHashMap<>();
+        for (int key = 0; key < 100; key++) {
+            map.put(key, "v");
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(5));
+        assertFalse(map.values().iterator().hasNext());
+    }
+}
@@ -0,0 +1,48 @@
+package main.java.tracker.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+class IntIntHashMapTest {
+
+    @Test
+    @DisplayName("IntIntHashMap ведёт себя как HashMap при случайных вставках и удалениях")
+    void shouldBehaveLikeHashMapOnRandomOperations() {
+        IntIntHashMap map = new IntIntHashMap(4, -1);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals((int) expected.getOrDefault(key, -1), map.remove(key));
+                expected.remove(key);
+            } else {
+                assertEquals((int) expected.getOrDefault(key, -1), map.put(key, i));
+                expected.put(key, i);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = -1_000; key < 1_000; key++) {
+            assertEquals((int) expected.getOrDefault(key, -1), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+    }
+
+    @Test
+    @DisplayName("После очистки IntIntHashMap пуста, включая ключ 0")
+    void clearShouldRemoveAllEntries() {
+        IntIntHashMap map = new IntIntHashMap(-1);
+        for (int key = 0; key < 100; key++) {
+            map.put(key, key);
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(-1, map.get(0));
+        assertEquals(-1, map.get(5));
+    }
+}
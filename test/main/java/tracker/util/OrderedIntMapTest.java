@@ -0,0 +1,73 @@
+package main.java.tracker.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+class OrderedIntMapTest {
+
+    @Test
+    @DisplayName("OrderedIntMap ведёт себя как LinkedHashMap при случайных вставках и удалениях")
+    void shouldBehaveLikeLinkedHashMapOnRandomOperations() {
+        OrderedIntMap<Integer> map = new OrderedIntMap<>(1);
+        Map<Integer, Integer> expected = new LinkedHashMap<>();
+        List<Integer> view = map.values();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(500) - 250;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+            assertEquals(expected.size(), map.size());
+            if (i % 1_000 == 0) {
+                assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(view));
+            }
+        }
+        for (int key = -250; key < 250; key++) {
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        List<Integer> values = new ArrayList<>(expected.values());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(values.get(i), view.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Замена значения сохраняет место ключа в порядке")
+    void replacingValueShouldKeepPosition() {
+        OrderedIntMap<String> map = new OrderedIntMap<>();
+        map.put(3, "a");
+        map.put(1, "b");
+        map.put(2, "c");
+        map.put(1, "d");
+        assertEquals(List.of("a", "d", "c"), map.values());
+    }
+
+    @Test
+    @DisplayName("Представление значений только для чтения и замечает изменения при обходе")
+    void valuesViewShouldBeReadOnlyAndFailFast() {
+        OrderedIntMap<String> map = new OrderedIntMap<>();
+        map.put(0, "a");
+        map.put(1, "b");
+        List<String> view = map.values();
+        assertThrows(UnsupportedOperationException.class, () -> view.add("c"));
+        assertThrows(UnsupportedOperationException.class, view::clear);
+        Iterator<String> iterator = view.iterator();
+        iterator.next();
+        map.remove(0);
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+        map.clear();
+        assertTrue(view.isEmpty());
+    }
+}
@@ -0,0 +1,75 @@
+package main.java.tracker.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+class PersistentIntMapTest {
+
+    @Test
+    @DisplayName("PersistentIntMap ведёт себя как HashMap, а прежние версии не меняются")
+    void shouldBehaveLikeHashMapAndKeepOldVersions() {
+        PersistentIntMap<String> map = PersistentIntMap.empty();
+        Map<Integer, String> expected = new HashMap<>();
+        List<PersistentIntMap<String>> versions = new ArrayList<>();
+        List<Map<Integer, String>> expectedVersions = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextBoolean() ? random.nextInt(2_000) - 1_000 : random.nextInt();
+            if (random.nextInt(3) == 0) {
+                map = map.remove(key);
+                expected.remove(key);
+            } else {
+                map = map.put(key, "v" + i);
+                expected.put(key, "v" + i);
+            }
+            assertEquals(expected.size(), map.size());
+            if (i % 5_000 == 0) {
+                versions.add(map);
+                expectedVersions.add(new HashMap<>(expected));
+            }
+        }
+        versions.add(map);
+        expectedVersions.add(expected);
+        for (int v = 0; v < versions.size(); v++) {
+            PersistentIntMap<String> version = versions.get(v);
+            Map<Integer, String> expectedVersion = expectedVersions.get(v);
+            assertEquals(expectedVersion.size(), version.size());
+            for (Map.Entry<Integer, String> entry : expectedVersion.entrySet()) {
+                assertEquals(entry.getValue(), version.get(entry.getKey()));
+            }
+            List<String> values = new ArrayList<>();
+            version.forEach(values::add);
+            assertEquals(expectedVersion.size(), values.size());
+            assertEquals(new HashSet<>(expectedVersion.values()), new HashSet<>(values));
+        }
+    }
+
+    @Test
+    @DisplayName("Крайние ключи и удаление до пустой таблицы")
+    void extremeKeysAndRemovalToEmpty() {
+        int[] keys = {0, 1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, 32, 1 << 30};
+        PersistentIntMap<Integer> map = PersistentIntMap.empty();
+        for (int key : keys) {
+            map = map.put(key, key);
+        }
+        assertEquals(keys.length, map.size());
+        assertSame(map, map.put(1, map.get(1)));
+        assertSame(map, map.remove(2));
+        for (int key : keys) {
+            assertEquals(key, map.get(key));
+            map = map.remove(key);
+            assertFalse(map.containsKey(key));
+        }
+        assertTrue(map.isEmpty());
+        assertFalse(map.iterator().hasNext());
+        assertThrows(IllegalArgumentException.class, () -> PersistentIntMap.<String>empty().put(1, null));
+    }
+}
@@ -0,0 +1,58 @@
+package main.java.tracker.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+class PostingListTest {
+
+    @Test
+    @DisplayName("PostingList хранит ID по возрастанию с весами, как TreeMap, при вставках в любом порядке")
+    void shouldBehaveLikeSortedMap() {
+        PostingList postings = new PostingList();
+        Map<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 5_000; i++) {
+            int id = random.nextInt(4) == 0 ? random.nextInt(Integer.MAX_VALUE) : random.nextInt(10_000);
+            int weight = random.nextInt(PostingList.MAX_WEIGHT + 1);
+            postings.add(id, weight);
+            expected.put(id, weight);
+            if (i % 1_000 == 999) {
+                postings.retain((existing, existingWeight) -> existing % 3 != 0);
+                expected.keySet().removeIf(existing -> existing % 3 == 0);
+            }
+        }
+        Map<Integer, Integer> actual = new TreeMap<>();
+        int[] previous = {-1};
+        postings.forEach((id, weight) -> {
+            assertTrue(id > previous[0]);
+            previous[0] = id;
+            actual.put(id, weight);
+        });
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), postings.size());
+        assertTrue(postings.contains(actual.keySet().iterator().next()));
+    }
+
+    @Test
+    @DisplayName("Плотные ID занимают по байту на вхождение плюс восемь байт пропуска на 64 вхождения")
+    void denseIdsShouldTakeOneBytePerEntry() {
+        PostingList postings = new PostingList();
+        for (int id = 1; id <= 10_000; id++) {
+            postings.add(id, 1);
+        }
+        assertEquals(10_000 + 157 * 8, postings.byteSize());
+        assertArrayEquals(IntStream.rangeClosed(1, 10_000).toArray(), postings.toIdArray());
+
+        postings.add(5_000, 3);
+        postings.add(20_000, 2);
+        assertEquals(10_001, postings.size());
+        assertTrue(postings.contains(5_000));
+        assertFalse(postings.contains(10_001));
+    }
+}